@@ -86,7 +86,14 @@ public enum PASharedProperties implements PACommonProperties {
     /** Controls the fetch mode of scripts defined by URL.
     If true (default), it means that the script is fetched at task execution time
     If false, it means that the script is fetch when the job is submitted to the scheduler */
-    LAZY_FETCH_SCRIPT("pa.lazy.fetch.script", PropertyType.BOOLEAN, "true");
+    LAZY_FETCH_SCRIPT("pa.lazy.fetch.script", PropertyType.BOOLEAN, "true"),
+
+    /** comma-separated list of script engine names whose scripts are compiled once and cached.
+    Only engines which support concurrent evaluation of a compiled script with separate contexts should be listed */
+    SCRIPT_ENGINE_COMPILED_CACHE_ENGINES("pa.script.engine.compiled.cache.engines", PropertyType.STRING, "groovy"),
+
+    /** maximum number of compiled scripts kept in the cache */
+    SCRIPT_ENGINE_COMPILED_CACHE_SIZE("pa.script.engine.compiled.cache.size", PropertyType.INTEGER, "200");
 
     /* ***************************************************************************** */
     /* ***************************************************************************** */
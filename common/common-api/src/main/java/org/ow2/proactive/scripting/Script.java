@@ -39,16 +39,14 @@ import java.net.URL;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
 import javax.script.Bindings;
+import javax.script.CompiledScript;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineFactory;
-import javax.script.ScriptEngineManager;
 
 import org.apache.log4j.Logger;
 import org.objectweb.proactive.annotation.PublicAPI;
@@ -425,7 +423,13 @@ public abstract class Script<E> implements Serializable {
                 }
             }
             prepareBindings(bindings);
-            Object evalResult = engine.eval(getReader());
+            Object evalResult;
+            CompiledScript compiledScript = ScriptEngineRegistry.getCompiledScript(engine.getFactory(), script);
+            if (compiledScript != null) {
+                evalResult = compiledScript.eval(engine.getContext());
+            } else {
+                evalResult = engine.eval(getReader());
+            }
 
             // Add output to the script result
             ScriptResult<E> result = this.getResult(evalResult, bindings);
@@ -533,54 +537,11 @@ public abstract class Script<E> implements Serializable {
 
     /** The Script Engine used to evaluate the script. */
     protected ScriptEngine createScriptEngine() {
-
-        Map<ScriptEngine, Integer> scriptEngineCandidates;
-        final boolean findByName = true;
-        scriptEngineCandidates = findScriptEngineCandidates(findByName);
-
-        if (scriptEngineCandidates.isEmpty()) {
-            scriptEngineCandidates = findScriptEngineCandidates(!findByName);
+        ScriptEngineFactory factory = ScriptEngineRegistry.getFactory(scriptEngineLookupName);
+        if (factory == null) {
+            return null;
         }
-
-        return findBestScriptEngine(scriptEngineCandidates);
-    }
-
-    private Map<ScriptEngine, Integer> findScriptEngineCandidates(boolean findByName) {
-        Map<ScriptEngine, Integer> matchPositionPerScriptEngineCandidate = new HashMap<>();
-        int matchPosition;
-        List<String> lookupCriteria;
-
-        for (ScriptEngineFactory factory : new ScriptEngineManager().getEngineFactories()) {
-            matchPosition = 0;
-            if (findByName) {
-                lookupCriteria = factory.getNames();
-            } else {
-                lookupCriteria = factory.getExtensions();
-            }
-
-            for (String criteria : lookupCriteria) {
-                if (criteria.equalsIgnoreCase(scriptEngineLookupName)) {
-                    matchPositionPerScriptEngineCandidate.put(factory.getScriptEngine(), matchPosition);
-                }
-                matchPosition++;
-            }
-        }
-
-        return matchPositionPerScriptEngineCandidate;
-    }
-
-    private ScriptEngine findBestScriptEngine(Map<ScriptEngine, Integer> scriptEngineCandidates) {
-        int minimumMatchingIndex = Integer.MAX_VALUE;
-        ScriptEngine bestScriptEngine = null;
-
-        for (Entry<ScriptEngine, Integer> candidate : scriptEngineCandidates.entrySet()) {
-            if (candidate.getValue() < minimumMatchingIndex) {
-                minimumMatchingIndex = candidate.getValue();
-                bestScriptEngine = candidate.getKey();
-            }
-        }
-
-        return bestScriptEngine;
+        return factory.getScriptEngine();
     }
 
     /**
@@ -0,0 +1,214 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scripting;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptEngineManager;
+
+import org.ow2.proactive.core.properties.PASharedProperties;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+
+/**
+ * Registry of the script engine factories and of the compiled scripts used by {@link Script}.
+ * <p>
+ * Factories are discovered once per class loader and lookup name, instead of building a new
+ * {@link ScriptEngineManager} and instantiating every matching engine at each script execution.
+ * <p>
+ * Scripts of the engines listed in {@link PASharedProperties#SCRIPT_ENGINE_COMPILED_CACHE_ENGINES} are compiled
+ * once and kept in a LRU cache keyed by engine, context class loader and script digest. Each cached script is
+ * compiled by its own engine, as engines such as groovy keep the top level methods of the scripts they evaluate,
+ * and a compiled script is always evaluated with the context of the engine created for the current execution,
+ * so executions of different scripts do not share methods nor bindings.
+ *
+ * @author The ProActive Team
+ */
+final class ScriptEngineRegistry {
+
+    /** Factories per lookup name, per class loader used to discover them */
+    private static final Map<ClassLoader, Map<String, ScriptEngineFactory>> factoriesPerClassLoader = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final Set<String> compiledCacheEngines = new HashSet<>(Arrays.asList(PASharedProperties.SCRIPT_ENGINE_COMPILED_CACHE_ENGINES.getValueAsString()
+                                                                                                                                            .toLowerCase()
+                                                                                                                                            .split("\\s*,\\s*")));
+
+    /** Compiled scripts, they reference the class loader of their key until they are evicted */
+    private static final Cache<CompiledScriptKey, CompiledScript> compiledScripts = CacheBuilder.newBuilder()
+                                                                                                .maximumSize(PASharedProperties.SCRIPT_ENGINE_COMPILED_CACHE_SIZE.getValueAsInt())
+                                                                                                .build();
+
+    private ScriptEngineRegistry() {
+    }
+
+    /**
+     * Finds the factory which best matches the given name, first among the engine names and then among
+     * the file extensions supported by the engines.
+     *
+     * @param lookupName engine name or file extension
+     * @return the matching factory, or null if none matches
+     */
+    static ScriptEngineFactory getFactory(String lookupName) {
+        if (lookupName == null) {
+            return null;
+        }
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        Map<String, ScriptEngineFactory> factories = factoriesPerClassLoader.computeIfAbsent(classLoader,
+                                                                                            key -> new ConcurrentHashMap<>());
+        String key = lookupName.toLowerCase();
+        ScriptEngineFactory factory = factories.get(key);
+        if (factory == null) {
+            // unknown names are not remembered, an engine may be added to the class path later
+            factory = findFactory(lookupName);
+            if (factory != null) {
+                factories.put(key, factory);
+            }
+        }
+        return factory;
+    }
+
+    private static ScriptEngineFactory findFactory(String lookupName) {
+        List<ScriptEngineFactory> allFactories = new ScriptEngineManager().getEngineFactories();
+        ScriptEngineFactory factory = findBestFactory(allFactories, lookupName, true);
+        if (factory == null) {
+            factory = findBestFactory(allFactories, lookupName, false);
+        }
+        return factory;
+    }
+
+    private static ScriptEngineFactory findBestFactory(List<ScriptEngineFactory> factories, String lookupName,
+            boolean findByName) {
+        int minimumMatchingIndex = Integer.MAX_VALUE;
+        ScriptEngineFactory bestFactory = null;
+
+        for (ScriptEngineFactory factory : factories) {
+            List<String> lookupCriteria = findByName ? factory.getNames() : factory.getExtensions();
+            for (int matchPosition = 0; matchPosition < lookupCriteria.size(); matchPosition++) {
+                if (lookupCriteria.get(matchPosition).equalsIgnoreCase(lookupName) &&
+                    matchPosition < minimumMatchingIndex) {
+                    minimumMatchingIndex = matchPosition;
+                    bestFactory = factory;
+                }
+            }
+        }
+
+        return bestFactory;
+    }
+
+    /**
+     * Returns the compiled form of a script for the context class loader of the current thread, compiling it
+     * if needed.
+     *
+     * @param factory factory of the engine which executes the script
+     * @param script the script source
+     * @return the compiled script, or null if scripts of this engine are not compiled
+     * @throws javax.script.ScriptException if the script cannot be compiled
+     */
+    static CompiledScript getCompiledScript(ScriptEngineFactory factory, String script)
+            throws javax.script.ScriptException {
+        if (script == null || !isCompiledCacheEnabled(factory)) {
+            return null;
+        }
+        String scriptId = factory.getEngineName() + '/' + script.length() + '/' + Script.digest(script);
+        CompiledScriptKey key = new CompiledScriptKey(Thread.currentThread().getContextClassLoader(), scriptId);
+        try {
+            return compiledScripts.get(key, () -> compile(factory, script));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof javax.script.ScriptException) {
+                throw (javax.script.ScriptException) e.getCause();
+            }
+            throw new javax.script.ScriptException(e);
+        }
+    }
+
+    private static boolean isCompiledCacheEnabled(ScriptEngineFactory factory) {
+        for (String name : factory.getNames()) {
+            if (compiledCacheEngines.contains(name.toLowerCase())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static CompiledScript compile(ScriptEngineFactory factory, String script)
+            throws javax.script.ScriptException {
+        // the engine is created with the context class loader of the current thread, and is only used by this script
+        ScriptEngine engine = factory.getScriptEngine();
+        if (!(engine instanceof Compilable)) {
+            throw new javax.script.ScriptException("Script engine " + factory.getEngineName() +
+                                                   " does not support compilation");
+        }
+        return ((Compilable) engine).compile(script);
+    }
+
+    /**
+     * Identifies a compiled script by the class loader it was compiled with, compared by identity, and by
+     * the engine and the digest of the script.
+     */
+    private static final class CompiledScriptKey {
+
+        private final ClassLoader classLoader;
+
+        private final String script;
+
+        private CompiledScriptKey(ClassLoader classLoader, String script) {
+            this.classLoader = classLoader;
+            this.script = script;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CompiledScriptKey)) {
+                return false;
+            }
+            CompiledScriptKey other = (CompiledScriptKey) o;
+            return classLoader == other.classLoader && script.equals(other.script);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(classLoader) + script.hashCode();
+        }
+    }
+
+}
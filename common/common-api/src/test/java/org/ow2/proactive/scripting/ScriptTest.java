@@ -28,13 +28,17 @@ package org.ow2.proactive.scripting;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.PrintWriter;
 import java.io.Reader;
 import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
 
 import javax.script.Bindings;
 
@@ -171,6 +175,70 @@ public class ScriptTest {
         assertNull(result.getException());
     }
 
+    @Test
+    public void testGroovyEngine_Compiled_Script_Keeps_Bindings_Separated() throws Exception {
+        ScriptForTests script = new ScriptForTests("result = binding.hasVariable('previous') ? 'shared' : " +
+                                                   "(previous = value)", "groovy");
+
+        ScriptResult<Object> first = script.execute(Collections.<String, Object> singletonMap("value", "first"),
+                                                    System.out,
+                                                    System.err);
+        ScriptResult<Object> second = script.execute(Collections.<String, Object> singletonMap("value", "second"),
+                                                     System.out,
+                                                     System.err);
+
+        assertNull(first.getException());
+        assertNull(second.getException());
+        assertEquals("first", first.getResult());
+        assertEquals("second", second.getResult());
+    }
+
+    @Test
+    public void testGroovyEngine_Compiled_Scripts_Do_Not_Share_Methods() throws Exception {
+        ScriptForTests first = new ScriptForTests("def helper() { 'first' }; shared = 'first'; result = helper()",
+                                                  "groovy");
+        ScriptForTests second = new ScriptForTests("result = binding.hasVariable('shared') ? 'shared' : helper()",
+                                                   "groovy");
+
+        ScriptResult<Object> firstResult = first.execute();
+        ScriptResult<Object> secondResult = second.execute();
+
+        assertNull(firstResult.getException());
+        assertEquals("first", firstResult.getResult());
+        // the method of the first script is unknown to the second one
+        assertNotNull(secondResult.getException());
+    }
+
+    @Test
+    public void testGroovyEngine_Compiled_Script_Uses_Context_Class_Loader() throws Exception {
+        String scriptContent = "result = this.class.classLoader";
+        ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
+        ClassLoader taskClassLoader = new URLClassLoader(new URL[0], originalClassLoader);
+
+        ScriptResult<Object> withTaskClassLoader;
+        Thread.currentThread().setContextClassLoader(taskClassLoader);
+        try {
+            withTaskClassLoader = new ScriptForTests(scriptContent, "groovy").execute();
+        } finally {
+            Thread.currentThread().setContextClassLoader(originalClassLoader);
+        }
+        ScriptResult<Object> withOriginalClassLoader = new ScriptForTests(scriptContent, "groovy").execute();
+
+        assertNull(withTaskClassLoader.getException());
+        assertNull(withOriginalClassLoader.getException());
+        assertTrue(isAncestor(taskClassLoader, (ClassLoader) withTaskClassLoader.getResult()));
+        assertFalse(isAncestor(taskClassLoader, (ClassLoader) withOriginalClassLoader.getResult()));
+    }
+
+    private static boolean isAncestor(ClassLoader ancestor, ClassLoader classLoader) {
+        for (ClassLoader current = classLoader; current != null; current = current.getParent()) {
+            if (current == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     class ScriptForTests extends Script<Object> {
 
         @Override
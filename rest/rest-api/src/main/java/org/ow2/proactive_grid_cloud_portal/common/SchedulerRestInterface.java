@@ -173,6 +173,52 @@ public interface SchedulerRestInterface {
     List<UserJobData> jobsInfoListPost(@HeaderParam("sessionid") String sessionId, List<String> jobsId)
             throws RestException;
 
+    /**
+     * Waits until at least one of the given jobs is finished. The request is answered as soon as
+     * the scheduler notifies the end of one of the jobs, or when the timeout expires. When too many
+     * requests are already waiting, it is answered after a single check of the jobs.
+     *
+     * @param sessionId
+     *            a valid session id
+     * @param jobsId
+     *            the list of id of the jobs to wait for
+     * @param timeout
+     *            maximum time to wait in milliseconds, the server may answer before
+     *            if it is greater than its own limit
+     * @return the ids of the finished jobs among the given ones, in the same order,
+     *         or an empty list if none has finished before the timeout
+     */
+    @POST
+    @Path("waitfor/jobs")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    List<String> waitForFinishedJobs(@HeaderParam("sessionid") String sessionId, List<String> jobsId,
+            @QueryParam("timeout") @DefaultValue("0") long timeout) throws RestException;
+
+    /**
+     * Waits until at least one of the given tasks of a job is finished. The request is answered as soon
+     * as the scheduler notifies the end of one of the tasks, or when the timeout expires. When too many
+     * requests are already waiting, it is answered after a single check of the tasks.
+     *
+     * @param sessionId
+     *            a valid session id
+     * @param jobId
+     *            the id of the job
+     * @param taskNames
+     *            the names of the tasks to wait for
+     * @param timeout
+     *            maximum time to wait in milliseconds, the server may answer before
+     *            if it is greater than its own limit
+     * @return the names of the finished tasks among the given ones, in the same order,
+     *         or an empty list if none has finished before the timeout
+     */
+    @POST
+    @Path("waitfor/jobs/{jobid}/tasks")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    List<String> waitForFinishedTasks(@HeaderParam("sessionid") String sessionId, @PathParam("jobid") String jobId,
+            List<String> taskNames, @QueryParam("timeout") @DefaultValue("0") long timeout) throws RestException;
+
     /**
      * Returns a map containing one entry with the revision id as key and the
      * list of UserJobData as value. each jobs is described using - its id - its
@@ -216,6 +262,47 @@ public interface SchedulerRestInterface {
             @QueryParam("childJobs") @DefaultValue("true") boolean childJobs,
             @QueryParam("sortParams") String sortParams) throws RestException;
 
+    /**
+     * Returns a map containing one entry with the revision id as key and the
+     * list of UserJobData as value, the jobs being listed from the most recently
+     * submitted one and starting after a cursor.
+     * <p>
+     * Unlike the index of {@link #revisionAndJobsInfo}, the cursor does not make the
+     * server skip over the previous pages, so deep pages are as fast as the first one.
+     *
+     * @param sessionId
+     *            a valid session id
+     * @param cursor
+     *            optional, the position after which jobs are returned, in the form
+     *            submittedTime_jobId of the last job of the previous page. The first
+     *            page is returned when it is empty
+     * @param limit
+     *            optional, the maximum number of jobs returned
+     * @param myJobs
+     *            fetch only the jobs owned by the user making the request
+     * @param pending
+     *            fetch pending jobs
+     * @param running
+     *            fetch running jobs
+     * @param finished
+     *            fetch finished jobs
+     * @param childJobs
+     *            fetch child jobs
+     * @return a map containing one entry with the revision id as key and the
+     *         list of UserJobData as value.
+     */
+    @GET
+    @GZIP
+    @Path("revisionjobsinfo/cursor")
+    @Produces({ MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML })
+    RestMapPage<Long, ArrayList<UserJobData>> revisionAndJobsInfoFromCursor(@HeaderParam("sessionid") String sessionId,
+            @QueryParam("cursor") String cursor, @QueryParam("limit") @DefaultValue("-1") int limit,
+            @QueryParam("myjobs") @DefaultValue("false") boolean myJobs,
+            @QueryParam("pending") @DefaultValue("true") boolean pending,
+            @QueryParam("running") @DefaultValue("true") boolean running,
+            @QueryParam("finished") @DefaultValue("true") boolean finished,
+            @QueryParam("childJobs") @DefaultValue("true") boolean childJobs) throws RestException;
+
     /**
      * Returns the revision number of the scheduler state
      * 
@@ -1282,6 +1369,31 @@ public interface SchedulerRestInterface {
     String taskServerLog(@HeaderParam("sessionid") String sessionId, @PathParam("jobid") String jobId,
             @PathParam("taskname") String taskname) throws RestException;
 
+    /**
+     * Returns a range of the task server logs
+     * 
+     * @param sessionId
+     *            a valid session id
+     * @param jobId
+     *            the id of the job
+     * @param taskname
+     *            the name of the task
+     * @param offset
+     *            position in bytes of the beginning of the range, in the UTF-8 encoded logs
+     * @param length
+     *            length in bytes of the range, a character is returned with the range
+     *            which contains its first byte
+     * @return the range of the task traces from the scheduler and resource manager,
+     *         empty if the offset is beyond the end of the logs
+     */
+    @GET
+    @GZIP
+    @Path("jobs/{jobid}/tasks/{taskname}/log/server/range")
+    @Produces({ MediaType.TEXT_PLAIN, MediaType.APPLICATION_JSON })
+    String taskServerLogRange(@HeaderParam("sessionid") String sessionId, @PathParam("jobid") String jobId,
+            @PathParam("taskname") String taskname, @QueryParam("offset") @DefaultValue("0") long offset,
+            @QueryParam("length") @DefaultValue("1048576") int length) throws RestException;
+
     /**
      * Returns server logs for a set of tasks filtered by a given tag.
      * 
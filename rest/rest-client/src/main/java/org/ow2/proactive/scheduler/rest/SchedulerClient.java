@@ -57,15 +57,16 @@ import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
@@ -137,6 +138,7 @@ import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobInfoData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobResultData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobStateData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobUsageData;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.RestMapPage;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.RestPage;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.SchedulerStatusData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.SchedulerUserData;
@@ -152,8 +154,6 @@ import com.google.common.io.Closer;
 
 public class SchedulerClient extends ClientBase implements ISchedulerClient {
 
-    private static final long RETRY_INTERVAL = TimeUnit.SECONDS.toMillis(1);
-
     private SchedulerRestClient schedulerRestClient;
 
     private String sid;
@@ -166,6 +166,9 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
 
     private static final Logger logger = Logger.getLogger(SchedulerClient.class);
 
+    /** Minimum time in ms between two requests waiting for jobs or tasks which were answered immediately */
+    private static final long WAIT_RETRY_INTERVAL = 1000;
+
     private SchedulerClient() {
     }
 
@@ -327,6 +330,22 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
             List<SortParameter<JobSortParameter>> arg3) throws NotConnectedException, PermissionException {
         Page<JobInfo> jobInfos = null;
         try {
+            if (criteria != null && criteria.getCursor() != null) {
+                RestMapPage<Long, ArrayList<UserJobData>> userJobDataPage = restApi().revisionAndJobsInfoFromCursor(sid,
+                                                                                                                   criteria.getCursor()
+                                                                                                                           .toString(),
+                                                                                                                   range,
+                                                                                                                   criteria.isMyJobsOnly(),
+                                                                                                                   criteria.isPending(),
+                                                                                                                   criteria.isRunning(),
+                                                                                                                   criteria.isFinished(),
+                                                                                                                   criteria.isChildJobs());
+                List<UserJobData> userJobDataList = new ArrayList<>();
+                for (ArrayList<UserJobData> revisionJobs : userJobDataPage.getMap().values()) {
+                    userJobDataList.addAll(revisionJobs);
+                }
+                return new Page<JobInfo>(toJobInfos(userJobDataList), userJobDataPage.getSize());
+            }
             RestPage<UserJobData> userJobDataList = restApi().jobsInfo(sid, index, range);
             jobInfos = new Page<JobInfo>(toJobInfos(userJobDataList.getList()), userJobDataList.getSize());
         } catch (Exception e) {
@@ -434,6 +453,18 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
         return taskLogs;
     }
 
+    @Override
+    public String getTaskServerLogs(String jobId, String taskName, long offset, int length)
+            throws UnknownJobException, UnknownTaskException, NotConnectedException, PermissionException {
+        String taskLogs = "";
+        try {
+            taskLogs = restApi().taskServerLogRange(sid, jobId, taskName, offset, length);
+        } catch (Exception e) {
+            throwUJEOrNCEOrPEOrUTE(e);
+        }
+        return taskLogs;
+    }
+
     @Override
     public String getTaskServerLogsByTag(String jobId, String tag)
             throws UnknownJobException, NotConnectedException, PermissionException {
@@ -943,18 +974,11 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
     @Override
     public JobResult waitForJob(String jobId, long timeout)
             throws NotConnectedException, UnknownJobException, PermissionException, TimeoutException {
-        timeout += currentTimeMillis();
-        while (currentTimeMillis() < timeout) {
-            if (isJobFinished(jobId)) {
-                return getJobResult(jobId);
-            }
-            if (currentTimeMillis() + RETRY_INTERVAL < timeout) {
-                sleep(RETRY_INTERVAL);
-            } else {
-                break;
-            }
+        long deadline = currentTimeMillis() + timeout;
+        if (waitForFinishedJobs(Collections.singletonList(jobId), deadline).isEmpty()) {
+            throw new TimeoutException(format("Timeout waiting for the job: job-id=%s", jobId));
         }
-        throw new TimeoutException(format("Timeout waiting for the job: job-id=%s", jobId));
+        return getJobResult(jobId);
     }
 
     @Override
@@ -974,29 +998,31 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
     @Override
     public TaskResult waitForTask(String jobId, String taskName, long timeout) throws UnknownJobException,
             NotConnectedException, PermissionException, UnknownTaskException, TimeoutException {
-        timeout += currentTimeMillis();
-        while (currentTimeMillis() < timeout) {
-            if (isTaskFinished(jobId, taskName)) {
-                return getTaskResult(jobId, taskName);
-            }
-            if (currentTimeMillis() + RETRY_INTERVAL < timeout) {
-                sleep(RETRY_INTERVAL);
-            } else {
-                break;
-            }
+        long deadline = currentTimeMillis() + timeout;
+        if (waitForFinishedTasks(jobId, Collections.singletonList(taskName), deadline).isEmpty()) {
+            throw new TimeoutException(format("Timeout waiting for the task: job-id=%s, task-id=%s",
+                                              jobId,
+                                              taskName));
         }
-        throw new TimeoutException(format("Timeout waiting for the task: job-id=%s, task-id=%s", jobId, taskName));
+        return getTaskResult(jobId, taskName);
     }
 
     @Override
     public List<JobResult> waitForAllJobs(List<String> jobIds, long timeout)
             throws NotConnectedException, UnknownJobException, PermissionException, TimeoutException {
-        long timestamp = 0;
+        long deadline = currentTimeMillis() + timeout;
+        Set<String> pendingJobs = new LinkedHashSet<>(jobIds);
+        while (!pendingJobs.isEmpty()) {
+            List<String> finishedJobs = waitForFinishedJobs(new ArrayList<>(pendingJobs), deadline);
+            if (finishedJobs.isEmpty()) {
+                throw new TimeoutException(format("Timeout waiting for the job: job-id=%s",
+                                                  pendingJobs.iterator().next()));
+            }
+            pendingJobs.removeAll(finishedJobs);
+        }
         List<JobResult> results = new ArrayList<>(jobIds.size());
         for (String jobId : jobIds) {
-            timestamp = currentTimeMillis();
-            results.add(waitForJob(jobId, timeout));
-            timeout = timeout - (currentTimeMillis() - timestamp);
+            results.add(getJobResult(jobId));
         }
         return results;
     }
@@ -1004,59 +1030,117 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
     @Override
     public Map.Entry<String, JobResult> waitForAnyJob(List<String> jobIds, long timeout)
             throws NotConnectedException, UnknownJobException, PermissionException, TimeoutException {
-        timeout += currentTimeMillis();
-        while (currentTimeMillis() < timeout) {
-            for (String jobId : jobIds) {
-                if (isJobFinished(jobId)) {
-                    return toEntry(jobId, getJobResult(jobId));
-                }
-            }
-            if (currentTimeMillis() + RETRY_INTERVAL < timeout) {
-                sleep(RETRY_INTERVAL);
-            } else {
-                break;
-            }
+        long deadline = currentTimeMillis() + timeout;
+        List<String> finishedJobs = waitForFinishedJobs(jobIds, deadline);
+        if (finishedJobs.isEmpty()) {
+            throw new TimeoutException(format("Timeout waiting for any job: jobIds=%s.", String.valueOf(jobIds)));
         }
-        throw new TimeoutException(format("Timeout waiting for any job: jobIds=%s.", String.valueOf(jobIds)));
+        String jobId = finishedJobs.get(0);
+        return toEntry(jobId, getJobResult(jobId));
     }
 
     @Override
     public Entry<String, TaskResult> waitForAnyTask(String jobId, List<String> taskNames, long timeout)
             throws UnknownJobException, NotConnectedException, PermissionException, UnknownTaskException,
             TimeoutException {
-        timeout += currentTimeMillis();
-        while (currentTimeMillis() < timeout) {
-            for (String taskName : taskNames) {
-                if (isTaskFinished(jobId, taskName)) {
-                    return toEntry(taskName, getTaskResult(jobId, taskName));
-                }
-            }
-            if (currentTimeMillis() + RETRY_INTERVAL < timeout) {
-                sleep(RETRY_INTERVAL);
-            } else {
-                break;
-            }
+        long deadline = currentTimeMillis() + timeout;
+        List<String> finishedTasks = waitForFinishedTasks(jobId, taskNames, deadline);
+        if (finishedTasks.isEmpty()) {
+            throw new TimeoutException(format("Timeout waiting for any task: job-id=%s, task-ids=%s.",
+                                              jobId,
+                                              String.valueOf(taskNames)));
         }
-        throw new TimeoutException(format("Timeout waiting for any task: job-id=%s, task-ids=%s.",
-                                          jobId,
-                                          String.valueOf(taskNames)));
+        String taskName = finishedTasks.get(0);
+        return toEntry(taskName, getTaskResult(jobId, taskName));
     }
 
     @Override
     public List<Entry<String, TaskResult>> waitForAllTasks(String jobId, List<String> taskNames, long timeout)
             throws UnknownJobException, NotConnectedException, PermissionException, UnknownTaskException,
             TimeoutException {
-        long timestamp = 0;
+        long deadline = currentTimeMillis() + timeout;
+        Set<String> pendingTasks = new LinkedHashSet<>(taskNames);
+        while (!pendingTasks.isEmpty()) {
+            List<String> finishedTasks = waitForFinishedTasks(jobId, new ArrayList<>(pendingTasks), deadline);
+            if (finishedTasks.isEmpty()) {
+                throw new TimeoutException(format("Timeout waiting for the task: job-id=%s, task-id=%s",
+                                                  jobId,
+                                                  pendingTasks.iterator().next()));
+            }
+            pendingTasks.removeAll(finishedTasks);
+        }
         List<Map.Entry<String, TaskResult>> taskResults = new ArrayList<>(taskNames.size());
         for (String taskName : taskNames) {
-            timestamp = currentTimeMillis();
-            Entry<String, TaskResult> taskResultEntry = toEntry(taskName, waitForTask(jobId, taskName, timeout));
-            taskResults.add(taskResultEntry);
-            timeout = timeout - (currentTimeMillis() - timestamp);
+            taskResults.add(toEntry(taskName, getTaskResult(jobId, taskName)));
         }
         return taskResults;
     }
 
+    /**
+     * Waits on the server until at least one of the jobs is finished.
+     * The server answers as soon as it is notified of the end of a job, or after its own timeout.
+     *
+     * @return the finished jobs, or an empty list if the deadline is reached
+     */
+    private List<String> waitForFinishedJobs(List<String> jobIds, long deadline)
+            throws NotConnectedException, UnknownJobException, PermissionException {
+        List<String> finishedJobs = Collections.emptyList();
+        long remaining = deadline - currentTimeMillis();
+        while (finishedJobs.isEmpty() && remaining > 0) {
+            long requestTime = currentTimeMillis();
+            try {
+                finishedJobs = restApi().waitForFinishedJobs(sid, jobIds, remaining);
+            } catch (Exception e) {
+                throwUJEOrNCEOrPE(e);
+            }
+            if (finishedJobs.isEmpty()) {
+                waitBeforeRetry(requestTime, deadline);
+            }
+            remaining = deadline - currentTimeMillis();
+        }
+        return finishedJobs;
+    }
+
+    /**
+     * Waits on the server until at least one of the tasks of a job is finished.
+     *
+     * @return the finished tasks, or an empty list if the deadline is reached
+     */
+    private List<String> waitForFinishedTasks(String jobId, List<String> taskNames, long deadline)
+            throws NotConnectedException, UnknownJobException, PermissionException, UnknownTaskException {
+        List<String> finishedTasks = Collections.emptyList();
+        long remaining = deadline - currentTimeMillis();
+        while (finishedTasks.isEmpty() && remaining > 0) {
+            long requestTime = currentTimeMillis();
+            try {
+                finishedTasks = restApi().waitForFinishedTasks(sid, jobId, taskNames, remaining);
+            } catch (Exception e) {
+                throwUJEOrNCEOrPEOrUTE(e);
+            }
+            if (finishedTasks.isEmpty()) {
+                waitBeforeRetry(requestTime, deadline);
+            }
+            remaining = deadline - currentTimeMillis();
+        }
+        return finishedTasks;
+    }
+
+    /**
+     * The server answers without waiting when too many requests are already waiting,
+     * the next request is then sent at most once every {@link #WAIT_RETRY_INTERVAL}.
+     */
+    private void waitBeforeRetry(long requestTime, long deadline) {
+        long retryTime = Math.min(requestTime + WAIT_RETRY_INTERVAL, deadline);
+        long delay = retryTime - currentTimeMillis();
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     @Override
     public boolean pushFile(String spacename, String pathname, String filename, String file)
             throws NotConnectedException, PermissionException {
@@ -1168,14 +1252,6 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
         }
     }
 
-    private void sleep(long millis) {
-        try {
-            Thread.sleep(millis);
-        } catch (InterruptedException ie) {
-            // ignore
-        }
-    }
-
     private SchedulerRestInterface restApi() {
         checkInitialized();
         return schedulerRestClient.getScheduler();
@@ -0,0 +1,209 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Requests waiting for the end of jobs or tasks, woken up by the events received by {@link EventListener}.
+ * <p>
+ * A waiter only tells which of its jobs or tasks may have finished: the request which owns it checks
+ * their state again with its own session, so that permissions are enforced and a missed event is only
+ * a delay, never a wrong answer.
+ * <p>
+ * Each waiter parks a request thread of the web server, so their number is bounded: once the limit is
+ * reached, no waiter is registered and the request must be answered without waiting.
+ */
+public class CompletionWaiters {
+
+    private final Map<String, Set<Waiter>> waitersPerJob = new ConcurrentHashMap<>();
+
+    /** Maximum number of registered waiters, no limit if lower or equal to 0 */
+    private final int maxWaiters;
+
+    private final AtomicInteger registeredWaiters = new AtomicInteger();
+
+    public CompletionWaiters(int maxWaiters) {
+        this.maxWaiters = maxWaiters;
+    }
+
+    /**
+     * Registers a waiter for the end of any of the given jobs.
+     *
+     * @return the waiter, or null if too many waiters are already registered
+     */
+    public Waiter registerJobs(Collection<String> jobIds) {
+        if (!reserve()) {
+            return null;
+        }
+        Waiter waiter = new Waiter(jobIds, null);
+        for (String jobId : waiter.jobIds) {
+            add(jobId, waiter);
+        }
+        return waiter;
+    }
+
+    /**
+     * Registers a waiter for the end of any of the given tasks of a job.
+     *
+     * @return the waiter, or null if too many waiters are already registered
+     */
+    public Waiter registerTasks(String jobId, Collection<String> taskNames) {
+        if (!reserve()) {
+            return null;
+        }
+        Waiter waiter = new Waiter(Collections.singleton(jobId), taskNames);
+        add(jobId, waiter);
+        return waiter;
+    }
+
+    public void unregister(Waiter waiter) {
+        for (String jobId : waiter.jobIds) {
+            waitersPerJob.computeIfPresent(jobId, (key, waiters) -> {
+                waiters.remove(waiter);
+                return waiters.isEmpty() ? null : waiters;
+            });
+        }
+        registeredWaiters.decrementAndGet();
+    }
+
+    private boolean reserve() {
+        if (registeredWaiters.incrementAndGet() > maxWaiters && maxWaiters > 0) {
+            registeredWaiters.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    void jobFinished(String jobId) {
+        Set<Waiter> waiters = waitersPerJob.get(jobId);
+        if (waiters != null) {
+            for (Waiter waiter : waiters) {
+                if (waiter.taskNames == null) {
+                    waiter.signal(jobId);
+                } else {
+                    // tasks which were still pending may have been canceled with the job
+                    waiter.signalAll();
+                }
+            }
+        }
+    }
+
+    void taskFinished(String jobId, String taskName) {
+        Set<Waiter> waiters = waitersPerJob.get(jobId);
+        if (waiters != null) {
+            for (Waiter waiter : waiters) {
+                if (waiter.taskNames != null && waiter.taskNames.contains(taskName)) {
+                    waiter.signal(taskName);
+                }
+            }
+        }
+    }
+
+    /**
+     * Wakes up all the waiters, used when events may have been lost.
+     */
+    void signalAll() {
+        for (Set<Waiter> waiters : waitersPerJob.values()) {
+            for (Waiter waiter : waiters) {
+                waiter.signalAll();
+            }
+        }
+    }
+
+    int size() {
+        Set<Waiter> waiters = new HashSet<>();
+        for (Set<Waiter> waitersOfJob : waitersPerJob.values()) {
+            waiters.addAll(waitersOfJob);
+        }
+        return waiters.size();
+    }
+
+    private void add(String jobId, Waiter waiter) {
+        waitersPerJob.compute(jobId, (key, waiters) -> {
+            Set<Waiter> result = waiters == null ? ConcurrentHashMap.newKeySet() : waiters;
+            result.add(waiter);
+            return result;
+        });
+    }
+
+    public static final class Waiter {
+
+        private final Set<String> jobIds;
+
+        private final Set<String> taskNames;
+
+        private final Set<String> signalled = new HashSet<>();
+
+        private boolean allSignalled = false;
+
+        private Waiter(Collection<String> jobIds, Collection<String> taskNames) {
+            this.jobIds = new HashSet<>(jobIds);
+            this.taskNames = taskNames == null ? null : new HashSet<>(taskNames);
+        }
+
+        private synchronized void signal(String id) {
+            signalled.add(id);
+            notifyAll();
+        }
+
+        private synchronized void signalAll() {
+            allSignalled = true;
+            notifyAll();
+        }
+
+        /**
+         * Waits until the waiter is signalled or the timeout expires, and resets it.
+         *
+         * @param timeout maximum time to wait in milliseconds
+         * @return the job ids or task names which may have finished, empty if the timeout expired, or
+         *         null if all of them must be checked again
+         */
+        public synchronized Set<String> await(long timeout) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + timeout;
+            long remaining = timeout;
+            while (signalled.isEmpty() && !allSignalled && remaining > 0) {
+                wait(remaining);
+                remaining = deadline - System.currentTimeMillis();
+            }
+            if (allSignalled) {
+                allSignalled = false;
+                signalled.clear();
+                return null;
+            }
+            Set<String> result = new HashSet<>(signalled);
+            signalled.clear();
+            return result;
+        }
+    }
+}
@@ -49,6 +49,10 @@ public class EventListener implements SchedulerEventListener {
     @Override
     public void jobStateUpdatedEvent(NotificationData<JobInfo> data) {
         state.incrementRevision();
+        JobInfo jobInfo = data.getData();
+        if (jobInfo != null && jobInfo.getStatus() != null && !jobInfo.getStatus().isJobAlive()) {
+            state.getCompletionWaiters().jobFinished(jobInfo.getJobId().value());
+        }
     }
 
     @Override
@@ -61,6 +65,8 @@ public class EventListener implements SchedulerEventListener {
         state.incrementRevision();
         // event doesn't provide current state, just reset stored value so that state will be re-read on demand
         state.setStatus(null);
+        // some job or task events may have been dropped
+        state.getCompletionWaiters().signalAll();
     }
 
     @Override
@@ -72,6 +78,11 @@ public class EventListener implements SchedulerEventListener {
     @Override
     public void taskStateUpdatedEvent(NotificationData<TaskInfo> event) {
         state.incrementRevision();
+        TaskInfo taskInfo = event.getData();
+        if (taskInfo != null && taskInfo.getStatus() != null && !taskInfo.getStatus().isTaskAlive()) {
+            state.getCompletionWaiters().taskFinished(taskInfo.getJobId().value(),
+                                                      taskInfo.getTaskId().getReadableName());
+        }
     }
 
     @Override
@@ -0,0 +1,208 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.RestMapPage;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.UserJobData;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+
+
+/**
+ * Cache of the job list pages returned by {@link SchedulerStateRest#revisionAndJobsInfo}.
+ * <p>
+ * A page is only valid for the scheduler state revision it has been computed at: entries of
+ * previous revisions are discarded as soon as a newer revision is seen. The entity tag of a page
+ * identifies the request and the revision, so a client which sends it back can be answered
+ * with a 304 while the revision is unchanged, without reading the page.
+ */
+public class JobsInfoPageCache {
+
+    /** distinguishes the entity tags issued before a restart, when revisions start again from 0 */
+    private static final String EPOCH = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Cache<Key, Entry> pages;
+
+    private final AtomicLong currentRevision = new AtomicLong(-1);
+
+    public JobsInfoPageCache(int maximumSize) {
+        this.pages = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    /**
+     * Returns the page computed for the given request at the given revision, or null.
+     */
+    public RestMapPage<Long, ArrayList<UserJobData>> get(long revision, Key key) {
+        if (revision < 0) {
+            return null;
+        }
+        discardPreviousRevisions(revision);
+        Entry entry = pages.getIfPresent(key);
+        if (entry == null || entry.revision != revision) {
+            return null;
+        }
+        return entry.page;
+    }
+
+    /**
+     * Keeps a page computed at the given revision, the page must not be modified afterwards.
+     */
+    public void put(long revision, Key key, RestMapPage<Long, ArrayList<UserJobData>> page) {
+        if (revision < 0) {
+            return;
+        }
+        discardPreviousRevisions(revision);
+        if (revision == currentRevision.get()) {
+            pages.put(key, new Entry(revision, page));
+        }
+    }
+
+    public long size() {
+        return pages.size();
+    }
+
+    /**
+     * Returns the entity tag of the page of the given request at the given revision.
+     */
+    public static String entityTag(long revision, Key key) {
+        String digest = Hashing.murmur3_128().hashString(key.toString(), StandardCharsets.UTF_8).toString();
+        return '"' + EPOCH + '-' + revision + '-' + digest + '"';
+    }
+
+    /**
+     * Returns true if the value of an If-None-Match header matches the given entity tag.
+     */
+    public static boolean matches(String ifNoneMatch, String entityTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.startsWith("W/")) {
+                // compression filters may turn the entity tag into a weak one
+                trimmed = trimmed.substring(2);
+            }
+            if (trimmed.equals(entityTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void discardPreviousRevisions(long revision) {
+        long current = currentRevision.get();
+        while (revision > current) {
+            if (currentRevision.compareAndSet(current, revision)) {
+                pages.invalidateAll();
+                return;
+            }
+            current = currentRevision.get();
+        }
+    }
+
+    /**
+     * Parameters of a job list request, including the user since the visible jobs depend on it.
+     */
+    public static final class Key {
+
+        private final String user;
+
+        private final boolean onlyUserJobs;
+
+        private final boolean pending;
+
+        private final boolean running;
+
+        private final boolean finished;
+
+        private final boolean childJobs;
+
+        private final String sortParams;
+
+        private final int index;
+
+        private final int limit;
+
+        public Key(String user, boolean onlyUserJobs, boolean pending, boolean running, boolean finished,
+                boolean childJobs, String sortParams, int index, int limit) {
+            this.user = user;
+            this.onlyUserJobs = onlyUserJobs;
+            this.pending = pending;
+            this.running = running;
+            this.finished = finished;
+            this.childJobs = childJobs;
+            this.sortParams = sortParams == null ? "" : sortParams;
+            this.index = index;
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return onlyUserJobs == key.onlyUserJobs && pending == key.pending && running == key.running &&
+                   finished == key.finished && childJobs == key.childJobs && index == key.index &&
+                   limit == key.limit && (user == null ? key.user == null : user.equals(key.user)) &&
+                   sortParams.equals(key.sortParams);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(new Object[] { user, onlyUserJobs, pending, running, finished, childJobs,
+                                                  sortParams, index, limit });
+        }
+
+        @Override
+        public String toString() {
+            return user + '/' + onlyUserJobs + '/' + pending + '/' + running + '/' + finished + '/' + childJobs + '/' +
+                   index + '/' + limit + '/' + sortParams;
+        }
+    }
+
+    private static final class Entry {
+
+        private final long revision;
+
+        private final RestMapPage<Long, ArrayList<UserJobData>> page;
+
+        private Entry(long revision, RestMapPage<Long, ArrayList<UserJobData>> page) {
+            this.revision = revision;
+            this.page = page;
+        }
+    }
+}
@@ -59,6 +59,8 @@ public class SchedulerStateListener {
 
         private volatile SchedulerStatus status;
 
+        private final CompletionWaiters completionWaiters = new CompletionWaiters(PortalConfiguration.SCHEDULER_WAITFOR_MAX_REQUESTS.getValueAsInt());
+
         void incrementRevision() {
             revision.incrementAndGet();
         }
@@ -75,6 +77,10 @@ public class SchedulerStateListener {
             this.status = status;
         }
 
+        CompletionWaiters getCompletionWaiters() {
+            return completionWaiters;
+        }
+
     }
 
     private final State state = new State();
@@ -85,6 +91,8 @@ public class SchedulerStateListener {
 
     private volatile boolean killed;
 
+    private volatile boolean listening;
+
     public void start() {
         Thread connectThread = new Thread(new Runnable() {
             @Override
@@ -138,6 +146,7 @@ public class SchedulerStateListener {
                     eventListener = PAActiveObject.turnActive(eventListener);
                 }
                 scheduler.addEventListener(eventListener, false, false);
+                listening = true;
             } catch (Exception e) {
                 logger.warn("no scheduler found on " + url + " retrying in 8 seconds", e);
                 if (scheduler != null) {
@@ -150,6 +159,17 @@ public class SchedulerStateListener {
         }
     }
 
+    /**
+     * Returns true once the events of the scheduler are received.
+     */
+    public boolean isListening() {
+        return listening;
+    }
+
+    public CompletionWaiters getCompletionWaiters() {
+        return state.getCompletionWaiters();
+    }
+
     public long getSchedulerStateRevision() {
         return state.getRevision();
     }
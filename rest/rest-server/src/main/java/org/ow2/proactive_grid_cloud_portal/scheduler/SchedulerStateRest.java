@@ -46,6 +46,7 @@ import java.util.stream.Stream;
 
 import javax.security.auth.login.LoginException;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 import javax.ws.rs.*;
 import javax.ws.rs.client.Entity;
@@ -155,6 +156,8 @@ public class SchedulerStateRest implements SchedulerRestInterface {
 
     private static final String FILE_ENCODING = PASchedulerProperties.FILE_ENCODING.getValueAsString();
 
+    private static final long WAITFOR_RECHECK_INTERVAL = 1000;
+
     private static final String PATH_JOBS = "jobs/";
 
     private static final String PATH_TASKS = "/tasks/";
@@ -182,9 +185,14 @@ public class SchedulerStateRest implements SchedulerRestInterface {
 
     private static final Mapper mapper = new DozerBeanMapper(Collections.singletonList("org/ow2/proactive_grid_cloud_portal/scheduler/dozer-mappings.xml"));
 
+    private static final JobsInfoPageCache jobsInfoPageCache = new JobsInfoPageCache(PortalConfiguration.SCHEDULER_JOBSINFO_CACHE_SIZE.getValueAsInt());
+
     @Context
     private HttpServletRequest httpServletRequest;
 
+    @Context
+    private HttpServletResponse httpServletResponse;
+
     private final WorkflowVariablesTransformer workflowVariablesTransformer = new WorkflowVariablesTransformer();
 
     private static List<SortParameter<JobSortParameter>> createJobSortParams(String sortString) {
@@ -301,6 +309,152 @@ public class SchedulerStateRest implements SchedulerRestInterface {
         return jobsInfoList(sessionId, jobsId);
     }
 
+    @Override
+    public List<String> waitForFinishedJobs(String sessionId, List<String> jobsId, long timeout)
+            throws RestException {
+        Scheduler s = checkAccess(sessionId, "/scheduler/waitfor/jobs");
+        CompletionWaiters completionWaiters = SchedulerStateListener.getInstance().getCompletionWaiters();
+        // registered before the first check, so that no end of job can be missed in between
+        CompletionWaiters.Waiter waiter = completionWaiters.registerJobs(jobsId);
+        try {
+            long deadline = System.currentTimeMillis() + boundWaitForTimeout(timeout);
+            Set<String> toCheck = new HashSet<>(jobsId);
+            while (true) {
+                List<String> finishedJobs = new ArrayList<>();
+                if (!toCheck.isEmpty()) {
+                    Set<String> finishedJobIds = getFinishedJobIds(s, toCheck);
+                    for (String jobId : jobsId) {
+                        if (finishedJobIds.contains(jobId)) {
+                            finishedJobs.add(jobId);
+                        }
+                    }
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (!finishedJobs.isEmpty() || remaining <= 0 || waiter == null) {
+                    return finishedJobs;
+                }
+                toCheck = awaitCompletion(waiter, remaining);
+                if (toCheck == null) {
+                    toCheck = new HashSet<>(jobsId);
+                }
+            }
+        } catch (SchedulerException e) {
+            throw RestException.wrapExceptionToRest(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ArrayList<>(0);
+        } finally {
+            if (waiter != null) {
+                completionWaiters.unregister(waiter);
+            }
+        }
+    }
+
+    @Override
+    public List<String> waitForFinishedTasks(String sessionId, String jobId, List<String> taskNames, long timeout)
+            throws RestException {
+        Scheduler s = checkAccess(sessionId, "/scheduler/waitfor/jobs/" + jobId + "/tasks");
+        CompletionWaiters completionWaiters = SchedulerStateListener.getInstance().getCompletionWaiters();
+        CompletionWaiters.Waiter waiter = completionWaiters.registerTasks(jobId, taskNames);
+        try {
+            long deadline = System.currentTimeMillis() + boundWaitForTimeout(timeout);
+            JobId id = JobIdImpl.makeJobId(jobId);
+            Set<String> finishedTaskNames = getFinishedTaskNames(s, jobId);
+            // the other names are validated once, an unknown task raises an UnknownTaskException
+            for (String taskName : taskNames) {
+                if (!finishedTaskNames.contains(taskName) && !s.getTaskState(id, taskName).getStatus().isTaskAlive()) {
+                    finishedTaskNames.add(taskName);
+                }
+            }
+            while (true) {
+                List<String> finishedTasks = new ArrayList<>();
+                for (String taskName : taskNames) {
+                    if (finishedTaskNames.contains(taskName)) {
+                        finishedTasks.add(taskName);
+                    }
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (!finishedTasks.isEmpty() || remaining <= 0 || waiter == null) {
+                    return finishedTasks;
+                }
+                Set<String> toCheck = awaitCompletion(waiter, remaining);
+                if (toCheck == null) {
+                    finishedTaskNames = getFinishedTaskNames(s, jobId);
+                } else {
+                    for (String taskName : toCheck) {
+                        if (!s.getTaskState(id, taskName).getStatus().isTaskAlive()) {
+                            finishedTaskNames.add(taskName);
+                        }
+                    }
+                }
+            }
+        } catch (SchedulerException e) {
+            throw RestException.wrapExceptionToRest(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ArrayList<>(0);
+        } finally {
+            if (waiter != null) {
+                completionWaiters.unregister(waiter);
+            }
+        }
+    }
+
+    /**
+     * Returns the finished jobs among the given ones, read from the jobs info instead of the full job states.
+     */
+    private static Set<String> getFinishedJobIds(Scheduler s, Set<String> jobIds)
+            throws SchedulerException, UnknownJobRestException {
+        Set<String> finishedJobIds = new HashSet<>();
+        Set<String> unknownJobIds = new HashSet<>(jobIds);
+        for (JobInfo jobInfo : s.getJobsInfoList(new ArrayList<>(jobIds))) {
+            String jobId = jobInfo.getJobId().value();
+            unknownJobIds.remove(jobId);
+            if (!jobInfo.getStatus().isJobAlive()) {
+                finishedJobIds.add(jobId);
+            }
+        }
+        if (!unknownJobIds.isEmpty()) {
+            throw new UnknownJobRestException("Unknown jobs " + unknownJobIds);
+        }
+        return finishedJobIds;
+    }
+
+    /**
+     * Returns the names of the finished tasks of a job, only the finished tasks are read.
+     */
+    private static Set<String> getFinishedTaskNames(Scheduler s, String jobId) throws SchedulerException {
+        Set<String> finishedTaskNames = new HashSet<>();
+        int offset = 0;
+        TaskStatesPage page;
+        do {
+            // "finished" stands for all the statuses of the tasks which are not alive any more
+            page = s.getTaskPaginated(jobId, "finished", offset, TASKS_PAGE_SIZE);
+            for (TaskState taskState : page.getTaskStates()) {
+                finishedTaskNames.add(taskState.getName());
+            }
+            offset += page.getTaskStates().size();
+        } while (offset < page.getSize() && !page.getTaskStates().isEmpty());
+        return finishedTaskNames;
+    }
+
+    private static long boundWaitForTimeout(long timeout) {
+        return Math.max(0, Math.min(timeout, PortalConfiguration.SCHEDULER_WAITFOR_TIMEOUT.getValueAsLong()));
+    }
+
+    /**
+     * Waits for the end of the jobs or tasks of a waiter, and returns the ones to check again (null for all).
+     * When the scheduler events are not received yet, all of them are checked every {@link #WAITFOR_RECHECK_INTERVAL}.
+     */
+    private static Set<String> awaitCompletion(CompletionWaiters.Waiter waiter, long remaining)
+            throws InterruptedException {
+        if (SchedulerStateListener.getInstance().isListening()) {
+            return waiter.await(remaining);
+        }
+        waiter.await(Math.min(remaining, WAITFOR_RECHECK_INTERVAL));
+        return null;
+    }
+
     @Override
     public RestMapPage<Long, ArrayList<UserJobData>> revisionAndJobsInfo(String sessionId, int index, int limit,
             boolean myJobs, boolean pending, boolean running, boolean finished, boolean childJobs, String sortParams)
@@ -310,39 +464,110 @@ public class SchedulerStateRest implements SchedulerRestInterface {
             String user = sessionStore.get(sessionId).getUserName();
 
             boolean onlyUserJobs = (myJobs && user != null && user.trim().length() > 0);
-            List<SortParameter<JobSortParameter>> sortParameterList;
-            if (Strings.isNullOrEmpty(sortParams)) {
-                sortParameterList = DEFAULT_JOB_SORT_PARAMS;
-            } else {
-                try {
-                    sortParameterList = createJobSortParams(sortParams);
-                } catch (Exception e) {
-                    logger.warn("Invalid sort parameter string, using default : " + sortParams);
-                    sortParameterList = DEFAULT_JOB_SORT_PARAMS;
-                }
-            }
 
-            Page<JobInfo> page = s.getJobs(index,
-                                           limit,
-                                           new JobFilterCriteria(onlyUserJobs, pending, running, finished, childJobs),
-                                           sortParameterList);
-            List<JobInfo> jobsInfo = page.getList();
-            ArrayList<UserJobData> jobs = new ArrayList<>(jobsInfo.size());
-            for (JobInfo jobInfo : jobsInfo) {
-                jobs.add(new UserJobData(mapper.map(jobInfo, JobInfoData.class)));
-            }
-
-            HashMap<Long, ArrayList<UserJobData>> map = new HashMap<>(1);
-            map.put(SchedulerStateListener.getInstance().getSchedulerStateRevision(), jobs);
-            RestMapPage<Long, ArrayList<UserJobData>> restMapPage = new RestMapPage<>();
-            restMapPage.setMap(map);
-            restMapPage.setSize(page.getSize());
+            // read before the jobs, so that a page is never associated with a revision newer than its content
+            long revision = SchedulerStateListener.getInstance().getSchedulerStateRevision();
+            JobsInfoPageCache.Key key = new JobsInfoPageCache.Key(user,
+                                                                  onlyUserJobs,
+                                                                  pending,
+                                                                  running,
+                                                                  finished,
+                                                                  childJobs,
+                                                                  sortParams,
+                                                                  index,
+                                                                  limit);
+            String entityTag = JobsInfoPageCache.entityTag(revision, key);
+            if (revision >= 0 && httpServletRequest != null &&
+                JobsInfoPageCache.matches(httpServletRequest.getHeader(HttpHeaders.IF_NONE_MATCH), entityTag)) {
+                throw new RedirectionException(Response.notModified().header(HttpHeaders.ETAG, entityTag).build());
+            }
+
+            RestMapPage<Long, ArrayList<UserJobData>> restMapPage = jobsInfoPageCache.get(revision, key);
+            if (restMapPage == null) {
+                restMapPage = getJobsInfoPage(s,
+                                              revision,
+                                              index,
+                                              limit,
+                                              new JobFilterCriteria(onlyUserJobs,
+                                                                    pending,
+                                                                    running,
+                                                                    finished,
+                                                                    childJobs),
+                                              sortParams);
+                jobsInfoPageCache.put(revision, key, restMapPage);
+            }
+            if (revision >= 0 && httpServletResponse != null) {
+                httpServletResponse.setHeader(HttpHeaders.ETAG, entityTag);
+            }
             return restMapPage;
         } catch (SchedulerException e) {
             throw RestException.wrapExceptionToRest(e);
         }
     }
 
+    @Override
+    public RestMapPage<Long, ArrayList<UserJobData>> revisionAndJobsInfoFromCursor(String sessionId, String cursor,
+            int limit, boolean myJobs, boolean pending, boolean running, boolean finished, boolean childJobs)
+            throws RestException {
+        try {
+            Scheduler s = checkAccess(sessionId, "revisionjobsinfo/cursor?cursor=" + cursor + "&limit=" + limit);
+            String user = sessionStore.get(sessionId).getUserName();
+
+            boolean onlyUserJobs = (myJobs && user != null && user.trim().length() > 0);
+
+            JobCursor jobCursor;
+            try {
+                jobCursor = JobCursor.parse(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new SchedulerRestException(e);
+            }
+
+            long revision = SchedulerStateListener.getInstance().getSchedulerStateRevision();
+            return getJobsInfoPage(s,
+                                   revision,
+                                   0,
+                                   limit,
+                                   new JobFilterCriteria(onlyUserJobs,
+                                                         pending,
+                                                         running,
+                                                         finished,
+                                                         childJobs,
+                                                         jobCursor),
+                                   null);
+        } catch (SchedulerException e) {
+            throw RestException.wrapExceptionToRest(e);
+        }
+    }
+
+    private RestMapPage<Long, ArrayList<UserJobData>> getJobsInfoPage(Scheduler s, long revision, int index,
+            int limit, JobFilterCriteria filterCriteria, String sortParams) throws SchedulerException {
+        List<SortParameter<JobSortParameter>> sortParameterList;
+        if (Strings.isNullOrEmpty(sortParams)) {
+            sortParameterList = DEFAULT_JOB_SORT_PARAMS;
+        } else {
+            try {
+                sortParameterList = createJobSortParams(sortParams);
+            } catch (Exception e) {
+                logger.warn("Invalid sort parameter string, using default : " + sortParams);
+                sortParameterList = DEFAULT_JOB_SORT_PARAMS;
+            }
+        }
+
+        Page<JobInfo> page = s.getJobs(index, limit, filterCriteria, sortParameterList);
+        List<JobInfo> jobsInfo = page.getList();
+        ArrayList<UserJobData> jobs = new ArrayList<>(jobsInfo.size());
+        for (JobInfo jobInfo : jobsInfo) {
+            jobs.add(new UserJobData(mapper.map(jobInfo, JobInfoData.class)));
+        }
+
+        HashMap<Long, ArrayList<UserJobData>> map = new HashMap<>(1);
+        map.put(revision, jobs);
+        RestMapPage<Long, ArrayList<UserJobData>> restMapPage = new RestMapPage<>();
+        restMapPage.setMap(map);
+        restMapPage.setSize(page.getSize());
+        return restMapPage;
+    }
+
     @Override
     public long schedulerStateRevision(String sessionId) throws NotConnectedRestException {
         checkAccess(sessionId, "/scheduler/revision");
@@ -1221,6 +1446,11 @@ public class SchedulerStateRest implements SchedulerRestInterface {
         }
     }
 
+    /**
+     * Returns the logs of all the incarnations of a task, read from their results. The results are received
+     * whole from the scheduler, including the logs kept in the task result blob store, so these logs are not
+     * streamed, unlike the precious logs read from the user space.
+     */
     private String retrieveTaskLogsUsingDatabase(String sessionId, String jobId, String taskName)
             throws NotConnectedRestException, UnknownJobException, UnknownTaskException, NotConnectedException,
             PermissionException {
@@ -1401,6 +1631,17 @@ public class SchedulerStateRest implements SchedulerRestInterface {
         }
     }
 
+    @Override
+    public String taskServerLogRange(String sessionId, String jobId, String taskname, long offset, int length)
+            throws RestException {
+        try {
+            Scheduler s = checkAccess(sessionId, PATH_JOBS + jobId + PATH_TASKS + taskname + "/log/server/range");
+            return s.getTaskServerLogs(jobId, taskname, offset, length);
+        } catch (SchedulerException e) {
+            throw RestException.wrapExceptionToRest(e);
+        }
+    }
+
     @Override
     public String taskServerLogByTag(String sessionId, String jobId, String taskTag) throws RestException {
         try {
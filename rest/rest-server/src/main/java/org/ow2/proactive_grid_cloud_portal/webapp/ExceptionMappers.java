@@ -31,6 +31,7 @@ import java.security.KeyException;
 
 import javax.security.auth.login.LoginException;
 import javax.ws.rs.NotFoundException;
+import javax.ws.rs.RedirectionException;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -190,6 +191,16 @@ public class ExceptionMappers {
         }
     }
 
+    /**
+     * Keeps the response of a redirection, such as a 304 answer to a conditional request.
+     */
+    public static class RedirectionExceptionMapper implements ExceptionMapper<RedirectionException> {
+        @Override
+        public Response toResponse(RedirectionException exception) {
+            return exception.getResponse();
+        }
+    }
+
     public static class RuntimeExceptionExceptionMapper extends BaseExceptionMapper<RuntimeException> {
         @Override
         protected int getErrorCode() {
@@ -49,6 +49,15 @@ public enum PortalConfiguration implements PACommonProperties {
 
     SCHEDULER_CACHE_CREDENTIALS("scheduler.cache.credential", PropertyType.STRING),
 
+    /** Maximum number of job list pages kept for the current scheduler state revision */
+    SCHEDULER_JOBSINFO_CACHE_SIZE("scheduler.jobsinfo.cache.size", PropertyType.INTEGER, "500"),
+
+    /** Maximum time in ms a request waiting for the end of jobs or tasks is kept open */
+    SCHEDULER_WAITFOR_TIMEOUT("scheduler.waitfor.timeout", PropertyType.INTEGER, "30000"),
+
+    /** Maximum number of requests waiting at the same time for the end of jobs or tasks */
+    SCHEDULER_WAITFOR_MAX_REQUESTS("scheduler.waitfor.max.requests", PropertyType.INTEGER, "50"),
+
     SCHEDULER_LOGINFORWARDINGSERVICE_PROVIDER(
             "scheduler.logforwardingservice.provider",
             PropertyType.STRING,
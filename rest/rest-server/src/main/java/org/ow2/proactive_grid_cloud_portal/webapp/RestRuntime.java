@@ -129,6 +129,7 @@ public class RestRuntime {
         dispatcher.registerProvider(ExceptionMappers.PermissionExceptionExceptionMapper.class);
         dispatcher.registerProvider(ExceptionMappers.SignalApiExceptionExceptionMapper.class);
         dispatcher.registerProvider(ExceptionMappers.ProActiveRuntimeExceptionExceptionMapper.class);
+        dispatcher.registerProvider(ExceptionMappers.RedirectionExceptionMapper.class);
         dispatcher.registerProvider(ExceptionMappers.RuntimeExceptionExceptionMapper.class);
         dispatcher.registerProvider(ExceptionMappers.IllegalArgumentExceptionMapper.class);
         dispatcher.registerProvider(ExceptionMappers.ThrowableExceptionMapper.class);
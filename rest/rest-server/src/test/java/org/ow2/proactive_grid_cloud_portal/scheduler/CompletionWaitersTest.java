@@ -0,0 +1,129 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class CompletionWaitersTest {
+
+    private CompletionWaiters completionWaiters;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        completionWaiters = new CompletionWaiters(2);
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testJobWaiterIsWokenUpByTheEndOfOneOfItsJobs() throws Exception {
+        CompletionWaiters.Waiter waiter = completionWaiters.registerJobs(Arrays.asList("1", "2"));
+        Future<Set<String>> signalled = executor.submit(() -> waiter.await(TimeUnit.MINUTES.toMillis(1)));
+
+        completionWaiters.jobFinished("3");
+        completionWaiters.taskFinished("2", "task");
+        completionWaiters.jobFinished("2");
+
+        assertEquals(Collections.singleton("2"), signalled.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testTaskWaiterIsWokenUpByTheEndOfOneOfItsTasks() throws Exception {
+        CompletionWaiters.Waiter waiter = completionWaiters.registerTasks("1", Arrays.asList("A", "B"));
+
+        completionWaiters.taskFinished("2", "A");
+        completionWaiters.taskFinished("1", "C");
+        completionWaiters.taskFinished("1", "B");
+
+        assertEquals(Collections.singleton("B"), waiter.await(0));
+        assertTrue(waiter.await(10).isEmpty());
+
+        completionWaiters.jobFinished("1");
+        assertNull(waiter.await(0));
+    }
+
+    @Test
+    public void testAllWaitersAreWokenUpOnResynchronization() throws Exception {
+        CompletionWaiters.Waiter jobWaiter = completionWaiters.registerJobs(Collections.singletonList("1"));
+        CompletionWaiters.Waiter taskWaiter = completionWaiters.registerTasks("2", Collections.singletonList("A"));
+
+        completionWaiters.signalAll();
+
+        assertNull(jobWaiter.await(0));
+        assertNull(taskWaiter.await(0));
+    }
+
+    @Test
+    public void testUnregisteredWaitersAreRemoved() {
+        CompletionWaiters.Waiter first = completionWaiters.registerJobs(Arrays.asList("1", "2"));
+        CompletionWaiters.Waiter second = completionWaiters.registerTasks("1", Collections.singletonList("A"));
+        assertEquals(2, completionWaiters.size());
+
+        completionWaiters.unregister(first);
+        completionWaiters.unregister(second);
+
+        assertEquals(0, completionWaiters.size());
+    }
+
+    @Test
+    public void testNumberOfWaitersIsBounded() {
+        CompletionWaiters.Waiter first = completionWaiters.registerJobs(Collections.singletonList("1"));
+        CompletionWaiters.Waiter second = completionWaiters.registerTasks("1", Collections.singletonList("A"));
+        assertNotNull(first);
+        assertNotNull(second);
+
+        assertNull(completionWaiters.registerJobs(Collections.singletonList("2")));
+        assertNull(completionWaiters.registerTasks("2", Collections.singletonList("A")));
+        assertEquals(2, completionWaiters.size());
+
+        completionWaiters.unregister(first);
+        CompletionWaiters.Waiter third = completionWaiters.registerJobs(Collections.singletonList("2"));
+        assertNotNull(third);
+        assertEquals(2, completionWaiters.size());
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.RestMapPage;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.UserJobData;
+
+
+public class JobsInfoPageCacheTest {
+
+    private JobsInfoPageCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new JobsInfoPageCache(10);
+    }
+
+    @Test
+    public void testPageIsServedForItsRevisionOnly() {
+        RestMapPage<Long, ArrayList<UserJobData>> page = new RestMapPage<>();
+        cache.put(3, key("user", 0), page);
+
+        assertSame(page, cache.get(3, key("user", 0)));
+        assertNull(cache.get(3, key("user", 50)));
+        assertNull(cache.get(3, key("other", 0)));
+
+        assertNull(cache.get(4, key("user", 0)));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testPageOfPreviousRevisionIsNotKept() {
+        cache.get(5, key("user", 0));
+        cache.put(4, key("user", 0), new RestMapPage<Long, ArrayList<UserJobData>>());
+
+        assertNull(cache.get(4, key("user", 0)));
+        assertNull(cache.get(5, key("user", 0)));
+    }
+
+    @Test
+    public void testNothingIsCachedBeforeTheFirstRevision() {
+        cache.put(-1, key("user", 0), new RestMapPage<Long, ArrayList<UserJobData>>());
+
+        assertNull(cache.get(-1, key("user", 0)));
+    }
+
+    @Test
+    public void testEntityTagDependsOnRevisionAndRequest() {
+        String tag = JobsInfoPageCache.entityTag(7, key("user", 0));
+
+        assertEquals(tag, JobsInfoPageCache.entityTag(7, key("user", 0)));
+        assertNotEquals(tag, JobsInfoPageCache.entityTag(8, key("user", 0)));
+        assertNotEquals(tag, JobsInfoPageCache.entityTag(7, key("user", 50)));
+        assertNotEquals(tag, JobsInfoPageCache.entityTag(7, key("other", 0)));
+
+        assertTrue(JobsInfoPageCache.matches(tag, tag));
+        assertTrue(JobsInfoPageCache.matches("\"other\", W/" + tag, tag));
+        assertFalse(JobsInfoPageCache.matches(null, tag));
+        assertFalse(JobsInfoPageCache.matches(JobsInfoPageCache.entityTag(6, key("user", 0)), tag));
+    }
+
+    private static JobsInfoPageCache.Key key(String user, int index) {
+        return new JobsInfoPageCache.Key(user, false, true, true, true, false, null, index, 50);
+    }
+}
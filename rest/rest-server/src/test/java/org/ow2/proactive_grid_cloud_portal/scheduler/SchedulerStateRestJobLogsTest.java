@@ -33,6 +33,7 @@ import static org.mockito.Mockito.when;
 import java.io.File;
 import java.io.InputStream;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.Collections;
 
 import org.apache.commons.io.FileUtils;
@@ -44,6 +45,8 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.ow2.proactive.scheduler.common.task.SimpleTaskLogs;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.common.task.TaskResult;
 import org.ow2.proactive.scheduler.common.util.SchedulerProxyUserInterface;
 import org.ow2.proactive.scheduler.job.InternalTaskFlowJob;
 import org.ow2.proactive.scheduler.job.JobIdImpl;
@@ -160,6 +163,26 @@ public class SchedulerStateRestJobLogsTest {
         assertEquals("1032", IOUtils.toString(fullLogs));
     }
 
+    @Test
+    public void job_full_logs_from_database() throws Exception {
+        InternalTaskFlowJob jobState = new InternalTaskFlowJob();
+        InternalScriptTask task = new InternalScriptTask(jobState);
+        task.setName("task");
+        jobState.addTask(task);
+
+        TaskId taskId = TaskIdImpl.createTaskId(JobIdImpl.makeJobId("123"), "task", 1);
+        when(mockScheduler.getJobState("123")).thenReturn(jobState);
+        TaskResult first = new TaskResultImpl(taskId, "result", new SimpleTaskLogs("first", ""), 100);
+        TaskResult second = new TaskResultImpl(taskId, "result", new SimpleTaskLogs("second\n", ""), 100);
+        when(mockScheduler.getTaskResultAllIncarnations("123", "task")).thenReturn(Arrays.asList(first, second));
+
+        InputStream fullLogs = (InputStream) restScheduler.jobFullLogs(validSessionId, "123", validSessionId, null)
+                                                          .getEntity();
+
+        assertEquals("first" + System.lineSeparator() + "second\n",
+                     IOUtils.toString(fullLogs, Charset.defaultCharset()));
+    }
+
     private static void addTask(InternalTaskFlowJob jobState, long finishedTime, long id) {
         InternalScriptTask task = new InternalScriptTask(jobState);
         task.setPreciousLogs(true);
@@ -42,16 +42,20 @@ import org.junit.Before;
 import org.junit.Test;
 import org.ow2.proactive.scheduler.common.Page;
 import org.ow2.proactive.scheduler.common.SortSpecifierContainer;
+import org.ow2.proactive.scheduler.common.exception.UnknownTaskException;
+import org.ow2.proactive.scheduler.common.job.JobId;
 import org.ow2.proactive.scheduler.common.job.JobState;
 import org.ow2.proactive.scheduler.common.task.TaskId;
 import org.ow2.proactive.scheduler.common.task.TaskState;
 import org.ow2.proactive.scheduler.common.task.TaskStatesPage;
+import org.ow2.proactive.scheduler.common.task.TaskStatus;
 import org.ow2.proactive.scheduler.common.util.SchedulerProxyUserInterface;
 import org.ow2.proactive_grid_cloud_portal.RestTestServer;
 import org.ow2.proactive_grid_cloud_portal.common.SchedulerRestInterface;
 import org.ow2.proactive_grid_cloud_portal.common.SharedSessionStoreTestUtils;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.RestPage;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.TaskStateData;
+import org.ow2.proactive_grid_cloud_portal.scheduler.exception.UnknownTaskRestException;
 
 
 /**
@@ -304,4 +308,38 @@ public class SchedulerStateRestTaskCentricTest extends RestTestServer {
 
     }
 
+    @Test
+    public void testWaitForFinishedTasks() throws Throwable {
+        TaskState finishedTask = newTaskState("1", null, 0, 2);
+        when(finishedTask.getName()).thenReturn("finished");
+        TaskState runningTask = newTaskState("1", null, 1, 2);
+        when(runningTask.getStatus()).thenReturn(TaskStatus.RUNNING);
+        when(mockOfScheduler.getTaskPaginated(eq("1"),
+                                              eq("finished"),
+                                              anyInt(),
+                                              anyInt())).thenReturn(new TaskStatesPage(Arrays.asList(finishedTask),
+                                                                                       1));
+        when(mockOfScheduler.getTaskState(any(JobId.class), eq("running"))).thenReturn(runningTask);
+
+        List<String> finishedTasks = restInterface.waitForFinishedTasks(sessionId,
+                                                                        "1",
+                                                                        Arrays.asList("running", "finished"),
+                                                                        0);
+
+        assertEquals(Arrays.asList("finished"), finishedTasks);
+    }
+
+    @Test(expected = UnknownTaskRestException.class)
+    public void testWaitForUnknownTask() throws Throwable {
+        when(mockOfScheduler.getTaskPaginated(eq("1"),
+                                              eq("finished"),
+                                              anyInt(),
+                                              anyInt())).thenReturn(new TaskStatesPage(new ArrayList<TaskState>(),
+                                                                                       0));
+        when(mockOfScheduler.getTaskState(any(JobId.class),
+                                          eq("unknown"))).thenThrow(new UnknownTaskException("unknown"));
+
+        restInterface.waitForFinishedTasks(sessionId, "1", Arrays.asList("unknown"), 60000);
+    }
+
 }
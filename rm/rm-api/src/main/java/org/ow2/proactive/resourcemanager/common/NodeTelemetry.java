@@ -0,0 +1,162 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.common;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.objectweb.proactive.annotation.PublicAPI;
+
+
+/**
+ * Resource usage of the machine hosting a node, periodically pushed by the node JVM to the
+ * resource manager. The same telemetry is shared by all the nodes of a JVM.
+ * <p>
+ * Values which could not be measured are negative.
+ *
+ * @author The ProActive Team
+ */
+@PublicAPI
+public class NodeTelemetry implements Serializable {
+
+    /** Name of the node property used to reserve memory on a node, in gigabytes */
+    public static final String RESERVED_MEMORY_PROPERTY = "ALLOC_RAM_GIGABYTES";
+
+    private long timestamp;
+
+    private long totalMemory = -1;
+
+    private long freeMemory = -1;
+
+    private double cpuLoad = -1;
+
+    private int availableProcessors = -1;
+
+    private long totalDiskSpace = -1;
+
+    private long freeDiskSpace = -1;
+
+    private Map<String, Double> reservedMemory = new HashMap<>();
+
+    // for Jackson de-serialization purpose
+    public NodeTelemetry() {
+    }
+
+    public NodeTelemetry(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Returns the time at which the telemetry was collected, according to the clock of the node.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the physical memory of the machine, in bytes.
+     */
+    public long getTotalMemory() {
+        return totalMemory;
+    }
+
+    public void setTotalMemory(long totalMemory) {
+        this.totalMemory = totalMemory;
+    }
+
+    /**
+     * Returns the physical memory available to new processes, in bytes.
+     */
+    public long getFreeMemory() {
+        return freeMemory;
+    }
+
+    public void setFreeMemory(long freeMemory) {
+        this.freeMemory = freeMemory;
+    }
+
+    /**
+     * Returns the cpu usage of the machine, between 0 and 1.
+     */
+    public double getCpuLoad() {
+        return cpuLoad;
+    }
+
+    public void setCpuLoad(double cpuLoad) {
+        this.cpuLoad = cpuLoad;
+    }
+
+    public int getAvailableProcessors() {
+        return availableProcessors;
+    }
+
+    public void setAvailableProcessors(int availableProcessors) {
+        this.availableProcessors = availableProcessors;
+    }
+
+    /**
+     * Returns the size of the file system holding the node temporary files, in bytes.
+     */
+    public long getTotalDiskSpace() {
+        return totalDiskSpace;
+    }
+
+    public void setTotalDiskSpace(long totalDiskSpace) {
+        this.totalDiskSpace = totalDiskSpace;
+    }
+
+    /**
+     * Returns the space available on the file system holding the node temporary files, in bytes.
+     */
+    public long getFreeDiskSpace() {
+        return freeDiskSpace;
+    }
+
+    public void setFreeDiskSpace(long freeDiskSpace) {
+        this.freeDiskSpace = freeDiskSpace;
+    }
+
+    /**
+     * Returns the memory reserved through the {@link #RESERVED_MEMORY_PROPERTY} property, in gigabytes,
+     * per name of the nodes of the JVM which define it.
+     */
+    public Map<String, Double> getReservedMemory() {
+        return reservedMemory;
+    }
+
+    public void setReservedMemory(String nodeName, double gigabytes) {
+        reservedMemory.put(nodeName, gigabytes);
+    }
+
+    @Override
+    public String toString() {
+        return "NodeTelemetry{timestamp=" + timestamp + ", totalMemory=" + totalMemory + ", freeMemory=" +
+               freeMemory + ", cpuLoad=" + cpuLoad + ", availableProcessors=" + availableProcessors +
+               ", totalDiskSpace=" + totalDiskSpace + ", freeDiskSpace=" + freeDiskSpace + ", reservedMemory=" +
+               reservedMemory + '}';
+    }
+}
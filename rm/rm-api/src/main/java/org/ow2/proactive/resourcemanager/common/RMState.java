@@ -26,6 +26,8 @@
 package org.ow2.proactive.resourcemanager.common;
 
 import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 import javax.xml.bind.annotation.XmlRootElement;
@@ -49,9 +51,16 @@ public class RMState implements Serializable {
 
     private Long maxNumberOfNodes;
 
+    private Map<String, NodeTelemetry> freeNodesTelemetry = new HashMap<>();
+
     public RMState(RMStateNodeUrls rmNodeUrls, Long maxNumberOfNodes) {
+        this(rmNodeUrls, maxNumberOfNodes, new HashMap<String, NodeTelemetry>());
+    }
+
+    public RMState(RMStateNodeUrls rmNodeUrls, Long maxNumberOfNodes, Map<String, NodeTelemetry> freeNodesTelemetry) {
         this.rmNodeUrls = rmNodeUrls;
         this.maxNumberOfNodes = maxNumberOfNodes;
+        this.freeNodesTelemetry = freeNodesTelemetry;
     }
 
     // for Jackson de-serialization purpose
@@ -129,4 +138,14 @@ public class RMState implements Serializable {
         return getRmNodeUrls().getAllNodesUrls();
     }
 
+    /**
+     * Returns the last telemetry received from the free nodes, per node url.
+     * Free nodes whose JVM has not sent any telemetry yet are not present.
+     *
+     * @return the telemetry of the free nodes
+     */
+    public Map<String, NodeTelemetry> getFreeNodesTelemetry() {
+        return freeNodesTelemetry;
+    }
+
 }
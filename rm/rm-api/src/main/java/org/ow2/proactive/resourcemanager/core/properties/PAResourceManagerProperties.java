@@ -61,6 +61,9 @@ public enum PAResourceManagerProperties implements PACommonProperties {
     /** Ping frequency in ms used by node source for keeping a watch on handled nodes */
     RM_NODE_SOURCE_PING_FREQUENCY("pa.rm.node.source.ping.frequency", PropertyType.INTEGER, "45000"),
 
+    /** Whether nodes publish the resource usage of their machine to the resource manager at each ping */
+    RM_NODE_TELEMETRY_ENABLED("pa.rm.node.telemetry.enabled", PropertyType.BOOLEAN, "true"),
+
     /** Ping frequency used by resource manager to ping connected clients (in ms) */
     RM_CLIENT_PING_FREQUENCY("pa.rm.client.ping.frequency", PropertyType.INTEGER, "45000"),
 
@@ -70,6 +73,12 @@ public enum PAResourceManagerProperties implements PACommonProperties {
     /** The number of selection script digests stored in the cache to predict the execution results */
     RM_SELECT_SCRIPT_CACHE_SIZE("pa.rm.select.script.cache", PropertyType.INTEGER, "10000"),
 
+    /**
+     * The maximum memory (in MB) used by the selection script results kept to predict the execution results.
+     * The least recently used scripts are evicted when this limit or the number of digests is reached.
+     */
+    RM_SELECT_SCRIPT_CACHE_MEMORY("pa.rm.select.script.cache.memory", PropertyType.INTEGER, "100"),
+
     /**
      * The time period when a node has the same dynamic characteristics (in ms).
      * Default is 5 mins, which means that if any dynamic selection scripts returns
@@ -186,6 +195,19 @@ public enum PAResourceManagerProperties implements PACommonProperties {
     /** Frequency of node history removal (cron expression) */
     RM_HISTORY_REMOVAL_CRONPERIOD("pa.rm.history.removal.cronperiod", PropertyType.STRING, "*/10 * * * *"),
 
+    /**
+     * Maximum delay in milliseconds before node and user history records are written to the database.
+     * Records are written in batches, a crash loses at most this window of history.
+     * If set to 0, history records are written synchronously.
+     */
+    RM_HISTORY_DB_FLUSH_PERIOD("pa.rm.history.db.flush.period", PropertyType.INTEGER, "1000"),
+
+    /** Number of pending history records which triggers a write before the flush period expires */
+    RM_HISTORY_DB_BATCH_SIZE("pa.rm.history.db.batch.size", PropertyType.INTEGER, "500"),
+
+    /** Maximum number of pending history records, event producers write them themselves when it is reached */
+    RM_HISTORY_DB_BUFFER_SIZE("pa.rm.history.db.buffer.size", PropertyType.INTEGER, "10000"),
+
     /**
      * Defines the frequency of attempts to remove {@link NodeState#DOWN} or
      * {@link NodeState#LOST} node (cron expression). If this property is not
@@ -349,6 +371,17 @@ public enum PAResourceManagerProperties implements PACommonProperties {
      */
     LOG4J_ASYNC_APPENDER_FLUSH_TIMOUT("pa.log4j.async.appender.flush.timeout", PropertyType.INTEGER, "50"),
 
+    /**
+     * Writes the job and task logs to a segmented append-only store (one file per job) instead of one file per task,
+     * asynchronously like the asynchronous appenders
+     */
+    LOG4J_SEGMENTED_APPENDER_ENABLED("pa.log4j.segmented.appender.enabled", PropertyType.BOOLEAN, "true"),
+
+    /**
+     * Maximum number of job log segments kept open by the segmented appender
+     */
+    LOG4J_SEGMENTED_APPENDER_MAX_OPEN_SEGMENTS("pa.log4j.segmented.appender.max.open.segments", PropertyType.INTEGER, "256"),
+
     /**
      * Defines the log4j pattern used for all file appenders (used by the scheduler for job/task log files
      */
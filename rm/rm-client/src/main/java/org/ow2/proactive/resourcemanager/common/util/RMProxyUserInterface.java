@@ -50,6 +50,7 @@ import org.objectweb.proactive.core.util.wrapper.StringWrapper;
 import org.objectweb.proactive.extensions.annotation.ActiveObject;
 import org.ow2.proactive.authentication.UserData;
 import org.ow2.proactive.authentication.crypto.Credentials;
+import org.ow2.proactive.resourcemanager.common.NodeTelemetry;
 import org.ow2.proactive.resourcemanager.common.RMState;
 import org.ow2.proactive.resourcemanager.common.event.RMNodeHistory;
 import org.ow2.proactive.resourcemanager.common.event.RMNodeSourceEvent;
@@ -275,6 +276,14 @@ public class RMProxyUserInterface extends RMListenerProxy implements ResourceMan
         return target.setNodesAvailable(nodeUrls);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setNodesTelemetry(Set<String> nodeUrls, NodeTelemetry telemetry) {
+        target.setNodesTelemetry(nodeUrls, telemetry);
+    }
+
     /**
      * @see org.ow2.proactive.resourcemanager.frontend.ResourceManager#releaseNode(org.objectweb.proactive.core.node.Node)
      */
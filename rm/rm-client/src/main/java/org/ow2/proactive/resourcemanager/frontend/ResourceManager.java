@@ -36,6 +36,7 @@ import org.objectweb.proactive.core.util.wrapper.BooleanWrapper;
 import org.objectweb.proactive.core.util.wrapper.IntWrapper;
 import org.objectweb.proactive.core.util.wrapper.StringWrapper;
 import org.ow2.proactive.authentication.UserData;
+import org.ow2.proactive.resourcemanager.common.NodeTelemetry;
 import org.ow2.proactive.resourcemanager.common.RMState;
 import org.ow2.proactive.resourcemanager.common.event.RMEvent;
 import org.ow2.proactive.resourcemanager.common.event.RMNodeHistory;
@@ -299,6 +300,16 @@ public interface ResourceManager {
      */
     Set<String> setNodesAvailable(Set<String> nodeUrls);
 
+    /**
+     * This method is called periodically by ProActive Nodes to publish the resource
+     * usage of their machine. The telemetry is kept by the Resource Manager and given
+     * with the nodes selected by {@link #getNodes(Criteria)} and in {@link #getState()}.
+     *
+     * @param nodeUrls the URLs of the workers associated to the node that publishes the telemetry.
+     * @param telemetry the resource usage of the machine hosting the workers.
+     */
+    void setNodesTelemetry(Set<String> nodeUrls, NodeTelemetry telemetry);
+
     /**
      * Returns true if the resource manager is operational and a client is connected.
      *
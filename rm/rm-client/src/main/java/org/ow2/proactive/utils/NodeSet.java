@@ -27,12 +27,15 @@ package org.ow2.proactive.utils;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.Set;
 
 import org.objectweb.proactive.annotation.PublicAPI;
 import org.objectweb.proactive.core.node.Node;
+import org.ow2.proactive.resourcemanager.common.NodeTelemetry;
 
 
 /**
@@ -60,6 +63,11 @@ public class NodeSet extends ArrayList<Node> {
      */
     private Collection<Node> extraNodes;
 
+    /**
+     * telemetry of the nodes at selection time, per node url
+     */
+    private Map<String, NodeTelemetry> telemetry;
+
     /**
      * constructor.
      */
@@ -93,6 +101,9 @@ public class NodeSet extends ArrayList<Node> {
         if (another.getExtraNodes() != null) {
             this.extraNodes = new LinkedList<>(another.getExtraNodes());
         }
+        if (another.telemetry != null) {
+            this.telemetry = new HashMap<>(another.telemetry);
+        }
     }
 
     /**
@@ -110,6 +121,29 @@ public class NodeSet extends ArrayList<Node> {
         this.extraNodes = extraNodes;
     }
 
+    /**
+     * Returns the last telemetry received by the resource manager from the JVM of a node
+     * when the node was selected, or null if this JVM has not sent any telemetry.
+     *
+     * @param nodeUrl url of the node
+     */
+    public NodeTelemetry getTelemetry(String nodeUrl) {
+        return telemetry == null ? null : telemetry.get(nodeUrl);
+    }
+
+    /**
+     * Sets the telemetry of a node of this set.
+     *
+     * @param nodeUrl url of the node
+     * @param nodeTelemetry telemetry of the JVM of the node
+     */
+    public void setTelemetry(String nodeUrl, NodeTelemetry nodeTelemetry) {
+        if (telemetry == null) {
+            telemetry = new HashMap<>();
+        }
+        telemetry.put(nodeUrl, nodeTelemetry);
+    }
+
     /**
      * Return the total number of nodes (standard + extra) included in this node set
      *
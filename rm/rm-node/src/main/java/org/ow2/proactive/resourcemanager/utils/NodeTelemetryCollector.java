@@ -0,0 +1,120 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.utils;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+
+import org.apache.log4j.Logger;
+import org.hyperic.sigar.Mem;
+import org.hyperic.sigar.Sigar;
+import org.objectweb.proactive.core.runtime.LocalNode;
+import org.objectweb.proactive.core.runtime.ProActiveRuntimeImpl;
+import org.ow2.proactive.resourcemanager.common.NodeTelemetry;
+
+import com.sun.management.OperatingSystemMXBean;
+
+
+/**
+ * Collects the {@link NodeTelemetry} published by {@link RMNodeStarter} to the resource manager.
+ * <p>
+ * Memory and cpu usage are read with Sigar, the library behind the node monitoring MBeans, and
+ * with the JVM operating system MBean when Sigar is not available on the platform.
+ * Instances are not thread-safe.
+ */
+public class NodeTelemetryCollector {
+
+    private static final Logger logger = Logger.getLogger(NodeTelemetryCollector.class);
+
+    private final File diskFolder;
+
+    private Sigar sigar;
+
+    /**
+     * @param diskFolder folder whose file system space is reported
+     */
+    public NodeTelemetryCollector(File diskFolder) {
+        this.diskFolder = diskFolder;
+        try {
+            Sigar candidate = new Sigar();
+            candidate.getMem();
+            this.sigar = candidate;
+        } catch (Throwable e) {
+            logger.debug("Sigar is not available, node telemetry will rely on the JVM", e);
+        }
+    }
+
+    public NodeTelemetry collect() {
+        NodeTelemetry telemetry = new NodeTelemetry(System.currentTimeMillis());
+        telemetry.setAvailableProcessors(Runtime.getRuntime().availableProcessors());
+
+        if (!collectWithSigar(telemetry)) {
+            collectWithJvm(telemetry);
+        }
+
+        telemetry.setTotalDiskSpace(diskFolder.getTotalSpace());
+        telemetry.setFreeDiskSpace(diskFolder.getUsableSpace());
+
+        for (LocalNode localNode : ProActiveRuntimeImpl.getProActiveRuntime().getLocalNodes()) {
+            String reserved = localNode.getProperty(NodeTelemetry.RESERVED_MEMORY_PROPERTY);
+            if (reserved != null) {
+                try {
+                    telemetry.setReservedMemory(localNode.getName(), Double.parseDouble(reserved));
+                } catch (NumberFormatException e) {
+                    logger.warn("Invalid " + NodeTelemetry.RESERVED_MEMORY_PROPERTY + " property on node " +
+                                localNode.getName() + " : " + reserved);
+                }
+            }
+        }
+        return telemetry;
+    }
+
+    private boolean collectWithSigar(NodeTelemetry telemetry) {
+        if (sigar == null) {
+            return false;
+        }
+        try {
+            Mem mem = sigar.getMem();
+            telemetry.setTotalMemory(mem.getTotal());
+            telemetry.setFreeMemory(mem.getActualFree());
+            telemetry.setCpuLoad(sigar.getCpuPerc().getCombined());
+            return true;
+        } catch (Throwable e) {
+            logger.debug("Could not read the resource usage with Sigar", e);
+            return false;
+        }
+    }
+
+    private void collectWithJvm(NodeTelemetry telemetry) {
+        java.lang.management.OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        if (bean instanceof OperatingSystemMXBean) {
+            OperatingSystemMXBean osBean = (OperatingSystemMXBean) bean;
+            telemetry.setTotalMemory(osBean.getTotalPhysicalMemorySize());
+            telemetry.setFreeMemory(osBean.getFreePhysicalMemorySize());
+            telemetry.setCpuLoad(osBean.getSystemCpuLoad());
+        }
+    }
+}
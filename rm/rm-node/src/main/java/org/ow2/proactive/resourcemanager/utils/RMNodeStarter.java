@@ -292,6 +292,8 @@ public class RMNodeStarter {
 
     private SigarExposer sigarExposer;
 
+    private NodeTelemetryCollector nodeTelemetryCollector;
+
     public RMNodeStarter() {
 
     }
@@ -645,6 +647,8 @@ public class RMNodeStarter {
             killWorkerNodeIfRemovedByUser(this.nodes, unknownNodeUrl);
         }
 
+        publishTelemetry();
+
         int nodeCount = this.nodes.size();
 
         if (logger.isDebugEnabled()) {
@@ -654,6 +658,22 @@ public class RMNodeStarter {
         return nodeCount > 0;
     }
 
+    private void publishTelemetry() {
+        if (!PAResourceManagerProperties.RM_NODE_TELEMETRY_ENABLED.getValueAsBoolean() || this.nodes.isEmpty()) {
+            return;
+        }
+        try {
+            if (nodeTelemetryCollector == null) {
+                nodeTelemetryCollector = new NodeTelemetryCollector(new File(System.getProperty("java.io.tmpdir")));
+            }
+            // one way call, the node does not wait for the resource manager
+            this.resourceManager.setNodesTelemetry(ImmutableSet.copyOf(nodes.keySet()),
+                                                   nodeTelemetryCollector.collect());
+        } catch (Exception e) {
+            logger.warn("Could not publish the node telemetry to the resource manager", e);
+        }
+    }
+
     private void killWorkerNodeIfRemovedByUser(Map<String, Node> nodes, String unknownNodeUrl) {
         Node node = nodes.get(unknownNodeUrl);
 
@@ -47,6 +47,7 @@ import org.ow2.proactive.resourcemanager.frontend.RMMonitoring;
 import org.ow2.proactive.resourcemanager.selection.SelectionManager;
 import org.ow2.proactive.utils.FileUtils;
 import org.ow2.proactive.utils.appenders.MultipleFileAppender;
+import org.ow2.proactive.utils.appenders.SegmentedLogStore;
 
 
 /**
@@ -149,6 +150,7 @@ public class RMFactory {
             if (cleanStart) {
                 // removing selection logs directory
                 logger.info("Removing logs " + logsLocation);
+                SegmentedLogStore.forLocation(logsLocation).clear();
                 FileUtils.removeDir(new File(logsLocation));
             }
 
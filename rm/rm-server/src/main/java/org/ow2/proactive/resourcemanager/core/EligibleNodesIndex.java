@@ -0,0 +1,248 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.ow2.proactive.resourcemanager.rmnode.RMNode;
+
+
+/**
+ * Index of the nodes eligible for scheduling, i.e. the nodes which are free and not locked.
+ * <p>
+ * Nodes are indexed by url, by node source name and by access token, so that adding or removing
+ * a node does not scan the other ones. Each modification increments a version, and the snapshots
+ * returned by {@link #getNodes()} and {@link #getNodeUrls()} are immutable copies shared until
+ * the next modification.
+ * <p>
+ * The nodes are kept in the order they became eligible.
+ */
+public class EligibleNodesIndex {
+
+    private final Map<String, IndexedNode> nodes = new LinkedHashMap<>();
+
+    private final Map<String, Map<String, RMNode>> nodesPerNodeSource = new HashMap<>();
+
+    private final Map<String, Map<String, RMNode>> nodesPerToken = new HashMap<>();
+
+    private long version = 0;
+
+    private long snapshotVersion = -1;
+
+    private List<RMNode> nodesSnapshot;
+
+    private long urlsSnapshotVersion = -1;
+
+    private Set<String> urlsSnapshot;
+
+    public EligibleNodesIndex() {
+    }
+
+    public EligibleNodesIndex(Collection<RMNode> nodes) {
+        addAll(nodes);
+    }
+
+    /**
+     * Adds a node to the index, does nothing if a node with the same url is already present.
+     *
+     * @return true if the node has been added
+     */
+    public synchronized boolean add(RMNode rmNode) {
+        String url = rmNode.getNodeURL();
+        if (nodes.containsKey(url)) {
+            return false;
+        }
+        IndexedNode indexedNode = new IndexedNode(rmNode);
+        nodes.put(url, indexedNode);
+        addToView(nodesPerNodeSource, indexedNode.nodeSourceName, url, rmNode);
+        for (String token : indexedNode.tokens) {
+            addToView(nodesPerToken, token, url, rmNode);
+        }
+        version++;
+        return true;
+    }
+
+    public synchronized void addAll(Collection<RMNode> rmNodes) {
+        for (RMNode rmNode : rmNodes) {
+            add(rmNode);
+        }
+    }
+
+    /**
+     * Removes the node with the same url as the given one.
+     *
+     * @return true if the node was present
+     */
+    public synchronized boolean remove(RMNode rmNode) {
+        String url = rmNode.getNodeURL();
+        IndexedNode indexedNode = nodes.remove(url);
+        if (indexedNode == null) {
+            return false;
+        }
+        removeFromView(nodesPerNodeSource, indexedNode.nodeSourceName, url);
+        for (String token : indexedNode.tokens) {
+            removeFromView(nodesPerToken, token, url);
+        }
+        version++;
+        return true;
+    }
+
+    /**
+     * Re-indexes a node whose tokens may have changed, does nothing if the node is not eligible.
+     */
+    public synchronized void update(RMNode rmNode) {
+        if (remove(rmNode)) {
+            add(rmNode);
+        }
+    }
+
+    public synchronized boolean contains(RMNode rmNode) {
+        return nodes.containsKey(rmNode.getNodeURL());
+    }
+
+    public synchronized RMNode get(String url) {
+        IndexedNode indexedNode = nodes.get(url);
+        return indexedNode == null ? null : indexedNode.rmNode;
+    }
+
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    public synchronized boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    /**
+     * Returns the number of modifications of the index.
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns an immutable snapshot of the eligible nodes.
+     */
+    public synchronized List<RMNode> getNodes() {
+        if (snapshotVersion != version) {
+            List<RMNode> snapshot = new ArrayList<>(nodes.size());
+            for (IndexedNode indexedNode : nodes.values()) {
+                snapshot.add(indexedNode.rmNode);
+            }
+            nodesSnapshot = Collections.unmodifiableList(snapshot);
+            snapshotVersion = version;
+        }
+        return nodesSnapshot;
+    }
+
+    /**
+     * Returns an immutable snapshot of the eligible node urls.
+     */
+    public synchronized Set<String> getNodeUrls() {
+        if (urlsSnapshotVersion != version) {
+            urlsSnapshot = Collections.unmodifiableSet(new LinkedHashSet<>(nodes.keySet()));
+            urlsSnapshotVersion = version;
+        }
+        return urlsSnapshot;
+    }
+
+    /**
+     * Returns the eligible nodes among the given urls.
+     */
+    public synchronized List<RMNode> getNodes(Collection<String> urls) {
+        List<RMNode> result = new ArrayList<>(Math.min(urls.size(), nodes.size()));
+        for (String url : urls) {
+            IndexedNode indexedNode = nodes.get(url);
+            if (indexedNode != null) {
+                result.add(indexedNode.rmNode);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the eligible nodes of a node source.
+     */
+    public synchronized List<RMNode> getNodesOfNodeSource(String nodeSourceName) {
+        return copyView(nodesPerNodeSource, nodeSourceName);
+    }
+
+    /**
+     * Returns the eligible nodes protected by the given token.
+     */
+    public synchronized List<RMNode> getNodesWithToken(String token) {
+        return copyView(nodesPerToken, token);
+    }
+
+    private static void addToView(Map<String, Map<String, RMNode>> view, String key, String url, RMNode rmNode) {
+        view.computeIfAbsent(key, k -> new LinkedHashMap<>()).put(url, rmNode);
+    }
+
+    private static void removeFromView(Map<String, Map<String, RMNode>> view, String key, String url) {
+        Map<String, RMNode> nodesOfKey = view.get(key);
+        if (nodesOfKey != null) {
+            nodesOfKey.remove(url);
+            if (nodesOfKey.isEmpty()) {
+                view.remove(key);
+            }
+        }
+    }
+
+    private static List<RMNode> copyView(Map<String, Map<String, RMNode>> view, String key) {
+        Map<String, RMNode> nodesOfKey = view.get(key);
+        if (nodesOfKey == null) {
+            return new ArrayList<>(0);
+        }
+        return new ArrayList<>(nodesOfKey.values());
+    }
+
+    /**
+     * Node with the keys it was indexed with, so that it can be removed even if they changed since.
+     */
+    private static final class IndexedNode {
+
+        private final RMNode rmNode;
+
+        private final String nodeSourceName;
+
+        private final List<String> tokens;
+
+        private IndexedNode(RMNode rmNode) {
+            this.rmNode = rmNode;
+            this.nodeSourceName = rmNode.getNodeSourceName();
+            List<String> nodeTokens = rmNode.getNodeTokens();
+            this.tokens = nodeTokens == null ? Collections.<String> emptyList() : new ArrayList<>(nodeTokens);
+        }
+    }
+}
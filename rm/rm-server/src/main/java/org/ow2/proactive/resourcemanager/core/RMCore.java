@@ -83,6 +83,7 @@ import org.ow2.proactive.resourcemanager.authentication.Client;
 import org.ow2.proactive.resourcemanager.authentication.RMAuthenticationImpl;
 import org.ow2.proactive.resourcemanager.cleaning.NodesCleaner;
 import org.ow2.proactive.resourcemanager.common.NodeState;
+import org.ow2.proactive.resourcemanager.common.NodeTelemetry;
 import org.ow2.proactive.resourcemanager.common.RMConstants;
 import org.ow2.proactive.resourcemanager.common.RMState;
 import org.ow2.proactive.resourcemanager.common.RMStateNodeUrls;
@@ -269,7 +270,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
      * It corresponds to nodes that are in the `FREE` state and not locked.
      * Nodes which are locked are not part of this list.
      **/
-    private List<RMNode> eligibleNodes;
+    private EligibleNodesIndex eligibleNodes;
 
     private SelectionManager selectionManager;
 
@@ -354,7 +355,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
         this.allNodes = new ConcurrentHashMap<>();
         this.delayedNodeSourceRemovalEvents = new ConcurrentHashMap<>();
         this.delayedNodeSourceUndeploying = new ConcurrentHashMap<>();
-        this.eligibleNodes = Collections.synchronizedList(new ArrayList<RMNode>());
+        this.eligibleNodes = new EligibleNodesIndex();
 
         this.accountsManager = new RMAccountsManager();
         this.jmxHelper = new RMJMXHelper(this.accountsManager);
@@ -369,7 +370,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
         this.caller = caller;
         this.monitoring = monitoring;
         this.selectionManager = manager;
-        this.eligibleNodes = freeNodesList;
+        this.eligibleNodes = new EligibleNodesIndex(freeNodesList);
         this.dbManager = newDataBaseManager;
     }
 
@@ -691,6 +692,9 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
             eligibleNodes.remove(rmnode);
         }
         this.allNodes.remove(rmnode.getNodeURL());
+        if (selectionManager != null) {
+            selectionManager.nodeRemoved(rmnode.getNodeURL());
+        }
 
         // persist node removal
         dbManager.removeNode(rmnode);
@@ -978,7 +982,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
 
         // temporary list to avoid concurrent modification
         List<RMNode> nodelList = new LinkedList<>();
-        nodelList.addAll(eligibleNodes);
+        nodelList.addAll(eligibleNodes.getNodesOfNodeSource(nodeSourceName));
 
         logger.debug("Free nodes size " + nodelList.size());
         for (RMNode node : nodelList) {
@@ -987,10 +991,8 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
                 break;
             }
 
-            if (node.getNodeSource().getName().equals(nodeSourceName)) {
-                removeNode(node.getNodeURL(), preemptive);
-                numberOfRemovedNodes++;
-            }
+            removeNode(node.getNodeURL(), preemptive);
+            numberOfRemovedNodes++;
         }
 
         nodelList.clear();
@@ -1182,6 +1184,40 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
         return nodeUrlsNotKnownByTheRM.build();
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The method is defined as Immediate Service, it only stores the telemetry
+     * on the known nodes.
+     */
+    @ImmediateService
+    @Override
+    public void setNodesTelemetry(Set<String> nodeUrls, NodeTelemetry telemetry) {
+
+        checkPermissionAndGetClientIsSuccessful();
+        waitForRMCoreToBeInitializedIfNeeded();
+
+        if (logger.isTraceEnabled()) {
+            logger.trace("Received telemetry for the following workers: " + nodeUrls + " : " + telemetry);
+        }
+
+        for (String nodeUrl : nodeUrls) {
+            RMNode node = this.allNodes.get(nodeUrl);
+            if (node != null) {
+                node.setTelemetry(telemetry);
+            }
+        }
+    }
+
+    /**
+     * Returns the last telemetry published by the JVM of a node, or null if the node is unknown
+     * or has not published any telemetry.
+     */
+    public NodeTelemetry getNodeTelemetry(String nodeUrl) {
+        RMNode node = this.allNodes.get(nodeUrl);
+        return node == null ? null : node.getTelemetry();
+    }
+
     private void waitForRMCoreToBeInitializedIfNeeded() {
         try {
             if (countDownLatch.getCount() != 0) {
@@ -2302,8 +2338,25 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
         }
     }
 
+    /**
+     * Returns a snapshot of the nodes eligible for scheduling.
+     */
     public List<RMNode> getFreeNodes() {
-        return eligibleNodes;
+        return eligibleNodes.getNodes();
+    }
+
+    /**
+     * Returns the nodes eligible for scheduling among the given urls.
+     */
+    public List<RMNode> getFreeNodes(Collection<String> nodeUrls) {
+        return eligibleNodes.getNodes(nodeUrls);
+    }
+
+    /**
+     * Returns the nodes eligible for scheduling which are protected by the given token.
+     */
+    public List<RMNode> getFreeNodesWithToken(String token) {
+        return eligibleNodes.getNodesWithToken(token);
     }
 
     /**
@@ -2422,10 +2475,17 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
      * {@inheritDoc}
      */
     public RMState getState() {
-        RMStateNodeUrls rmStateNodeUrls = new RMStateNodeUrls(nodesListToUrlsSet(eligibleNodes),
+        RMStateNodeUrls rmStateNodeUrls = new RMStateNodeUrls(eligibleNodes.getNodeUrls(),
                                                               listAliveNodeUrls(),
                                                               nodesListToUrlsSet(allNodes.values()));
-        RMState state = new RMState(rmStateNodeUrls, maximumNumberOfNodes);
+        Map<String, NodeTelemetry> freeNodesTelemetry = new HashMap<>();
+        for (RMNode node : eligibleNodes.getNodes()) {
+            NodeTelemetry telemetry = node.getTelemetry();
+            if (telemetry != null) {
+                freeNodesTelemetry.put(node.getNodeURL(), telemetry);
+            }
+        }
+        RMState state = new RMState(rmStateNodeUrls, maximumNumberOfNodes, freeNodesTelemetry);
         return state;
     }
 
@@ -3139,6 +3199,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
                 checkNodeAdminPermission(rmNode, caller);
             }
             rmNode.addToken(token);
+            eligibleNodes.update(rmNode);
 
             persistUpdatedRMNodeIfRecoveryEnabled(rmNode);
 
@@ -3171,8 +3232,9 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
 
     @Override
     public Map<String, List<String>> getAllEligibleNodesTokens() throws RMException {
-        Map<String, List<String>> allNodesTokens = new LinkedHashMap<>(eligibleNodes.size());
-        for (RMNode rmNode : eligibleNodes) {
+        List<RMNode> eligibleNodesSnapshot = eligibleNodes.getNodes();
+        Map<String, List<String>> allNodesTokens = new LinkedHashMap<>(eligibleNodesSnapshot.size());
+        for (RMNode rmNode : eligibleNodesSnapshot) {
             allNodesTokens.put(rmNode.getNodeURL(), rmNode.getNodeTokens());
         }
         return allNodesTokens;
@@ -3231,6 +3293,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
                 checkNodeAdminPermission(rmNode, caller);
             }
             rmNode.removeToken(token);
+            eligibleNodes.update(rmNode);
 
             persistUpdatedRMNodeIfRecoveryEnabled(rmNode);
 
@@ -3251,6 +3314,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
         if (allNodes.containsKey(nodeUrl)) {
             RMNode rmNode = allNodes.get(nodeUrl);
             rmNode.setNodeTokens(nodeUrl, tokens);
+            eligibleNodes.update(rmNode);
 
             persistUpdatedRMNodeIfRecoveryEnabled(rmNode);
 
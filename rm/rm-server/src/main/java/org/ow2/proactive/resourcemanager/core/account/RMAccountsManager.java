@@ -78,6 +78,9 @@ public final class RMAccountsManager extends AbstractAccountsManager<RMAccount>
             RMAccount account = new RMAccount();
             account.username = user;
 
+            // the account is computed from the history, including the records not written yet
+            dbmanager.flushHistory();
+
             String history = NodeHistory.class.getAnnotation(Table.class).name();
             String endTime = NodeHistory.class.getDeclaredField("endTime").getAnnotation(Column.class).name();
             String startTime = NodeHistory.class.getDeclaredField("startTime").getAnnotation(Column.class).name();
@@ -79,6 +79,8 @@ public class RMDBManager {
 
     private final RMDBManagerBuffer rmdbManagerBuffer;
 
+    private RMHistoryBuffer historyBuffer;
+
     private Scheduler houseKeepingScheduler;
 
     private static final class LazyHolder {
@@ -175,10 +177,16 @@ public class RMDBManager {
 
             configuration.setProperty("hibernate.id.new_generator_mappings", "true");
             configuration.setProperty("hibernate.jdbc.use_streams_for_binary", "true");
+            if (configuration.getProperty("hibernate.jdbc.batch_size") == null) {
+                // history records are inserted in batches
+                configuration.setProperty("hibernate.jdbc.batch_size",
+                                          PAResourceManagerProperties.RM_HISTORY_DB_BATCH_SIZE.getValueAsString());
+            }
 
             sessionFactory = configuration.buildSessionFactory();
             transactionHelper = new TransactionHelper(sessionFactory);
             rmdbManagerBuffer = new RMDBManagerBuffer(this);
+            historyBuffer = new RMHistoryBuffer(this);
 
             Alive lastAliveTimeResult = findRmLastAliveEntry();
 
@@ -285,6 +293,9 @@ public class RMDBManager {
 
     public void close() {
         try {
+            if (historyBuffer != null) {
+                historyBuffer.close();
+            }
             if (sessionFactory != null) {
                 logger.info("Closing session factory");
                 sessionFactory.close();
@@ -582,41 +593,40 @@ public class RMDBManager {
         }
     }
 
+    /**
+     * Queues the creation of a user history record, see {@link RMHistoryBuffer}.
+     */
     public void saveUserHistory(final UserHistory history) {
-        executeReadWriteTransaction(new SessionWork<Void>() {
-            @Override
-            public Void doInTransaction(Session session) {
-                session.save(history);
-                return null;
-            }
-        });
+        historyBuffer.addUserHistorySave(history);
     }
 
+    /**
+     * Queues the update of a user history record, see {@link RMHistoryBuffer}.
+     */
     public void updateUserHistory(final UserHistory history) {
-        executeReadWriteTransaction(new SessionWork<Void>() {
-            @Override
-            public Void doInTransaction(Session session) {
-                session.update(history);
-                return null;
-            }
-        });
+        historyBuffer.addUserHistoryUpdate(history);
+    }
+
+    /**
+     * Queues a node history record, closing the previous state of the node, see {@link RMHistoryBuffer}.
+     */
+    public void bufferNodeHistory(final NodeHistory nodeHistory) {
+        historyBuffer.addNodeHistory(nodeHistory);
     }
 
+    /**
+     * Saves a node history record and all the pending history records synchronously.
+     */
     public void saveNodeHistory(final NodeHistory nodeHistory) {
-        executeReadWriteTransaction(new SessionWork<Void>() {
-            @Override
-            public Void doInTransaction(Session session) {
-                session.createSQLQuery("update NodeHistory set endTime=:endTime where nodeUrl=:nodeUrl and endTime=0")
-                       .setParameter("endTime", nodeHistory.getStartTime())
-                       .setParameter("nodeUrl", nodeHistory.getNodeUrl())
-                       .executeUpdate();
+        historyBuffer.addNodeHistory(nodeHistory);
+        historyBuffer.flush();
+    }
 
-                if (nodeHistory.isStoreInDataBase()) {
-                    session.save(nodeHistory);
-                }
-                return null;
-            }
-        });
+    /**
+     * Writes all the pending history records to the database.
+     */
+    public void flushHistory() {
+        historyBuffer.flush();
     }
 
     public void deleteOldNodeHistory() {
@@ -818,6 +828,7 @@ public class RMDBManager {
     }
 
     public List<NodeHistory> getNodesHistory(long windowStart, long windowEnd) {
+        historyBuffer.flush();
         return executeReadTransaction(session -> {
             //            this expression is built as negation to expression that
             //            retrieves all items that we do not want to have in the response.
@@ -0,0 +1,244 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.db;
+
+import static org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties.RM_HISTORY_DB_BATCH_SIZE;
+import static org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties.RM_HISTORY_DB_BUFFER_SIZE;
+import static org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties.RM_HISTORY_DB_FLUSH_PERIOD;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.log4j.Logger;
+import org.hibernate.Session;
+import org.objectweb.proactive.core.util.log.ProActiveLogger;
+import org.objectweb.proactive.utils.NamedThreadFactory;
+import org.ow2.proactive.db.SessionWork;
+import org.ow2.proactive.resourcemanager.core.history.NodeHistory;
+import org.ow2.proactive.resourcemanager.core.history.UserHistory;
+
+
+/**
+ * Group commit of the node and user history records.
+ * <p>
+ * Records are queued in a bounded buffer and written in a single transaction when the batch size is
+ * reached or when the flush period expires, so a crash loses at most one flush period of history.
+ * The end times of the node history rows closed by a batch are updated with a single JDBC batch,
+ * and the end times of the records which are closed inside the batch are set before
+ * they are inserted.
+ * <p>
+ * Records are written in the order they were added. When the buffer is full, the producer writes
+ * the pending records itself.
+ */
+public class RMHistoryBuffer {
+
+    private static final Logger logger = ProActiveLogger.getLogger(RMHistoryBuffer.class);
+
+    private final RMDBManager rmdbManager;
+
+    private final long flushPeriod;
+
+    private final int batchSize;
+
+    private final BlockingQueue<Object> pendingRecords;
+
+    private final Lock flushLock = new ReentrantLock();
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+
+    private ScheduledExecutorService historyWriter;
+
+    RMHistoryBuffer(RMDBManager rmdbManager) {
+        this.rmdbManager = rmdbManager;
+        this.flushPeriod = RM_HISTORY_DB_FLUSH_PERIOD.getValueAsLong();
+        this.batchSize = Math.max(1, RM_HISTORY_DB_BATCH_SIZE.getValueAsInt());
+        this.pendingRecords = new ArrayBlockingQueue<>(Math.max(batchSize, RM_HISTORY_DB_BUFFER_SIZE.getValueAsInt()));
+        if (flushPeriod > 0) {
+            historyWriter = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("RM history writer"));
+            historyWriter.scheduleWithFixedDelay(this::flushQuietly, flushPeriod, flushPeriod, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void addNodeHistory(NodeHistory nodeHistory) {
+        add(nodeHistory);
+    }
+
+    void addUserHistorySave(UserHistory userHistory) {
+        add(new UserHistoryOperation(userHistory, true));
+    }
+
+    void addUserHistoryUpdate(UserHistory userHistory) {
+        add(new UserHistoryOperation(userHistory, false));
+    }
+
+    private void add(Object record) {
+        while (!pendingRecords.offer(record)) {
+            logger.debug("History buffer is full, writing pending records");
+            flush();
+        }
+        if (historyWriter == null) {
+            flush();
+        } else if (pendingRecords.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            try {
+                historyWriter.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                flushRequested.set(false);
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Writes all the pending records to the database.
+     */
+    void flush() {
+        flushLock.lock();
+        try {
+            flushRequested.set(false);
+            List<Object> batch = new ArrayList<>(batchSize);
+            while (pendingRecords.drainTo(batch, batchSize) > 0) {
+                commit(batch);
+                batch.clear();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.warn("History records could not be written to the database", e);
+        }
+    }
+
+    /**
+     * Writes the pending records and stops the periodic flush.
+     */
+    void close() {
+        if (historyWriter != null) {
+            historyWriter.shutdown();
+            try {
+                historyWriter.awaitTermination(flushPeriod, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushQuietly();
+    }
+
+    private void commit(final List<Object> batch) {
+        logger.debug("Write " + batch.size() + " history records in database");
+        rmdbManager.executeReadWriteTransaction(new SessionWork<Void>() {
+            @Override
+            public Void doInTransaction(Session session) {
+                List<NodeHistory> nodeHistories = new ArrayList<>(batch.size());
+                for (Object record : batch) {
+                    if (record instanceof NodeHistory) {
+                        nodeHistories.add((NodeHistory) record);
+                    }
+                }
+                closeNodeHistories(session, nodeHistories);
+
+                for (Object record : batch) {
+                    if (record instanceof NodeHistory) {
+                        NodeHistory nodeHistory = (NodeHistory) record;
+                        if (nodeHistory.isStoreInDataBase()) {
+                            session.save(nodeHistory);
+                        }
+                    } else {
+                        UserHistoryOperation operation = (UserHistoryOperation) record;
+                        if (operation.save) {
+                            session.save(operation.userHistory);
+                        } else {
+                            session.update(operation.userHistory);
+                        }
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Closes the last state of each node with the start time of its next state: in memory for the
+     * records of the batch, and with a batched update for the rows already written.
+     */
+    private void closeNodeHistories(Session session, List<NodeHistory> nodeHistories) {
+        Map<String, NodeHistory> lastHistoryOfNode = new HashMap<>();
+        Map<String, Long> firstStartTimeOfNode = new LinkedHashMap<>();
+        for (NodeHistory nodeHistory : nodeHistories) {
+            NodeHistory previous = lastHistoryOfNode.put(nodeHistory.getNodeUrl(), nodeHistory);
+            if (previous == null) {
+                firstStartTimeOfNode.put(nodeHistory.getNodeUrl(), nodeHistory.getStartTime());
+            } else if (previous.isStoreInDataBase()) {
+                previous.setEndTime(nodeHistory.getStartTime());
+            }
+        }
+
+        if (firstStartTimeOfNode.isEmpty()) {
+            return;
+        }
+        // one batched statement for all the nodes of the batch
+        session.doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("update NodeHistory set endTime=? where nodeUrl=? and endTime=0")) {
+                for (Map.Entry<String, Long> firstStartTime : firstStartTimeOfNode.entrySet()) {
+                    statement.setLong(1, firstStartTime.getValue());
+                    statement.setString(2, firstStartTime.getKey());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    private static final class UserHistoryOperation {
+
+        private final UserHistory userHistory;
+
+        private final boolean save;
+
+        private UserHistoryOperation(UserHistory userHistory, boolean save) {
+            this.userHistory = userHistory;
+            this.save = save;
+        }
+    }
+
+}
@@ -32,6 +32,7 @@ import java.util.Map;
 import org.ow2.proactive.jmx.naming.JMXTransportProtocol;
 import org.ow2.proactive.resourcemanager.authentication.Client;
 import org.ow2.proactive.resourcemanager.common.NodeState;
+import org.ow2.proactive.resourcemanager.common.NodeTelemetry;
 import org.ow2.proactive.resourcemanager.common.event.RMEventType;
 import org.ow2.proactive.resourcemanager.common.event.RMNodeDescriptor;
 import org.ow2.proactive.resourcemanager.common.event.RMNodeEvent;
@@ -97,6 +98,8 @@ public abstract class AbstractRMNode implements RMNode, Serializable {
 
     protected Map<String, String> usageInfo;
 
+    protected volatile NodeTelemetry telemetry;
+
     public AbstractRMNode() {
         this.nodeName = null;
         this.nodeURL = null;
@@ -374,4 +377,14 @@ public abstract class AbstractRMNode implements RMNode, Serializable {
     public void setUsageInfo(Map<String, String> usageInfo) {
         this.usageInfo = usageInfo;
     }
+
+    @Override
+    public NodeTelemetry getTelemetry() {
+        return telemetry;
+    }
+
+    @Override
+    public void setTelemetry(NodeTelemetry telemetry) {
+        this.telemetry = telemetry;
+    }
 }
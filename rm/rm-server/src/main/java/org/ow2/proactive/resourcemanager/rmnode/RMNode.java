@@ -37,6 +37,7 @@ import org.objectweb.proactive.core.node.NodeException;
 import org.ow2.proactive.jmx.naming.JMXTransportProtocol;
 import org.ow2.proactive.resourcemanager.authentication.Client;
 import org.ow2.proactive.resourcemanager.common.NodeState;
+import org.ow2.proactive.resourcemanager.common.NodeTelemetry;
 import org.ow2.proactive.resourcemanager.common.event.RMEventType;
 import org.ow2.proactive.resourcemanager.common.event.RMNodeEvent;
 import org.ow2.proactive.resourcemanager.nodesource.NodeSource;
@@ -366,6 +367,13 @@ public interface RMNode extends Comparable<RMNode> {
 
     Map<String, String> getUsageInfo();
 
+    /**
+     * Returns the last telemetry published by the JVM of the node, or null if none was received.
+     */
+    NodeTelemetry getTelemetry();
+
+    void setTelemetry(NodeTelemetry telemetry);
+
     List<String> getNodeTokens();
 
     void setNodeTokens(String nodeUrl, List<String> tokens);
@@ -42,6 +42,7 @@ import org.ow2.proactive.authentication.principals.TokenPrincipal;
 import org.ow2.proactive.permissions.NodeUserAllPermission;
 import org.ow2.proactive.permissions.PrincipalPermission;
 import org.ow2.proactive.resourcemanager.authentication.Client;
+import org.ow2.proactive.resourcemanager.common.NodeTelemetry;
 import org.ow2.proactive.resourcemanager.core.RMCore;
 import org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties;
 import org.ow2.proactive.resourcemanager.exception.NotConnectedException;
@@ -248,7 +249,7 @@ public abstract class SelectionManager {
 
         int totalNumberOfAliveNodesRightNow = rmcore.getTotalAliveNodesNumber();
 
-        List<RMNode> freeNodes = rmcore.getFreeNodes();
+        List<RMNode> freeNodes = getCandidateFreeNodes(criteria);
         // filtering out the "free node list"
         // removing exclusion and checking permissions
         List<RMNode> filteredNodes = filterOut(freeNodes, criteria, client);
@@ -376,6 +377,12 @@ public abstract class SelectionManager {
                 logger.warn(e.getMessage(), e);
                 return null;
             }
+            // giving the telemetry with the node so that the client does not have to probe it
+            String nodeUrl = node.getNodeInformation().getURL();
+            NodeTelemetry telemetry = rmcore.getNodeTelemetry(nodeUrl);
+            if (telemetry != null) {
+                selectedNodes.setTelemetry(nodeUrl, telemetry);
+            }
             ++counter;
         }
         // marking extra selected nodes as busy
@@ -531,6 +538,21 @@ public abstract class SelectionManager {
         }
     }
 
+    /**
+     * Returns the free nodes which can match the criteria, using the free nodes index of the core
+     * when a token or a list of acceptable nodes restricts the request.
+     */
+    private List<RMNode> getCandidateFreeNodes(Criteria criteria) {
+        if (criteria.getNodeAccessToken() != null && !criteria.getNodeAccessToken().isEmpty()) {
+            // only nodes protected by the requested token can be selected
+            return rmcore.getFreeNodesWithToken(criteria.getNodeAccessToken());
+        }
+        if (criteria.getAcceptableNodesUrls() != null) {
+            return rmcore.getFreeNodes(criteria.getAcceptableNodesUrls());
+        }
+        return rmcore.getFreeNodes();
+    }
+
     /**
      * Removes exclusion nodes and nodes not accessible for the client
      */
@@ -691,6 +713,13 @@ public abstract class SelectionManager {
         return results;
     }
 
+    /**
+     * Indicates that the node with the specified url has been removed from the resource manager.
+     */
+    @ImmediateService
+    public void nodeRemoved(String nodeUrl) {
+    }
+
     /**
      * Indicates that script execution is finished for the node with specified
      * url.
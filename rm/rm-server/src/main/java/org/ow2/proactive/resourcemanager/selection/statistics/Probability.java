@@ -126,7 +126,7 @@ public class Probability {
         return String.valueOf(probability);
     }
 
-    private static double calcProbability(int step) {
+    static double calcProbability(int step) {
         return Math.atan(step) / Math.PI + 0.5;
     }
 }
@@ -28,15 +28,12 @@ package org.ow2.proactive.resourcemanager.selection.statistics;
 import java.io.Serializable;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.apache.log4j.Logger;
+import org.objectweb.proactive.annotation.ImmediateService;
 import org.objectweb.proactive.extensions.annotation.ActiveObject;
 import org.ow2.proactive.resourcemanager.core.RMCore;
 import org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties;
@@ -69,23 +66,16 @@ public class ProbablisticSelectionManager extends SelectionManager {
 
     // contains an information about already executed scripts
     // script digest => node => probability
-    private HashMap<String, HashMap<String, Probability>> probabilities;
-
-    // in order to avoid OOM when the number of scripts exceeds the limit
-    // we could :
-    // 1. Reset all the probabilities for all scripts (simple but long to recover performance)
-    // 2. Remove the oldest script execution results (too expensive and complicated)
-    //	  need to store the time, update it each time, then sort when removing
-    //    the system will be too CPU consuming working on the limit
-    // 3. Removed the oldest added script. For this we have this queue. 
-    private LinkedList<String> digestQueue = new LinkedList<>();
+    private SelectionKnowledgeBase knowledgeBase;
 
     public ProbablisticSelectionManager() {
     }
 
     public ProbablisticSelectionManager(RMCore rmcore) {
         super(rmcore);
-        this.probabilities = new HashMap<>();
+        long maxMemory = PAResourceManagerProperties.RM_SELECT_SCRIPT_CACHE_MEMORY.getValueAsLong() * 1024 * 1024;
+        this.knowledgeBase = new SelectionKnowledgeBase(PAResourceManagerProperties.RM_SELECT_SCRIPT_CACHE_SIZE.getValueAsInt(),
+                                                        maxMemory);
     }
 
     /**
@@ -108,50 +98,58 @@ public class ProbablisticSelectionManager extends SelectionManager {
             return nodes;
         }
 
+        // the knowledge of each script is resolved once for all the nodes
+        List<SelectionKnowledgeBase.ScriptKnowledge> scriptsKnowledge = new ArrayList<>(scripts.size());
+        for (SelectionScript script : scripts) {
+            String digest = digest(replaceBindings(script, bindings));
+            scriptsKnowledge.add(digest == null ? null : knowledgeBase.getScript(digest));
+        }
+
         // finding intersection
-        HashMap<RMNode, Probability> intersectionMap = new LinkedHashMap<>();
+        List<RMNode> candidates = new ArrayList<>(nodes.size());
+        double[] intersectionProbabilities = new double[nodes.size()];
         for (RMNode rmnode : nodes) {
+            int nodeId = knowledgeBase.getNodeId(rmnode.getNodeURL());
             boolean intersection = true;
             double intersectionProbability = 1;
-            for (SelectionScript script : scripts) {
-                SelectionScript scriptWithReplacedBindings = replaceBindings(script, bindings);
-                String digest = "";
-                try {
-                    digest = new String(scriptWithReplacedBindings.digest());
-                } catch (NoSuchAlgorithmException e) {
-                    logger.error(e.getMessage(), e);
-                }
-                if (probabilities.containsKey(digest) && probabilities.get(digest).containsKey(rmnode.getNodeURL())) {
-                    double probability = probabilities.get(digest).get(rmnode.getNodeURL()).value();
-                    if (Math.abs(probability - 0) < 0.0001) {
-                        intersection = false;
-                        break;
-                    } else {
-                        intersectionProbability *= probability;
-                    }
-                } else {
+            for (SelectionKnowledgeBase.ScriptKnowledge scriptKnowledge : scriptsKnowledge) {
+                double probability = scriptKnowledge == null ? SelectionKnowledgeBase.UNKNOWN
+                                                             : scriptKnowledge.getProbability(nodeId, startTime);
+                if (probability == SelectionKnowledgeBase.UNKNOWN) {
                     intersectionProbability *= Probability.defaultValue();
+                } else if (Math.abs(probability - 0) < 0.0001) {
+                    intersection = false;
+                    break;
+                } else {
+                    intersectionProbability *= probability;
                 }
             }
 
             if (intersection) {
-                intersectionMap.put(rmnode, new Probability(intersectionProbability));
+                intersectionProbabilities[candidates.size()] = intersectionProbability;
+                candidates.add(rmnode);
             }
         }
 
-        // sorting results based on calculated probability
-        Set<RMNode> nodeSet = intersectionMap.keySet();
-        List<RMNode> res = new ArrayList<>(nodeSet.size());
-        res.addAll(nodeSet);
-        Collections.sort(res, new NodeProbabilityComparator(intersectionMap));
+        // sorting results based on calculated probability, keeping the initial order for equal probabilities
+        Integer[] order = new Integer[candidates.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(intersectionProbabilities[b], intersectionProbabilities[a]));
+        List<RMNode> res = new ArrayList<>(order.length);
+        for (Integer index : order) {
+            res.add(candidates.get(index));
+        }
 
         if (logger.isDebugEnabled()) {
             logger.debug("The following nodes are selected for scripts execution (time is " +
                          (System.currentTimeMillis() - startTime) + " ms) :");
             if (res.size() > 0) {
-                res.forEach(rmnode -> {
-                    logger.debug(rmnode.getNodeURL() + " : probability " + intersectionMap.get(rmnode));
-                });
+                for (Integer index : order) {
+                    logger.debug(candidates.get(index).getNodeURL() + " : probability " +
+                                 intersectionProbabilities[index]);
+                }
             } else {
                 logger.debug("None");
             }
@@ -168,28 +166,25 @@ public class ProbablisticSelectionManager extends SelectionManager {
      * @return true if script will pass on the node
      */
     @Override
-    public synchronized boolean isPassed(SelectionScript script, Map<String, Serializable> bindings, RMNode rmnode) {
-        String digest = null;
+    public boolean isPassed(SelectionScript script, Map<String, Serializable> bindings, RMNode rmnode) {
         SelectionScript scriptWithReplacedBindings = replaceBindings(script, bindings);
         if (logger.isTraceEnabled()) {
             logger.trace(rmnode.getNodeURL() + " : script with replaced bindings : " +
                          scriptWithReplacedBindings.getId());
         }
-        try {
-            digest = new String(scriptWithReplacedBindings.digest());
-            if (probabilities.containsKey(digest) && probabilities.get(digest).containsKey(rmnode.getNodeURL())) {
-                Probability p = probabilities.get(digest).get(rmnode.getNodeURL());
+        String digest = digest(scriptWithReplacedBindings);
+        if (digest != null) {
+            double probability = knowledgeBase.getProbability(digest, rmnode.getNodeURL());
+            if (probability != SelectionKnowledgeBase.UNKNOWN) {
                 String scriptType = scriptWithReplacedBindings.isDynamic() ? "dynamic" : "static";
                 if (logger.isDebugEnabled())
                     logger.debug(rmnode.getNodeURL() + " : " + digest.hashCode() + " known " + scriptType + " script");
-                return p.value() == 1;
+                return probability == 1;
             }
-        } catch (NoSuchAlgorithmException e) {
-            logger.error(e.getMessage(), e);
         }
 
         if (logger.isDebugEnabled())
-            logger.debug(rmnode.getNodeURL() + " : " + digest.hashCode() + " unknown script");
+            logger.debug(rmnode.getNodeURL() + " : " + (digest == null ? 0 : digest.hashCode()) + " unknown script");
         return false;
     }
 
@@ -203,66 +198,45 @@ public class ProbablisticSelectionManager extends SelectionManager {
      * @return whether node is selected
      */
     @Override
-    public synchronized boolean processScriptResult(SelectionScript script, Map<String, Serializable> bindings,
+    public boolean processScriptResult(SelectionScript script, Map<String, Serializable> bindings,
             ScriptResult<Boolean> scriptResult, RMNode rmnode) {
 
-        boolean result = false;
+        // error during script execution or script returned false
+        boolean result = scriptResult != null && !scriptResult.errorOccured() && scriptResult.getResult();
 
         SelectionScript scriptWithReplacedBindings = replaceBindings(script, bindings);
-
-        try {
-            String digest = new String(scriptWithReplacedBindings.digest());
-            Probability probability = new Probability(Probability.defaultValue());
-            if (probabilities.containsKey(digest) && probabilities.get(digest).containsKey(rmnode.getNodeURL())) {
-                probability = probabilities.get(digest).get(rmnode.getNodeURL());
-                assert (probability.value() >= 0 && probability.value() <= 1);
-            }
-
-            if (scriptResult == null || scriptResult.errorOccured() || !scriptResult.getResult()) {
-                // error during script execution or script returned false
-                if (scriptWithReplacedBindings.isDynamic()) {
-                    probability.decrease();
-                } else {
-                    probability = Probability.ZERO;
-                }
-            } else {
-                // script passed
-                result = true;
-                if (scriptWithReplacedBindings.isDynamic()) {
-                    probability.increase();
-                } else {
-                    probability = Probability.ONE;
-                }
-            }
-
-            if (!probabilities.containsKey(digest)) {
-                // checking if the number of selection script does not exceeded the maximum
-                if (probabilities.size() >= PAResourceManagerProperties.RM_SELECT_SCRIPT_CACHE_SIZE.getValueAsInt()) {
-                    String oldest = digestQueue.poll();
-                    probabilities.remove(oldest);
-                    if (logger.isDebugEnabled()) {
-                        logger.debug("Removing the script: " + scriptWithReplacedBindings.hashCode() +
-                                     " from the data base because the limit is reached");
-                    }
-                }
-                // adding a new script record
-                probabilities.put(digest, new HashMap<String, Probability>());
-                logger.debug("Scripts cache size " + probabilities.size());
-                digestQueue.offer(digest);
-            }
-
+        String digest = digest(scriptWithReplacedBindings);
+        if (digest != null) {
+            double probability = knowledgeBase.update(digest,
+                                                      rmnode.getNodeURL(),
+                                                      scriptWithReplacedBindings.isDynamic(),
+                                                      result,
+                                                      PAResourceManagerProperties.RM_SELECT_SCRIPT_NODE_DYNAMICITY.getValueAsLong());
             if (logger.isDebugEnabled()) {
                 logger.debug(rmnode.getNodeURL() + " : script " + scriptWithReplacedBindings.hashCode() +
                              ", probability " + probability);
             }
+        }
 
-            probabilities.get(digest).put(rmnode.getNodeURL().intern(), probability);
+        return result;
+    }
 
+    /**
+     * Forgets the script results of the removed node.
+     */
+    @Override
+    @ImmediateService
+    public void nodeRemoved(String nodeUrl) {
+        knowledgeBase.removeNode(nodeUrl);
+    }
+
+    private String digest(SelectionScript script) {
+        try {
+            return new String(script.digest());
         } catch (NoSuchAlgorithmException e) {
             logger.error(e.getMessage(), e);
+            return null;
         }
-
-        return result;
     }
 
     /**
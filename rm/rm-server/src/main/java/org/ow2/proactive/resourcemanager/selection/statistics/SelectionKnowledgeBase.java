@@ -0,0 +1,364 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.selection.statistics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.log4j.Logger;
+
+
+/**
+ * Knowledge base of the selection script results, used by {@link ProbablisticSelectionManager}
+ * to predict on which nodes a script will pass.
+ * <p>
+ * Node urls are interned to int identifiers, and the results of a script digest are stored
+ * in primitive arrays indexed by these identifiers. Reads of a record do not take any lock, updates of a
+ * script are serialized on its own record. The identifier of a removed node is reused for the next new node,
+ * once its results have been cleared from all the records.
+ * <p>
+ * The number of script digests and the memory used by their records are bounded, the least
+ * recently used script is evicted first.
+ */
+public class SelectionKnowledgeBase {
+
+    private final static Logger logger = Logger.getLogger(SelectionKnowledgeBase.class);
+
+    /** Returned when the script has never been executed on the node */
+    public static final double UNKNOWN = -1;
+
+    // step values which do not correspond to a dynamic script probability
+    private static final int NOT_EXECUTED = Integer.MIN_VALUE;
+
+    private static final int STATIC_FAILED = Integer.MIN_VALUE + 1;
+
+    private static final int STATIC_PASSED = Integer.MAX_VALUE;
+
+    private static final int MIN_DYNAMIC_STEP = Integer.MIN_VALUE + 2;
+
+    private static final int MAX_DYNAMIC_STEP = Integer.MAX_VALUE - 1;
+
+    /** step and pause deadline of one node */
+    private static final long BYTES_PER_NODE = Integer.BYTES + Long.BYTES;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Map<String, Integer> nodeIds = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nextNodeId = new AtomicInteger();
+
+    /** identifiers of the removed nodes, guarded by the lock of the deque */
+    private final Deque<Integer> freeNodeIds = new ArrayDeque<>();
+
+    /** records in access order, guarded by the lock of the map */
+    private final LinkedHashMap<String, ScriptKnowledge> scripts = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong usedMemory = new AtomicLong();
+
+    private final int maxScripts;
+
+    private final long maxMemory;
+
+    /**
+     * @param maxScripts maximum number of script digests kept
+     * @param maxMemory maximum memory in bytes used by the script records
+     */
+    public SelectionKnowledgeBase(int maxScripts, long maxMemory) {
+        this.maxScripts = maxScripts;
+        this.maxMemory = maxMemory;
+    }
+
+    /**
+     * Returns the identifier of a node, or -1 if no script result has ever been recorded for it.
+     */
+    public int getNodeId(String nodeUrl) {
+        Integer id = nodeIds.get(nodeUrl);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the results recorded for a script digest, or null if the digest is unknown.
+     * The script is marked as recently used.
+     */
+    public ScriptKnowledge getScript(String digest) {
+        synchronized (scripts) {
+            return scripts.get(digest);
+        }
+    }
+
+    /**
+     * Returns the probability that the script passes on the node, or {@link #UNKNOWN}.
+     */
+    public double getProbability(String digest, String nodeUrl) {
+        ScriptKnowledge knowledge = getScript(digest);
+        if (knowledge == null) {
+            return UNKNOWN;
+        }
+        return knowledge.getProbability(getNodeId(nodeUrl), System.currentTimeMillis());
+    }
+
+    /**
+     * Records a script execution result.
+     *
+     * @param digest digest of the executed script
+     * @param nodeUrl url of the node on which the script has been executed
+     * @param dynamic whether the script is dynamic
+     * @param passed whether the script passed
+     * @param dynamicity time in ms during which a dynamic script which did not pass is not executed again on the node
+     * @return the new probability that the script passes on the node
+     */
+    public double update(String digest, String nodeUrl, boolean dynamic, boolean passed, long dynamicity) {
+        int nodeId = nodeIds.computeIfAbsent(nodeUrl, url -> allocateNodeId());
+
+        ScriptKnowledge knowledge;
+        boolean created = false;
+        synchronized (scripts) {
+            knowledge = scripts.get(digest);
+            if (knowledge == null) {
+                knowledge = new ScriptKnowledge(digest);
+                scripts.put(digest, knowledge);
+                created = true;
+                usedMemory.addAndGet(knowledge.memory());
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Scripts cache size " + scripts.size());
+                }
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        long grownMemory;
+        double probability;
+        synchronized (knowledge) {
+            if (getNodeId(nodeUrl) != nodeId) {
+                // the node has been removed meanwhile, its identifier may already be cleared
+                return UNKNOWN;
+            }
+            grownMemory = knowledge.ensureCapacity(nodeId);
+            if (grownMemory > 0 && !knowledge.evicted) {
+                usedMemory.addAndGet(grownMemory);
+            }
+            knowledge.update(nodeId, dynamic, passed, now, dynamicity);
+            probability = knowledge.getProbability(nodeId, now);
+        }
+        if (created || grownMemory > 0) {
+            evictIfNeeded(knowledge);
+        }
+        return probability;
+    }
+
+    /**
+     * Forgets the results recorded for a node which has been removed, so that its identifier can be reused.
+     */
+    public void removeNode(String nodeUrl) {
+        Integer nodeId = nodeIds.remove(nodeUrl);
+        if (nodeId == null) {
+            return;
+        }
+        List<ScriptKnowledge> knowledges;
+        synchronized (scripts) {
+            knowledges = new ArrayList<>(scripts.values());
+        }
+        for (ScriptKnowledge knowledge : knowledges) {
+            synchronized (knowledge) {
+                knowledge.clear(nodeId);
+            }
+        }
+        synchronized (freeNodeIds) {
+            freeNodeIds.push(nodeId);
+        }
+    }
+
+    /**
+     * Returns the number of script digests kept.
+     */
+    public int size() {
+        synchronized (scripts) {
+            return scripts.size();
+        }
+    }
+
+    private int allocateNodeId() {
+        synchronized (freeNodeIds) {
+            Integer freeNodeId = freeNodeIds.poll();
+            return freeNodeId == null ? nextNodeId.getAndIncrement() : freeNodeId;
+        }
+    }
+
+    private void evictIfNeeded(ScriptKnowledge justUpdated) {
+        List<ScriptKnowledge> evicted = new ArrayList<>();
+        synchronized (scripts) {
+            // least recently used first
+            Iterator<ScriptKnowledge> it = scripts.values().iterator();
+            while ((scripts.size() > maxScripts || (usedMemory.get() > maxMemory && scripts.size() > 1)) &&
+                   it.hasNext()) {
+                ScriptKnowledge oldest = it.next();
+                if (oldest != justUpdated) {
+                    it.remove();
+                    evicted.add(oldest);
+                    synchronized (oldest) {
+                        oldest.evicted = true;
+                        usedMemory.addAndGet(-oldest.memory());
+                    }
+                }
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            for (ScriptKnowledge knowledge : evicted) {
+                logger.debug("Removing the script " + knowledge.digest.hashCode() +
+                             " from the knowledge base because the limit is reached");
+            }
+        }
+    }
+
+    /**
+     * Results of one script digest on all the nodes it has been executed on.
+     */
+    public static final class ScriptKnowledge {
+
+        private final String digest;
+
+        /** set when the record is removed from the knowledge base, guarded by the record lock */
+        private boolean evicted = false;
+
+        /** number of increases minus number of decreases of a dynamic script, or a static result */
+        private volatile AtomicIntegerArray steps;
+
+        /** time until which a dynamic script which did not pass is considered as failing */
+        private volatile AtomicLongArray pausedUntil;
+
+        private ScriptKnowledge(String digest) {
+            this.digest = digest;
+            this.steps = newSteps(INITIAL_CAPACITY);
+            this.pausedUntil = new AtomicLongArray(INITIAL_CAPACITY);
+        }
+
+        /**
+         * Returns the probability that the script passes on the node, or {@link #UNKNOWN}.
+         *
+         * @param nodeId node identifier returned by {@link #getNodeId(String)}
+         * @param now current time in ms
+         */
+        public double getProbability(int nodeId, long now) {
+            AtomicIntegerArray currentSteps = steps;
+            if (nodeId < 0 || nodeId >= currentSteps.length()) {
+                return UNKNOWN;
+            }
+            int step = currentSteps.get(nodeId);
+            switch (step) {
+                case NOT_EXECUTED:
+                    return UNKNOWN;
+                case STATIC_FAILED:
+                    return 0;
+                case STATIC_PASSED:
+                    return 1;
+                default:
+                    if (isPaused(nodeId, now)) {
+                        return 0;
+                    }
+                    return Probability.calcProbability(step);
+            }
+        }
+
+        private boolean isPaused(int nodeId, long now) {
+            AtomicLongArray currentPausedUntil = pausedUntil;
+            return nodeId < currentPausedUntil.length() && currentPausedUntil.get(nodeId) > now;
+        }
+
+        private void update(int nodeId, boolean dynamic, boolean passed, long now, long dynamicity) {
+            if (!dynamic) {
+                steps.set(nodeId, passed ? STATIC_PASSED : STATIC_FAILED);
+                pausedUntil.set(nodeId, 0);
+                return;
+            }
+            int step = steps.get(nodeId);
+            if (step == NOT_EXECUTED || step == STATIC_FAILED || step == STATIC_PASSED) {
+                step = 0;
+            }
+            if (passed) {
+                steps.set(nodeId, Math.min(step + 1, MAX_DYNAMIC_STEP));
+                pausedUntil.set(nodeId, 0);
+            } else if (!isPaused(nodeId, now)) {
+                steps.set(nodeId, Math.max(step - 1, MIN_DYNAMIC_STEP));
+                // pausing the permanent execution of the script on this node
+                if (dynamicity > 0) {
+                    pausedUntil.set(nodeId, now + dynamicity);
+                }
+            }
+        }
+
+        private void clear(int nodeId) {
+            if (nodeId < steps.length()) {
+                steps.set(nodeId, NOT_EXECUTED);
+                pausedUntil.set(nodeId, 0);
+            }
+        }
+
+        /**
+         * Grows the arrays so that they contain the given node, must be called under the record lock.
+         *
+         * @return the number of bytes added
+         */
+        private long ensureCapacity(int nodeId) {
+            int capacity = steps.length();
+            if (nodeId < capacity) {
+                return 0;
+            }
+            int newCapacity = Math.max(capacity * 2, nodeId + 1);
+            AtomicIntegerArray newSteps = newSteps(newCapacity);
+            AtomicLongArray newPausedUntil = new AtomicLongArray(newCapacity);
+            for (int i = 0; i < capacity; i++) {
+                newSteps.set(i, steps.get(i));
+                newPausedUntil.set(i, pausedUntil.get(i));
+            }
+            pausedUntil = newPausedUntil;
+            steps = newSteps;
+            return (newCapacity - capacity) * BYTES_PER_NODE;
+        }
+
+        private long memory() {
+            return steps.length() * BYTES_PER_NODE;
+        }
+
+        private static AtomicIntegerArray newSteps(int capacity) {
+            AtomicIntegerArray steps = new AtomicIntegerArray(capacity);
+            for (int i = 0; i < capacity; i++) {
+                steps.set(i, NOT_EXECUTED);
+            }
+            return steps;
+        }
+    }
+
+}
@@ -29,10 +29,13 @@ import java.io.File;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.log4j.EnhancedPatternLayout;
+import org.apache.log4j.Layout;
 import org.apache.log4j.Logger;
 import org.apache.log4j.MDC;
 import org.apache.log4j.RollingFileAppender;
 import org.apache.log4j.WriterAppender;
+import org.apache.log4j.helpers.OptionConverter;
+import org.apache.log4j.spi.ErrorCode;
 import org.apache.log4j.spi.LoggingEvent;
 import org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties;
 
@@ -45,6 +48,8 @@ public abstract class FileAppender extends WriterAppender {
 
     private String filesLocation;
 
+    private SegmentedLogStore store;
+
     private static EnhancedPatternLayout configuredLayout = null;
 
     public FileAppender() {
@@ -91,6 +96,40 @@ public abstract class FileAppender extends WriterAppender {
         return appender;
     }
 
+    /**
+     * Queues the formatted event to be appended to the log of the given key in the {@link SegmentedLogStore} of the
+     * files location.
+     */
+    void appendToStore(String cacheKey, LoggingEvent event) {
+        StringBuilder text = new StringBuilder(getLayout().format(event));
+        if (getLayout().ignoresThrowable()) {
+            String[] throwableLines = event.getThrowableStrRep();
+            if (throwableLines != null) {
+                for (String line : throwableLines) {
+                    text.append(line).append(Layout.LINE_SEP);
+                }
+            }
+        }
+        try {
+            getStore().enqueue(cacheKey, text.toString());
+        } catch (IllegalArgumentException e) {
+            errorHandler.error("Error when writing log " + cacheKey, e, ErrorCode.WRITE_FAILURE, event);
+        }
+    }
+
+    SegmentedLogStore getStore() {
+        if (store == null) {
+            SegmentedLogStore locationStore = SegmentedLogStore.forLocation(filesLocation != null ? filesLocation
+                                                                                                 : ".");
+            if (maxFileSize != null) {
+                // same default as the rolling file appenders
+                locationStore.setMaxLogSize(OptionConverter.toFileSize(maxFileSize, 10 * 1024 * 1024));
+            }
+            store = locationStore;
+        }
+        return store;
+    }
+
     @Override
     public void close() {
         super.close();
@@ -103,9 +142,11 @@ public abstract class FileAppender extends WriterAppender {
 
     public void setMaxFileSize(String valueAsString) {
         this.maxFileSize = valueAsString;
+        this.store = null;
     }
 
     public void setFilesLocation(String logsLocation) {
         this.filesLocation = logsLocation;
+        this.store = null;
     }
 }
@@ -29,6 +29,7 @@ import java.util.Collection;
 
 import org.apache.log4j.MDC;
 import org.apache.log4j.spi.LoggingEvent;
+import org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties;
 
 
 /**
@@ -40,6 +41,9 @@ import org.apache.log4j.spi.LoggingEvent;
  * If the selection is performed for several tasks it writes logs
  * to all the tasks files.
  *
+ * When the segmented appender is enabled, the logs are written to the
+ * {@link SegmentedLogStore} of the files location instead.
+ *
  */
 public class MultipleFileAppender extends SynchFileAppender {
 
@@ -55,4 +59,13 @@ public class MultipleFileAppender extends SynchFileAppender {
             }
         }
     }
+
+    @Override
+    public void append(String cacheKey, LoggingEvent event) {
+        if (PAResourceManagerProperties.LOG4J_SEGMENTED_APPENDER_ENABLED.getValueAsBoolean()) {
+            appendToStore(cacheKey, event);
+        } else {
+            super.append(cacheKey, event);
+        }
+    }
 }
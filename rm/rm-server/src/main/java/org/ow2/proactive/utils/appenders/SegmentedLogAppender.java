@@ -23,39 +23,32 @@
  * If needed, contact us to obtain a release under GPL Version 2 or 3
  * or a different license than the AGPL.
  */
-package org.ow2.proactive.resourcemanager.selection.statistics;
+package org.ow2.proactive.utils.appenders;
 
-import java.util.Comparator;
-import java.util.HashMap;
-
-import org.ow2.proactive.resourcemanager.rmnode.RMNode;
+import org.apache.log4j.spi.LoggingEvent;
 
 
 /**
- * Comparator for {@link RMNode} objects :<BR>
- * compare two nodes by their chances to verify a script.
- * This comparator is used to sort a nodes collection according to results
- * of a {@link org.ow2.proactive.scripting.SelectionScript}.
- *
+ * Appender writing the logs of each key to a {@link SegmentedLogStore} instead of one rolling file per key,
+ * so that the number of open files does not grow with the number of jobs and tasks. The events are queued
+ * and written by the thread of the store.
  */
-public class NodeProbabilityComparator implements Comparator<RMNode> {
+public class SegmentedLogAppender extends FileAppender {
 
-    HashMap<RMNode, Probability> nodes;
-
-    public NodeProbabilityComparator(HashMap<RMNode, Probability> nodes) {
-        this.nodes = nodes;
+    @Override
+    public void append(String cacheKey, LoggingEvent event) {
+        appendToStore(cacheKey, event);
     }
 
-    public int compare(RMNode n1, RMNode n2) {
-        // probabilities are always greater than zero, so diff approach can be used
-        // for numbers which can be negative it won't work
-        double diff = nodes.get(n2).value() - nodes.get(n1).value();
-        if (diff < 0)
-            return -1;
-        else if (diff > 0)
-            return 1;
+    // blocking
+    public void flush() {
+        getStore().flush();
+    }
 
-        return 0;
+    @Override
+    public void close() {
+        // closing a key does not close the appender, the store bounds the number of open segments itself
+        flush();
     }
 
 }
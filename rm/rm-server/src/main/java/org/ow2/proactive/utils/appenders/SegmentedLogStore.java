@@ -0,0 +1,1027 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.utils.appenders;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.log4j.Logger;
+import org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties;
+
+
+/**
+ * Append-only store of the server logs of jobs and tasks.
+ * <p>
+ * A log is identified by a key of the form {@code <segment>/<name>}, e.g. {@code 12/12t3} for a task of the
+ * job 12. All the logs of a segment are appended to the single file {@code <segment>.log} of the store location,
+ * as records made of the key and of the logged text. The records of each key are indexed when the segment is
+ * opened, so that a log or a range of a log is read without scanning the file, and all the logs of a job are
+ * deleted at once by removing its segment.
+ * <p>
+ * The appenders queue their records, which are written by a thread of the store. Each segment has its own lock,
+ * which is only held to write a record or to look up the index: reads copy the positions of the records and
+ * read the file without it.
+ * <p>
+ * The number of segments kept open is bounded, the least recently used one is closed first and its index is
+ * saved next to it, so that it is not rebuilt from the whole file when the segment is opened again. The size of
+ * a log is limited like a rolling file: its oldest records are dropped once the newer ones reach the limit, and a
+ * segment file is compacted in the background when most of its content has been dropped.
+ * <p>
+ * Stores are shared per location, so that all the appenders of a JVM writing to the same location use the
+ * same instance. A location must be written by a single JVM.
+ */
+public class SegmentedLogStore {
+
+    private static final Logger logger = Logger.getLogger(SegmentedLogStore.class);
+
+    public static final String SEGMENT_EXTENSION = ".log";
+
+    public static final String INDEX_EXTENSION = ".index";
+
+    private static final String COMPACTION_EXTENSION = ".compacting";
+
+    /** key length and data length of a record */
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+
+    private static final int MAX_KEY_LENGTH = 4096;
+
+    /** segment files smaller than this size are never compacted */
+    private static final long MIN_COMPACTION_SIZE = 1024 * 1024;
+
+    /** first bytes of an index file, to be changed with its format */
+    private static final int INDEX_VERSION = 0x53494458;
+
+    /** number of times a read is attempted again when the segment is closed or compacted meanwhile */
+    private static final int MAX_READ_ATTEMPTS = 3;
+
+    /** maximum number of bytes which follow the first byte of a UTF-8 character */
+    private static final int MAX_UTF8_CONTINUATION_BYTES = 3;
+
+    private static final Map<String, SegmentedLogStore> stores = new ConcurrentHashMap<>();
+
+    private final File location;
+
+    private final int maxOpenSegments;
+
+    /** maximum size in bytes of a log, 0 if logs are not limited */
+    private volatile long maxLogSize = 0;
+
+    /** open segments, in access order, guarded by itself */
+    private final LinkedHashMap<String, Segment> segments = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** segments being closed or removed, guarded by {@link #segments} */
+    private final Map<String, Segment> closingSegments = new HashMap<>();
+
+    private final BlockingQueue<QueuedRecord> queue;
+
+    private final AtomicLong queuedRecords = new AtomicLong();
+
+    private final AtomicLong writtenRecords = new AtomicLong();
+
+    private Thread writer;
+
+    private ExecutorService compactor;
+
+    /**
+     * @param location directory of the segment files
+     * @param maxOpenSegments maximum number of segments kept open
+     */
+    public SegmentedLogStore(File location, int maxOpenSegments) {
+        this(location, maxOpenSegments, PAResourceManagerProperties.LOG4J_ASYNC_APPENDER_BUFFER_SIZE.getValueAsInt());
+    }
+
+    /**
+     * @param location directory of the segment files
+     * @param maxOpenSegments maximum number of segments kept open
+     * @param queueSize maximum number of records waiting to be written
+     */
+    public SegmentedLogStore(File location, int maxOpenSegments, int queueSize) {
+        this.location = location;
+        this.maxOpenSegments = Math.max(1, maxOpenSegments);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+    }
+
+    /**
+     * Returns the store shared by all the appenders writing to the given location.
+     */
+    public static SegmentedLogStore forLocation(String location) {
+        File directory = new File(location).getAbsoluteFile().toPath().normalize().toFile();
+        return stores.computeIfAbsent(directory.getPath(),
+                                      path -> new SegmentedLogStore(directory,
+                                                                    PAResourceManagerProperties.LOG4J_SEGMENTED_APPENDER_MAX_OPEN_SEGMENTS.getValueAsInt()));
+    }
+
+    /**
+     * Returns the segment of a log key, i.e. the part of the key before the first '/'.
+     */
+    public static String getSegmentName(String key) {
+        int separator = key.indexOf('/');
+        return separator < 0 ? key : key.substring(0, separator);
+    }
+
+    /**
+     * Limits the size of the logs. When several appenders share the store, the largest limit is used.
+     *
+     * @param maxLogSize maximum size in bytes of a log
+     */
+    public synchronized void setMaxLogSize(long maxLogSize) {
+        this.maxLogSize = Math.max(this.maxLogSize, maxLogSize);
+    }
+
+    public File getLocation() {
+        return location;
+    }
+
+    /**
+     * Queues a text to be appended to a log by the writer thread of the store. The caller only waits when the
+     * queue is full.
+     */
+    public void enqueue(String key, String text) {
+        byte[] keyBytes = toKeyBytes(key);
+        startWriter();
+        // counted first, so that a flush never misses a record which is already queued
+        queuedRecords.incrementAndGet();
+        try {
+            queue.put(new QueuedRecord(key, keyBytes, text));
+        } catch (InterruptedException e) {
+            writtenRecords.incrementAndGet();
+            logger.warn("Interrupted append on " + key);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits until the records queued before this call are written.
+     */
+    public void flush() {
+        long target = queuedRecords.get();
+        while (writtenRecords.get() < target && !Thread.currentThread().isInterrupted()) {
+            try {
+                Thread.sleep(PAResourceManagerProperties.LOG4J_ASYNC_APPENDER_FLUSH_TIMOUT.getValueAsInt());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Appends a text to a log, creating its segment if needed.
+     */
+    public void append(String key, String text) throws IOException {
+        append(key, toKeyBytes(key), text);
+    }
+
+    private void append(String key, byte[] keyBytes, String text) throws IOException {
+        byte[] data = text.getBytes(UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + keyBytes.length + data.length);
+        record.putInt(keyBytes.length).putInt(data.length).put(keyBytes).put(data);
+        record.flip();
+
+        Segment segment = acquireSegment(getSegmentName(key), true);
+        try {
+            invalidateIndex(segment);
+            segment.written = true;
+            long position = segment.length;
+            writeFully(segment.channel, record, position);
+            segment.length = position + record.capacity();
+            index(segment, key, keyBytes.length, position + RECORD_HEADER_SIZE + keyBytes.length, data.length);
+            compactIfNeeded(segment);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns true if the store contains a log with the given key.
+     */
+    public boolean contains(String key) throws IOException {
+        Segment segment = acquireSegment(getSegmentName(key), false);
+        if (segment == null) {
+            return false;
+        }
+        try {
+            return segment.logs.containsKey(key);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the size in bytes of a log, or -1 if the store does not contain it.
+     */
+    public long size(String key) throws IOException {
+        Segment segment = acquireSegment(getSegmentName(key), false);
+        if (segment == null) {
+            return -1;
+        }
+        try {
+            LogIndex log = segment.logs.get(key);
+            return log == null ? -1 : log.size;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the content of a log, or null if the store does not contain it.
+     */
+    public String read(String key) throws IOException {
+        return read(key, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns a range of a log, or null if the store does not contain it.
+     * <p>
+     * The range is aligned to UTF-8 characters: a character is returned with the range which contains its
+     * first byte, so that consecutive ranges neither split nor repeat characters.
+     *
+     * @param key the log key
+     * @param offset position in bytes of the beginning of the range
+     * @param length length in bytes of the range
+     * @return the content of the range, empty if the offset is beyond the end of the log
+     */
+    public String read(String key, long offset, int length) throws IOException {
+        for (int attempt = 1;; attempt++) {
+            FileChannel channel;
+            List<Extent> extents = new ArrayList<>();
+            long start;
+            long end;
+            long readEnd;
+            Segment segment = acquireSegment(getSegmentName(key), false);
+            if (segment == null) {
+                return null;
+            }
+            try {
+                LogIndex log = segment.logs.get(key);
+                if (log == null) {
+                    return null;
+                }
+                channel = segment.channel;
+                start = Math.min(Math.max(offset, 0), log.size);
+                end = Math.min(log.size, start + Math.max(length, 0));
+                // the bytes which may complete the last character of the range
+                readEnd = end > start ? Math.min(log.size, end + MAX_UTF8_CONTINUATION_BYTES) : end;
+                long logPosition = 0;
+                for (Extent extent : log.extents) {
+                    long extentEnd = logPosition + extent.length;
+                    if (extentEnd > start && logPosition < readEnd) {
+                        long from = Math.max(start, logPosition);
+                        extents.add(new Extent(extent.position + from - logPosition,
+                                               (int) (Math.min(readEnd, extentEnd) - from)));
+                    }
+                    logPosition = extentEnd;
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+
+            // the records are never overwritten while the channel is open, so they are read without the lock
+            byte[] bytes = new byte[(int) (readEnd - start)];
+            int copied = 0;
+            try {
+                for (Extent extent : extents) {
+                    readFully(channel, ByteBuffer.wrap(bytes, copied, extent.length), extent.position);
+                    copied += extent.length;
+                }
+                return decodeRange(bytes, 0, (int) (end - start));
+            } catch (ClosedChannelException e) {
+                // the segment has been closed or compacted meanwhile
+                if (attempt >= MAX_READ_ATTEMPTS || Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Decodes the UTF-8 characters whose first byte is in [start, end[. The bytes after end complete
+     * the last character, the bytes at start which continue a previous character are skipped.
+     */
+    public static String decodeRange(byte[] bytes, int start, int end) {
+        int from = start;
+        while (from < end && isContinuationByte(bytes[from])) {
+            from++;
+        }
+        if (from == end) {
+            return "";
+        }
+        int to = end;
+        while (to < bytes.length && isContinuationByte(bytes[to])) {
+            to++;
+        }
+        return new String(bytes, from, to - from, UTF_8);
+    }
+
+    private static boolean isContinuationByte(byte b) {
+        return (b & 0xC0) == 0x80;
+    }
+
+    /**
+     * Deletes a segment and all the logs it contains. The records queued for the segment are written first.
+     *
+     * @return true if the segment file existed
+     */
+    public boolean removeSegment(String segmentName) throws IOException {
+        flush();
+        Segment segment;
+        synchronized (segments) {
+            waitForClosing(segmentName);
+            segment = segments.remove(segmentName);
+            if (segment == null) {
+                segment = new Segment(segmentName, getSegmentFile(segmentName));
+            }
+            closingSegments.put(segmentName, segment);
+        }
+        segment.lock.lock();
+        try {
+            segment.closed = true;
+            closeQuietly(segment);
+            Files.deleteIfExists(getCompactionFile(segmentName).toPath());
+            Files.deleteIfExists(getIndexFile(segmentName).toPath());
+            return Files.deleteIfExists(getSegmentFile(segmentName).toPath());
+        } finally {
+            segment.lock.unlock();
+            closed(segment);
+        }
+    }
+
+    /**
+     * Closes all the segments and saves their index, the segment files are left untouched. The queued records
+     * are written first.
+     */
+    public void clear() {
+        flush();
+        List<Segment> closing;
+        synchronized (segments) {
+            closing = new ArrayList<>(segments.values());
+            segments.clear();
+            for (Segment segment : closing) {
+                closingSegments.put(segment.name, segment);
+            }
+        }
+        closing.forEach(this::close);
+    }
+
+    /**
+     * Returns the number of segments currently open.
+     */
+    public int numberOfOpenSegments() {
+        synchronized (segments) {
+            return segments.size();
+        }
+    }
+
+    private File getSegmentFile(String segmentName) {
+        return new File(location, segmentName + SEGMENT_EXTENSION);
+    }
+
+    private File getIndexFile(String segmentName) {
+        return new File(location, segmentName + INDEX_EXTENSION);
+    }
+
+    private File getCompactionFile(String segmentName) {
+        return new File(location, segmentName + COMPACTION_EXTENSION);
+    }
+
+    private static byte[] toKeyBytes(String key) {
+        byte[] keyBytes = key.getBytes(UTF_8);
+        if (keyBytes.length == 0 || keyBytes.length > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Invalid log key " + key);
+        }
+        return keyBytes;
+    }
+
+    private synchronized void startWriter() {
+        if (writer == null) {
+            writer = new Thread(this::writeQueuedRecords, "segmentedLogWriter");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    private synchronized ExecutorService getCompactor() {
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "segmentedLogCompactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return compactor;
+    }
+
+    private void writeQueuedRecords() {
+        while (!Thread.currentThread().isInterrupted()) {
+            QueuedRecord record;
+            try {
+                record = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                append(record.key, record.keyBytes, record.text);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Error when writing log " + record.key, e);
+            } finally {
+                writtenRecords.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Returns an open segment with its lock held, opening it if needed.
+     *
+     * @param create whether the segment is created if it does not exist
+     * @return the locked segment, or null if it does not exist and is not created
+     */
+    private Segment acquireSegment(String segmentName, boolean create) throws IOException {
+        while (true) {
+            Segment segment;
+            List<Segment> evicted = new ArrayList<>();
+            synchronized (segments) {
+                waitForClosing(segmentName);
+                segment = segments.get(segmentName);
+                if (segment == null) {
+                    File file = getSegmentFile(segmentName);
+                    if (!create && !file.exists()) {
+                        return null;
+                    }
+                    segment = new Segment(segmentName, file);
+                    segments.put(segmentName, segment);
+                    Iterator<Segment> iterator = segments.values().iterator();
+                    while (segments.size() > maxOpenSegments && iterator.hasNext()) {
+                        Segment eldest = iterator.next();
+                        iterator.remove();
+                        closingSegments.put(eldest.name, eldest);
+                        evicted.add(eldest);
+                    }
+                }
+            }
+            evicted.forEach(this::close);
+
+            segment.lock.lock();
+            boolean acquired = false;
+            try {
+                if (!segment.closed) {
+                    acquired = open(segment, create);
+                    if (!acquired) {
+                        // removed outside of this store
+                        segment.closed = true;
+                        closeQuietly(segment);
+                        synchronized (segments) {
+                            segments.remove(segmentName, segment);
+                        }
+                        return null;
+                    }
+                    return segment;
+                }
+            } finally {
+                if (!acquired) {
+                    segment.lock.unlock();
+                }
+            }
+        }
+    }
+
+    private void waitForClosing(String segmentName) throws InterruptedIOException {
+        while (closingSegments.containsKey(segmentName)) {
+            try {
+                segments.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the segment " + segmentName);
+            }
+        }
+    }
+
+    /**
+     * Opens the file of a segment, or catches up with the changes made outside of this store.
+     *
+     * @return false if the segment file does not exist and is not created
+     */
+    private boolean open(Segment segment, boolean create) throws IOException {
+        if (segment.channel != null && segment.channel.isOpen()) {
+            if (!create) {
+                if (!segment.file.exists()) {
+                    return false;
+                }
+                if (segment.channel.size() > segment.length) {
+                    // appended outside of this store, the last record may be incomplete
+                    scan(segment, false);
+                }
+            }
+            return true;
+        }
+        if (!create && !segment.file.exists()) {
+            return false;
+        }
+        if (create) {
+            Files.createDirectories(location.toPath());
+        }
+        boolean reopening = segment.channel != null;
+        try {
+            // a channel is closed as well when a thread using it is interrupted
+            segment.channel = create ? FileChannel.open(segment.file.toPath(),
+                                                        StandardOpenOption.CREATE,
+                                                        StandardOpenOption.READ,
+                                                        StandardOpenOption.WRITE)
+                                     : FileChannel.open(segment.file.toPath(),
+                                                        StandardOpenOption.READ,
+                                                        StandardOpenOption.WRITE);
+            if (!reopening) {
+                loadIndex(segment);
+            }
+            scan(segment, create);
+        } catch (IOException e) {
+            closeQuietly(segment);
+            segment.channel = null;
+            segment.logs.clear();
+            segment.length = 0;
+            segment.liveBytes = 0;
+            throw e;
+        }
+        return true;
+    }
+
+    private void close(Segment segment) {
+        segment.lock.lock();
+        try {
+            segment.closed = true;
+            if (segment.written && !segment.indexSaved && segment.channel != null && segment.channel.isOpen()) {
+                saveIndex(segment);
+            }
+            closeQuietly(segment);
+        } finally {
+            segment.lock.unlock();
+            closed(segment);
+        }
+    }
+
+    private void closed(Segment segment) {
+        synchronized (segments) {
+            closingSegments.remove(segment.name, segment);
+            segments.notifyAll();
+        }
+    }
+
+    /**
+     * Saves the index of a segment written by this store when it is closed. The index file is deleted before the
+     * segment is modified again, so that it always matches the segment file.
+     */
+    private void saveIndex(Segment segment) {
+        File indexFile = getIndexFile(segment.name);
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)))) {
+            output.writeInt(INDEX_VERSION);
+            output.writeLong(segment.length);
+            output.writeLong(segment.liveBytes);
+            output.writeInt(segment.logs.size());
+            for (Map.Entry<String, LogIndex> entry : segment.logs.entrySet()) {
+                output.writeUTF(entry.getKey());
+                output.writeInt(entry.getValue().extents.size());
+                for (Extent extent : entry.getValue().extents) {
+                    output.writeLong(extent.position);
+                    output.writeInt(extent.length);
+                }
+            }
+        } catch (IOException e) {
+            // the segment is indexed from its file when it is opened again
+            logger.warn("Could not save the index of " + segment.file, e);
+            indexFile.delete();
+        }
+    }
+
+    private void invalidateIndex(Segment segment) throws IOException {
+        if (segment.indexSaved) {
+            Files.deleteIfExists(getIndexFile(segment.name).toPath());
+            segment.indexSaved = false;
+        }
+    }
+
+    /**
+     * Loads the index saved when the segment was closed, if it matches the segment file.
+     */
+    private void loadIndex(Segment segment) throws IOException {
+        File indexFile = getIndexFile(segment.name);
+        if (!indexFile.exists()) {
+            return;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (input.readInt() != INDEX_VERSION) {
+                throw new IOException("Unknown index format");
+            }
+            long length = input.readLong();
+            if (length > segment.channel.size()) {
+                throw new IOException("Index longer than its segment");
+            }
+            long liveBytes = input.readLong();
+            int numberOfLogs = input.readInt();
+            for (int i = 0; i < numberOfLogs; i++) {
+                LogIndex log = new LogIndex();
+                segment.logs.put(input.readUTF(), log);
+                int numberOfExtents = input.readInt();
+                for (int j = 0; j < numberOfExtents; j++) {
+                    Extent extent = new Extent(input.readLong(), input.readInt());
+                    log.extents.addLast(extent);
+                    log.size += extent.length;
+                }
+            }
+            segment.length = length;
+            segment.liveBytes = liveBytes;
+            segment.indexSaved = true;
+        } catch (IOException e) {
+            logger.warn("Ignoring the index of " + segment.file + ", the segment is indexed from its file", e);
+            segment.logs.clear();
+            segment.length = 0;
+            segment.liveBytes = 0;
+            indexFile.delete();
+        }
+    }
+
+    /**
+     * Indexes the records of a segment following the already indexed ones.
+     *
+     * @param truncate whether an incomplete last record, left by a crash, is removed from the file
+     */
+    private void scan(Segment segment, boolean truncate) throws IOException {
+        long size = segment.channel.size();
+        long position = segment.length;
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        while (position + RECORD_HEADER_SIZE <= size) {
+            header.clear();
+            readFully(segment.channel, header, position);
+            header.flip();
+            int keyLength = header.getInt();
+            int dataLength = header.getInt();
+            long dataPosition = position + RECORD_HEADER_SIZE + keyLength;
+            if (keyLength <= 0 || keyLength > MAX_KEY_LENGTH || dataLength < 0 || dataPosition + dataLength > size) {
+                break;
+            }
+            ByteBuffer key = ByteBuffer.allocate(keyLength);
+            readFully(segment.channel, key, position + RECORD_HEADER_SIZE);
+            index(segment, new String(key.array(), UTF_8), keyLength, dataPosition, dataLength);
+            position = dataPosition + dataLength;
+        }
+        if (position < size && truncate) {
+            invalidateIndex(segment);
+            logger.warn("Removing an incomplete record at position " + position + " of " + segment.file);
+            segment.channel.truncate(position);
+        }
+        segment.length = position;
+    }
+
+    private void index(Segment segment, String key, int keyLength, long dataPosition, int dataLength) {
+        LogIndex log = segment.logs.computeIfAbsent(key, k -> new LogIndex());
+        log.extents.addLast(new Extent(dataPosition, dataLength));
+        log.size += dataLength;
+        segment.liveBytes += recordSize(keyLength, dataLength);
+        while (maxLogSize > 0 && log.extents.size() > 1 && log.size - log.extents.getFirst().length >= maxLogSize) {
+            Extent dropped = log.extents.removeFirst();
+            log.size -= dropped.length;
+            segment.liveBytes -= recordSize(keyLength, dropped.length);
+        }
+    }
+
+    private static long recordSize(int keyLength, long dataLength) {
+        return RECORD_HEADER_SIZE + keyLength + dataLength;
+    }
+
+    /**
+     * Schedules the compaction of a segment when most of its content has been dropped.
+     */
+    private void compactIfNeeded(Segment segment) {
+        if (!segment.compacting && !segment.closed && segment.length >= MIN_COMPACTION_SIZE &&
+            segment.length > 2 * segment.liveBytes) {
+            segment.compacting = true;
+            getCompactor().execute(() -> compact(segment));
+        }
+    }
+
+    /**
+     * Waits until the compactions in progress are done.
+     */
+    void awaitCompactions() throws InterruptedException, ExecutionException {
+        boolean compacting = true;
+        while (compacting) {
+            getCompactor().submit(() -> {
+            }).get();
+            List<Segment> openSegments;
+            synchronized (segments) {
+                openSegments = new ArrayList<>(segments.values());
+            }
+            compacting = false;
+            for (Segment segment : openSegments) {
+                segment.lock.lock();
+                try {
+                    compacting |= segment.compacting;
+                } finally {
+                    segment.lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Rewrites a segment with only the records still indexed.
+     * <p>
+     * The records are copied without the segment lock, the lock is only held at the end to copy the records
+     * appended meanwhile and to replace the segment file, so that the writers are not blocked by the compaction.
+     */
+    private void compact(Segment segment) {
+        File compactionFile = getCompactionFile(segment.name);
+        boolean compacted = false;
+        try (FileChannel target = FileChannel.open(compactionFile.toPath(),
+                                                   StandardOpenOption.CREATE,
+                                                   StandardOpenOption.TRUNCATE_EXISTING,
+                                                   StandardOpenOption.WRITE)) {
+            FileChannel source;
+            long copiedLength;
+            Map<String, List<Extent>> records = new HashMap<>();
+            segment.lock.lock();
+            try {
+                if (segment.closed) {
+                    return;
+                }
+                source = segment.channel;
+                copiedLength = segment.length;
+                for (Map.Entry<String, LogIndex> entry : segment.logs.entrySet()) {
+                    records.put(entry.getKey(), new ArrayList<>(entry.getValue().extents));
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+
+            // new positions of the copied records
+            Map<Long, Long> positions = new HashMap<>();
+            for (Map.Entry<String, List<Extent>> entry : records.entrySet()) {
+                byte[] keyBytes = entry.getKey().getBytes(UTF_8);
+                for (Extent extent : entry.getValue()) {
+                    positions.put(extent.position, copyRecord(source, target, keyBytes, extent));
+                }
+            }
+
+            segment.lock.lock();
+            try {
+                if (segment.closed || segment.channel != source) {
+                    return;
+                }
+                // the records appended during the copy are moved as they are
+                long shift = target.position() - copiedLength;
+                transferFully(source, copiedLength, segment.length - copiedLength, target);
+                target.force(false);
+                Map<String, LogIndex> compactedLogs = new HashMap<>();
+                long liveBytes = 0;
+                for (Map.Entry<String, LogIndex> entry : segment.logs.entrySet()) {
+                    int keyLength = entry.getKey().getBytes(UTF_8).length;
+                    LogIndex compactedLog = new LogIndex();
+                    for (Extent extent : entry.getValue().extents) {
+                        long position = extent.position < copiedLength ? positions.get(extent.position)
+                                                                       : extent.position + shift;
+                        compactedLog.extents.addLast(new Extent(position, extent.length));
+                        compactedLog.size += extent.length;
+                        liveBytes += recordSize(keyLength, extent.length);
+                    }
+                    compactedLogs.put(entry.getKey(), compactedLog);
+                }
+                long compactedLength = target.position();
+                target.close();
+                invalidateIndex(segment);
+                replaceSegmentFile(segment, compactionFile);
+                segment.logs.clear();
+                segment.logs.putAll(compactedLogs);
+                segment.length = compactedLength;
+                segment.liveBytes = liveBytes;
+                compacted = true;
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Compacted " + segment.file + " to " + compactedLength + " bytes");
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        } catch (ClosedChannelException e) {
+            // the segment has been closed or removed during the copy
+            logger.debug("Compaction of " + segment.file + " interrupted", e);
+        } catch (IOException e) {
+            logger.warn("Could not compact " + segment.file, e);
+        } finally {
+            compactionFile.delete();
+            segment.lock.lock();
+            try {
+                segment.compacting = false;
+                if (compacted) {
+                    // the records appended during the compaction may have to be dropped as well
+                    compactIfNeeded(segment);
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    private void replaceSegmentFile(Segment segment, File compactionFile) throws IOException {
+        // readers still using the old channel read the segment again
+        segment.channel.close();
+        try {
+            Files.move(compactionFile.toPath(),
+                       segment.file.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+            segment.channel = FileChannel.open(segment.file.toPath(),
+                                               StandardOpenOption.READ,
+                                               StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            // the segment is indexed again from its file the next time it is used
+            segment.closed = true;
+            closeQuietly(segment);
+            synchronized (segments) {
+                segments.remove(segment.name, segment);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Copies a record to the end of the target and returns the position of its data.
+     */
+    private static long copyRecord(FileChannel source, FileChannel target, byte[] keyBytes, Extent extent)
+            throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE + keyBytes.length);
+        header.putInt(keyBytes.length).putInt(extent.length).put(keyBytes);
+        header.flip();
+        while (header.hasRemaining()) {
+            target.write(header);
+        }
+        long dataPosition = target.position();
+        transferFully(source, extent.position, extent.length, target);
+        return dataPosition;
+    }
+
+    private static void transferFully(FileChannel source, long position, long length, FileChannel target)
+            throws IOException {
+        long transferred = 0;
+        while (transferred < length) {
+            long count = source.transferTo(position + transferred, length - transferred, target);
+            if (count <= 0) {
+                throw new EOFException("Unexpected end of segment at position " + (position + transferred));
+            }
+            transferred += count;
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long current = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, current);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of segment at position " + current);
+            }
+            current += read;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long current = position;
+        while (buffer.hasRemaining()) {
+            current += channel.write(buffer, current);
+        }
+    }
+
+    private static void closeQuietly(Segment segment) {
+        try {
+            if (segment.channel != null) {
+                segment.channel.close();
+            }
+        } catch (IOException e) {
+            logger.warn("Could not close " + segment.file, e);
+        }
+    }
+
+    /**
+     * Segment file and index of the logs it contains. The fields are guarded by the lock of the segment.
+     */
+    private static final class Segment {
+
+        private final String name;
+
+        private final File file;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private FileChannel channel;
+
+        /** whether the segment has been evicted or removed, it is then replaced by a new instance */
+        private boolean closed = false;
+
+        /** whether records have been appended by this store since the segment was opened */
+        private boolean written = false;
+
+        /** whether the index file matches the segment */
+        private boolean indexSaved = false;
+
+        private boolean compacting = false;
+
+        /** length of the indexed part of the file */
+        private long length = 0;
+
+        /** size of the records which are still indexed */
+        private long liveBytes = 0;
+
+        private final Map<String, LogIndex> logs = new HashMap<>();
+
+        private Segment(String name, File file) {
+            this.name = name;
+            this.file = file;
+        }
+    }
+
+    /**
+     * Positions of the records of a log, from the oldest to the newest.
+     */
+    private static final class LogIndex {
+
+        private final ArrayDeque<Extent> extents = new ArrayDeque<>();
+
+        private long size = 0;
+    }
+
+    private static final class Extent {
+
+        private final long position;
+
+        private final int length;
+
+        private Extent(long position, int length) {
+            this.position = position;
+            this.length = length;
+        }
+    }
+
+    private static final class QueuedRecord {
+
+        private final String key;
+
+        private final byte[] keyBytes;
+
+        private final String text;
+
+        private QueuedRecord(String key, byte[] keyBytes, String text) {
+            this.key = key;
+            this.keyBytes = keyBytes;
+            this.text = text;
+        }
+    }
+}
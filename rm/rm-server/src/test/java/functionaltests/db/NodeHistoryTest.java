@@ -25,6 +25,7 @@
  */
 package functionaltests.db;
 
+import java.util.Comparator;
 import java.util.List;
 
 import org.hibernate.cfg.Configuration;
@@ -95,6 +96,39 @@ public class NodeHistoryTest {
         dbManager.close();
     }
 
+    @Test
+    public void testBufferedNodeHistoryIsClosedByNextState() throws Exception {
+        Configuration config = new Configuration().configure("/functionaltests/config/hibernate-unit.cfg.xml");
+        RMDBManager bufferedDbManager = new RMDBManager(config, true, true);
+        try {
+            NodeHistory first = createNodeHistory(1);
+            NodeHistory second = createNodeHistory(2);
+            NodeHistory otherNode = createNodeHistory(3);
+            otherNode.setNodeUrl("otherUrl");
+            NodeHistory removal = createNodeHistory(4);
+            removal.setStoreInDataBase(false);
+
+            bufferedDbManager.bufferNodeHistory(first);
+            bufferedDbManager.bufferNodeHistory(second);
+            bufferedDbManager.bufferNodeHistory(otherNode);
+            bufferedDbManager.flushHistory();
+            bufferedDbManager.bufferNodeHistory(removal);
+
+            List<NodeHistory> rows = bufferedDbManager.getNodesHistory(0, Long.MAX_VALUE);
+            rows.sort(Comparator.comparingLong(NodeHistory::getStartTime));
+            Assert.assertEquals(3, rows.size());
+
+            first.setEndTime(2);
+            second.setEndTime(4);
+            assertEquals(first, rows.get(0));
+            assertEquals(second, rows.get(1));
+            assertEquals(otherNode, rows.get(2));
+            Assert.assertEquals(0, rows.get(2).getEndTime());
+        } finally {
+            bufferedDbManager.close();
+        }
+    }
+
     private void assertEquals(NodeHistory expected, NodeHistory actual) {
         Assert.assertEquals(expected.getHost(), actual.getHost());
         Assert.assertEquals(expected.getNodeSource(), actual.getNodeSource());
@@ -0,0 +1,115 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package functionaltests.permissions;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.Test;
+import org.ow2.proactive.resourcemanager.common.NodeTelemetry;
+import org.ow2.proactive.resourcemanager.common.event.RMEventType;
+import org.ow2.proactive.resourcemanager.frontend.ResourceManager;
+import org.ow2.proactive.resourcemanager.nodesource.infrastructure.DefaultInfrastructureManager;
+import org.ow2.proactive.resourcemanager.nodesource.policy.StaticPolicy;
+
+import functionaltests.utils.RMFunctionalTest;
+import functionaltests.utils.RMTHelper;
+import functionaltests.utils.TestNode;
+import functionaltests.utils.TestUsers;
+
+
+/**
+ *  Test checks that the nodes of the users who are not administrators can publish their telemetry.
+ *
+ *  1. a node provider can publish the telemetry of its nodes,
+ *
+ *  2. a node source administrator can publish the telemetry of its nodes,
+ *
+ *  3. a user who cannot provide nodes cannot publish any telemetry.
+ */
+public class TestNodeTelemetryPermissions extends RMFunctionalTest {
+
+    @Test
+    public void action() throws Exception {
+        String nsName = "TestNodeTelemetryPermissions";
+        ResourceManager nsadmin = rmHelper.getResourceManager(TestUsers.NSADMIN);
+        nsadmin.createNodeSource(nsName,
+                                 DefaultInfrastructureManager.class.getName(),
+                                 null,
+                                 StaticPolicy.class.getName(),
+                                 new Object[] { "ALL", "ALL" },
+                                 NODES_NOT_RECOVERABLE);
+        rmHelper.waitForNodeSourceEvent(RMEventType.NODESOURCE_CREATED, nsName);
+
+        TestNode testNode = rmHelper.createNode("node1");
+        testNodes.add(testNode);
+        String nodeUrl = testNode.getNode().getNodeInformation().getURL();
+
+        ResourceManager provider = rmHelper.getResourceManager(TestUsers.PROVIDER);
+        provider.addNode(nodeUrl, nsName).getBooleanValue();
+        rmHelper.waitForAnyNodeEvent(RMEventType.NODE_ADDED);
+        // node becomes free
+        rmHelper.waitForAnyNodeEvent(RMEventType.NODE_STATE_CHANGED);
+
+        RMTHelper.log("Test1 - node provider publishes the telemetry");
+        provider = rmHelper.getResourceManager(TestUsers.PROVIDER);
+        provider.setNodesTelemetry(Collections.singleton(nodeUrl), new NodeTelemetry(1));
+        assertTrue("the telemetry of the provider is stored", waitForTelemetry(provider, nodeUrl, 1));
+
+        RMTHelper.log("Test2 - node source administrator publishes the telemetry");
+        nsadmin = rmHelper.getResourceManager(TestUsers.NSADMIN);
+        nsadmin.setNodesTelemetry(Collections.singleton(nodeUrl), new NodeTelemetry(2));
+        assertTrue("the telemetry of the node source administrator is stored",
+                   waitForTelemetry(nsadmin, nodeUrl, 2));
+
+        RMTHelper.log("Test3 - user without the permission cannot publish any telemetry");
+        ResourceManager user = rmHelper.getResourceManager(TestUsers.USER);
+        // the call is one-way, the security exception is only logged by the resource manager
+        user.setNodesTelemetry(Collections.singleton(nodeUrl), new NodeTelemetry(3));
+        assertFalse("the telemetry of the user is ignored", waitForTelemetry(user, nodeUrl, 3));
+
+        nsadmin = rmHelper.getResourceManager(TestUsers.NSADMIN);
+        nsadmin.removeNodeSource(nsName, true).getBooleanValue();
+        rmHelper.waitForNodeSourceEvent(RMEventType.NODESOURCE_REMOVED, nsName);
+    }
+
+    /**
+     * Waits until the telemetry of the node has the given timestamp, for at most 5 seconds.
+     */
+    private static boolean waitForTelemetry(ResourceManager rm, String nodeUrl, long timestamp)
+            throws InterruptedException {
+        for (int i = 0; i < 50; i++) {
+            NodeTelemetry telemetry = rm.getState().getFreeNodesTelemetry().get(nodeUrl);
+            if (telemetry != null && telemetry.getTimestamp() == timestamp) {
+                return true;
+            }
+            Thread.sleep(100);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.ow2.proactive.resourcemanager.rmnode.RMNode;
+
+import com.google.common.collect.ImmutableSet;
+
+
+public class EligibleNodesIndexTest {
+
+    @Test
+    public void testAddAndRemoveUpdateViews() {
+        RMNode first = createNode("node-1", "ns-1", "token");
+        RMNode second = createNode("node-2", "ns-2");
+        EligibleNodesIndex index = new EligibleNodesIndex(Arrays.asList(first, second));
+
+        assertThat(index.add(first)).isFalse();
+        assertThat(index.getNodes()).containsExactly(first, second).inOrder();
+        assertThat(index.getNodesOfNodeSource("ns-2")).containsExactly(second);
+        assertThat(index.getNodesWithToken("token")).containsExactly(first);
+        assertThat(index.getNodes(ImmutableSet.of("node-2", "unknown"))).containsExactly(second);
+
+        assertThat(index.remove(first)).isTrue();
+        assertThat(index.remove(first)).isFalse();
+        assertThat(index.getNodes()).containsExactly(second);
+        assertThat(index.getNodesOfNodeSource("ns-1")).isEmpty();
+        assertThat(index.getNodesWithToken("token")).isEmpty();
+    }
+
+    @Test
+    public void testSnapshotsAreSharedUntilModification() {
+        RMNode first = createNode("node-1", "ns");
+        EligibleNodesIndex index = new EligibleNodesIndex(Collections.singletonList(first));
+
+        List<RMNode> nodes = index.getNodes();
+        Set<String> urls = index.getNodeUrls();
+        long version = index.getVersion();
+        assertThat(index.getNodes()).isSameAs(nodes);
+        assertThat(index.getNodeUrls()).isSameAs(urls);
+
+        index.add(createNode("node-2", "ns"));
+
+        assertThat(index.getVersion()).isGreaterThan(version);
+        assertThat(nodes).containsExactly(first);
+        assertThat(urls).containsExactly("node-1");
+        assertThat(index.getNodeUrls()).containsExactly("node-1", "node-2").inOrder();
+    }
+
+    @Test
+    public void testUpdateReindexesTokens() {
+        RMNode node = createNode("node", "ns", "old");
+        EligibleNodesIndex index = new EligibleNodesIndex(Collections.singletonList(node));
+
+        when(node.getNodeTokens()).thenReturn(Collections.singletonList("new"));
+        index.update(node);
+
+        assertThat(index.getNodesWithToken("old")).isEmpty();
+        assertThat(index.getNodesWithToken("new")).containsExactly(node);
+
+        RMNode notEligible = createNode("other", "ns", "new");
+        index.update(notEligible);
+        assertThat(index.contains(notEligible)).isFalse();
+    }
+
+    private static RMNode createNode(String url, String nodeSourceName, String... tokens) {
+        RMNode rmNode = mock(RMNode.class);
+        when(rmNode.getNodeURL()).thenReturn(url);
+        when(rmNode.getNodeSourceName()).thenReturn(nodeSourceName);
+        when(rmNode.getNodeTokens()).thenReturn(Arrays.asList(tokens));
+        return rmNode;
+    }
+}
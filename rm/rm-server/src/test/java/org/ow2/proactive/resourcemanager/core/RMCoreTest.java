@@ -59,6 +59,7 @@ import org.objectweb.proactive.core.node.NodeInformation;
 import org.objectweb.proactive.core.util.wrapper.BooleanWrapper;
 import org.ow2.proactive.resourcemanager.authentication.Client;
 import org.ow2.proactive.resourcemanager.common.NodeState;
+import org.ow2.proactive.resourcemanager.common.NodeTelemetry;
 import org.ow2.proactive.resourcemanager.common.RMState;
 import org.ow2.proactive.resourcemanager.common.event.RMEventType;
 import org.ow2.proactive.resourcemanager.common.event.RMNodeDescriptor;
@@ -634,7 +635,7 @@ public class RMCoreTest {
         assertThat(lockResult.getBooleanValue()).isTrue();
         assertThat(rmNode.getState()).isEqualTo(nodeState);
         assertThat(rmNode.isLocked()).isTrue();
-        assertThat(freeNodes).isEmpty();
+        assertThat(rmCore.getFreeNodes()).isEmpty();
     }
 
     @Test
@@ -733,6 +734,23 @@ public class RMCoreTest {
         assertThat(unknownNodeUrls).contains(unknownNodeUrl);
     }
 
+    @Test
+    public void testSetNodesTelemetry() throws ActiveObjectCreationException, NodeException {
+        ImmutableMap<String, RMNode> allNodes = ImmutableMap.of(mockedBusyNode.getNodeURL(), mockedBusyNode);
+
+        List<RMNode> freeNodes = Collections.emptyList();
+
+        RMCore rmCore = spy(createRmCore(allNodes, freeNodes));
+
+        NodeTelemetry telemetry = new NodeTelemetry(System.currentTimeMillis());
+        doReturn(mockedCaller).when(rmCore).checkPermissionAndGetClientIsSuccessful();
+        rmCore.setNodesTelemetry(ImmutableSet.of(mockedBusyNode.getNodeURL(), mockedRemovableNode.getNodeURL()),
+                                 telemetry);
+
+        verify(mockedBusyNode).setTelemetry(telemetry);
+        verify(mockedRemovableNode, never()).setTelemetry(any(NodeTelemetry.class));
+    }
+
     @Test
     public void testSetNodesAvailableKnownNodeUrlDown() throws ActiveObjectCreationException, NodeException {
         ImmutableMap<String, RMNode> allNodes = ImmutableMap.of(mockedRemovableNode.getNodeURL(), mockedRemovableNode);
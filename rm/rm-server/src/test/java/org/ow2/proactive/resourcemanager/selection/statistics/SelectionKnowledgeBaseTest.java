@@ -0,0 +1,105 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.selection.statistics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+
+public class SelectionKnowledgeBaseTest {
+
+    @Test
+    public void testStaticAndDynamicResults() {
+        SelectionKnowledgeBase knowledgeBase = new SelectionKnowledgeBase(10, Long.MAX_VALUE);
+
+        assertEquals(SelectionKnowledgeBase.UNKNOWN, knowledgeBase.getProbability("static", "node"), 0);
+
+        knowledgeBase.update("static", "node", false, true, 0);
+        assertEquals(1, knowledgeBase.getProbability("static", "node"), 0);
+        knowledgeBase.update("static", "node", false, false, 0);
+        assertEquals(0, knowledgeBase.getProbability("static", "node"), 0);
+
+        double increased = knowledgeBase.update("dynamic", "node", true, true, 0);
+        assertTrue(increased > Probability.defaultValue() && increased < 1);
+        double decreased = knowledgeBase.update("dynamic", "node", true, false, 0);
+        assertEquals(Probability.defaultValue(), decreased, 0);
+
+        // a failed dynamic script is paused during the dynamicity period
+        assertEquals(0, knowledgeBase.update("dynamic", "node", true, false, 60000), 0);
+        assertEquals(SelectionKnowledgeBase.UNKNOWN, knowledgeBase.getProbability("dynamic", "otherNode"), 0);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedScriptIsEvicted() {
+        SelectionKnowledgeBase knowledgeBase = new SelectionKnowledgeBase(2, Long.MAX_VALUE);
+
+        knowledgeBase.update("first", "node", false, true, 0);
+        knowledgeBase.update("second", "node", false, true, 0);
+        // reading the first script makes the second one the least recently used
+        knowledgeBase.getProbability("first", "node");
+        knowledgeBase.update("third", "node", false, true, 0);
+
+        assertEquals(2, knowledgeBase.size());
+        assertEquals(1, knowledgeBase.getProbability("first", "node"), 0);
+        assertEquals(SelectionKnowledgeBase.UNKNOWN, knowledgeBase.getProbability("second", "node"), 0);
+        assertEquals(1, knowledgeBase.getProbability("third", "node"), 0);
+    }
+
+    @Test
+    public void testMemoryIsBounded() {
+        SelectionKnowledgeBase knowledgeBase = new SelectionKnowledgeBase(100, 10 * 1024);
+
+        knowledgeBase.update("first", "node-0", false, true, 0);
+        // growing the second script over the memory limit evicts the first one
+        for (int i = 0; i < 1000; i++) {
+            knowledgeBase.update("second", "node-" + i, false, true, 0);
+        }
+
+        assertEquals(1, knowledgeBase.size());
+        assertEquals(SelectionKnowledgeBase.UNKNOWN, knowledgeBase.getProbability("first", "node-0"), 0);
+        assertEquals(1, knowledgeBase.getProbability("second", "node-999"), 0);
+    }
+
+    @Test
+    public void testRemovedNodeIdIsReused() {
+        SelectionKnowledgeBase knowledgeBase = new SelectionKnowledgeBase(10, Long.MAX_VALUE);
+
+        knowledgeBase.update("script", "removed", false, true, 0);
+        int removedNodeId = knowledgeBase.getNodeId("removed");
+        knowledgeBase.removeNode("removed");
+
+        assertEquals(-1, knowledgeBase.getNodeId("removed"));
+        assertEquals(SelectionKnowledgeBase.UNKNOWN, knowledgeBase.getProbability("script", "removed"), 0);
+
+        // the new node takes the identifier of the removed one without its results
+        knowledgeBase.update("other", "added", false, true, 0);
+        assertEquals(removedNodeId, knowledgeBase.getNodeId("added"));
+        assertEquals(SelectionKnowledgeBase.UNKNOWN, knowledgeBase.getProbability("script", "added"), 0);
+        assertEquals(1, knowledgeBase.getProbability("other", "added"), 0);
+    }
+}
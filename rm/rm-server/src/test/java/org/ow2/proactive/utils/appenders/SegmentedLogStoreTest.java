@@ -0,0 +1,280 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.utils.appenders;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+public class SegmentedLogStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File location;
+
+    @Before
+    public void setUp() throws Exception {
+        location = folder.newFolder("logs");
+    }
+
+    @Test
+    public void testLogsOfAJobShareOneSegment() throws Exception {
+        SegmentedLogStore store = new SegmentedLogStore(location, 10);
+        store.append("1/1", "job line 1\n");
+        store.append("1/1t0", "task 0 line 1\n");
+        store.append("1/1t1", "task 1 line 1\n");
+        store.append("1/1t0", "task 0 line 2\n");
+
+        assertEquals(1, location.list().length);
+        assertTrue(new File(location, "1" + SegmentedLogStore.SEGMENT_EXTENSION).exists());
+        assertEquals("job line 1\n", store.read("1/1"));
+        assertEquals("task 0 line 1\ntask 0 line 2\n", store.read("1/1t0"));
+        assertEquals("task 1 line 1\n", store.read("1/1t1"));
+        assertNull(store.read("1/1t2"));
+        assertNull(store.read("2/2"));
+    }
+
+    @Test
+    public void testRangeRead() throws Exception {
+        SegmentedLogStore store = new SegmentedLogStore(location, 10);
+        store.append("1/1t0", "0123");
+        store.append("1/1", "other");
+        store.append("1/1t0", "4567");
+
+        assertEquals(8, store.size("1/1t0"));
+        assertEquals("2345", store.read("1/1t0", 2, 4));
+        assertEquals("67", store.read("1/1t0", 6, 100));
+        assertEquals("", store.read("1/1t0", 10, 4));
+    }
+
+    @Test
+    public void testRangeReadIsAlignedToCharacters() throws Exception {
+        SegmentedLogStore store = new SegmentedLogStore(location, 10);
+        // 2 and 3 bytes characters
+        store.append("1/1t0", "\u00e9\u20ac");
+        store.append("1/1", "other");
+        store.append("1/1t0", "a");
+
+        assertEquals(6, store.size("1/1t0"));
+        assertEquals("\u00e9", store.read("1/1t0", 0, 1));
+        assertEquals("", store.read("1/1t0", 1, 1));
+        assertEquals("\u20ac", store.read("1/1t0", 2, 1));
+        assertEquals("a", store.read("1/1t0", 3, 3));
+
+        StringBuilder ranges = new StringBuilder();
+        for (int offset = 0; offset < 6; offset += 2) {
+            ranges.append(store.read("1/1t0", offset, 2));
+        }
+        assertEquals("\u00e9\u20aca", ranges.toString());
+    }
+
+    @Test
+    public void testSizeLimitDropsOldestRecords() throws Exception {
+        SegmentedLogStore store = new SegmentedLogStore(location, 10);
+        store.setMaxLogSize(10);
+        store.append("1/1t0", "first line\n");
+        store.append("1/1t0", "second line\n");
+
+        assertEquals("second line\n", store.read("1/1t0"));
+    }
+
+    @Test
+    public void testRemoveSegment() throws Exception {
+        SegmentedLogStore store = new SegmentedLogStore(location, 10);
+        store.append("1/1t0", "job 1\n");
+        store.append("2/2t0", "job 2\n");
+
+        assertTrue(store.removeSegment("1"));
+
+        assertFalse(store.contains("1/1t0"));
+        assertTrue(store.contains("2/2t0"));
+        assertEquals(1, location.list().length);
+        assertFalse(store.removeSegment("1"));
+    }
+
+    @Test
+    public void testOpenSegmentsAreBounded() throws Exception {
+        SegmentedLogStore store = new SegmentedLogStore(location, 2);
+        for (int i = 0; i < 5; i++) {
+            store.append(i + "/" + i, "job " + i + "\n");
+        }
+        assertEquals(2, store.numberOfOpenSegments());
+
+        // closed segments are indexed again when they are used
+        for (int i = 0; i < 5; i++) {
+            store.append(i + "/" + i, "job " + i + " again\n");
+            assertEquals("job " + i + "\njob " + i + " again\n", store.read(i + "/" + i));
+        }
+        assertEquals(2, store.numberOfOpenSegments());
+    }
+
+    @Test
+    public void testIndexIsRebuiltAndIncompleteRecordRemoved() throws Exception {
+        SegmentedLogStore store = new SegmentedLogStore(location, 10);
+        store.append("1/1t0", "line 1\n");
+        store.append("1/1t1", "line 2\n");
+        store.clear();
+
+        // simulates a crash in the middle of a record
+        File segmentFile = new File(location, "1" + SegmentedLogStore.SEGMENT_EXTENSION);
+        long length = segmentFile.length();
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile, "rw")) {
+            file.seek(length);
+            file.writeInt(5);
+        }
+
+        SegmentedLogStore reopened = new SegmentedLogStore(location, 10);
+        reopened.append("1/1t0", "line 3\n");
+
+        assertEquals("line 1\nline 3\n", reopened.read("1/1t0"));
+        assertEquals("line 2\n", reopened.read("1/1t1"));
+    }
+
+    @Test
+    public void testCompaction() throws Exception {
+        SegmentedLogStore store = new SegmentedLogStore(location, 10);
+        store.setMaxLogSize(1000);
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < 99; i++) {
+            line.append('x');
+        }
+        line.append('\n');
+        for (int i = 0; i < 30000; i++) {
+            store.append("1/1t0", line.toString());
+        }
+        store.append("1/1t1", "other task\n");
+        store.awaitCompactions();
+
+        File segmentFile = new File(location, "1" + SegmentedLogStore.SEGMENT_EXTENSION);
+        assertTrue(segmentFile.length() < 1024 * 1024 + 1000);
+        assertEquals(1000, store.size("1/1t0"));
+        assertEquals("other task\n", store.read("1/1t1"));
+
+        store.clear();
+        SegmentedLogStore reopened = new SegmentedLogStore(location, 10);
+        reopened.setMaxLogSize(1000);
+        assertEquals(1000, reopened.size("1/1t0"));
+        assertEquals("other task\n", reopened.read("1/1t1"));
+    }
+
+    @Test
+    public void testQueuedRecordsAreWrittenInOrder() throws Exception {
+        SegmentedLogStore store = new SegmentedLogStore(location, 2, 10);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            store.enqueue("1/1t0", "line " + i + "\n");
+            store.enqueue(i + "/" + i, "job " + i + "\n");
+            expected.append("line ").append(i).append('\n');
+        }
+        store.flush();
+
+        assertEquals(expected.toString(), store.read("1/1t0"));
+        assertEquals("job 42\n", store.read("42/42"));
+        assertTrue(store.numberOfOpenSegments() <= 2);
+    }
+
+    @Test
+    public void testIndexIsSavedWhenASegmentIsClosed() throws Exception {
+        SegmentedLogStore store = new SegmentedLogStore(location, 1);
+        store.append("1/1t0", "line 1\n");
+        store.append("1/1t1", "line 2\n");
+        File indexFile = new File(location, "1" + SegmentedLogStore.INDEX_EXTENSION);
+        assertFalse(indexFile.exists());
+
+        // evicts the first segment
+        store.append("2/2t0", "other job\n");
+        assertTrue(indexFile.exists());
+        store.clear();
+
+        // the segment is not scanned when it is opened again, its first record cannot be read anymore
+        File segmentFile = new File(location, "1" + SegmentedLogStore.SEGMENT_EXTENSION);
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile, "rw")) {
+            file.writeInt(0);
+        }
+        SegmentedLogStore reopened = new SegmentedLogStore(location, 1);
+        assertEquals("line 1\n", reopened.read("1/1t0"));
+        assertEquals("line 2\n", reopened.read("1/1t1"));
+
+        // the index is outdated as soon as the segment is modified
+        reopened.append("1/1t0", "line 3\n");
+        assertFalse(indexFile.exists());
+        assertEquals("line 1\nline 3\n", reopened.read("1/1t0"));
+
+        assertTrue(reopened.removeSegment("1"));
+        assertFalse(indexFile.exists());
+    }
+
+    @Test
+    public void testReadsDuringAppendsAndCompactions() throws Exception {
+        SegmentedLogStore store = new SegmentedLogStore(location, 10);
+        store.setMaxLogSize(10000);
+        String line = String.format("%099d\n", 0);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicReference<String> invalidRead = new AtomicReference<>();
+        store.append("1/1t0", line);
+
+        Thread reader = new Thread(() -> {
+            try {
+                while (writing.get() && invalidRead.get() == null) {
+                    String log = store.read("1/1t0");
+                    if (log.isEmpty() || log.length() % line.length() != 0 || !log.replace(line, "").isEmpty()) {
+                        invalidRead.set(log);
+                    }
+                }
+            } catch (Exception e) {
+                invalidRead.set(e.toString());
+            }
+        });
+        reader.start();
+        try {
+            for (int i = 0; i < 50000; i++) {
+                store.enqueue("1/1t0", line);
+            }
+            store.flush();
+        } finally {
+            writing.set(false);
+            reader.join();
+        }
+        store.awaitCompactions();
+
+        assertNull(invalidRead.get());
+        assertEquals(10000, store.size("1/1t0"));
+        assertTrue(new File(location, "1" + SegmentedLogStore.SEGMENT_EXTENSION).length() < 2 * 1024 * 1024);
+    }
+}
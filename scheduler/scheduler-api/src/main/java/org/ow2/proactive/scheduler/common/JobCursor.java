@@ -0,0 +1,115 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.common;
+
+import java.io.Serializable;
+
+import org.objectweb.proactive.annotation.PublicAPI;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+
+
+/**
+ * Position in a job listing ordered from the most recently submitted job, used to page through the jobs
+ * without skipping over the previous pages.
+ * <p>
+ * The cursor of the next page is the one of the last job of the current page, see {@link #after(JobInfo)}.
+ * Its string form, {@code <submittedTime>_<jobId>}, can be given back by REST clients.
+ */
+@PublicAPI
+public final class JobCursor implements Serializable {
+
+    /** Cursor of the first page, placed after all the jobs */
+    public static final JobCursor FIRST = new JobCursor(Long.MAX_VALUE, Long.MAX_VALUE);
+
+    private static final char SEPARATOR = '_';
+
+    private final long submittedTime;
+
+    private final long jobId;
+
+    public JobCursor(long submittedTime, long jobId) {
+        this.submittedTime = submittedTime;
+        this.jobId = jobId;
+    }
+
+    /**
+     * Returns the cursor of the page which follows the given job.
+     */
+    public static JobCursor after(JobInfo jobInfo) {
+        return new JobCursor(jobInfo.getSubmittedTime(), Long.parseLong(jobInfo.getJobId().value()));
+    }
+
+    /**
+     * Parses the string form of a cursor, a null or empty string being the cursor of the first page.
+     *
+     * @throws IllegalArgumentException if the string is not a cursor
+     */
+    public static JobCursor parse(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return FIRST;
+        }
+        int separatorIndex = cursor.indexOf(SEPARATOR);
+        if (separatorIndex < 0) {
+            throw new IllegalArgumentException("Invalid job cursor: " + cursor);
+        }
+        try {
+            return new JobCursor(Long.parseLong(cursor.substring(0, separatorIndex)),
+                                 Long.parseLong(cursor.substring(separatorIndex + 1)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid job cursor: " + cursor, e);
+        }
+    }
+
+    public long getSubmittedTime() {
+        return submittedTime;
+    }
+
+    public long getJobId() {
+        return jobId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        JobCursor other = (JobCursor) o;
+        return submittedTime == other.submittedTime && jobId == other.jobId;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(submittedTime) + Long.hashCode(jobId);
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(submittedTime) + SEPARATOR + jobId;
+    }
+}
@@ -43,13 +43,25 @@ public class JobFilterCriteria implements Serializable {
 
     private final boolean childJobs;
 
+    private final JobCursor cursor;
+
     public JobFilterCriteria(boolean myJobsOnly, boolean pending, boolean running, boolean finished,
             boolean childJobs) {
+        this(myJobsOnly, pending, running, finished, childJobs, null);
+    }
+
+    /**
+     * @param cursor if not null, the jobs are listed from the most recently submitted, starting after
+     *               this cursor, instead of being listed by offset
+     */
+    public JobFilterCriteria(boolean myJobsOnly, boolean pending, boolean running, boolean finished, boolean childJobs,
+            JobCursor cursor) {
         this.myJobsOnly = myJobsOnly;
         this.pending = pending;
         this.running = running;
         this.finished = finished;
         this.childJobs = childJobs;
+        this.cursor = cursor;
     }
 
     public boolean isMyJobsOnly() {
@@ -71,4 +83,8 @@ public class JobFilterCriteria implements Serializable {
     public boolean isChildJobs() {
         return childJobs;
     }
+
+    public JobCursor getCursor() {
+        return cursor;
+    }
 }
@@ -1456,6 +1456,37 @@ public interface Scheduler extends SchedulerUsage, ThirdPartyCredentials {
     String getTaskServerLogs(String id, String taskName)
             throws UnknownJobException, UnknownTaskException, NotConnectedException, PermissionException;
 
+    /**
+     * Retrieves a range of the server logs of a task, so that large logs can be
+     * read in several parts. Only the job owner of admin if the scheduler can
+     * request these logs.
+     * <p>
+     * Offsets are counted in bytes of the UTF-8 encoded logs. A character is returned
+     * with the range which contains its first byte, so that consecutive ranges do not
+     * split characters.
+     * 
+     * @param id
+     *            of the job where the task is.
+     * @param taskName
+     *            the name of the task.
+     * @param offset
+     *            position in bytes of the beginning of the range.
+     * @param length
+     *            length in bytes of the range.
+     * 
+     * @return the range of the tasks's logs, empty if the offset is beyond the end of the logs
+     * @throws UnknownJobException
+     *             if the job does not exist.
+     * @throws UnknownTaskException
+     *             if this task does not exist in the job.
+     * @throws NotConnectedException
+     *             if you are not authenticated.
+     * @throws PermissionException
+     *             if you have not enough permission to access this method.
+     */
+    String getTaskServerLogs(String id, String taskName, long offset, int length)
+            throws UnknownJobException, UnknownTaskException, NotConnectedException, PermissionException;
+
     /**
      * Retrieves server logs for a set of tasks filtered by the given tag. Only
      * the job owner of admin if the scheduler can request these logs.
@@ -1493,6 +1524,9 @@ public interface Scheduler extends SchedulerUsage, ThirdPartyCredentials {
      *            HandleOnlyMyJobsPermission(true)) user will get his own jobs
      *            instead of a PermissionException. This behavior should
      *            simplify the client design.
+     *            When the criteria contain a {@link JobCursor}, the jobs submitted
+     *            before the cursor are returned, the most recent first, and
+     *            offset and sortParameters are ignored.
      *
      * @param sortParameters
      *            defines in how jobs must be sorted
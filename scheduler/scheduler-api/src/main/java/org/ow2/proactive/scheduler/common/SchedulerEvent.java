@@ -121,7 +121,12 @@ public enum SchedulerEvent {
      * */
     JOB_ABORTED("Job aborted"),
     /** when the visualization is activated on a task*/
-    TASK_VISU_ACTIVATED("Task visualization activated");
+    TASK_VISU_ACTIVATED("Task visualization activated"),
+    /**
+     * Events could not be delivered to the client fast enough and some of them were dropped,
+     * the client must read the scheduler state again.
+     */
+    RESYNC_NEEDED("Resync needed");
     /** Name of the method */
     private String methodName;
 
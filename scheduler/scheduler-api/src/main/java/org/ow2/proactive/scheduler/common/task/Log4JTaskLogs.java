@@ -247,6 +247,13 @@ public class Log4JTaskLogs implements TaskLogs {
         return logs.toString();
     }
 
+    /**
+     * Returns the size in bytes of the compressed logging events, i.e. about the size of these logs once serialized.
+     */
+    public synchronized int getSerializedEventsSize() {
+        return serializedAllEvents == null ? 0 : serializedAllEvents.length;
+    }
+
     /**
      * Return all the currently logged events
      * @return a list containing all the currently logged events
@@ -64,12 +64,23 @@ public enum PASchedulerProperties implements PACommonProperties {
     /** If set to true, the scheduling loop will partition the task list according to the amount of free nodes. Enabling it can cause performance issues */
     SCHEDULER_POLICY_USE_FREE_NODES("pa.scheduler.policy.use.free.nodes", PropertyType.BOOLEAN, "false"),
 
+    /** Time in ms during which the RAM scheduling policy counts a memory reservation that the node telemetry does not show yet */
+    SCHEDULER_POLICY_RAM_RESERVATION_TIMEOUT("pa.scheduler.policy.ram.reservation.timeout", PropertyType.INTEGER, "120000"),
+
     /** Path of the license properties file. */
     SCHEDULER_LICENSE_POLICY_CONFIGURATION("pa.scheduler.license.policy.configuration", PropertyType.STRING),
 
     /** Scheduler main loop time out */
     SCHEDULER_TIME_OUT("pa.scheduler.core.timeout", PropertyType.INTEGER, "100"),
 
+    /** If set to true, the scheduling loop only examines jobs which may have tasks to schedule, and skips its
+     * iterations when neither the jobs nor the free nodes have changed since the previous one */
+    SCHEDULER_INCREMENTAL_SCHEDULING("pa.scheduler.core.incremental.scheduling", PropertyType.BOOLEAN, "false"),
+
+    /** In incremental scheduling mode, maximum delay in milliseconds between two complete scheduling loops,
+     * even if no change was detected (required by time-based conditions such as START_AT) */
+    SCHEDULER_INCREMENTAL_SCHEDULING_RESYNC_PERIOD("pa.scheduler.core.incremental.scheduling.resync.period", PropertyType.INTEGER, "10000"),
+
     /** Scheduler auto reconnection to the RM when the connection is down */
     SCHEDULER_RMCONNECTION_AUTO_CONNECT("pa.scheduler.core.rmconnection.autoconnect", PropertyType.BOOLEAN, "true"),
 
@@ -86,6 +97,10 @@ public enum PASchedulerProperties implements PACommonProperties {
      * tolerated failed attempts to ping a node, before the scheduler decides to restart the task running on it */
     SCHEDULER_NODE_PING_ATTEMPTS("pa.scheduler.core.node.ping.attempts", PropertyType.INTEGER, "1"),
 
+    /** Number of node ping periods without heartbeat from a running task after which the scheduler polls its
+     * task launcher and pings its node. Zero disables the heartbeats, all running tasks are then polled */
+    SCHEDULER_TASK_HEARTBEAT_MISSED("pa.scheduler.core.task.heartbeat.missed", PropertyType.INTEGER, "2"),
+
     /** Time in milliseconds before sending a kill request to the scheduler. */
     SCHEDULER_KILL_DELAY("pa.scheduler.core.killdelay", PropertyType.INTEGER, "2000"),
 
@@ -136,11 +151,24 @@ public enum PASchedulerProperties implements PACommonProperties {
      * until the scheduling loop will block as well.*/
     SCHEDULER_STARTTASK_THREADNUMBER("pa.scheduler.core.starttask.threadnumber", PropertyType.INTEGER, "20"),
 
+    /** Maximum number of jobs whose decrypted credentials are kept in memory to start their tasks,
+     * 0 disables the cache */
+    SCHEDULER_STARTTASK_CREDENTIALS_CACHE_SIZE("pa.scheduler.core.starttask.credentials.cache.size", PropertyType.INTEGER, "1000"),
+
+    /** Maximum number of node public keys kept in memory to encrypt the credentials of the started tasks,
+     * 0 disables the cache */
+    SCHEDULER_STARTTASK_NODEKEYS_CACHE_SIZE("pa.scheduler.core.starttask.nodekeys.cache.size", PropertyType.INTEGER, "10000"),
+
     /** Maximum number of threads used to send events to clients. This property defines the number of clients
      * than can block at the same time. If this number is reached, every clients won't receive events until
      * a thread unlock. */
     SCHEDULER_LISTENERS_THREADNUMBER("pa.scheduler.core.listener.threadnumber", PropertyType.INTEGER, "20"),
 
+    /** Maximum number of events waiting to be sent to a client. Progress and update events of the same
+     * task or job are coalesced. When the limit is reached, the waiting events are dropped and the client
+     * receives a RESYNC_NEEDED event. A value lower or equal to 0 means no limit. */
+    SCHEDULER_LISTENERS_QUEUE_SIZE("pa.scheduler.core.listener.queue.size", PropertyType.INTEGER, "10000"),
+
     /** List of the scripts paths to execute at scheduler start. Paths are separated by a ';'. */
     SCHEDULER_STARTSCRIPTS_PATHS("pa.scheduler.startscripts.paths", PropertyType.LIST),
 
@@ -222,6 +250,30 @@ public enum PASchedulerProperties implements PACommonProperties {
     /** If true script tasks are ran in a forked JVM, if false they are ran in the node's JVM */
     TASK_FORK("pa.scheduler.task.fork", PropertyType.BOOLEAN),
 
+    /**
+     * If true forked tasks which do not customize their process are executed in reusable JVMs started in advance.
+     * The current directory of these JVMs is not the task working directory.
+     */
+    TASK_FORK_POOL_ENABLED("pa.scheduler.task.fork.pool.enabled", PropertyType.BOOLEAN, "false"),
+
+    /** Number of idle JVMs kept per java command by the forked JVM pool of a node */
+    TASK_FORK_POOL_SIZE("pa.scheduler.task.fork.pool.size", PropertyType.INTEGER, "2"),
+
+    /** Maximum number of idle or starting JVMs in the forked JVM pool of a node, for all the java commands */
+    TASK_FORK_POOL_MAX_IDLE("pa.scheduler.task.fork.pool.max.idle", PropertyType.INTEGER, "4"),
+
+    /** Number of tasks after which a JVM of the forked JVM pool is stopped */
+    TASK_FORK_POOL_MAX_REUSE("pa.scheduler.task.fork.pool.max.reuse", PropertyType.INTEGER, "100"),
+
+    /** Time in ms a JVM of the forked JVM pool has to answer a health check */
+    TASK_FORK_POOL_HEALTH_CHECK_TIMEOUT("pa.scheduler.task.fork.pool.healthcheck.timeout", PropertyType.INTEGER, "5000"),
+
+    /** Time in ms a JVM of the forked JVM pool has to connect to the node after its start */
+    TASK_FORK_POOL_START_TIMEOUT("pa.scheduler.task.fork.pool.start.timeout", PropertyType.INTEGER, "60000"),
+
+    /** Time in ms after which an idle JVM of the forked JVM pool is stopped */
+    TASK_FORK_POOL_IDLE_TIMEOUT("pa.scheduler.task.fork.pool.idle.timeout", PropertyType.INTEGER, "600000"),
+
     /**
      * If true tasks are always ran in RunAsMe mode (implies automatically fork), if false, the user can choose whether to run the task in runasme mode or not
      **/
@@ -460,10 +512,37 @@ public enum PASchedulerProperties implements PACommonProperties {
             PropertyType.INTEGER,
             "100"),
 
+    /** Number of threads used to load the batches of jobs from the database when the scheduler is restarted, 1 loads them in a single transaction */
+    SCHEDULER_DB_RECOVERY_LOAD_JOBS_NBTHREADS("pa.scheduler.db.recovery.load.jobs.nbthreads", PropertyType.INTEGER, "4"),
+
+    /** Number of rows sent in a single JDBC batch, used when hibernate.jdbc.batch_size is not set in the database configuration */
+    SCHEDULER_DB_JDBC_BATCH_SIZE("pa.scheduler.db.jdbc.batch_size", PropertyType.INTEGER, "50"),
+
     SCHEDULER_DB_ITEMS_MAX_SIZE("pa.scheduler.db.items.max.size", PropertyType.INTEGER, "1000"),
 
     SCHEDULER_DB_FETCH_TASK_RESULTS_BATCH_SIZE("pa.scheduler.db.fetch.batch_size", PropertyType.INTEGER, "50"),
 
+    /** Maximum number of task status updates written in a single transaction by the scheduling loop */
+    SCHEDULER_DB_TASK_STATUS_UPDATE_BATCH_SIZE("pa.scheduler.db.task.status.update.batch_size", PropertyType.INTEGER, "500"),
+
+    /** Maximum total size, in characters, of the task scripts kept in memory after being loaded from the database */
+    SCHEDULER_DB_TASK_SCRIPT_CACHE_SIZE("pa.scheduler.db.task.script.cache.size", PropertyType.INTEGER, "10000000"),
+
+    /** Maximum total size, in characters, of the script contents kept in memory, they are stored once per distinct content */
+    SCHEDULER_DB_SCRIPT_CONTENT_CACHE_SIZE("pa.scheduler.db.script.content.cache.size", PropertyType.INTEGER, "10000000"),
+
+    /** Number of script rows stored inline by previous versions which are moved to the script contents table in a single transaction when the scheduler starts, 0 disables the migration */
+    SCHEDULER_DB_SCRIPT_CONTENT_MIGRATION_BATCH_SIZE("pa.scheduler.db.script.content.migration.batch_size", PropertyType.INTEGER, "1000"),
+
+    /** Size in bytes above which the value, the logs and the propagated variables of a task result are stored in the result blob store instead of the database, a negative value keeps all of them in the database */
+    SCHEDULER_DB_RESULT_BLOB_THRESHOLD("pa.scheduler.db.result.blob.threshold", PropertyType.INTEGER, "1048576"),
+
+    /** Location of the result blob store, relative to the scheduler home if not absolute */
+    SCHEDULER_DB_RESULT_BLOB_LOCATION("pa.scheduler.db.result.blob.location", PropertyType.STRING, "data/results"),
+
+    /** Class name of the result blob store, an implementation of org.ow2.proactive.scheduler.core.db.TaskResultBlobStore */
+    SCHEDULER_DB_RESULT_BLOB_STORE("pa.scheduler.db.result.blob.store", PropertyType.STRING, "org.ow2.proactive.scheduler.core.db.LocalTaskResultBlobStore"),
+
     /* ***************************************************************** */
     /* ************** VARIABLES & GENERIC INFO PROPERTIES ************** */
     /* ***************************************************************** */
@@ -510,6 +589,13 @@ public enum PASchedulerProperties implements PACommonProperties {
     /** location of the jdbm database for persistent channels */
     SCHEDULER_SYNCHRONIZATION_DATABASE("pa.scheduler.synchronization.db", PropertyType.STRING, "data/synchronization"),
 
+    /** engine used to store the persistent channels, jdbm or journal */
+    SCHEDULER_SYNCHRONIZATION_STORE("pa.scheduler.synchronization.store", PropertyType.STRING, "jdbm"),
+
+    /** number of records appended to the journal of the journal store after which it is compacted */
+    SCHEDULER_SYNCHRONIZATION_JOURNAL_COMPACTION_THRESHOLD(
+            "pa.scheduler.synchronization.journal.compaction.threshold", PropertyType.INTEGER, "10000"),
+
     /* ***************************************************************** */
     /* ***************** SIGNAL API PROPERTIES ************** */
     /* ***************************************************************** */
@@ -0,0 +1,97 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ow2.proactive.scheduler.common.job.JobPriority;
+import org.ow2.proactive.scheduler.common.task.OnTaskError;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.job.InternalTaskFlowJob;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.internal.InternalScriptTask;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+
+
+/**
+ * Builds the internal jobs used by the benchmarks, without going through the job factories.
+ */
+public final class BenchmarkJobs {
+
+    private static final JobPriority[] PRIORITIES = { JobPriority.LOW, JobPriority.NORMAL, JobPriority.HIGH };
+
+    private BenchmarkJobs() {
+    }
+
+    /**
+     * Creates a job of independent tasks, the priority depends on the job id.
+     */
+    public static InternalTaskFlowJob createJob(long id, int numberOfTasks) {
+        InternalTaskFlowJob job = createEmptyJob(id);
+        for (int i = 0; i < numberOfTasks; i++) {
+            addTask(job, "task" + i);
+        }
+        return job;
+    }
+
+    /**
+     * Creates a job made of a root task, <code>width</code> tasks depending on it, and a task
+     * depending on all of them.
+     */
+    public static InternalTaskFlowJob createWideJob(long id, int width) {
+        InternalTaskFlowJob job = createEmptyJob(id);
+        InternalTask root = addTask(job, "root");
+        List<InternalTask> middle = new ArrayList<>(width);
+        for (int i = 0; i < width; i++) {
+            InternalTask task = addTask(job, "middle" + i);
+            task.addDependence(root);
+            middle.add(task);
+        }
+        InternalTask join = addTask(job, "join");
+        for (InternalTask task : middle) {
+            join.addDependence(task);
+        }
+        return job;
+    }
+
+    private static InternalTaskFlowJob createEmptyJob(long id) {
+        InternalTaskFlowJob job = new InternalTaskFlowJob("benchmark-" + id,
+                                                          PRIORITIES[(int) (id % PRIORITIES.length)],
+                                                          OnTaskError.CONTINUE_JOB_EXECUTION,
+                                                          "");
+        job.setId(JobIdImpl.makeJobId(Long.toString(id)));
+        job.setOwner("benchmark");
+        return job;
+    }
+
+    private static InternalTask addTask(InternalJob job, String name) {
+        InternalScriptTask task = new InternalScriptTask(job);
+        task.setName(name);
+        job.addTask(task);
+        return task;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.descriptor.JobDescriptorImpl;
+import org.ow2.proactive.scheduler.job.InternalTaskFlowJob;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+
+
+/**
+ * Termination of the tasks of a wide DAG: a root task, <code>width</code> tasks depending on it,
+ * and a join task depending on all of them. Each invocation starts and terminates all the tasks
+ * but the join one, on a new job descriptor.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JobDescriptorBenchmark {
+
+    @Param({ "1000", "10000" })
+    public int width;
+
+    private InternalTaskFlowJob job;
+
+    private TaskId rootId;
+
+    private TaskId[] middleIds;
+
+    private JobDescriptorImpl descriptor;
+
+    @Setup
+    public void setUp() {
+        job = BenchmarkJobs.createWideJob(1, width);
+        middleIds = new TaskId[width];
+        int i = 0;
+        for (InternalTask task : job.getITasks()) {
+            if (task.getName().equals("root")) {
+                rootId = task.getId();
+            } else if (task.getName().startsWith("middle")) {
+                middleIds[i++] = task.getId();
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void createDescriptor() {
+        descriptor = new JobDescriptorImpl(job);
+    }
+
+    @Benchmark
+    public JobDescriptorImpl terminateWideDag() {
+        descriptor.start(rootId);
+        descriptor.terminate(rootId);
+        for (TaskId middleId : middleIds) {
+            descriptor.start(middleId);
+            descriptor.terminate(middleId);
+        }
+        return descriptor;
+    }
+
+}
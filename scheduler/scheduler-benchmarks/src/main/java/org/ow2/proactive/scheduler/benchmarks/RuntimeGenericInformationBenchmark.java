@@ -0,0 +1,88 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.benchmarks;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ow2.proactive.scheduler.common.job.JobVariable;
+import org.ow2.proactive.scheduler.job.InternalTaskFlowJob;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+
+
+/**
+ * Computation of the generic information of a task, in which the job and task generic information
+ * values reference job variables.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuntimeGenericInformationBenchmark {
+
+    @Param({ "10", "100" })
+    public int numberOfEntries;
+
+    private InternalTask task;
+
+    @Setup
+    public void setUp() {
+        InternalTaskFlowJob job = BenchmarkJobs.createJob(1, 1);
+        Map<String, JobVariable> variables = new LinkedHashMap<>();
+        Map<String, String> jobGenericInfo = new HashMap<>();
+        Map<String, String> taskGenericInfo = new HashMap<>();
+        for (int i = 0; i < numberOfEntries; i++) {
+            variables.put("variable" + i, new JobVariable("variable" + i, "value" + i));
+            jobGenericInfo.put("jobInfo" + i, "${variable" + i + "}");
+            taskGenericInfo.put("taskInfo" + i, "prefix_${variable" + i + "}_$PA_JOB_ID");
+        }
+        job.setVariables(variables);
+        job.setGenericInformation(jobGenericInfo);
+        task = job.getITasks().get(0);
+        task.setGenericInformation(taskGenericInfo);
+    }
+
+    @Benchmark
+    public Map<String, String> getRuntimeGenericInformation() {
+        return task.getRuntimeGenericInformation();
+    }
+
+}
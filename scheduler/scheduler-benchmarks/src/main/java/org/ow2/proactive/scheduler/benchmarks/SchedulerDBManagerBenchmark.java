@@ -0,0 +1,109 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.benchmarks;
+
+import java.security.KeyPairGenerator;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ow2.proactive.authentication.crypto.Credentials;
+import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
+import org.ow2.proactive.scheduler.common.task.JavaTask;
+import org.ow2.proactive.scheduler.core.db.SchedulerDBManager;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.job.InternalJobFactory;
+
+
+/**
+ * Insertion of a submitted job in an in-memory HSQLDB scheduler database.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchedulerDBManagerBenchmark {
+
+    @Param({ "1", "100" })
+    public int numberOfTasks;
+
+    private SchedulerDBManager dbManager;
+
+    private Credentials credentials;
+
+    private TaskFlowJob job;
+
+    private InternalJob internalJob;
+
+    @Setup
+    public void setUp() throws Exception {
+        dbManager = SchedulerDBManager.createInMemorySchedulerDBManager();
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(1024);
+        credentials = Credentials.createCredentials("admin", "admin", keyGen.generateKeyPair().getPublic());
+
+        job = new TaskFlowJob();
+        job.setName("benchmark");
+        for (int i = 0; i < numberOfTasks; i++) {
+            JavaTask task = new JavaTask();
+            task.setName("task" + i);
+            task.setExecutableClassName("org.ow2.proactive.scheduler.examples.EmptyTask");
+            job.addTask(task);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void createInternalJob() throws Exception {
+        internalJob = InternalJobFactory.createJob(job, credentials);
+        internalJob.setOwner("admin");
+        internalJob.submitAction();
+    }
+
+    @Benchmark
+    public InternalJob newJobSubmitted() {
+        dbManager.newJobSubmitted(internalJob);
+        return internalJob;
+    }
+
+    @TearDown
+    public void tearDown() {
+        dbManager.close();
+    }
+
+}
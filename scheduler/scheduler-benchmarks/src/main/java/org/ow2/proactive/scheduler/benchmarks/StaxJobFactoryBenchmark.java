@@ -0,0 +1,91 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ow2.proactive.scheduler.common.job.Job;
+import org.ow2.proactive.scheduler.common.job.factories.JobFactory;
+
+
+/**
+ * Parsing of a workflow by the job factory, when the same workflow has already been parsed
+ * (cached) and when its content is new at each invocation (cold).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StaxJobFactoryBenchmark {
+
+    private static final String WORKFLOW = "benchmark_workflow.xml";
+
+    private JobFactory factory;
+
+    private String workflow;
+
+    private byte[] workflowBytes;
+
+    private long counter = 0;
+
+    @Setup
+    public void setUp() throws Exception {
+        factory = JobFactory.getFactory();
+        try (InputStream stream = StaxJobFactoryBenchmark.class.getResourceAsStream(WORKFLOW)) {
+            workflow = IOUtils.toString(stream, StandardCharsets.UTF_8);
+        }
+        workflowBytes = workflow.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Job createJobCached() throws Exception {
+        return factory.createJob(new ByteArrayInputStream(workflowBytes));
+    }
+
+    @Benchmark
+    public Job createJobCold() throws Exception {
+        // the factory caches the parsed jobs by content digest, a trailing comment makes each content new
+        byte[] bytes = (workflow + "<!-- " + counter++ + " -->").getBytes(StandardCharsets.UTF_8);
+        return factory.createJob(new ByteArrayInputStream(bytes));
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import static org.mockito.Mockito.mock;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ow2.proactive.scheduler.benchmarks.BenchmarkJobs;
+import org.ow2.proactive.scheduler.common.JobDescriptor;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.core.db.SchedulerDBManager;
+import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
+
+
+/**
+ * Locking of the jobs examined by a scheduling loop, with and without incremental scheduling.
+ * <p>
+ * This benchmark lives in the package of {@link LiveJobs}, which is not public.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LiveJobsBenchmark {
+
+    @Param({ "10000" })
+    public int numberOfJobs;
+
+    @Param({ "false", "true" })
+    public boolean incrementalScheduling;
+
+    private LiveJobs liveJobs;
+
+    @Setup
+    public void setUp() {
+        PASchedulerProperties.SCHEDULER_INCREMENTAL_SCHEDULING.updateProperty(Boolean.toString(incrementalScheduling));
+        liveJobs = new LiveJobs(mock(SchedulerDBManager.class), mock(SchedulerStateUpdate.class), null);
+        for (int i = 0; i < numberOfJobs; i++) {
+            liveJobs.jobSubmitted(BenchmarkJobs.createJob(i, 1));
+        }
+    }
+
+    @Benchmark
+    public Map<JobId, JobDescriptor> lockJobsToSchedule() {
+        Map<JobId, JobDescriptor> jobs = liveJobs.lockJobsToSchedule(false);
+        liveJobs.unlockJobsToSchedule(jobs.values());
+        return jobs;
+    }
+
+}
@@ -725,6 +725,13 @@ public class SchedulerProxyUserInterface implements Scheduler, Serializable {
         return uischeduler.getTaskServerLogs(id, taskName);
     }
 
+    @Override
+    @ImmediateService
+    public String getTaskServerLogs(String id, String taskName, long offset, int length)
+            throws UnknownJobException, UnknownTaskException, NotConnectedException, PermissionException {
+        return uischeduler.getTaskServerLogs(id, taskName, offset, length);
+    }
+
     @Override
     @ImmediateService
     public String getTaskServerLogsByTag(String id, String taskTag)
@@ -369,6 +369,23 @@ public final class SchedulerStateImpl<T extends JobState> implements SchedulerSt
         }
     }
 
+    /**
+     * Returns a copy of this state whose job lists are not modified by the later updates of this state.
+     * The job states themselves are shared with this state.
+     *
+     * @return a copy of this state
+     */
+    public synchronized SchedulerStateImpl<T> snapshot() {
+        SchedulerStateImpl<T> copy = new SchedulerStateImpl<>(status);
+        copy.sUsers = sUsers;
+        copy.pendingJobs = Collections.synchronizedSet(new LinkedHashSet<>(pendingJobs));
+        copy.runningJobs = Collections.synchronizedSet(new LinkedHashSet<>(runningJobs));
+        copy.finishedJobs = Collections.synchronizedMap(new LinkedHashMap<>(finishedJobs));
+        copy.jobs = new HashMap<>(jobs);
+        copy.initialized = initialized;
+        return copy;
+    }
+
     public synchronized void update(T js) {
         pendingJobs.add(js);
         this.jobs.put(js.getId(), js);
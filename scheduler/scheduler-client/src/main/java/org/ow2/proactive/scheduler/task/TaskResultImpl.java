@@ -27,9 +27,11 @@ package org.ow2.proactive.scheduler.task;
 
 import java.io.IOException;
 import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
@@ -99,6 +101,13 @@ public class TaskResultImpl implements TaskResult {
      */
     private Map<String, byte[]> propagatedVariables = new HashMap();
 
+    /** Loaders of the payloads stored outside of this result, called once when the payload is first accessed */
+    private transient volatile Supplier<byte[]> serializedValueLoader = null;
+
+    private transient volatile Supplier<TaskLogs> outputLoader = null;
+
+    private transient volatile Supplier<Map<String, byte[]>> propagatedVariablesLoader = null;
+
     public TaskResultImpl(TaskId id, byte[] serializedValue, byte[] serializedException, TaskLogs output,
             Map<String, String> metadata, Map<String, byte[]> propagatedVariables, boolean isRaw) {
         this(id, serializedValue, serializedException, output, isRaw);
@@ -235,6 +244,7 @@ public class TaskResultImpl implements TaskResult {
      * @param l logs of the task
      */
     public void setLogs(TaskLogs l) {
+        this.outputLoader = null;
         this.output = l;
     }
 
@@ -273,7 +283,7 @@ public class TaskResultImpl implements TaskResult {
                                                      " : " + e.getMessage(), e);
             }
             throw thrown;
-        } else if (serializedValue == null) {
+        } else if (getSerializedValue() == null) {
             // empty result (for example a skipped task)
             return null;
         } else {
@@ -373,11 +383,12 @@ public class TaskResultImpl implements TaskResult {
      * @throws IOException
      */
     private Serializable instanciateValue(ClassLoader cl) throws IOException, ClassNotFoundException {
-        if (this.serializedValue != null && this.value == null) {
+        byte[] serializedValue = getSerializedValue();
+        if (serializedValue != null && this.value == null) {
             if (this.isRaw) {
-                return this.serializedValue;
+                return serializedValue;
             } else {
-                this.value = (Serializable) ByteToObjectConverter.ObjectStream.convert(this.serializedValue, cl);
+                this.value = (Serializable) ByteToObjectConverter.ObjectStream.convert(serializedValue, cl);
             }
         }
         return this.value;
@@ -403,9 +414,19 @@ public class TaskResultImpl implements TaskResult {
      * @return the serializedValue.
      */
     public byte[] getSerializedValue() {
+        if (serializedValueLoader != null) {
+            loadSerializedValue();
+        }
         return serializedValue;
     }
 
+    private synchronized void loadSerializedValue() {
+        if (serializedValueLoader != null) {
+            serializedValue = serializedValueLoader.get();
+            serializedValueLoader = null;
+        }
+    }
+
     @Override
     public Map<String, String> getMetadata() {
         return metadata;
@@ -428,9 +449,19 @@ public class TaskResultImpl implements TaskResult {
      * @see org.ow2.proactive.scheduler.common.task.TaskResult#getOutput()
      */
     public TaskLogs getOutput() {
+        if (outputLoader != null) {
+            loadOutput();
+        }
         return this.output;
     }
 
+    private synchronized void loadOutput() {
+        if (outputLoader != null) {
+            output = outputLoader.get();
+            outputLoader = null;
+        }
+    }
+
     /**
      * Get the previewerClassName.
      *
@@ -471,6 +502,7 @@ public class TaskResultImpl implements TaskResult {
      * @param propagatedVariables a map of propagated variables
      */
     public void setPropagatedVariables(Map<String, byte[]> propagatedVariables) {
+        this.propagatedVariablesLoader = null;
         if (propagatedVariables == null) {
             this.propagatedVariables = new HashMap();
         } else {
@@ -483,12 +515,39 @@ public class TaskResultImpl implements TaskResult {
      */
     @Override
     public Map<String, byte[]> getPropagatedVariables() {
+        if (propagatedVariablesLoader != null) {
+            loadPropagatedVariables();
+        }
         return propagatedVariables;
     }
 
+    private synchronized void loadPropagatedVariables() {
+        if (propagatedVariablesLoader != null) {
+            Map<String, byte[]> loaded = propagatedVariablesLoader.get();
+            propagatedVariables = loaded == null ? new HashMap<>() : loaded;
+            propagatedVariablesLoader = null;
+        }
+    }
+
     @Override
     public Map<String, Serializable> getVariables() throws IOException, ClassNotFoundException {
-        return ObjectByteConverter.mapOfByteArrayToSerializable(propagatedVariables);
+        return ObjectByteConverter.mapOfByteArrayToSerializable(getPropagatedVariables());
+    }
+
+    /**
+     * Sets the loaders of the payloads which are not kept in this result, e.g. because they are stored
+     * outside of the database. A payload is loaded the first time it is accessed, or when this result is
+     * serialized. A null loader keeps the current payload.
+     *
+     * @param serializedValueLoader loader of the serialized value
+     * @param outputLoader loader of the task output
+     * @param propagatedVariablesLoader loader of the propagated variables
+     */
+    public void setLazyPayloads(Supplier<byte[]> serializedValueLoader, Supplier<TaskLogs> outputLoader,
+            Supplier<Map<String, byte[]>> propagatedVariablesLoader) {
+        this.serializedValueLoader = serializedValueLoader;
+        this.outputLoader = outputLoader;
+        this.propagatedVariablesLoader = propagatedVariablesLoader;
     }
 
     @Override
@@ -505,4 +564,12 @@ public class TaskResultImpl implements TaskResult {
         this.resultMap = resultMap;
     }
 
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        // the payloads which are not loaded yet are sent with the result
+        getSerializedValue();
+        getOutput();
+        getPropagatedVariables();
+        out.defaultWriteObject();
+    }
+
 }
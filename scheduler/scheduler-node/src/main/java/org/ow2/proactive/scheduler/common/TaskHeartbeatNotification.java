@@ -0,0 +1,54 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.common;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Map;
+
+import org.ow2.proactive.scheduler.common.task.TaskId;
+
+
+/**
+ * Interface that can be notified periodically of the tasks running on a node.
+ * <p>
+ * The task launchers of a node send their heartbeats in a single call per period, together with
+ * the progress of the tasks which changed since the previous call, so that the scheduler does
+ * not need to poll each task launcher.
+ *
+ * @author The ProActive Team
+ */
+public interface TaskHeartbeatNotification extends Serializable {
+
+    /**
+     * Invoked periodically by a node for the tasks it is executing.
+     *
+     * @param aliveTasks the identifications of the tasks which are still running.
+     * @param progressChanges the new progress of the tasks whose progress changed since the previous call.
+     */
+    void taskHeartbeats(Collection<TaskId> aliveTasks, Map<TaskId, Integer> progressChanges);
+
+}
@@ -0,0 +1,196 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.objectweb.proactive.api.PAActiveObject;
+import org.ow2.proactive.scheduler.common.TaskHeartbeatNotification;
+import org.ow2.proactive.scheduler.common.TaskTerminateNotification;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+
+
+/**
+ * Sends the heartbeats and the progress changes of the tasks running in this JVM to the scheduler.
+ * <p>
+ * The tasks notifying the same scheduler are grouped, so that each period produces a single
+ * call per node instead of one progress request per task from the scheduler. A task whose
+ * termination handler does not accept heartbeats is not registered, the scheduler then keeps
+ * polling it.
+ *
+ * @author The ProActive Team
+ */
+public class TaskHeartbeatSender {
+
+    private static final Logger logger = Logger.getLogger(TaskHeartbeatSender.class);
+
+    private static final TaskHeartbeatSender instance = new TaskHeartbeatSender();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "TaskHeartbeatSender");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Groups of tasks per heartbeat recipient */
+    private final Map<String, HeartbeatGroup> groups = new HashMap<>();
+
+    /** Group of each registered task */
+    private final Map<TaskId, HeartbeatGroup> groupPerTask = new ConcurrentHashMap<>();
+
+    TaskHeartbeatSender() {
+    }
+
+    public static TaskHeartbeatSender getInstance() {
+        return instance;
+    }
+
+    /**
+     * Starts sending the heartbeats of a task.
+     *
+     * @param taskId the task to register
+     * @param progressFileReader reader of the task progress
+     * @param terminateNotification the task termination handler of the scheduler
+     * @param periodInSeconds period of the heartbeats
+     * @return true if the task has been registered, false if the scheduler does not accept heartbeats
+     */
+    public boolean register(TaskId taskId, ProgressFileReaderInterface progressFileReader,
+            TaskTerminateNotification terminateNotification, int periodInSeconds) {
+        if (!(terminateNotification instanceof TaskHeartbeatNotification) || periodInSeconds <= 0) {
+            return false;
+        }
+        String recipientKey = getRecipientKey(terminateNotification);
+        synchronized (groups) {
+            HeartbeatGroup group = groups.get(recipientKey);
+            if (group == null) {
+                group = new HeartbeatGroup(recipientKey, (TaskHeartbeatNotification) terminateNotification);
+                groups.put(recipientKey, group);
+                group.future = executor.scheduleWithFixedDelay(group::sendHeartbeats,
+                                                               periodInSeconds,
+                                                               periodInSeconds,
+                                                               TimeUnit.SECONDS);
+            }
+            group.tasks.put(taskId, new RegisteredTask(progressFileReader));
+            groupPerTask.put(taskId, group);
+        }
+        return true;
+    }
+
+    /**
+     * Stops sending the heartbeats of a task, does nothing if the task is not registered.
+     */
+    public void unregister(TaskId taskId) {
+        synchronized (groups) {
+            HeartbeatGroup group = groupPerTask.remove(taskId);
+            if (group == null) {
+                return;
+            }
+            group.tasks.remove(taskId);
+            if (group.tasks.isEmpty()) {
+                group.future.cancel(false);
+                groups.remove(group.recipientKey);
+            }
+        }
+    }
+
+    boolean isRegistered(TaskId taskId) {
+        return groupPerTask.containsKey(taskId);
+    }
+
+    private static String getRecipientKey(TaskTerminateNotification terminateNotification) {
+        try {
+            return PAActiveObject.getUrl(terminateNotification);
+        } catch (Exception e) {
+            // not an active object, e.g. a local handler
+            return "local-" + System.identityHashCode(terminateNotification);
+        }
+    }
+
+    private static final class RegisteredTask {
+
+        private final ProgressFileReaderInterface progressFileReader;
+
+        private int lastSentProgress = 0;
+
+        private RegisteredTask(ProgressFileReaderInterface progressFileReader) {
+            this.progressFileReader = progressFileReader;
+        }
+    }
+
+    private static final class HeartbeatGroup {
+
+        private final String recipientKey;
+
+        private final TaskHeartbeatNotification recipient;
+
+        private final Map<TaskId, RegisteredTask> tasks = new ConcurrentHashMap<>();
+
+        private ScheduledFuture<?> future;
+
+        private HeartbeatGroup(String recipientKey, TaskHeartbeatNotification recipient) {
+            this.recipientKey = recipientKey;
+            this.recipient = recipient;
+        }
+
+        private void sendHeartbeats() {
+            List<TaskId> aliveTasks = new ArrayList<>(tasks.size());
+            HashMap<TaskId, Integer> progressChanges = new HashMap<>();
+            for (Map.Entry<TaskId, RegisteredTask> entry : tasks.entrySet()) {
+                RegisteredTask task = entry.getValue();
+                aliveTasks.add(entry.getKey());
+                int progress = task.progressFileReader.getProgress();
+                if (progress != task.lastSentProgress) {
+                    progressChanges.put(entry.getKey(), progress);
+                }
+            }
+            if (aliveTasks.isEmpty()) {
+                return;
+            }
+            try {
+                recipient.taskHeartbeats(aliveTasks, progressChanges);
+                for (Map.Entry<TaskId, Integer> change : progressChanges.entrySet()) {
+                    RegisteredTask task = tasks.get(change.getKey());
+                    if (task != null) {
+                        task.lastSentProgress = change.getValue();
+                    }
+                }
+            } catch (Throwable t) {
+                // the scheduler falls back to polling the task launchers when heartbeats are missing
+                logger.debug("Cannot send the heartbeats of " + aliveTasks.size() + " tasks to " + recipientKey, t);
+            }
+        }
+    }
+
+}
@@ -90,6 +90,9 @@ public class TaskLauncher implements InitActive {
 
     private static final Logger logger = Logger.getLogger(TaskLauncher.class);
 
+    /** Key pair shared by the tasks started in this JVM, see {@link #getNodePublicKey()} */
+    private static KeyPair nodeKeyPair;
+
     final private TaskContextVariableExtractor taskContextVariableExtractor = new TaskContextVariableExtractor();
 
     private TaskLauncherFactory factory;
@@ -183,6 +186,10 @@ public class TaskLauncher implements InitActive {
             taskLauncherRebinder = new TaskLauncherRebinder(taskId, terminateNotificationNodeURL, taskRecoverable);
 
             addShutdownHook();
+            if (decrypter == null && executableContainer.getCredentials() != null) {
+                // the credentials were encrypted with the node public key
+                decrypter = new Decrypter(getNodeKeyPair().getPrivate());
+            }
             if (decrypter != null) {
                 decrypter.setCredentials(executableContainer.getCredentials());
             }
@@ -199,6 +206,12 @@ public class TaskLauncher implements InitActive {
             taskLogFile = taskLogger.createFileAppender(dataspaces.getScratchFolder());
 
             progressFileReader.start(dataspaces.getScratchFolder(), taskId);
+            if (initializer.isHeartbeatEnabled()) {
+                TaskHeartbeatSender.getInstance().register(taskId,
+                                                           progressFileReader,
+                                                           terminateNotification,
+                                                           initializer.getPingPeriod());
+            }
 
             context = new TaskContext(executableContainer,
                                       initializer,
@@ -291,6 +304,7 @@ public class TaskLauncher implements InitActive {
             }
         } finally {
             try {
+                TaskHeartbeatSender.getInstance().unregister(taskId);
                 progressFileReader.stop();
                 taskLogger.close();
 
@@ -485,6 +499,26 @@ public class TaskLauncher implements InitActive {
         return keyPair.getPublic();
     }
 
+    /**
+     * Returns the public key of the JVM hosting this launcher. Unlike {@link #generatePublicKey()}, the key is
+     * the same for all the tasks started in this JVM, so the scheduler can cache it per node JVM. Credentials
+     * given to {@link #doTask} without a prior call to {@link #generatePublicKey()} are decrypted with the
+     * matching private key.
+     */
+    @ImmediateService
+    public PublicKey getNodePublicKey() throws NoSuchAlgorithmException {
+        return getNodeKeyPair().getPublic();
+    }
+
+    private KeyPair getNodeKeyPair() throws NoSuchAlgorithmException {
+        synchronized (TaskLauncher.class) {
+            if (nodeKeyPair == null) {
+                nodeKeyPair = getKeyPair();
+            }
+            return nodeKeyPair;
+        }
+    }
+
     @ImmediateService
     public void kill() {
         taskLogger.resetLogContextForImmediateService();
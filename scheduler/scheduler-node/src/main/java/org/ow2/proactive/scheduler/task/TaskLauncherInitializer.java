@@ -122,6 +122,8 @@ public class TaskLauncherInitializer implements Serializable {
 
     private int pingAttempts = 1;
 
+    private boolean heartbeatEnabled;
+
     private ForkEnvironment forkEnvironment;
 
     private Synchronization synchronizationAPI;
@@ -451,6 +453,14 @@ public class TaskLauncherInitializer implements Serializable {
         return pingAttempts;
     }
 
+    public void setHeartbeatEnabled(boolean heartbeatEnabled) {
+        this.heartbeatEnabled = heartbeatEnabled;
+    }
+
+    public boolean isHeartbeatEnabled() {
+        return heartbeatEnabled;
+    }
+
     public List<InputSelector> getFilteredInputFiles(Map<String, Serializable> variables) {
         List<InputSelector> filteredTaskInputFiles = new ArrayList<>();
         if (taskInputFiles != null) {
@@ -717,6 +717,13 @@ public class SchedulerNodeClient implements ISchedulerClient, Serializable {
         return client.getTaskServerLogs(id, taskName);
     }
 
+    @Override
+    public String getTaskServerLogs(String id, String taskName, long offset, int length)
+            throws UnknownJobException, UnknownTaskException, NotConnectedException, PermissionException {
+        renewSession();
+        return client.getTaskServerLogs(id, taskName, offset, length);
+    }
+
     @Override
     public String getTaskServerLogsByTag(String id, String taskTag)
             throws UnknownJobException, NotConnectedException, PermissionException {
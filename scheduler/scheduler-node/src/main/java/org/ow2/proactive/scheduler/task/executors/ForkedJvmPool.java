@@ -0,0 +1,577 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.executors;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.log4j.Logger;
+import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
+import org.ow2.proactive.scheduler.task.context.TaskContext;
+import org.ow2.proactive.scheduler.task.executors.forked.env.ExecuteForkedTasksInsidePooledJvm;
+import org.ow2.proactive.utils.CookieBasedProcessTreeKiller;
+
+
+/**
+ * Pool of pre-started JVMs which execute forked tasks one after the other, see {@link ExecuteForkedTasksInsidePooledJvm}.
+ * <p>
+ * JVMs are pooled per java command (java home, JVM arguments and classpath), up to
+ * {@link PASchedulerProperties#TASK_FORK_POOL_SIZE} used or idle JVMs per command, and up to
+ * {@link PASchedulerProperties#TASK_FORK_POOL_MAX_IDLE} idle or starting JVMs for all the commands. When a JVM is
+ * taken from the pool for a command which was already used, another one is started in the background if these
+ * numbers are not reached, so that the next task with the same command does not wait for the JVM startup.
+ * A JVM is stopped after {@link PASchedulerProperties#TASK_FORK_POOL_MAX_REUSE} tasks, after a
+ * task which failed or left threads running, when it does not answer a health check, or when it stayed idle
+ * for {@link PASchedulerProperties#TASK_FORK_POOL_IDLE_TIMEOUT}.
+ */
+public class ForkedJvmPool {
+
+    private static final Logger logger = Logger.getLogger(ForkedJvmPool.class);
+
+    private static ForkedJvmPool instance;
+
+    /** Number of recently used commands remembered to know which ones are reused */
+    private static final int MAX_KNOWN_COMMANDS = 256;
+
+    private final int size;
+
+    private final int maxIdle;
+
+    private final int maxReuse;
+
+    private final long healthCheckTimeout;
+
+    private final long startTimeout;
+
+    private final long idleTimeout;
+
+    private final File workingDir;
+
+    private final Map<List<String>, Deque<PooledJvm>> idleJvms = new HashMap<>();
+
+    private final Map<List<String>, Integer> startingJvms = new HashMap<>();
+
+    private final Map<List<String>, Integer> usedJvms = new HashMap<>();
+
+    /** Recently used commands in access order, and whether they were used more than once */
+    private final Map<List<String>, Boolean> knownCommands = new LinkedHashMap<List<String>, Boolean>(16,
+                                                                                                       0.75f,
+                                                                                                       true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<String>, Boolean> eldest) {
+            return size() > MAX_KNOWN_COMMANDS;
+        }
+    };
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "Forked JVM pool");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ScheduledExecutorService expiredJvmsReaper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Forked JVM pool reaper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicInteger jvmCounter = new AtomicInteger();
+
+    ForkedJvmPool(int size, int maxIdle, int maxReuse, long healthCheckTimeout, long startTimeout, long idleTimeout,
+            File workingDir) {
+        this.size = size;
+        this.maxIdle = maxIdle;
+        this.maxReuse = maxReuse;
+        this.healthCheckTimeout = healthCheckTimeout;
+        this.startTimeout = startTimeout;
+        this.idleTimeout = idleTimeout;
+        this.workingDir = workingDir;
+        long reapingPeriod = Math.max(1000, Math.min(idleTimeout, 60000));
+        expiredJvmsReaper.scheduleWithFixedDelay(this::stopExpiredJvms,
+                                                 reapingPeriod,
+                                                 reapingPeriod,
+                                                 TimeUnit.MILLISECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::stopIdleJvms, "Forked JVM pool shutdown"));
+    }
+
+    public static boolean isEnabled() {
+        return PASchedulerProperties.TASK_FORK_POOL_ENABLED.getValueAsBoolean();
+    }
+
+    public static synchronized ForkedJvmPool getInstance() {
+        if (instance == null) {
+            instance = new ForkedJvmPool(PASchedulerProperties.TASK_FORK_POOL_SIZE.getValueAsInt(),
+                                         PASchedulerProperties.TASK_FORK_POOL_MAX_IDLE.getValueAsInt(),
+                                         PASchedulerProperties.TASK_FORK_POOL_MAX_REUSE.getValueAsInt(),
+                                         PASchedulerProperties.TASK_FORK_POOL_HEALTH_CHECK_TIMEOUT.getValueAsInt(),
+                                         PASchedulerProperties.TASK_FORK_POOL_START_TIMEOUT.getValueAsInt(),
+                                         PASchedulerProperties.TASK_FORK_POOL_IDLE_TIMEOUT.getValueAsInt(),
+                                         new File(System.getProperty("java.io.tmpdir"), "forked-jvm-pool"));
+        }
+        return instance;
+    }
+
+    /**
+     * Returns a healthy JVM started with the given command, starting it if none is available.
+     *
+     * @param command java command without the main class
+     */
+    public PooledJvm acquire(List<String> command) throws IOException, InterruptedException {
+        recordUse(command);
+        PooledJvm jvm;
+        while ((jvm = pollIdleJvm(command)) != null) {
+            if (jvm.isHealthy()) {
+                replenish(command);
+                return jvm;
+            }
+            logger.info("Stopping unhealthy forked JVM " + jvm);
+            release(jvm, false);
+        }
+        changeCount(usedJvms, command, 1);
+        replenish(command);
+        try {
+            return start(command);
+        } catch (IOException | RuntimeException | InterruptedException e) {
+            changeCount(usedJvms, command, -1);
+            throw e;
+        }
+    }
+
+    /**
+     * Gives back a JVM after the execution of a task, it is stopped if it cannot be reused.
+     */
+    public void release(PooledJvm jvm, boolean reusable) {
+        changeCount(usedJvms, jvm.command, -1);
+        if (reusable && jvm.executions < maxReuse && jvm.isAlive() && addIdleJvm(jvm)) {
+            return;
+        }
+        jvm.stop();
+        replenish(jvm.command);
+    }
+
+    private synchronized void recordUse(List<String> command) {
+        knownCommands.put(command, knownCommands.containsKey(command));
+    }
+
+    private synchronized PooledJvm pollIdleJvm(List<String> command) {
+        Deque<PooledJvm> jvms = idleJvms.get(command);
+        PooledJvm jvm = jvms == null ? null : jvms.pollFirst();
+        if (jvm != null) {
+            changeCount(usedJvms, command, 1);
+        }
+        return jvm;
+    }
+
+    /**
+     * Adds a JVM to the idle ones if the pool is not full, the JVMs which already executed tasks are used first.
+     */
+    private synchronized boolean addIdleJvm(PooledJvm jvm) {
+        Deque<PooledJvm> jvms = idleJvms.computeIfAbsent(jvm.command, key -> new ArrayDeque<>());
+        if (jvms.size() + count(usedJvms, jvm.command) >= size || countIdleAndStartingJvms() >= maxIdle) {
+            if (jvms.isEmpty()) {
+                idleJvms.remove(jvm.command);
+            }
+            return false;
+        }
+        jvm.idleSince = System.currentTimeMillis();
+        if (jvm.executions > 0) {
+            jvms.addFirst(jvm);
+        } else {
+            jvms.addLast(jvm);
+        }
+        return true;
+    }
+
+    /**
+     * Starts a JVM in the background if the command was already used and the pool does not contain enough idle,
+     * used or starting JVMs for it.
+     */
+    private void replenish(List<String> command) {
+        synchronized (this) {
+            if (!Boolean.TRUE.equals(knownCommands.get(command))) {
+                return;
+            }
+            Deque<PooledJvm> jvms = idleJvms.get(command);
+            int idle = jvms == null ? 0 : jvms.size();
+            if (idle + count(usedJvms, command) + count(startingJvms, command) >= size ||
+                countIdleAndStartingJvms() >= maxIdle) {
+                return;
+            }
+            changeCount(startingJvms, command, 1);
+        }
+        executor.submit(() -> {
+            PooledJvm jvm = null;
+            try {
+                jvm = start(command);
+            } catch (Exception e) {
+                logger.warn("Could not start a forked JVM for the pool", e);
+            } finally {
+                changeCount(startingJvms, command, -1);
+            }
+            if (jvm != null && !addIdleJvm(jvm)) {
+                jvm.stop();
+            }
+        });
+    }
+
+    private synchronized int countIdleAndStartingJvms() {
+        int count = 0;
+        for (Deque<PooledJvm> jvms : idleJvms.values()) {
+            count += jvms.size();
+        }
+        for (int starting : startingJvms.values()) {
+            count += starting;
+        }
+        return count;
+    }
+
+    private static int count(Map<List<String>, Integer> counts, List<String> command) {
+        return counts.getOrDefault(command, 0);
+    }
+
+    private synchronized void changeCount(Map<List<String>, Integer> counts, List<String> command, int delta) {
+        counts.merge(command, delta, (count, change) -> count + change == 0 ? null : count + change);
+    }
+
+    private void stopExpiredJvms() {
+        List<PooledJvm> expired = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            for (Iterator<Deque<PooledJvm>> it = idleJvms.values().iterator(); it.hasNext();) {
+                Deque<PooledJvm> jvms = it.next();
+                // most recently used first
+                while (!jvms.isEmpty() && now - jvms.peekLast().idleSince > idleTimeout) {
+                    expired.add(jvms.pollLast());
+                }
+                if (jvms.isEmpty()) {
+                    it.remove();
+                }
+            }
+        }
+        for (PooledJvm jvm : expired) {
+            logger.debug("Stopping idle forked JVM " + jvm);
+            jvm.stop();
+        }
+    }
+
+    private void stopIdleJvms() {
+        List<PooledJvm> jvms = new ArrayList<>();
+        synchronized (this) {
+            for (Deque<PooledJvm> jvmsOfCommand : idleJvms.values()) {
+                jvms.addAll(jvmsOfCommand);
+            }
+            idleJvms.clear();
+        }
+        for (PooledJvm jvm : jvms) {
+            jvm.stop();
+        }
+    }
+
+    private PooledJvm start(List<String> command) throws IOException, InterruptedException {
+        FileUtils.forceMkdir(workingDir);
+        String token = UUID.randomUUID().toString();
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            List<String> fullCommand = new ArrayList<>(command);
+            fullCommand.add(ExecuteForkedTasksInsidePooledJvm.class.getName());
+            fullCommand.add(Integer.toString(serverSocket.getLocalPort()));
+
+            ProcessBuilder processBuilder = new ProcessBuilder(fullCommand).directory(workingDir);
+            String name = "ForkedJvm" + jvmCounter.incrementAndGet();
+            CookieBasedProcessTreeKiller processTreeKiller = CookieBasedProcessTreeKiller.createProcessChildrenKiller(name,
+                                                                                                                     processBuilder.environment());
+            Process process = processBuilder.start();
+            PooledJvm jvm = new PooledJvm(name, command, process, processTreeKiller, token);
+            try {
+                try (Writer writer = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8)) {
+                    writer.write(token + System.lineSeparator());
+                }
+                serverSocket.setSoTimeout((int) startTimeout);
+                jvm.connect(serverSocket.accept());
+                logger.debug("Started forked JVM " + jvm);
+                return jvm;
+            } catch (IOException | RuntimeException e) {
+                jvm.stop();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * A JVM of the pool, used by one task at a time.
+     */
+    public class PooledJvm {
+
+        private final String name;
+
+        private final List<String> command;
+
+        private final Process process;
+
+        private final CookieBasedProcessTreeKiller processTreeKiller;
+
+        private final String endOfTaskLine;
+
+        private final StreamForwarder outputForwarder;
+
+        private final StreamForwarder errorForwarder;
+
+        private Socket socket;
+
+        private ObjectOutputStream output;
+
+        private ObjectInputStream input;
+
+        private int executions = 0;
+
+        private long idleSince;
+
+        private PooledJvm(String name, List<String> command, Process process,
+                CookieBasedProcessTreeKiller processTreeKiller, String token) {
+            this.name = name;
+            this.command = command;
+            this.process = process;
+            this.processTreeKiller = processTreeKiller;
+            this.endOfTaskLine = ExecuteForkedTasksInsidePooledJvm.END_OF_TASK_MARKER + token;
+            this.outputForwarder = new StreamForwarder(process.getInputStream(), name + "_OUT");
+            this.errorForwarder = new StreamForwarder(process.getErrorStream(), name + "_ERR");
+            this.idleSince = System.currentTimeMillis();
+        }
+
+        private void connect(Socket socket) throws IOException {
+            this.socket = socket;
+            this.output = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            this.output.flush();
+            this.input = new ObjectInputStream(new BufferedInputStream(socket.getInputStream()));
+            if (!endOfTaskLine.equals(ExecuteForkedTasksInsidePooledJvm.END_OF_TASK_MARKER + input.readUTF())) {
+                throw new IOException("Unexpected connection to the forked JVM pool");
+            }
+        }
+
+        private boolean isAlive() {
+            return process.isAlive() && !socket.isClosed();
+        }
+
+        private boolean isHealthy() {
+            if (!isAlive()) {
+                return false;
+            }
+            try {
+                socket.setSoTimeout((int) healthCheckTimeout);
+                output.writeObject(ExecuteForkedTasksInsidePooledJvm.PING);
+                output.flush();
+                return ExecuteForkedTasksInsidePooledJvm.PING.equals(input.readObject());
+            } catch (SocketTimeoutException e) {
+                return false;
+            } catch (IOException | ClassNotFoundException e) {
+                logger.debug("Health check of forked JVM " + this + " failed", e);
+                return false;
+            } finally {
+                try {
+                    socket.setSoTimeout(0);
+                } catch (IOException ignored) {
+                    // the next use of the socket fails
+                }
+            }
+        }
+
+        /**
+         * Executes a task in the JVM, its output is sent to the given sinks.
+         *
+         * @return the result of the task, which is either a task result or an exception, and whether the JVM
+         *         can be reused
+         */
+        public Execution execute(TaskContext context, PrintStream outputSink, PrintStream errorSink)
+                throws IOException, InterruptedException, ExecutionException {
+            executions++;
+            outputForwarder.startTask(outputSink);
+            errorForwarder.startTask(errorSink);
+            try {
+                output.writeObject(context);
+                output.reset();
+                output.flush();
+
+                // read in another thread so that the task can be interrupted
+                Future<Execution> execution = executor.submit(() -> new Execution(input.readObject(),
+                                                                                  input.readBoolean()));
+                Execution result;
+                try {
+                    result = execution.get();
+                } catch (InterruptedException e) {
+                    stop();
+                    throw e;
+                }
+                boolean outputRead = outputForwarder.awaitEndOfTask(healthCheckTimeout) &&
+                                     errorForwarder.awaitEndOfTask(healthCheckTimeout);
+                return outputRead ? result : new Execution(result.result, false);
+            } finally {
+                outputForwarder.endTask();
+                errorForwarder.endTask();
+            }
+        }
+
+        private void stop() {
+            try {
+                if (socket != null) {
+                    socket.close();
+                }
+            } catch (IOException ignored) {
+                // the process is destroyed anyway
+            }
+            process.destroy();
+            try {
+                if (!process.waitFor(healthCheckTimeout, TimeUnit.MILLISECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+            processTreeKiller.kill();
+        }
+
+        @Override
+        public String toString() {
+            return name + " (" + executions + " tasks)";
+        }
+
+        /**
+         * Forwards one standard stream of the JVM to the sink of the current task.
+         */
+        private class StreamForwarder implements Runnable {
+
+            private final BufferedReader reader;
+
+            private final Semaphore endsOfTask = new Semaphore(0);
+
+            private volatile PrintStream sink;
+
+            private StreamForwarder(InputStream stream, String threadName) {
+                this.reader = new BufferedReader(new InputStreamReader(stream));
+                Thread thread = new Thread(this, threadName);
+                thread.setDaemon(true);
+                thread.start();
+            }
+
+            private void startTask(PrintStream sink) {
+                endsOfTask.drainPermits();
+                this.sink = sink;
+            }
+
+            private boolean awaitEndOfTask(long timeout) throws InterruptedException {
+                return endsOfTask.tryAcquire(timeout, TimeUnit.MILLISECONDS);
+            }
+
+            private void endTask() {
+                this.sink = null;
+            }
+
+            @Override
+            public void run() {
+                String line;
+                try {
+                    while ((line = reader.readLine()) != null) {
+                        PrintStream currentSink = sink;
+                        if (line.endsWith(endOfTaskLine)) {
+                            String lastLine = line.substring(0, line.length() - endOfTaskLine.length());
+                            if (!lastLine.isEmpty() && currentSink != null) {
+                                currentSink.print(lastLine);
+                                currentSink.flush();
+                            }
+                            endsOfTask.release();
+                        } else if (currentSink != null) {
+                            currentSink.println(line);
+                        } else {
+                            logger.debug(name + ": " + line);
+                        }
+                    }
+                } catch (IOException e) {
+                    // the process is dead
+                }
+                // no more output, do not wait for it
+                endsOfTask.release(Integer.MAX_VALUE / 2);
+            }
+        }
+    }
+
+    /**
+     * Answer of a JVM to a task.
+     */
+    public static class Execution {
+
+        private final Object result;
+
+        private final boolean reusable;
+
+        private Execution(Object result, boolean reusable) {
+            this.result = result;
+            this.reusable = reusable;
+        }
+
+        /**
+         * Returns the task result, or the exception thrown by the task executor.
+         */
+        public Object getResult() {
+            return result;
+        }
+
+        public boolean isReusable() {
+            return reusable;
+        }
+    }
+}
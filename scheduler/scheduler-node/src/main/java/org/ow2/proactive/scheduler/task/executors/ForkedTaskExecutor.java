@@ -30,12 +30,16 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.log4j.Logger;
 import org.objectweb.proactive.extensions.processbuilder.OSProcessBuilder;
 import org.ow2.proactive.scheduler.common.SchedulerConstants;
+import org.ow2.proactive.scheduler.common.task.ForkEnvironment;
 import org.ow2.proactive.scheduler.common.task.TaskId;
 import org.ow2.proactive.scheduler.task.TaskResultImpl;
 import org.ow2.proactive.scheduler.task.context.TaskContext;
@@ -43,6 +47,7 @@ import org.ow2.proactive.scheduler.task.context.TaskContextSerializer;
 import org.ow2.proactive.scheduler.task.context.TaskContextVariableExtractor;
 import org.ow2.proactive.scheduler.task.exceptions.ForkedJvmProcessException;
 import org.ow2.proactive.scheduler.task.executors.forked.env.ExecuteForkedTaskInsideNewJvm;
+import org.ow2.proactive.scheduler.task.executors.forked.env.ForkedJvmTaskExecutionCommandCreator;
 import org.ow2.proactive.scheduler.task.utils.ProcessStreamsReader;
 import org.ow2.proactive.scheduler.task.utils.task.termination.CleanupTimeoutGetter;
 import org.ow2.proactive.utils.CookieBasedProcessTreeKiller;
@@ -50,6 +55,9 @@ import org.ow2.proactive.utils.CookieBasedProcessTreeKiller;
 
 /**
  * Executor in charge to fork a new process for running a non forked task in a dedicated JVM.
+ * <p>
+ * When the {@link ForkedJvmPool} is enabled, tasks which do not customize the process (no run as me, fork
+ * environment script, environment variables or pre java command) are executed in a reusable JVM of the pool instead.
  *
  * @see ExecuteForkedTaskInsideNewJvm
  * @see InProcessTaskExecutor
@@ -62,6 +70,8 @@ public class ForkedTaskExecutor implements TaskExecutor {
 
     private final TaskContextSerializer taskContextSerializer = new TaskContextSerializer();
 
+    private final ForkedJvmTaskExecutionCommandCreator forkedJvmTaskExecutionCommandCreator = new ForkedJvmTaskExecutionCommandCreator();
+
     private final File workingDir;
 
     public ForkedTaskExecutor(File workingDir) {
@@ -70,6 +80,67 @@ public class ForkedTaskExecutor implements TaskExecutor {
 
     @Override
     public TaskResultImpl execute(TaskContext context, PrintStream outputSink, PrintStream errorSink) {
+        if (ForkedJvmPool.isEnabled()) {
+            List<String> pooledJvmCommand;
+            try {
+                pooledJvmCommand = getPooledJvmCommand(context);
+            } catch (Throwable throwable) {
+                return createTaskResult(context, throwable);
+            }
+            if (pooledJvmCommand != null) {
+                return executeInPooledJvm(context, pooledJvmCommand, outputSink, errorSink);
+            }
+        }
+        return executeInNewJvm(context, outputSink, errorSink);
+    }
+
+    /**
+     * Returns the java command of the pooled JVM which can execute the task, or null if the task needs its own JVM.
+     */
+    private List<String> getPooledJvmCommand(TaskContext context) throws Exception {
+        if (context.isRunAsUser()) {
+            return null;
+        }
+        ForkEnvironment forkEnvironment = context.getInitializer().getForkEnvironment();
+        if (forkEnvironment != null &&
+            (forkEnvironment.getEnvScript() != null || !forkEnvironment.getSystemEnvironment().isEmpty() ||
+             (forkEnvironment.getPreJavaCommand() != null && !forkEnvironment.getPreJavaCommand().isEmpty()) ||
+             forkEnvironment.isDockerWindowsToLinux())) {
+            return null;
+        }
+        List<String> command = forkedJvmTaskExecutionCommandCreator.createForkedJvmTaskExecutionCommand(context,
+                                                                                                        null,
+                                                                                                        "");
+        // without the main class and the path of the serialized context
+        return new ArrayList<>(command.subList(0, command.size() - 2));
+    }
+
+    private TaskResultImpl executeInPooledJvm(TaskContext context, List<String> command, PrintStream outputSink,
+            PrintStream errorSink) {
+        ForkedJvmPool pool = ForkedJvmPool.getInstance();
+        ForkedJvmPool.PooledJvm jvm = null;
+        boolean reusable = false;
+        try {
+            jvm = pool.acquire(command);
+            ForkedJvmPool.Execution execution = jvm.execute(context, outputSink, errorSink);
+            Object result = execution.getResult();
+            if (result instanceof Throwable) {
+                return createTaskResult(context, (Throwable) result);
+            }
+            TaskResultImpl taskResult = (TaskResultImpl) result;
+            // a failed task may have left the JVM in a bad state
+            reusable = execution.isReusable() && !taskResult.hadException();
+            return taskResult;
+        } catch (Throwable throwable) {
+            return createTaskResult(context, throwable);
+        } finally {
+            if (jvm != null) {
+                pool.release(jvm, reusable);
+            }
+        }
+    }
+
+    private TaskResultImpl executeInNewJvm(TaskContext context, PrintStream outputSink, PrintStream errorSink) {
         CookieBasedProcessTreeKiller taskProcessTreeKiller = null;
         Process process = null;
         ProcessStreamsReader processStreamsReader = null;
@@ -89,11 +160,8 @@ public class ForkedTaskExecutor implements TaskExecutor {
 
             TaskId taskId = context.getTaskId();
 
-            if (context.getInitializer().getGenericInformation() == null ||
-                !"true".equalsIgnoreCase(context.getInitializer()
-                                                .getGenericInformation()
-                                                .get(SchedulerConstants.DISABLE_PROCESS_TREE_KILLER_GENERIC_INFO))) {
-                String cookieNameSuffix = "Job" + taskId.getJobId().value() + "Task" + taskId.value();
+            String cookieNameSuffix = getProcessTreeKillerCookieSuffix(context);
+            if (cookieNameSuffix != null) {
                 taskProcessTreeKiller = CookieBasedProcessTreeKiller.createProcessChildrenKiller(cookieNameSuffix,
                                                                                                  processBuilder.environment());
             }
@@ -145,6 +213,20 @@ public class ForkedTaskExecutor implements TaskExecutor {
         }
     }
 
+    /**
+     * Returns the suffix of the cookie which identifies the processes started by a task, or null if the task
+     * disables the killing of these processes through its generic information.
+     */
+    public static String getProcessTreeKillerCookieSuffix(TaskContext context) {
+        Map<String, String> genericInformation = context.getInitializer().getGenericInformation();
+        if (genericInformation != null &&
+            "true".equalsIgnoreCase(genericInformation.get(SchedulerConstants.DISABLE_PROCESS_TREE_KILLER_GENERIC_INFO))) {
+            return null;
+        }
+        TaskId taskId = context.getTaskId();
+        return "Job" + taskId.getJobId().value() + "Task" + taskId.value();
+    }
+
     private TaskResultImpl createTaskResult(TaskContext context, Throwable throwable) {
         TaskResultImpl result = new TaskResultImpl(context.getTaskId(),
                                                    new ForkedJvmProcessException("Failed to execute task in a forked JVM",
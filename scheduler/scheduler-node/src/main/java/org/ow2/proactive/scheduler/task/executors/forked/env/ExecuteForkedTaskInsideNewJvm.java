@@ -131,7 +131,7 @@ public class ExecuteForkedTaskInsideNewJvm {
         System.exit(0);
     }
 
-    private static void setSecurityPolicy() {
+    static void setSecurityPolicy() {
         System.setProperty("java.security.policy",
                            ExecuteForkedTaskInsideNewJvm.class.getResource("/" + JAVA_SECURITY_POLICY_FILE).toString());
         Policy.getPolicy().refresh();
@@ -0,0 +1,174 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.executors.forked.env;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.InputStreamReader;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+
+import org.ow2.proactive.scheduler.task.context.TaskContext;
+import org.ow2.proactive.scheduler.task.executors.ForkedTaskExecutor;
+import org.ow2.proactive.scheduler.task.executors.InProcessTaskExecutor;
+import org.ow2.proactive.utils.CookieBasedProcessTreeKiller;
+
+
+/**
+ * Main class of the reusable JVMs of {@link org.ow2.proactive.scheduler.task.executors.ForkedJvmPool}.
+ * <p>
+ * The JVM reads a secret token on its standard input, connects to the given local port and sends the token back.
+ * It then executes the task contexts received on the connection one after the other, and answers each of them
+ * with the task result and whether the JVM can be reused. The processes started by a task are killed when it ends,
+ * unless its generic information disables it. After each task, a marker followed by the token is
+ * printed on both standard streams, so that the parent knows when all the output of the task has been read.
+ */
+public class ExecuteForkedTasksInsidePooledJvm {
+
+    public static final String PING = "ping";
+
+    public static final String END_OF_TASK_MARKER = "#end-of-task#";
+
+    private final String token;
+
+    private final Properties initialProperties;
+
+    private final Set<Thread> initialThreads;
+
+    private ExecuteForkedTasksInsidePooledJvm(String token) {
+        this.token = token;
+        this.initialProperties = (Properties) System.getProperties().clone();
+        this.initialThreads = nonDaemonThreads();
+    }
+
+    /**
+     * Everything here and called from here should only use System.out and System.err
+     */
+    public static void main(String[] args) throws Throwable {
+        if (args.length != 1) {
+            System.err.println("Port of the forked JVM pool is expected");
+            System.exit(-1);
+        }
+
+        ExecuteForkedTaskInsideNewJvm.setSecurityPolicy();
+
+        String token = new BufferedReader(new InputStreamReader(System.in)).readLine();
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(args[0]))) {
+            ObjectOutputStream output = new ObjectOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            output.writeUTF(token);
+            output.flush();
+            ObjectInputStream input = new ObjectInputStream(new BufferedInputStream(socket.getInputStream()));
+
+            warmUp();
+            new ExecuteForkedTasksInsidePooledJvm(token).executeTasks(input, output);
+        } catch (Throwable throwable) {
+            throwable.printStackTrace(System.err);
+            System.exit(1);
+        }
+
+        // non-daemon threads may keep the JVM alive
+        System.exit(0);
+    }
+
+    private static void warmUp() {
+        try {
+            ScriptEngine engine = new ScriptEngineManager().getEngineByName("groovy");
+            if (engine != null) {
+                engine.eval("1");
+            }
+        } catch (Throwable ignored) {
+            // only an optimization, the task will report the error if any
+        }
+    }
+
+    private void executeTasks(ObjectInputStream input, ObjectOutputStream output) throws Exception {
+        while (true) {
+            Object message;
+            try {
+                message = input.readObject();
+            } catch (EOFException closedByParent) {
+                return;
+            }
+
+            if (PING.equals(message)) {
+                output.writeObject(PING);
+                output.flush();
+                continue;
+            }
+
+            Object result;
+            CookieBasedProcessTreeKiller taskProcessTreeKiller = null;
+            try {
+                TaskContext context = (TaskContext) message;
+                String cookieNameSuffix = ForkedTaskExecutor.getProcessTreeKillerCookieSuffix(context);
+                if (cookieNameSuffix != null) {
+                    // the processes started by the task inherit the cookie
+                    taskProcessTreeKiller = CookieBasedProcessTreeKiller.createAllChildrenKiller(cookieNameSuffix);
+                }
+                result = new InProcessTaskExecutor().execute(context, System.out, System.err);
+            } catch (Throwable throwable) {
+                throwable.printStackTrace(System.err);
+                result = throwable;
+            } finally {
+                if (taskProcessTreeKiller != null) {
+                    taskProcessTreeKiller.kill();
+                }
+            }
+            boolean reusable = !(result instanceof Throwable) && initialThreads.containsAll(nonDaemonThreads());
+            System.setProperties((Properties) initialProperties.clone());
+
+            System.out.println(END_OF_TASK_MARKER + token);
+            System.out.flush();
+            System.err.println(END_OF_TASK_MARKER + token);
+            System.err.flush();
+
+            output.writeObject(result);
+            output.writeBoolean(reusable);
+            output.reset();
+            output.flush();
+        }
+    }
+
+    private static Set<Thread> nonDaemonThreads() {
+        Set<Thread> threads = new HashSet<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (!thread.isDaemon() && thread.isAlive()) {
+                threads.add(thread);
+            }
+        }
+        return threads;
+    }
+}
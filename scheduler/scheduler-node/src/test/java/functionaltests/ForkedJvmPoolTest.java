@@ -0,0 +1,139 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package functionaltests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.TaskIdImpl;
+import org.ow2.proactive.scheduler.task.TaskLauncherInitializer;
+import org.ow2.proactive.scheduler.task.TaskResultImpl;
+import org.ow2.proactive.scheduler.task.TestTaskOutput;
+import org.ow2.proactive.scheduler.task.containers.ScriptExecutableContainer;
+import org.ow2.proactive.scheduler.task.context.NodeDataSpacesURIs;
+import org.ow2.proactive.scheduler.task.context.NodeInfo;
+import org.ow2.proactive.scheduler.task.context.TaskContext;
+import org.ow2.proactive.scheduler.task.executors.ForkedTaskExecutor;
+import org.ow2.proactive.scripting.SimpleScript;
+import org.ow2.proactive.scripting.TaskScript;
+
+
+/**
+ * Executes tasks with the ForkedTaskExecutor when the forked JVM pool is enabled.
+ * As the pool starts separate JVMs, this test is a functionalTest (to avoid leaving alive subprocesses when cancelled)
+ */
+public class ForkedJvmPoolTest {
+
+    private static final String JVM_NAME_SCRIPT = "result = java.lang.management.ManagementFactory.getRuntimeMXBean().getName()";
+
+    @Rule
+    public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+    @Before
+    public void enablePool() {
+        PASchedulerProperties.TASK_FORK_POOL_ENABLED.updateProperty("true");
+    }
+
+    @After
+    public void disablePool() {
+        PASchedulerProperties.TASK_FORK_POOL_ENABLED.updateProperty("false");
+    }
+
+    @Test
+    public void jvm_is_reused_and_output_is_separated() throws Throwable {
+        TestTaskOutput firstOutput = new TestTaskOutput();
+        TaskResultImpl first = execute("println('hello'); " + JVM_NAME_SCRIPT, firstOutput);
+
+        TestTaskOutput secondOutput = new TestTaskOutput();
+        TaskResultImpl second = execute("println('world'); " + JVM_NAME_SCRIPT, secondOutput);
+
+        assertEquals(String.format("hello%n"), firstOutput.output());
+        assertEquals(String.format("world%n"), secondOutput.output());
+        assertEquals(first.value(), second.value());
+    }
+
+    @Test
+    public void jvm_is_recycled_after_a_failed_task() throws Throwable {
+        TaskResultImpl before = execute(JVM_NAME_SCRIPT, new TestTaskOutput());
+
+        TaskResultImpl failed = execute("throw new IllegalStateException('failure')", new TestTaskOutput());
+        assertTrue(failed.hadException());
+
+        TaskResultImpl after = execute(JVM_NAME_SCRIPT, new TestTaskOutput());
+        assertNotEquals(before.value(), after.value());
+    }
+
+    @Test
+    public void processes_left_by_a_task_are_killed_when_it_ends() throws Throwable {
+        Assume.assumeTrue(new File("/proc/self").isDirectory());
+        File pidFile = new File(tmpFolder.getRoot(), "child.pid");
+
+        TaskResultImpl result = execute("def pidFile = new File('" + pidFile.getAbsolutePath() + "'); " +
+                                        "['/bin/sh', '-c', 'echo $$ > " + pidFile.getAbsolutePath() +
+                                        ".tmp && mv " + pidFile.getAbsolutePath() + ".tmp " +
+                                        pidFile.getAbsolutePath() + "; exec sleep 600'].execute(); " +
+                                        "while (!pidFile.exists()) { Thread.sleep(50) }; " + JVM_NAME_SCRIPT,
+                                        new TestTaskOutput());
+        assertFalse(result.hadException());
+
+        String pid = new String(Files.readAllBytes(pidFile.toPath()), StandardCharsets.UTF_8).trim();
+        File childProcess = new File("/proc/" + pid);
+        long deadline = System.currentTimeMillis() + 10000;
+        while (childProcess.exists() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertFalse("the child process of the task should have been killed", childProcess.exists());
+    }
+
+    private TaskResultImpl execute(String script, TestTaskOutput taskOutput) throws Exception {
+        File workingDir = tmpFolder.newFolder();
+        TaskLauncherInitializer initializer = new TaskLauncherInitializer();
+        initializer.setTaskId((TaskIdImpl.createTaskId(JobIdImpl.makeJobId("1000"), "pooled", 1000L)));
+
+        TaskContext context = new TaskContext(new ScriptExecutableContainer(new TaskScript(new SimpleScript(script,
+                                                                                                            "groovy"))),
+                                              initializer,
+                                              null,
+                                              new NodeDataSpacesURIs("", "", "", "", "", ""),
+                                              "",
+                                              new NodeInfo("", "", "", ""));
+        return new ForkedTaskExecutor(workingDir).execute(context, taskOutput.outputStream, taskOutput.error);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.TaskHeartbeatNotification;
+import org.ow2.proactive.scheduler.common.TaskTerminateNotification;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.common.task.TaskResult;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+
+
+public class TaskHeartbeatSenderTest {
+
+    @Test
+    public void testHeartbeatsOfTheTasksAreGroupedWithProgressChanges() throws Exception {
+        TaskHeartbeatSender sender = new TaskHeartbeatSender();
+        HeartbeatRecorder recorder = new HeartbeatRecorder();
+        TaskId firstTaskId = TaskIdImpl.createTaskId(JobIdImpl.makeJobId("1000"), "first", 1L);
+        TaskId secondTaskId = TaskIdImpl.createTaskId(JobIdImpl.makeJobId("1000"), "second", 2L);
+        ProgressFileReaderInterface firstProgress = mock(ProgressFileReaderInterface.class);
+        ProgressFileReaderInterface secondProgress = mock(ProgressFileReaderInterface.class);
+        when(firstProgress.getProgress()).thenReturn(42);
+        when(secondProgress.getProgress()).thenReturn(0);
+
+        assertTrue(sender.register(firstTaskId, firstProgress, recorder, 1));
+        assertTrue(sender.register(secondTaskId, secondProgress, recorder, 1));
+
+        Heartbeat first = recorder.heartbeats.poll(10, TimeUnit.SECONDS);
+        assertNotNull(first);
+        assertEquals(2, first.aliveTasks.size());
+        assertEquals(1, first.progressChanges.size());
+        assertEquals(42, (int) first.progressChanges.get(firstTaskId));
+
+        // unchanged progress is not sent again
+        Heartbeat second = recorder.heartbeats.poll(10, TimeUnit.SECONDS);
+        assertNotNull(second);
+        assertEquals(2, second.aliveTasks.size());
+        assertTrue(second.progressChanges.isEmpty());
+
+        sender.unregister(firstTaskId);
+        sender.unregister(secondTaskId);
+        assertFalse(sender.isRegistered(firstTaskId));
+        assertFalse(sender.isRegistered(secondTaskId));
+    }
+
+    @Test
+    public void testTaskIsNotRegisteredWhenTheSchedulerDoesNotAcceptHeartbeats() {
+        TaskHeartbeatSender sender = new TaskHeartbeatSender();
+        TaskId taskId = TaskIdImpl.createTaskId(JobIdImpl.makeJobId("1000"), "task", 1L);
+
+        assertFalse(sender.register(taskId,
+                                    mock(ProgressFileReaderInterface.class),
+                                    new TaskTerminateNotificationVerifier(),
+                                    1));
+        assertFalse(sender.isRegistered(taskId));
+    }
+
+    private static class Heartbeat {
+
+        private final List<TaskId> aliveTasks;
+
+        private final Map<TaskId, Integer> progressChanges;
+
+        private Heartbeat(Collection<TaskId> aliveTasks, Map<TaskId, Integer> progressChanges) {
+            this.aliveTasks = new ArrayList<>(aliveTasks);
+            this.progressChanges = new HashMap<>(progressChanges);
+        }
+    }
+
+    private static class HeartbeatRecorder implements TaskTerminateNotification, TaskHeartbeatNotification {
+
+        private final BlockingQueue<Heartbeat> heartbeats = new LinkedBlockingQueue<>();
+
+        @Override
+        public void terminate(TaskId taskId, TaskResult taskResult) {
+        }
+
+        @Override
+        public void taskHeartbeats(Collection<TaskId> aliveTasks, Map<TaskId, Integer> progressChanges) {
+            heartbeats.add(new Heartbeat(aliveTasks, progressChanges));
+        }
+    }
+}
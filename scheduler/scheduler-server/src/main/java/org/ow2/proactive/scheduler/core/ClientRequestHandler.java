@@ -26,7 +26,13 @@
 package org.ow2.proactive.scheduler.core;
 
 import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -36,7 +42,14 @@ import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.log4j.Logger;
 import org.objectweb.proactive.core.UniqueID;
 import org.objectweb.proactive.utils.NamedThreadFactory;
+import org.ow2.proactive.scheduler.common.NotificationData;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
 import org.ow2.proactive.scheduler.common.SchedulerEventListener;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.job.JobState;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.threading.ReifiedMethodCall;
 import org.ow2.proactive.utils.PAExecutors;
@@ -45,6 +58,12 @@ import org.ow2.proactive.utils.PAExecutors;
 /**
  * ClientRequestHandler is used to delegate event call to client.
  * This class should be used with the ThreadPoolController which handles threads.
+ * <p>
+ * Events waiting to be sent are coalesced: a progress event of a task, an update event of a job or
+ * a full data event of a job replaces the waiting event of the same kind for the same task or job, and
+ * any task event replaces the waiting progress event of the task. The number of waiting events is bounded
+ * by {@link PASchedulerProperties#SCHEDULER_LISTENERS_QUEUE_SIZE}, when the bound is reached the waiting
+ * events are dropped and replaced by a {@link SchedulerEvent#RESYNC_NEEDED} event.
  *
  * @author The ProActive Team
  * @since ProActive Scheduling 2.0
@@ -63,8 +82,37 @@ public class ClientRequestHandler {
                                                                                                             TimeUnit.SECONDS,
                                                                                                             new NamedThreadFactory("ClientEventHandlerPool"));
 
+    private static final Method SCHEDULER_STATE_UPDATED_METHOD;
+
+    private static final Object RESYNC_KEY = new Object();
+
+    private static final String TASK_STATE_UPDATED_METHOD_NAME = "taskStateUpdatedEvent";
+
+    private static final String JOB_STATE_UPDATED_METHOD_NAME = "jobStateUpdatedEvent";
+
+    private static final String JOB_UPDATED_FULL_DATA_METHOD_NAME = "jobUpdatedFullDataEvent";
+
+    static {
+        try {
+            SCHEDULER_STATE_UPDATED_METHOD = SchedulerEventListener.class.getMethod("schedulerStateUpdatedEvent",
+                                                                                    SchedulerEvent.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private static final AtomicInteger requestLeft = new AtomicInteger();
 
+    /** Handlers of the connected clients, by client id */
+    private static final Map<UniqueID, ClientRequestHandler> handlers = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the handlers of the clients currently listening to the scheduler events.
+     */
+    public static Collection<ClientRequestHandler> getHandlers() {
+        return Collections.unmodifiableCollection(handlers.values());
+    }
+
     public static void terminate() {
         // Precondition: no new event is emitted
         try {
@@ -89,8 +137,20 @@ public class ClientRequestHandler {
     /** Client (listener) on which to send the request */
     private final SchedulerEventListener client;
 
-    /** Events queue to be stored */
-    private final LinkedList<ReifiedMethodCall> eventCallsToStore;
+    /** Maximum number of events waiting to be sent to the client, no limit if lower or equal to 0 */
+    private final int maxQueueSize;
+
+    /** Events queue to be stored, by coalescing key or by sequence number if the event cannot be coalesced */
+    private final LinkedHashMap<Object, ReifiedMethodCall> eventCallsToStore;
+
+    /** Sequence number of the events which cannot be coalesced, guarded by the queue lock */
+    private long sequence = 0;
+
+    /** Number of events replaced by a more recent one, guarded by the queue lock */
+    private long coalescedEvents = 0;
+
+    /** Number of events dropped because the queue was full, guarded by the queue lock */
+    private long droppedEvents = 0;
 
     /** Cross reference to the front-end : used to mark client as dirty */
     private final SchedulerFrontendState frontend;
@@ -103,10 +163,63 @@ public class ClientRequestHandler {
      * @param client the reference on the client itself.
      */
     public ClientRequestHandler(SchedulerFrontendState frontend, UniqueID clientId, SchedulerEventListener client) {
+        this(frontend, clientId, client, PASchedulerProperties.SCHEDULER_LISTENERS_QUEUE_SIZE.getValueAsInt());
+    }
+
+    /**
+     * Create a new instance of ClientRequestHandler
+     *
+     * @param frontend a link to the front-end
+     * @param clientId the Id of the client on which to talk to.
+     * @param client the reference on the client itself.
+     * @param maxQueueSize the maximum number of events waiting to be sent to the client, no limit if lower or equal to 0
+     */
+    public ClientRequestHandler(SchedulerFrontendState frontend, UniqueID clientId, SchedulerEventListener client,
+            int maxQueueSize) {
         this.client = client;
         this.frontend = frontend;
         this.clientId = clientId;
-        this.eventCallsToStore = new LinkedList<>();
+        this.maxQueueSize = maxQueueSize;
+        this.eventCallsToStore = new LinkedHashMap<>();
+        handlers.put(clientId, this);
+    }
+
+    /**
+     * Stops exposing this handler once its client does not listen any more. Waiting events are still sent.
+     */
+    public void close() {
+        handlers.remove(clientId, this);
+    }
+
+    public UniqueID getClientId() {
+        return clientId;
+    }
+
+    /**
+     * Returns the number of events waiting to be sent.
+     */
+    public int getQueueSize() {
+        synchronized (eventCallsToStore) {
+            return eventCallsToStore.size();
+        }
+    }
+
+    /**
+     * Returns the number of events which were not sent because a more recent event replaced them.
+     */
+    public long getCoalescedEventsCount() {
+        synchronized (eventCallsToStore) {
+            return coalescedEvents;
+        }
+    }
+
+    /**
+     * Returns the number of events which were not sent because the queue was full.
+     */
+    public long getDroppedEventsCount() {
+        synchronized (eventCallsToStore) {
+            return droppedEvents;
+        }
     }
 
     /**
@@ -115,25 +228,95 @@ public class ClientRequestHandler {
      * @param method the method to be called (must be a method implemented by the client)
      * @param args the argument to be passed to the method
      */
+    @SuppressWarnings("unchecked")
     public void addEvent(Method method, Object... args) {
         synchronized (eventCallsToStore) {
-            eventCallsToStore.add(new ReifiedMethodCall(method, args));
+            Object key = coalescingKey(method, args);
+            if (key == null) {
+                key = sequence++;
+            } else {
+                removeWaitingEvent(key);
+            }
+            if (method.getName().equals(TASK_STATE_UPDATED_METHOD_NAME)) {
+                // the task info of any task event is more recent than the one of a waiting progress event
+                removeWaitingEvent(new CoalescingKey(SchedulerEvent.TASK_PROGRESS,
+                                                     ((NotificationData<TaskInfo>) args[0]).getData()
+                                                                                           .getTaskId()));
+            }
+            if (maxQueueSize > 0 && eventCallsToStore.size() >= maxQueueSize) {
+                dropWaitingEvents();
+            }
+            eventCallsToStore.put(key, new ReifiedMethodCall(method, args));
             requestLeft.incrementAndGet();
         }
         tryStartTask();
     }
 
+    /**
+     * Returns the key of the events superseded by this one, or null if this event does not supersede any other.
+     */
+    @SuppressWarnings("unchecked")
+    private static Object coalescingKey(Method method, Object[] args) {
+        switch (method.getName()) {
+            case TASK_STATE_UPDATED_METHOD_NAME:
+                NotificationData<TaskInfo> taskNotification = (NotificationData<TaskInfo>) args[0];
+                if (taskNotification.getEventType() == SchedulerEvent.TASK_PROGRESS) {
+                    return new CoalescingKey(SchedulerEvent.TASK_PROGRESS, taskNotification.getData().getTaskId());
+                }
+                return null;
+            case JOB_STATE_UPDATED_METHOD_NAME:
+                NotificationData<JobInfo> jobNotification = (NotificationData<JobInfo>) args[0];
+                if (jobNotification.getEventType() == SchedulerEvent.JOB_UPDATED) {
+                    return new CoalescingKey(SchedulerEvent.JOB_UPDATED, jobNotification.getData().getJobId(), null);
+                }
+                return null;
+            case JOB_UPDATED_FULL_DATA_METHOD_NAME:
+                return new CoalescingKey(JOB_UPDATED_FULL_DATA_METHOD_NAME, ((JobState) args[0]).getId(), null);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Removes a waiting event superseded by a new one, must be called under the queue lock.
+     */
+    private void removeWaitingEvent(Object key) {
+        if (eventCallsToStore.remove(key) != null) {
+            coalescedEvents++;
+            requestLeft.decrementAndGet();
+        }
+    }
+
+    /**
+     * Replaces all the waiting events by a resync event, must be called under the queue lock.
+     */
+    private void dropWaitingEvents() {
+        int dropped = eventCallsToStore.size();
+        if (eventCallsToStore.containsKey(RESYNC_KEY)) {
+            // the client is already going to resync, this event is not counted as dropped
+            dropped--;
+        }
+        droppedEvents += dropped;
+        requestLeft.addAndGet(-eventCallsToStore.size());
+        eventCallsToStore.clear();
+        logger.warn("Too many events waiting to be sent to the client " + clientId + ", " + dropped +
+                    " events dropped, the client will be asked to resync");
+        eventCallsToStore.put(RESYNC_KEY,
+                              new ReifiedMethodCall(SCHEDULER_STATE_UPDATED_METHOD,
+                                                    new Object[] { SchedulerEvent.RESYNC_NEEDED }));
+        requestLeft.incrementAndGet();
+    }
+
     /**
      * Try to create a task with new events to send, and start it in the thread pool.
      * Can do nothing if some previous events are currently being sent.
      *
      * Can be called from two different thread, even if it is private!
      */
-    @SuppressWarnings("unchecked")
     private void tryStartTask() {
         synchronized (eventCallsToStore) {
             if (eventCallsToStore.size() > 0 && !busy.get()) {
-                LinkedList<ReifiedMethodCall> tasks = (LinkedList<ReifiedMethodCall>) eventCallsToStore.clone();
+                LinkedList<ReifiedMethodCall> tasks = new LinkedList<>(eventCallsToStore.values());
                 eventCallsToStore.clear();
                 busy.set(true);
                 threadPoolForNetworkCalls.execute(new TaskRunnable(tasks));
@@ -141,6 +324,46 @@ public class ClientRequestHandler {
         }
     }
 
+    /**
+     * Identifies the job or task whose state an event carries. Task ids are only unique inside
+     * their job, so the job id is part of the key.
+     */
+    private static final class CoalescingKey {
+
+        private final Object kind;
+
+        private final JobId jobId;
+
+        private final TaskId taskId;
+
+        private CoalescingKey(Object kind, JobId jobId, TaskId taskId) {
+            this.kind = kind;
+            this.jobId = jobId;
+            this.taskId = taskId;
+        }
+
+        private CoalescingKey(Object kind, TaskId taskId) {
+            this(kind, taskId.getJobId(), taskId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CoalescingKey)) {
+                return false;
+            }
+            CoalescingKey that = (CoalescingKey) o;
+            return kind.equals(that.kind) && Objects.equals(jobId, that.jobId) && Objects.equals(taskId, that.taskId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, jobId, taskId);
+        }
+    }
+
     /**
      * TaskRunnable is the task in charge to send the events in its list.
      *
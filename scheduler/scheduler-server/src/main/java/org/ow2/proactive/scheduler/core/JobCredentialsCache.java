@@ -0,0 +1,180 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import java.rmi.dgc.VMID;
+import java.security.KeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.objectweb.proactive.core.node.Node;
+import org.ow2.proactive.authentication.crypto.CredData;
+import org.ow2.proactive.authentication.crypto.HybridEncryptionUtil;
+import org.ow2.proactive.authentication.crypto.HybridEncryptionUtil.HybridEncryptedData;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.core.db.SchedulerDBManager;
+import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.task.TaskLauncher;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+
+/**
+ * Cache of the data needed to give its credentials to a task when it is started.
+ * <p>
+ * The credentials of a job are decrypted with the scheduler private key and enriched with the domain and the
+ * third-party credentials of the job owner once per job, instead of once per task. The entries are dropped
+ * when the job terminates, and ignored as soon as third-party credentials are added or removed.
+ * <p>
+ * The public key of a node is requested once per node JVM, with {@link TaskLauncher#getNodePublicKey()}, so that
+ * starting a task only encrypts the cached credentials with the cached key.
+ */
+public class JobCredentialsCache {
+
+    private static final Logger logger = Logger.getLogger(JobCredentialsCache.class);
+
+    private final SchedulerDBManager dbManager;
+
+    private final Cache<JobId, JobCredentials> jobCredentials;
+
+    private final Cache<VMID, PublicKey> nodePublicKeys;
+
+    private final boolean nodePublicKeysEnabled;
+
+    /** incremented each time a third-party credential changes, older entries are stale */
+    private final AtomicLong thirdPartyCredentialsVersion = new AtomicLong();
+
+    public JobCredentialsCache(SchedulerDBManager dbManager) {
+        this(dbManager,
+             PASchedulerProperties.SCHEDULER_STARTTASK_CREDENTIALS_CACHE_SIZE.getValueAsInt(),
+             PASchedulerProperties.SCHEDULER_STARTTASK_NODEKEYS_CACHE_SIZE.getValueAsInt());
+    }
+
+    JobCredentialsCache(SchedulerDBManager dbManager, int maxJobs, int maxNodes) {
+        this.dbManager = dbManager;
+        this.jobCredentials = CacheBuilder.newBuilder().maximumSize(Math.max(maxJobs, 0)).build();
+        this.nodePublicKeys = CacheBuilder.newBuilder().maximumSize(Math.max(maxNodes, 0)).build();
+        this.nodePublicKeysEnabled = maxNodes > 0;
+    }
+
+    /**
+     * Returns the decrypted credentials of a job, with its domain and the third-party credentials of its owner.
+     * The returned object is shared by the tasks of the job and must not be modified.
+     *
+     * @param job the job of the started task
+     * @param corePrivateKey the scheduler private key
+     */
+    public CredData getCredData(InternalJob job, PrivateKey corePrivateKey) throws KeyException {
+        long version = thirdPartyCredentialsVersion.get();
+        JobCredentials cached = jobCredentials.getIfPresent(job.getId());
+        if (cached != null && cached.version == version) {
+            return cached.credData;
+        }
+        CredData credData = decryptCredentials(job, corePrivateKey);
+        jobCredentials.put(job.getId(), new JobCredentials(version, credData));
+        return credData;
+    }
+
+    /**
+     * Returns the public key used to encrypt the credentials of a task started on the given node.
+     *
+     * @param node the node of the started task
+     * @param launcher the launcher of the started task
+     */
+    public PublicKey getNodePublicKey(Node node, TaskLauncher launcher) throws NoSuchAlgorithmException {
+        if (!nodePublicKeysEnabled) {
+            return launcher.generatePublicKey();
+        }
+        // the key pair is shared by all the nodes of a JVM, and a restarted node gets a new VMID
+        VMID vmid = node.getVMInformation().getVMID();
+        PublicKey publicKey = nodePublicKeys.getIfPresent(vmid);
+        if (publicKey == null) {
+            publicKey = launcher.getNodePublicKey();
+            nodePublicKeys.put(vmid, publicKey);
+        }
+        return publicKey;
+    }
+
+    /**
+     * Forgets the public key of a node, e.g. after a failure to start a task on it.
+     */
+    public void removeNode(Node node) {
+        try {
+            nodePublicKeys.invalidate(node.getVMInformation().getVMID());
+        } catch (Exception e) {
+            logger.debug("Could not get the VM information of node " + node, e);
+        }
+    }
+
+    /**
+     * Must be called when a third-party credential of a user is added or removed.
+     */
+    public void thirdPartyCredentialsChanged(String username) {
+        logger.debug("Third-party credentials of " + username + " changed");
+        thirdPartyCredentialsVersion.incrementAndGet();
+    }
+
+    /**
+     * Must be called when a job terminates.
+     */
+    public void removeJob(JobId jobId) {
+        jobCredentials.invalidate(jobId);
+    }
+
+    private CredData decryptCredentials(InternalJob job, PrivateKey corePrivateKey) throws KeyException {
+        CredData credData = job.getCredentials().decrypt(corePrivateKey);
+
+        if (PASchedulerProperties.SCHEDULER_AUTH_GLOBAL_DOMAIN.isSet() && credData.getDomain() == null) {
+            credData.setDomain(PASchedulerProperties.SCHEDULER_AUTH_GLOBAL_DOMAIN.getValueAsString());
+        }
+
+        Map<String, HybridEncryptedData> thirdPartyCredentials = dbManager.thirdPartyCredentialsMap(job.getJobInfo()
+                                                                                                       .getJobOwner());
+        for (Map.Entry<String, HybridEncryptedData> thirdPartyCredential : thirdPartyCredentials.entrySet()) {
+            String decryptedValue = HybridEncryptionUtil.decryptString(thirdPartyCredential.getValue(), corePrivateKey);
+            credData.addThirdPartyCredential(thirdPartyCredential.getKey(), decryptedValue);
+        }
+        return credData;
+    }
+
+    private static final class JobCredentials {
+
+        private final long version;
+
+        private final CredData credData;
+
+        private JobCredentials(long version, CredData credData) {
+            this.version = version;
+            this.credData = credData;
+        }
+    }
+}
@@ -66,14 +66,22 @@ public class ListeningUser {
         if (listener == null) {
             throw new IllegalArgumentException("Listener must not be null !");
         }
+        ClientRequestHandler previous = this.listener;
         this.listener = listener;
+        if (previous != null && previous != listener) {
+            previous.close();
+        }
     }
 
     /**
      * clear the listener associated to this user
      */
     public void clearListener() {
+        ClientRequestHandler previous = this.listener;
         this.listener = null;
+        if (previous != null) {
+            previous.close();
+        }
     }
 
     public UserIdentificationImpl getUser() {
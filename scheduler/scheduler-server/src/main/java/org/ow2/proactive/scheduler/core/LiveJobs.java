@@ -28,6 +28,7 @@ package org.ow2.proactive.scheduler.core;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
@@ -107,6 +108,21 @@ class LiveJobs {
 
     private final Map<JobId, JobData> jobs = new ConcurrentHashMap<>();
 
+    /**
+     * Jobs which may have tasks to schedule. A job enters this set each time it is submitted, recovered or
+     * modified under its lock, and leaves it when a scheduling loop finds it has no eligible task.
+     * In incremental scheduling mode, only these jobs are examined by {@link #lockJobsToSchedule(boolean)}.
+     */
+    private final Set<JobId> readyJobs = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Incremented each time a job enters the ready set, used by the scheduling loop to detect that
+     * nothing has changed since its previous iteration
+     */
+    private final AtomicLong readyJobsVersion = new AtomicLong();
+
+    private final boolean incrementalScheduling;
+
     private final ConcurrentHashMap<TaskIdWrapper, RunningTaskData> runningTasksData = new ConcurrentHashMap<>();
 
     private final OnErrorPolicyInterpreter onErrorPolicyInterpreter = new OnErrorPolicyInterpreter();
@@ -125,6 +141,7 @@ class LiveJobs {
         this.dbManager = dbManager;
         this.listener = listener;
         this.synchronizationInternal = synchronizationAPI;
+        this.incrementalScheduling = PASchedulerProperties.SCHEDULER_INCREMENTAL_SCHEDULING.getValueAsBoolean();
     }
 
     Collection<RunningTaskData> getRunningTasks() {
@@ -137,6 +154,7 @@ class LiveJobs {
 
     void jobRecovered(InternalJob job) {
         jobs.put(job.getId(), new JobData(job));
+        markJobReady(job.getId());
         for (InternalTask task : job.getITasks()) {
             if (task.getStatus() == TaskStatus.RUNNING) {
                 logger.info("Recover task " + task.getId() + " (" + task.getName() + ") of job " + job.getId() + " (" +
@@ -361,17 +379,44 @@ class LiveJobs {
         dbManager.newJobSubmitted(job);
         ClientJobState clientJobState = new ClientJobState(job);
         jobs.put(job.getId(), new JobData(job));
+        markJobReady(job.getId());
         listener.jobSubmitted(clientJobState);
     }
 
+    boolean isIncrementalScheduling() {
+        return incrementalScheduling;
+    }
+
+    /**
+     * @return a counter which changes each time a job may have got new tasks to schedule
+     */
+    long getReadyJobsVersion() {
+        return readyJobsVersion.get();
+    }
+
+    private void markJobReady(JobId jobId) {
+        readyJobs.add(jobId);
+        readyJobsVersion.incrementAndGet();
+    }
+
+    private void forgetJob(JobId jobId) {
+        jobs.remove(jobId);
+        readyJobs.remove(jobId);
+    }
+
     Map<JobId, JobDescriptor> lockJobsToSchedule(boolean isSchedulerPausedOrStopped) {
 
         TreeSet<JobPriority> prioritiesScheduled = new TreeSet<>();
         TreeSet<JobPriority> prioritiesNotScheduled = new TreeSet<>();
 
         Map<JobId, JobDescriptor> result = new HashMap<>();
-        for (Map.Entry<JobId, JobData> entry : jobs.entrySet()) {
-            JobData value = entry.getValue();
+        Collection<JobId> candidates = incrementalScheduling ? readyJobs : jobs.keySet();
+        for (JobId jobId : candidates) {
+            JobData value = jobs.get(jobId);
+            if (value == null) {
+                readyJobs.remove(jobId);
+                continue;
+            }
 
             // If the scheduler is paused, schedule only running or stalled jobs
             if (isSchedulerPausedOrStopped &&
@@ -380,11 +425,19 @@ class LiveJobs {
             }
 
             if (value.jobLock.tryLock()) {
-                InternalJob job = entry.getValue().job;
+                InternalJob job = value.job;
+                if (incrementalScheduling && job.getJobDescriptor().getEligibleTasks().isEmpty()) {
+                    // the job lock is held, so no event can make a task eligible before the job leaves the set
+                    readyJobs.remove(jobId);
+                    value.unlock();
+                    continue;
+                }
                 result.put(job.getId(), job.getJobDescriptor());
                 prioritiesScheduled.add(job.getPriority());
             } else {
                 prioritiesNotScheduled.add(value.job.getPriority());
+                // the job could not be examined by this loop, the next one must not be skipped
+                readyJobsVersion.incrementAndGet();
             }
             if (unlockIfConflict(prioritiesScheduled, prioritiesNotScheduled, result))
                 return new HashMap<>(0);
@@ -808,7 +861,7 @@ class LiveJobs {
                 // terminating job
                 job.terminate();
                 jlogger.debug(job.getId(), "terminated");
-                jobs.remove(job.getId());
+                forgetJob(job.getId());
                 terminationData.addJobToTerminate(job.getId(), job.getGenericInformation(), job.getCredentials());
             }
 
@@ -1104,7 +1157,7 @@ class LiveJobs {
 
             jlogger.debug(job.getId(), "terminated");
             terminationData.addJobToTerminate(job.getId(), job.getGenericInformation(), job.getCredentials());
-            jobs.remove(job.getId());
+            forgetJob(job.getId());
         }
 
         task.setTaskResult(result);
@@ -1175,7 +1228,7 @@ class LiveJobs {
 
                 JobId jobId = jobData.job.getId();
 
-                jobs.remove(jobId);
+                forgetJob(jobId);
                 terminationData.addJobToTerminate(jobId,
                                                   jobData.job.getGenericInformation(),
                                                   jobData.job.getCredentials());
@@ -1240,7 +1293,7 @@ class LiveJobs {
             String errorMsg, JobStatus jobStatus) {
         JobId jobId = jobData.job.getId();
 
-        jobs.remove(jobId);
+        forgetJob(jobId);
 
         terminationData.addJobToTerminate(jobId, jobData.job.getGenericInformation(), jobData.job.getCredentials());
 
@@ -1344,6 +1397,8 @@ class LiveJobs {
         }
         jobData.jobLock.lock();
         if (jobs.containsKey(jobId)) {
+            // any modification of the job may have made some of its tasks eligible
+            markJobReady(jobId);
             return jobData;
         } else {
             jobData.unlock();
@@ -38,6 +38,9 @@ class NodePingThread extends Thread {
     private static final long SCHEDULER_NODE_PING_FREQUENCY = PASchedulerProperties.SCHEDULER_NODE_PING_FREQUENCY.getValueAsInt() *
                                                               1000;
 
+    private static final long SCHEDULER_TASK_HEARTBEAT_MAX_SILENCE = SCHEDULER_NODE_PING_FREQUENCY *
+                                                                     PASchedulerProperties.SCHEDULER_TASK_HEARTBEAT_MISSED.getValueAsInt();
+
     NodePingThread(SchedulingService service) {
         super("NodePingThread");
         this.service = service;
@@ -47,7 +50,13 @@ class NodePingThread extends Thread {
         while (!isInterrupted()) {
             try {
                 Thread.sleep(SCHEDULER_NODE_PING_FREQUENCY);
+                long now = System.currentTimeMillis();
                 for (final RunningTaskData taskData : service.getJobs().getRunningTasks()) {
+                    // tasks whose node sends heartbeats are only polled when they stop coming
+                    if (SCHEDULER_TASK_HEARTBEAT_MAX_SILENCE > 0 &&
+                        taskData.isHeartbeatAlive(now, SCHEDULER_TASK_HEARTBEAT_MAX_SILENCE)) {
+                        continue;
+                    }
                     service.getInfrastructure()
                            .getTaskPingerThreadPool()
                            .submit(() -> service.getProgressAndPingTaskNode(taskData));
@@ -46,6 +46,9 @@ class RunningTaskData {
 
     private int pingAttempts = 0;
 
+    /** time of the last heartbeat sent by the node, initialized with the task start */
+    private volatile long lastHeartbeatTime = System.currentTimeMillis();
+
     RunningTaskData(InternalTask task, String user, Credentials credentials, TaskLauncher launcher) {
         this.task = task;
         // keep track of nodes that executed the task, can change in case of restarts
@@ -86,6 +89,17 @@ class RunningTaskData {
         return pingAttempts;
     }
 
+    void heartbeatReceived(long time) {
+        lastHeartbeatTime = time;
+    }
+
+    /**
+     * @return true if the node sent a heartbeat for this task during the last given milliseconds
+     */
+    boolean isHeartbeatAlive(long now, long maxSilence) {
+        return now - lastHeartbeatTime <= maxSilence;
+    }
+
     /**
      * @return Nodes that were used to run this particular instance of the task
      *  (those in {@link InternalTask#getExecuterInformation()} could have changed in case of restarts)
@@ -1586,6 +1586,25 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive, EndA
         throw new UnknownTaskException("Unknown task " + taskName + " in job " + jobId);
     }
 
+    @Override
+    @ImmediateService
+    public String getTaskServerLogs(String jobId, String taskName, long offset, int length)
+            throws UnknownJobException, UnknownTaskException, NotConnectedException, PermissionException {
+
+        JobId id = JobIdImpl.makeJobId(jobId);
+        frontendState.checkPermissions("getTaskServerLogs",
+                                       frontendState.getIdentifiedJob(id),
+                                       YOU_DO_NOT_HAVE_PERMISSION_TO_GET_THE_TASK_LOGS_OF_THIS_JOB);
+
+        for (TaskId taskId : frontendState.getJobTasks(id)) {
+            if (taskId.getReadableName().equals(taskName)) {
+                return ServerJobAndTaskLogs.getInstance().getTaskLog(taskId, offset, length);
+            }
+        }
+
+        throw new UnknownTaskException("Unknown task " + taskName + " in job " + jobId);
+    }
+
     @Override
     @ImmediateService
     public String getTaskServerLogsByTag(String jobId, String taskTag)
@@ -1620,14 +1639,25 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive, EndA
             user = ident.getUsername();
         }
 
-        Page<JobInfo> jobsInfo = dbManager.getJobs(offset,
-                                                   limit,
-                                                   user,
-                                                   filterCriteria.isPending(),
-                                                   filterCriteria.isRunning(),
-                                                   filterCriteria.isFinished(),
-                                                   filterCriteria.isChildJobs(),
-                                                   sortParameters);
+        Page<JobInfo> jobsInfo;
+        if (filterCriteria.getCursor() != null) {
+            jobsInfo = dbManager.getJobs(filterCriteria.getCursor(),
+                                         limit,
+                                         user,
+                                         filterCriteria.isPending(),
+                                         filterCriteria.isRunning(),
+                                         filterCriteria.isFinished(),
+                                         filterCriteria.isChildJobs());
+        } else {
+            jobsInfo = dbManager.getJobs(offset,
+                                         limit,
+                                         user,
+                                         filterCriteria.isPending(),
+                                         filterCriteria.isRunning(),
+                                         filterCriteria.isFinished(),
+                                         filterCriteria.isChildJobs(),
+                                         sortParameters);
+        }
         /**
          * Add/inject to each JobInfo the list of signals used by the job, if they exist.
          */
@@ -1762,6 +1792,7 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive, EndA
             throw new RuntimeException(e.getMessage(), e);
         }
         dbManager.putThirdPartyCredential(ident.getUsername(), key, encryptedData);
+        schedulingService.getJobCredentialsCache().thirdPartyCredentialsChanged(ident.getUsername());
     }
 
     @Override
@@ -1778,6 +1809,7 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive, EndA
         UserIdentificationImpl ident = frontendState.checkPermission("removeThirdPartyCredential",
                                                                      YOU_DO_NOT_HAVE_PERMISSION_TO_REMOVE_THIRD_PARTY_CREDENTIALS_FROM_THE_SCHEDULER);
         dbManager.removeThirdPartyCredential(ident.getUsername(), key);
+        schedulingService.getJobCredentialsCache().thirdPartyCredentialsChanged(ident.getUsername());
     }
 
     @Override
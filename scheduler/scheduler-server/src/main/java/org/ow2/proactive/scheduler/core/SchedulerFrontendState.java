@@ -31,7 +31,8 @@ import static org.ow2.proactive.scheduler.core.properties.PASchedulerProperties.
 import java.lang.reflect.Method;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 import javax.security.auth.Subject;
@@ -197,12 +198,17 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
     /** Stores methods that will be called on clients */
     private static final Map<String, Method> eventMethods;
 
-    /** lock protecting scheduler state changes */
-    private ReentrantReadWriteLock stateLock = new ReentrantReadWriteLock();
+    /**
+     * Lock serializing the scheduler state changes. Readers do not take it: they read the concurrent
+     * job maps, or the last published snapshot of the scheduler state.
+     */
+    private final ReentrantLock stateWriteLock = new ReentrantLock();
 
-    private ReentrantReadWriteLock.ReadLock stateReadLock = stateLock.readLock();
+    /** Incremented after each change of the job lists, the status or the users of the scheduler state */
+    private final AtomicLong stateVersion = new AtomicLong();
 
-    private ReentrantReadWriteLock.WriteLock stateWriteLock = stateLock.writeLock();
+    /** Last published snapshot of the scheduler state */
+    private volatile StateSnapshot stateSnapshot;
 
     static {
         eventMethods = new HashMap<>();
@@ -244,14 +250,14 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         this.identifications = new ConcurrentHashMap<>();
         this.dirtyList = new HashSet<>();
         this.jmxHelper = jmxHelper;
-        this.jobsMap = new HashMap<>();
+        this.jobsMap = new ConcurrentHashMap<>();
         this.finishedJobsLRUCache = new LinkedHashMap<JobId, ClientJobState>(10, 0.75f, true) {
             @Override
             public boolean removeEldestEntry(Map.Entry eldest) {
                 return size() > SCHEDULER_FINISHED_JOBS_LRU_CACHE_SIZE.getValueAsInt();
             }
         };
-        this.jobs = new HashMap<>();
+        this.jobs = new ConcurrentHashMap<>();
         this.sessionTimer = new Timer("SessionTimer");
         this.schedulerState = schedulerState;
         recover(schedulerState);
@@ -332,6 +338,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         renewUserSession(sourceBodyID, identification);
         // add this new user in the list of connected user
         Lambda.withLock(stateWriteLock, () -> schedulerState.getUsers().update(identification));
+        stateVersion.incrementAndGet();
         // send events
         usersUpdated(new NotificationData<UserIdentification>(SchedulerEvent.USERS_UPDATE, identification));
     }
@@ -368,7 +375,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
     SchedulerStatus getStatus() throws NotConnectedException, PermissionException {
         // checking permissions
         checkPermission("getStatus", YOU_DO_NOT_HAVE_PERMISSION_TO_GET_THE_STATUS);
-        return Lambda.withLock(stateReadLock, () -> schedulerState.getStatus());
+        return getStateSnapshot().getStatus();
     }
 
     SchedulerState getState() throws NotConnectedException, PermissionException {
@@ -384,9 +391,8 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         ListeningUser ui = checkPermissionReturningListeningUser("getState",
                                                                  YOU_DO_NOT_HAVE_PERMISSION_TO_GET_THE_STATE);
 
-        return Lambda.withLock(stateReadLock,
-                               () -> myJobsOnly ? schedulerState.filterOnUser(ui.getUser().getUsername())
-                                                : schedulerState);
+        StateSnapshot snapshot = getStateSnapshotHolder();
+        return myJobsOnly ? snapshot.getUserState(ui.getUser().getUsername()) : snapshot.state;
 
     }
 
@@ -685,6 +691,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
             userAndCredentials.getListeningUser().getUser().setToRemove();
             Lambda.withLock(stateWriteLock,
                             () -> schedulerState.getUsers().update(userAndCredentials.getListeningUser().getUser()));
+            stateVersion.incrementAndGet();
             // cancel the timer
             userAndCredentials.getListeningUser().getUser().cancelSession();
             // log and send events
@@ -721,24 +728,22 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
     }
 
     IdentifiedJob getIdentifiedJob(JobId jobId) throws UnknownJobException {
-        return Lambda.withLockException1(stateReadLock, () -> {
-            IdentifiedJob identifiedJob = jobs.get(jobId);
+        IdentifiedJob identifiedJob = jobs.get(jobId);
 
-            if (identifiedJob == null) {
+        if (identifiedJob == null) {
 
-                ClientJobState clientJobState = getClientJobState(jobId);
-                if (clientJobState != null) {
-                    identifiedJob = toIdentifiedJob(clientJobState);
-                    identifiedJob.setFinished(true); // because wherenever there is job in jobsMap, but not in jobs, it is always finished
-                } else {
-                    String msg = "The job represented by this ID '" + jobId + "' is unknown !";
-                    logger.info(msg);
-                    throw new UnknownJobException(msg);
-                }
+            ClientJobState clientJobState = getClientJobState(jobId);
+            if (clientJobState != null) {
+                identifiedJob = toIdentifiedJob(clientJobState);
+                identifiedJob.setFinished(true); // because wherenever there is job in jobsMap, but not in jobs, it is always finished
+            } else {
+                String msg = "The job represented by this ID '" + jobId + "' is unknown !";
+                logger.info(msg);
+                throw new UnknownJobException(msg);
             }
+        }
 
-            return identifiedJob;
-        }, UnknownJobException.class);
+        return identifiedJob;
     }
 
     void checkChangeJobPriority(JobId jobId, JobPriority priority)
@@ -762,7 +767,8 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
             throw ex;
         }
 
-        if (Lambda.withLock(stateReadLock, () -> jobs.get(jobId).isFinished())) {
+        IdentifiedJob identifiedJob = jobs.get(jobId);
+        if (identifiedJob == null || identifiedJob.isFinished()) {
             String msg = " is already finished";
             jlogger.info(jobId, msg);
             throw new JobAlreadyFinishedException("Job " + jobId + msg);
@@ -826,49 +832,45 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
     }
 
     Set<TaskId> getJobTasks(JobId jobId) {
-        return (Set<TaskId>) Lambda.withLock(stateReadLock, () -> {
-            Set<TaskId> tasks;
-            ClientJobState jobState = getClientJobState(jobId);
-            if (jobState == null) {
-                return new HashSet<>();
-            } else {
-                jobState.readLock();
-                try {
-                    tasks = new HashSet<>(jobState.getTasks().size());
-                    for (TaskState task : jobState.getTasks()) {
-                        tasks.add(task.getId());
-                    }
-                    return tasks;
-                } finally {
-                    jobState.readUnlock();
+        Set<TaskId> tasks;
+        ClientJobState jobState = getClientJobState(jobId);
+        if (jobState == null) {
+            return new HashSet<>();
+        } else {
+            jobState.readLock();
+            try {
+                tasks = new HashSet<>(jobState.getTasks().size());
+                for (TaskState task : jobState.getTasks()) {
+                    tasks.add(task.getId());
                 }
+                return tasks;
+            } finally {
+                jobState.readUnlock();
             }
-        });
+        }
     }
 
     JobState getJobState(JobId jobId) throws NotConnectedException, UnknownJobException, PermissionException {
         checkPermissions("getJobState",
                          getIdentifiedJob(jobId),
                          YOU_DO_NOT_HAVE_PERMISSION_TO_GET_THE_STATE_OF_THIS_JOB);
-        return Lambda.withLock(stateReadLock, () -> {
-            ClientJobState jobState = getClientJobState(jobId);
-            ClientJobState jobStateCopy;
-            if (jobState == null) {
-                throw new UnknownJobException(jobId);
-            }
+        ClientJobState jobState = getClientJobState(jobId);
+        ClientJobState jobStateCopy;
+        if (jobState == null) {
+            throw new UnknownJobException(jobId);
+        }
+        try {
+            jobState.readLock();
             try {
-                jobState.readLock();
-                try {
-                    jobStateCopy = (ClientJobState) ProActiveMakeDeepCopy.WithProActiveObjectStream.makeDeepCopy(jobState);
-                } catch (Exception e) {
-                    logger.error("Error when copying job state", e);
-                    throw new IllegalStateException(e);
-                }
-            } finally {
-                jobState.readUnlock();
+                jobStateCopy = (ClientJobState) ProActiveMakeDeepCopy.WithProActiveObjectStream.makeDeepCopy(jobState);
+            } catch (Exception e) {
+                logger.error("Error when copying job state", e);
+                throw new IllegalStateException(e);
             }
-            return jobStateCopy;
-        });
+        } finally {
+            jobState.readUnlock();
+        }
+        return jobStateCopy;
     }
 
     TaskState getTaskState(JobId jobId, TaskId taskId)
@@ -876,22 +878,20 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         checkPermissions("getJobState",
                          getIdentifiedJob(jobId),
                          YOU_DO_NOT_HAVE_PERMISSION_TO_GET_THE_STATE_OF_THIS_TASK);
-        return Lambda.withLockException2(stateReadLock, () -> {
-            ClientJobState jobState = getClientJobState(jobId);
-            if (jobState == null) {
-                throw new UnknownJobException(jobId);
-            }
-            try {
-                jobState.readLock();
-                TaskState ts = jobState.getHMTasks().get(taskId);
-                if (ts == null) {
-                    throw new UnknownTaskException(taskId, jobId);
-                }
-                return ts;
-            } finally {
-                jobState.readUnlock();
+        ClientJobState jobState = getClientJobState(jobId);
+        if (jobState == null) {
+            throw new UnknownJobException(jobId);
+        }
+        try {
+            jobState.readLock();
+            TaskState ts = jobState.getHMTasks().get(taskId);
+            if (ts == null) {
+                throw new UnknownTaskException(taskId, jobId);
             }
-        }, UnknownJobException.class, UnknownTaskException.class);
+            return ts;
+        } finally {
+            jobState.readUnlock();
+        }
     }
 
     TaskState getTaskState(JobId jobId, String taskName)
@@ -901,31 +901,29 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
                          getIdentifiedJob(jobId),
                          YOU_DO_NOT_HAVE_PERMISSION_TO_GET_THE_STATE_OF_THIS_TASK);
 
-        return Lambda.withLockException2(stateReadLock, () -> {
-            ClientJobState jobState = getClientJobState(jobId);
-            if (jobState == null) {
-                throw new UnknownJobException(jobId);
-            }
-            TaskId taskId = null;
-            for (TaskId t : getJobTasks(jobId)) {
-                if (t.getReadableName().equals(taskName)) {
-                    taskId = t;
-                }
-            }
-            if (taskId == null) {
-                throw new UnknownTaskException(taskName, jobId);
+        ClientJobState jobState = getClientJobState(jobId);
+        if (jobState == null) {
+            throw new UnknownJobException(jobId);
+        }
+        TaskId taskId = null;
+        for (TaskId t : getJobTasks(jobId)) {
+            if (t.getReadableName().equals(taskName)) {
+                taskId = t;
             }
-            try {
-                jobState.readLock();
-                TaskState ts = jobState.getHMTasks().get(taskId);
-                if (ts == null) {
-                    throw new UnknownTaskException(taskId, jobId);
-                }
-                return ts;
-            } finally {
-                jobState.readUnlock();
+        }
+        if (taskId == null) {
+            throw new UnknownTaskException(taskName, jobId);
+        }
+        try {
+            jobState.readLock();
+            TaskState ts = jobState.getHMTasks().get(taskId);
+            if (ts == null) {
+                throw new UnknownTaskException(taskId, jobId);
             }
-        }, UnknownJobException.class, UnknownTaskException.class);
+            return ts;
+        } finally {
+            jobState.readUnlock();
+        }
     }
 
     TaskId getTaskId(JobId jobId, String taskName) throws UnknownTaskException, UnknownJobException {
@@ -1288,6 +1286,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
                     return;
             }
         });
+        stateVersion.incrementAndGet();
         // send the event for all case, except default
         dispatchSchedulerStateUpdated(eventType);
         this.jmxHelper.getSchedulerRuntimeMBean().schedulerStateUpdatedEvent(eventType);
@@ -1300,6 +1299,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
             jobsMap.put(job.getId(), storedJobState);
             schedulerState.update(storedJobState);
         });
+        stateVersion.incrementAndGet();
         dispatchJobSubmitted(job);
     }
 
@@ -1310,7 +1310,9 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
                 // removing jobs from the global list : this job is no more managed
                 schedulerState.removeFinished(notification.getData().getJobId());
                 jobsMap.remove(notification.getData().getJobId());
-                finishedJobsLRUCache.remove(notification.getData().getJobId());
+                synchronized (finishedJobsLRUCache) {
+                    finishedJobsLRUCache.remove(notification.getData().getJobId());
+                }
                 jobs.remove(notification.getData().getJobId());
                 logger.debug("HOUSEKEEPING removed the finished job " + notification.getData().getJobId() +
                              " from the SchedulerFrontEndState");
@@ -1361,6 +1363,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
                 }
             }
         });
+        stateVersion.incrementAndGet();
         dispatchJobStateUpdated(owner, notification);
     }
 
@@ -1455,21 +1458,70 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
     }
 
     ClientJobState getClientJobState(JobId jobId) {
-        return Lambda.withLock(stateReadLock, () -> {
-            if (!jobsMap.containsKey(jobId)) {
-                if (!finishedJobsLRUCache.containsKey(jobId)) {
-                    List<InternalJob> internalJobs = dbManager.loadInternalJob(jobId.longValue());
-                    if (!internalJobs.isEmpty()) {
-                        InternalJob internalJob = internalJobs.get(0);
-                        ClientJobState clientJobState = new ClientJobState(internalJob);
-                        finishedJobsLRUCache.put(jobId, clientJobState);
-                    }
-                }
-                return finishedJobsLRUCache.get(jobId);
-            } else {
-                return jobsMap.get(jobId);
-            }
-        });
+        ClientJobState jobState = jobsMap.get(jobId);
+        if (jobState != null) {
+            return jobState;
+        }
+        synchronized (finishedJobsLRUCache) {
+            jobState = finishedJobsLRUCache.get(jobId);
+        }
+        if (jobState != null) {
+            return jobState;
+        }
+        // the job is loaded without holding any lock, a concurrent load of the same job keeps the first one
+        List<InternalJob> internalJobs = dbManager.loadInternalJob(jobId.longValue());
+        if (internalJobs.isEmpty()) {
+            return null;
+        }
+        ClientJobState loadedJobState = new ClientJobState(internalJobs.get(0));
+        synchronized (finishedJobsLRUCache) {
+            jobState = finishedJobsLRUCache.putIfAbsent(jobId, loadedJobState);
+        }
+        return jobState != null ? jobState : loadedJobState;
+    }
+
+    /**
+     * Returns the last snapshot of the scheduler state, taking a new one if the state changed since.
+     * Readers share the snapshots, and only copy the job lists when the state changed.
+     */
+    SchedulerStateImpl<ClientJobState> getStateSnapshot() {
+        return getStateSnapshotHolder().state;
+    }
+
+    private StateSnapshot getStateSnapshotHolder() {
+        StateSnapshot snapshot = stateSnapshot;
+        long version = stateVersion.get();
+        if (snapshot != null && snapshot.version == version) {
+            return snapshot;
+        }
+        // the version is read before the copy, so the copy is at least as recent as the version
+        StateSnapshot newSnapshot = new StateSnapshot(version, schedulerState.snapshot());
+        snapshot = stateSnapshot;
+        if (snapshot == null || snapshot.version < version) {
+            stateSnapshot = newSnapshot;
+        }
+        return newSnapshot;
+    }
+
+    /**
+     * Immutable view of the job lists of the scheduler state, with the views of each user computed on demand.
+     */
+    private static final class StateSnapshot {
+
+        private final long version;
+
+        private final SchedulerStateImpl<ClientJobState> state;
+
+        private final Map<String, SchedulerState> userStates = new ConcurrentHashMap<>();
+
+        private StateSnapshot(long version, SchedulerStateImpl<ClientJobState> state) {
+            this.version = version;
+            this.state = state;
+        }
+
+        private SchedulerState getUserState(String username) {
+            return userStates.computeIfAbsent(username, state::filterOnUser);
+        }
     }
 
     IdentifiedJob toIdentifiedJob(ClientJobState clientJobState) {
@@ -124,6 +124,18 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
 
     private SchedulingMainLoopTimingLogger schedulingMainLoopTimingLogger;
 
+    /** Resource manager state already retrieved by the current scheduling loop, if any */
+    private RMState prefetchedRMState;
+
+    /** Version of the ready jobs examined by the last complete scheduling loop (incremental mode only) */
+    private long lastReadyJobsVersion = -1;
+
+    /** Free nodes seen by the last complete scheduling loop (incremental mode only) */
+    private Set<String> lastFreeResources = Collections.emptySet();
+
+    /** Time of the last complete scheduling loop (incremental mode only) */
+    private long lastCompleteLoopTime;
+
     public SchedulingMethodImpl(SchedulingService schedulingService) throws Exception {
         this.schedulingService = schedulingService;
         this.checkEligibleTaskDescriptorScript = new CheckEligibleTaskDescriptorScript();
@@ -177,6 +189,11 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
         //Number of time to retry an active object creation before leaving scheduling loop
         activeObjectCreationRetryTimeNumber = ACTIVEOBJECT_CREATION_RETRY_TIME_NUMBER;
 
+        // in incremental mode, nothing can be started if neither jobs nor free nodes changed since the last loop
+        if (schedulingService.isIncrementalScheduling() && !hasSchedulingStateChanged()) {
+            return 0;
+        }
+
         //get job Descriptor list with eligible jobs (running and pending)
         Map<JobId, JobDescriptor> jobMap = schedulingService.lockJobsToSchedule();
 
@@ -200,6 +217,33 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
         return tasksStarted;
     }
 
+    /**
+     * Checks if a job may have got new tasks to schedule or if the set of free nodes changed since the last
+     * complete scheduling loop. A complete loop is forced at least every
+     * {@link PASchedulerProperties#SCHEDULER_INCREMENTAL_SCHEDULING_RESYNC_PERIOD} milliseconds.
+     * The resource manager state retrieved here is reused by the current loop.
+     *
+     * @return true if the scheduling loop must be executed
+     */
+    private boolean hasSchedulingStateChanged() {
+        long readyJobsVersion = schedulingService.getReadyJobsVersion();
+        RMState rmState = getRMProxiesManager().getRmProxy().getState();
+        Set<String> freeResources = rmState.getFreeNodes();
+        long now = System.currentTimeMillis();
+
+        if (readyJobsVersion == lastReadyJobsVersion && freeResources.equals(lastFreeResources) &&
+            now - lastCompleteLoopTime < PASchedulerProperties.SCHEDULER_INCREMENTAL_SCHEDULING_RESYNC_PERIOD.getValueAsInt()) {
+            logger.trace("No change since last scheduling loop");
+            return false;
+        }
+
+        lastReadyJobsVersion = readyJobsVersion;
+        lastFreeResources = new HashSet<>(freeResources);
+        lastCompleteLoopTime = now;
+        prefetchedRMState = rmState;
+        return true;
+    }
+
     private void updateNeededNodes() {
         updateNeededNodes(Collections.EMPTY_LIST);
     }
@@ -267,18 +311,20 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
                                                                                            .equals(TaskStatus.PENDING))
                                                                       .collect(Collectors.toList());
 
+        long scheduledTime = System.currentTimeMillis();
         notPendingYet.forEach(task -> {
             if (task.getInternal().getScheduledTime() == -1) {
-                task.getInternal().setScheduledTime(System.currentTimeMillis());
+                task.getInternal().setScheduledTime(scheduledTime);
             }
             task.getInternal().setStatus(TaskStatus.PENDING);
         });
 
-        notPendingYet.forEach(task -> {
-            getDBManager().updateTaskStatusAndScheduledTime(task,
-                                                            TaskStatus.PENDING,
-                                                            task.getInternal().getScheduledTime());
-        });
+        if (!notPendingYet.isEmpty()) {
+            getDBManager().updateTasksStatusAndScheduledTime(notPendingYet.stream()
+                                                                          .map(EligibleTaskDescriptorImpl::getInternal)
+                                                                          .collect(Collectors.toList()),
+                                                             TaskStatus.PENDING);
+        }
 
     }
 
@@ -295,7 +341,11 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
     }
 
     private Set<String> getFreeResources(Policy currentPolicy) {
-        RMState rmState = getRMProxiesManager().getRmProxy().getState();
+        RMState rmState = prefetchedRMState;
+        prefetchedRMState = null;
+        if (rmState == null) {
+            rmState = getRMProxiesManager().getRmProxy().getState();
+        }
         currentPolicy.setRMState(rmState);
         Set<String> freeResources = rmState.getFreeNodes();
         if (logger.isDebugEnabled()) {
@@ -338,6 +388,8 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
 
             schedulingMainLoopTimingLogger.start("loadAndInit");
 
+            loadExecutableContainers(taskRetrievedFromPolicy);
+
             for (Iterator<EligibleTaskDescriptor> iterator = taskRetrievedFromPolicy.iterator(); iterator.hasNext();) {
                 EligibleTaskDescriptorImpl taskDescriptor = (EligibleTaskDescriptorImpl) iterator.next();
                 // load and Initialize the executable container
@@ -733,14 +785,38 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
         }
     }
 
+    /**
+     * Loads at once the executable containers of all given tasks which are not yet initialized.
+     * Tasks which could not be loaded here are handled individually by {@link #loadAndInit(InternalTask)}.
+     */
+    private void loadExecutableContainers(List<EligibleTaskDescriptor> taskDescriptors) {
+        List<InternalTask> tasksToLoad = taskDescriptors.stream()
+                                                        .map(taskDescriptor -> ((EligibleTaskDescriptorImpl) taskDescriptor).getInternal())
+                                                        .filter(this::needsExecutableContainer)
+                                                        .collect(Collectors.toList());
+        if (tasksToLoad.isEmpty()) {
+            return;
+        }
+        try {
+            getDBManager().loadExecutableContainers(tasksToLoad);
+        } catch (Exception e) {
+            logger.warn("Error when loading " + tasksToLoad.size() +
+                        " task definitions from the database, they will be loaded one by one", e);
+        }
+    }
+
+    private boolean needsExecutableContainer(InternalTask task) {
+        return (task.getExecutableContainer() == null) ||
+               ((ScriptExecutableContainer) task.getExecutableContainer()).getScript() == null;
+    }
+
     /**
      * Load and initialize the task to be started
      *
      * @param task the task to be initialized
      */
     protected void loadAndInit(InternalTask task) {
-        if ((task.getExecutableContainer() == null) ||
-            ((ScriptExecutableContainer) task.getExecutableContainer()).getScript() == null) {
+        if (needsExecutableContainer(task)) {
             tlogger.debug(task.getId(), "initializing the executable container");
             ExecutableContainer container = getDBManager().loadExecutableContainer(task);
             task.setExecutableContainer(container);
@@ -844,6 +920,7 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
                     threadPool.submitWithTimeout(new TimedDoTaskAction(job,
                                                                        taskDescriptor,
                                                                        launcher,
+                                                                       node,
                                                                        schedulingService,
                                                                        terminateNotification,
                                                                        corePrivateKey,
@@ -108,6 +108,8 @@ public class SchedulingService {
 
     private final ListenJobLogsSupport listenJobLogsSupport;
 
+    private final JobCredentialsCache jobCredentialsCache;
+
     volatile SchedulerStatus status = SchedulerStatus.STOPPED;
 
     private volatile Policy policy;
@@ -137,6 +139,7 @@ public class SchedulingService {
             recover(recoveredState);
         }
         this.listenJobLogsSupport = ListenJobLogsSupport.newInstance(infrastructure.getDBManager(), jobs);
+        this.jobCredentialsCache = new JobCredentialsCache(infrastructure.getDBManager());
 
         this.policy = (Policy) Class.forName(policyClassName).newInstance();
         if (!this.policy.reloadConfig()) {
@@ -405,6 +408,10 @@ public class SchedulingService {
         return listenJobLogsSupport;
     }
 
+    public JobCredentialsCache getJobCredentialsCache() {
+        return jobCredentialsCache;
+    }
+
     public boolean reloadPolicyConfiguration() {
         if (status.isShuttingDown()) {
             logger.warn("Policy configuration can only be reloaded when Scheduler is up, current state : " + status);
@@ -471,6 +478,20 @@ public class SchedulingService {
         return jobs.lockJobsToSchedule(isPausedOrStopped());
     }
 
+    /*
+     * Should be called only by scheduling method impl when job scheduling starts
+     */
+    public boolean isIncrementalScheduling() {
+        return jobs.isIncrementalScheduling();
+    }
+
+    /*
+     * Should be called only by scheduling method impl when job scheduling starts
+     */
+    public long getReadyJobsVersion() {
+        return jobs.getReadyJobsVersion();
+    }
+
     /*
      * Should be called only by scheduling method impl when job scheduling starts
      */
@@ -931,6 +952,30 @@ public class SchedulingService {
         });
     }
 
+    /**
+     * Records the heartbeats sent by a node for its running tasks, and publishes their progress changes.
+     */
+    public void taskHeartbeats(final Collection<TaskId> aliveTasks, final Map<TaskId, Integer> progressChanges) {
+        long now = System.currentTimeMillis();
+        for (TaskId taskId : aliveTasks) {
+            RunningTaskData taskData = jobs.getRunningTask(taskId);
+            if (taskData != null) {
+                taskData.heartbeatReceived(now);
+            }
+        }
+        if (progressChanges.isEmpty()) {
+            return;
+        }
+        infrastructure.getInternalOperationsThreadPool().submit(() -> {
+            for (Map.Entry<TaskId, Integer> progressChange : progressChanges.entrySet()) {
+                RunningTaskData taskData = jobs.getRunningTask(progressChange.getKey());
+                if (taskData != null) {
+                    updateTaskProgress(taskData, progressChange.getValue());
+                }
+            }
+        });
+    }
+
     void handleException(Throwable t) {
         logger.error("Unexpected exception in the scheduling thread - checking the connection to resource manager", t);
         try {
@@ -1059,6 +1104,7 @@ public class SchedulingService {
     void terminateJobHandling(final JobId jobId, final Map<String, String> jobGenericInfo) {
         try {
             listenJobLogsSupport.cleanLoggers(jobId);
+            jobCredentialsCache.removeJob(jobId);
             jlogger.close(jobId);
 
             long removeDelay = Long.MAX_VALUE;
@@ -1198,20 +1244,25 @@ public class SchedulingService {
         InternalTask task = taskData.getTask();
         try {
             int progress = taskData.getLauncher().getProgress();//(2)
-            //get previous inside td
-            if (progress != task.getProgress()) {
-                task.setProgress(progress);//(1)
-                //if progress != previously set progress (0 by default) -> update
-                listener.taskStateUpdated(taskData.getUser(),
-                                          new NotificationData<TaskInfo>(SchedulerEvent.TASK_PROGRESS,
-                                                                         new TaskInfoImpl((TaskInfoImpl) task.getTaskInfo())));
-            }
+            updateTaskProgress(taskData, progress);
         } catch (Throwable t) {
             tlogger.debug(task.getId(), "TaskLauncher is not accessible, checking if the node can be reached.", t);
             pingTaskNodeAndInitiateRestart(task);
         }
     }
 
+    private void updateTaskProgress(RunningTaskData taskData, int progress) {
+        InternalTask task = taskData.getTask();
+        //get previous inside td
+        if (progress != task.getProgress()) {
+            task.setProgress(progress);//(1)
+            //if progress != previously set progress (0 by default) -> update
+            listener.taskStateUpdated(taskData.getUser(),
+                                      new NotificationData<TaskInfo>(SchedulerEvent.TASK_PROGRESS,
+                                                                     new TaskInfoImpl((TaskInfoImpl) task.getTaskInfo())));
+        }
+    }
+
     private void pingTaskNodeAndInitiateRestart(InternalTask task) {
 
         RunningTaskData runningTask = jobs.getRunningTask(task.getId());
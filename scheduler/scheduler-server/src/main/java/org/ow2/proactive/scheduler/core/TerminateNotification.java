@@ -25,14 +25,18 @@
  */
 package org.ow2.proactive.scheduler.core;
 
+import java.util.Collection;
+import java.util.Map;
+
 import org.objectweb.proactive.extensions.annotation.ActiveObject;
+import org.ow2.proactive.scheduler.common.TaskHeartbeatNotification;
 import org.ow2.proactive.scheduler.common.TaskTerminateNotification;
 import org.ow2.proactive.scheduler.common.task.TaskId;
 import org.ow2.proactive.scheduler.common.task.TaskResult;
 
 
 @ActiveObject
-public class TerminateNotification implements TaskTerminateNotification {
+public class TerminateNotification implements TaskTerminateNotification, TaskHeartbeatNotification {
 
     private SchedulingService schedulingService;
 
@@ -49,4 +53,9 @@ public class TerminateNotification implements TaskTerminateNotification {
         schedulingService.taskTerminatedWithResult(taskId, taskResult);
     }
 
+    @Override
+    public void taskHeartbeats(Collection<TaskId> aliveTasks, Map<TaskId, Integer> progressChanges) {
+        schedulingService.taskHeartbeats(aliveTasks, progressChanges);
+    }
+
 }
@@ -33,16 +33,14 @@ import java.util.*;
 
 import org.apache.commons.collections4.ListUtils;
 import org.apache.log4j.Logger;
+import org.objectweb.proactive.core.node.Node;
 import org.ow2.proactive.authentication.crypto.CredData;
 import org.ow2.proactive.authentication.crypto.Credentials;
-import org.ow2.proactive.authentication.crypto.HybridEncryptionUtil;
-import org.ow2.proactive.authentication.crypto.HybridEncryptionUtil.HybridEncryptedData;
 import org.ow2.proactive.scheduler.common.TaskDescriptor;
 import org.ow2.proactive.scheduler.common.TaskTerminateNotification;
 import org.ow2.proactive.scheduler.common.job.JobType;
 import org.ow2.proactive.scheduler.common.task.TaskId;
 import org.ow2.proactive.scheduler.common.task.TaskResult;
-import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptorImpl;
 import org.ow2.proactive.scheduler.job.InternalJob;
 import org.ow2.proactive.scheduler.task.TaskLauncher;
@@ -71,6 +69,8 @@ public class TimedDoTaskAction implements CallableWithTimeoutAction<Void> {
 
     private final TaskLauncher launcher;
 
+    private final Node node;
+
     private final SchedulingService schedulingService;
 
     private final TaskTerminateNotification terminateNotification;
@@ -87,15 +87,17 @@ public class TimedDoTaskAction implements CallableWithTimeoutAction<Void> {
      * Create a new instance of TimedDoTaskAction
      *
      * @param launcher the launcher of the task
+     * @param node the node on which the launcher has been created
      * @param taskRecoveryData data used for task recovery
      */
-    public TimedDoTaskAction(InternalJob job, TaskDescriptor taskDescriptor, TaskLauncher launcher,
+    public TimedDoTaskAction(InternalJob job, TaskDescriptor taskDescriptor, TaskLauncher launcher, Node node,
             SchedulingService schedulingService, TaskTerminateNotification terminateNotification,
             PrivateKey corePrivateKey, TaskRecoveryData taskRecoveryData) {
         this.job = job;
         this.taskDescriptor = taskDescriptor;
         this.task = ((EligibleTaskDescriptorImpl) taskDescriptor).getInternal();
         this.launcher = launcher;
+        this.node = node;
         this.schedulingService = schedulingService;
         this.terminateNotification = terminateNotification;
         this.corePrivateKey = corePrivateKey;
@@ -161,16 +163,10 @@ public class TimedDoTaskAction implements CallableWithTimeoutAction<Void> {
     }
 
     private void createAndSetCredentials() throws KeyException, NoSuchAlgorithmException {
-        CredData decryptedUserCredentials = job.getCredentials().decrypt(corePrivateKey);
-
-        if (PASchedulerProperties.SCHEDULER_AUTH_GLOBAL_DOMAIN.isSet() &&
-            decryptedUserCredentials.getDomain() == null) {
-            decryptedUserCredentials.setDomain(PASchedulerProperties.SCHEDULER_AUTH_GLOBAL_DOMAIN.getValueAsString());
-        }
-
-        enrichWithThirdPartyCredentials(decryptedUserCredentials);
+        JobCredentialsCache credentialsCache = schedulingService.getJobCredentialsCache();
+        CredData decryptedUserCredentials = credentialsCache.getCredData(job, corePrivateKey);
 
-        PublicKey nodePublicKey = launcher.generatePublicKey();
+        PublicKey nodePublicKey = credentialsCache.getNodePublicKey(node, launcher);
         Credentials nodeEncryptedUserCredentials = Credentials.createCredentials(decryptedUserCredentials,
                                                                                  nodePublicKey);
 
@@ -183,17 +179,6 @@ public class TimedDoTaskAction implements CallableWithTimeoutAction<Void> {
                                 .hasThirdPartyCredentials(job.getJobInfo().getJobOwner());
     }
 
-    private void enrichWithThirdPartyCredentials(CredData decryptedUserCredentials) throws KeyException {
-        Map<String, HybridEncryptedData> thirdPartyCredentials = schedulingService.getInfrastructure()
-                                                                                  .getDBManager()
-                                                                                  .thirdPartyCredentialsMap(job.getJobInfo()
-                                                                                                               .getJobOwner());
-        for (Map.Entry<String, HybridEncryptedData> thirdPartyCredential : thirdPartyCredentials.entrySet()) {
-            String decryptedValue = HybridEncryptionUtil.decryptString(thirdPartyCredential.getValue(), corePrivateKey);
-            decryptedUserCredentials.addThirdPartyCredential(thirdPartyCredential.getKey(), decryptedValue);
-        }
-    }
-
     /**
      * {@inheritDoc}
      */
@@ -211,6 +196,8 @@ public class TimedDoTaskAction implements CallableWithTimeoutAction<Void> {
             return;
         }
         logger.info("Trying to restart task '" + task.getId() + "'");
+        // the key of the node is requested again at the next task start
+        schedulingService.getJobCredentialsCache().removeNode(node);
         schedulingService.restartTaskOnNodeFailure(task);
         taskWasRestarted = true;
     }
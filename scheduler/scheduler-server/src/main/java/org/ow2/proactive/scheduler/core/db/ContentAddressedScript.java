@@ -0,0 +1,52 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+/**
+ * Script row whose content is either stored inline or referenced by its hash in {@link ScriptContentData}.
+ * <p>
+ * Rows written before the contents were deduplicated only have an inline content, new rows reference
+ * a stored content and are resolved by {@link ScriptContentStore} when they are loaded.
+ */
+public interface ContentAddressedScript {
+
+    /**
+     * Returns the inline content, null if the content is referenced by its hash.
+     */
+    String getScript();
+
+    void setScript(String script);
+
+    String getContentHash();
+
+    void setContentHash(String contentHash);
+
+    /**
+     * Sets the content referenced by the hash, it is not persisted.
+     */
+    void resolveContent(String content);
+
+}
@@ -44,9 +44,12 @@ public class HousekeepingSessionWork implements SessionWork<Void> {
 
     private static boolean shouldRemoveFromDb;
 
-    public HousekeepingSessionWork(List<Long> jobIdList, boolean shouldRemoveFromDb) {
+    private final JobCounters jobCounters;
+
+    HousekeepingSessionWork(List<Long> jobIdList, boolean shouldRemoveFromDb, JobCounters jobCounters) {
         HousekeepingSessionWork.jobIdList = jobIdList;
         HousekeepingSessionWork.shouldRemoveFromDb = shouldRemoveFromDb;
+        this.jobCounters = jobCounters;
     }
 
     private void deleteInconsistentData(Session session) {
@@ -92,6 +95,7 @@ public class HousekeepingSessionWork implements SessionWork<Void> {
         session.createSQLQuery("delete from JOB_CONTENT where JOB_ID in :jobIdList")
                .setParameterList("jobIdList", jobIdList)
                .executeUpdate();
+        jobCounters.jobsRemoving(session, jobIdList);
         session.getNamedQuery("deleteJobDataInBulk").setParameterList("jobIdList", jobIdList).executeUpdate();
         deleteInconsistentData(session);
     }
@@ -0,0 +1,124 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import org.ow2.proactive.scheduler.common.job.JobStatus;
+
+
+/**
+ * Number of jobs of an owner in a given status, maintained by {@link JobCounters}.
+ * <p>
+ * Child jobs are counted separately, so that listings which exclude them can be counted as well.
+ */
+@Entity
+@NamedQueries({ @NamedQuery(name = "updateJobCounter", query = "update JobCounterData set jobCount = jobCount + :delta " +
+                                                               "where owner = :owner and status = :status and childJob = :childJob"),
+                @NamedQuery(name = "deleteEmptyJobCounter", query = "delete from JobCounterData where owner = :owner and " +
+                                                                    "status = :status and childJob = :childJob and jobCount = 0"),
+                @NamedQuery(name = "deleteAllJobCounters", query = "delete from JobCounterData"),
+                @NamedQuery(name = "countJobCounterData", query = "select count (*) from JobCounterData") })
+@Table(name = "JOB_COUNTER_DATA", uniqueConstraints = @UniqueConstraint(name = "JOB_COUNTER_KEY", columnNames = { "OWNER",
+                                                                                                                  "STATUS",
+                                                                                                                  "CHILD_JOB" }))
+public class JobCounterData {
+
+    private long id;
+
+    private String owner;
+
+    private JobStatus status;
+
+    private boolean childJob;
+
+    private long jobCount;
+
+    public JobCounterData() {
+    }
+
+    JobCounterData(String owner, JobStatus status, boolean childJob, long jobCount) {
+        this.owner = owner;
+        this.status = status;
+        this.childJob = childJob;
+        this.jobCount = jobCount;
+    }
+
+    @Id
+    @GeneratedValue
+    @Column(name = "ID")
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    @Column(name = "OWNER", nullable = false)
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    @Column(name = "STATUS", nullable = false)
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(JobStatus status) {
+        this.status = status;
+    }
+
+    @Column(name = "CHILD_JOB", nullable = false)
+    public boolean isChildJob() {
+        return childJob;
+    }
+
+    public void setChildJob(boolean childJob) {
+        this.childJob = childJob;
+    }
+
+    @Column(name = "JOB_COUNT", nullable = false)
+    public long getJobCount() {
+        return jobCount;
+    }
+
+    public void setJobCount(long jobCount) {
+        this.jobCount = jobCount;
+    }
+
+}
@@ -0,0 +1,228 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+import org.apache.log4j.Logger;
+import org.hibernate.Query;
+import org.hibernate.Session;
+import org.ow2.proactive.db.SessionWork;
+import org.ow2.proactive.db.TransactionHelper;
+import org.ow2.proactive.scheduler.common.job.JobStatus;
+
+
+/**
+ * Maintains the number of jobs per owner and status stored in {@link JobCounterData}.
+ * <p>
+ * The transactions which insert, update or delete the {@link JobData} rows register the changes of the
+ * counters, which are applied once they are committed, in a short transaction of their own. The counter rows
+ * are thus never locked while a job is saved, and counting jobs reads a few counter rows instead of scanning
+ * the jobs table. The counters are rebuilt from the jobs table when the scheduler starts.
+ */
+final class JobCounters {
+
+    private static final Logger logger = Logger.getLogger(JobCounters.class);
+
+    private final TransactionHelper transactionHelper;
+
+    /** Changes of the counters committed with the jobs and not applied yet, by owner, status and child job */
+    private final Map<List<Object>, Long> pendingChanges = new ConcurrentHashMap<>();
+
+    private final Object applyLock = new Object();
+
+    JobCounters(TransactionHelper transactionHelper) {
+        this.transactionHelper = transactionHelper;
+    }
+
+    /**
+     * Counts a job which has just been saved.
+     */
+    void jobAdded(Session session, JobData jobData) {
+        Map<List<Object>, Long> changes = new HashMap<>();
+        change(changes, jobData.getOwner(), jobData.getStatus(), jobData.getParentId() != null, 1);
+        applyAfterCommit(session, changes);
+    }
+
+    /**
+     * Moves a job to the counter of its new status, must be called before the status of the job is updated.
+     * <p>
+     * The updates of a job are serialized by the scheduling core, so the status read here is the one replaced.
+     */
+    void jobStatusChanging(Session session, long jobId, JobStatus newStatus) {
+        Object[] job = (Object[]) session.getNamedQuery("findJobOwnerAndStatus").setParameter("id", jobId).uniqueResult();
+        if (job == null || job[1] == newStatus) {
+            return;
+        }
+        String owner = (String) job[0];
+        boolean childJob = job[2] != null;
+        Map<List<Object>, Long> changes = new HashMap<>();
+        change(changes, owner, (JobStatus) job[1], childJob, -1);
+        change(changes, owner, newStatus, childJob, 1);
+        applyAfterCommit(session, changes);
+    }
+
+    /**
+     * Removes from the counters the jobs about to be deleted.
+     */
+    @SuppressWarnings("unchecked")
+    void jobsRemoving(Session session, List<Long> jobIds) {
+        List<Object[]> jobs = session.getNamedQuery("findJobsOwnerAndStatus").setParameterList("ids", jobIds).list();
+        Map<List<Object>, Long> changes = new HashMap<>();
+        for (Object[] job : jobs) {
+            change(changes, (String) job[0], (JobStatus) job[1], job[2] != null, -1);
+        }
+        applyAfterCommit(session, changes);
+    }
+
+    /**
+     * Returns the number of jobs in the given statuses.
+     *
+     * @param owner owner of the jobs, or null to count the jobs of all users
+     * @param childJobs whether child jobs are counted
+     */
+    static long count(Session session, String owner, Collection<JobStatus> statuses, boolean childJobs) {
+        if (statuses.isEmpty()) {
+            return 0;
+        }
+        StringBuilder queryString = new StringBuilder("select sum(jobCount) from JobCounterData where status in (:statuses)");
+        if (owner != null) {
+            queryString.append(" and owner = :owner");
+        }
+        if (!childJobs) {
+            queryString.append(" and childJob = :childJob");
+        }
+        Query query = session.createQuery(queryString.toString()).setParameterList("statuses", statuses);
+        if (owner != null) {
+            query.setParameter("owner", owner);
+        }
+        if (!childJobs) {
+            query.setParameter("childJob", false);
+        }
+        Long count = (Long) query.uniqueResult();
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Recomputes all the counters from the jobs table.
+     */
+    static void rebuild(Session session) {
+        session.getNamedQuery("deleteAllJobCounters").executeUpdate();
+        saveCounters(session, "countJobsPerOwnerAndStatus", false);
+        saveCounters(session, "countChildJobsPerOwnerAndStatus", true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void saveCounters(Session session, String countQueryName, boolean childJob) {
+        List<Object[]> counts = session.getNamedQuery(countQueryName).list();
+        for (Object[] count : counts) {
+            session.save(new JobCounterData((String) count[0], (JobStatus) count[1], childJob, (Long) count[2]));
+        }
+    }
+
+    private static void change(Map<List<Object>, Long> changes, String owner, JobStatus status, boolean childJob,
+            long delta) {
+        changes.merge(Arrays.asList(owner, status, childJob), delta, Long::sum);
+    }
+
+    private void applyAfterCommit(Session session, Map<List<Object>, Long> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        session.getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    changes.forEach((counter, delta) -> pendingChanges.merge(counter, delta, Long::sum));
+                    applyPendingChanges();
+                }
+            }
+        });
+    }
+
+    /**
+     * Applies the changes committed so far, including the ones of the other threads. The changes are applied by
+     * one thread at a time, so that two transactions never insert the same counter.
+     */
+    private void applyPendingChanges() {
+        synchronized (applyLock) {
+            Map<List<Object>, Long> changes = new HashMap<>();
+            for (List<Object> counter : pendingChanges.keySet()) {
+                Long delta = pendingChanges.remove(counter);
+                if (delta != null && delta != 0) {
+                    changes.put(counter, delta);
+                }
+            }
+            if (changes.isEmpty()) {
+                return;
+            }
+            try {
+                transactionHelper.executeReadWriteTransaction((SessionWork<Void>) session -> {
+                    for (Map.Entry<List<Object>, Long> change : changes.entrySet()) {
+                        List<Object> counter = change.getKey();
+                        add(session, (String) counter.get(0), (JobStatus) counter.get(1), (Boolean) counter.get(2),
+                            change.getValue());
+                    }
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                logger.warn("Failed to update the job counters, the update will be retried with the next one", e);
+                changes.forEach((counter, delta) -> pendingChanges.merge(counter, delta, Long::sum));
+            }
+        }
+    }
+
+    private static void add(Session session, String owner, JobStatus status, boolean childJob, long delta) {
+        int updated = session.getNamedQuery("updateJobCounter")
+                             .setParameter("delta", delta)
+                             .setParameter("owner", owner)
+                             .setParameter("status", status)
+                             .setParameter("childJob", childJob)
+                             .executeUpdate();
+        if (updated == 0) {
+            session.save(new JobCounterData(owner, status, childJob, delta));
+        } else if (delta < 0) {
+            session.getNamedQuery("deleteEmptyJobCounter")
+                   .setParameter("owner", owner)
+                   .setParameter("status", status)
+                   .setParameter("childJob", childJob)
+                   .executeUpdate();
+        }
+    }
+
+}
@@ -83,14 +83,15 @@ import com.google.common.collect.Lists;
                 @NamedQuery(name = "checkJobExistence", query = "select id from JobData where id = :id"),
                 @NamedQuery(name = "countJobDataFinished", query = "select count (*) from JobData where status = 3"),
                 @NamedQuery(name = "countJobData", query = "select count (*) from JobData"),
+                @NamedQuery(name = "countJobsPerOwnerAndStatus", query = "select owner, status, count(*) from JobData where parentId is null group by owner, status"),
+                @NamedQuery(name = "countChildJobsPerOwnerAndStatus", query = "select owner, status, count(*) from JobData where parentId is not null group by owner, status"),
+                @NamedQuery(name = "findJobOwnerAndStatus", query = "select owner, status, parentId from JobData where id = :id"),
+                @NamedQuery(name = "findJobsOwnerAndStatus", query = "select owner, status, parentId from JobData where id in (:ids)"),
                 @NamedQuery(name = "findUsersWithJobs", query = "select owner, count(owner), max(submittedTime) from JobData group by owner"),
-                @NamedQuery(name = "getJobsNumberWithStatus", query = "select count(*) from JobData where status in (:status)"),
-                @NamedQuery(name = "getJobsNumberWithStatusUsername", query = "select count(*) from JobData where owner = :username and status in (:status)"),
                 @NamedQuery(name = "getJobSubmittedTime", query = "select submittedTime from JobData where id = :id"),
                 @NamedQuery(name = "getMeanJobExecutionTime", query = "select avg(finishedTime - startTime) from JobData where startTime > 0 and finishedTime > 0"),
                 @NamedQuery(name = "getMeanJobPendingTime", query = "select avg(startTime - submittedTime) from JobData where startTime > 0 and submittedTime > 0"),
                 @NamedQuery(name = "getMeanJobSubmittingPeriod", query = "select count(*), min(submittedTime), max(submittedTime) from JobData"),
-                @NamedQuery(name = "getTotalJobsCount", query = "select count(*) from JobData"),
                 @NamedQuery(name = "loadInternalJobs", query = "from JobData as job where job.id in (:ids)"),
                 @NamedQuery(name = "loadJobs", query = "select id from JobData where status in (:status)"),
                 @NamedQuery(name = "loadJobsWithPeriod", query = "select id from JobData where status in (:status) and submittedTime >= :minSubmittedTime"),
@@ -133,6 +134,8 @@ import com.google.common.collect.Lists;
                                       @Index(name = "JOB_DATA_REMOVE_TIME", columnList = "REMOVE_TIME"),
                                       @Index(name = "JOB_DATA_START_TIME", columnList = "START_TIME"),
                                       @Index(name = "JOB_DATA_SUBMIT_TIME", columnList = "SUBMIT_TIME"),
+                                      @Index(name = "JOB_DATA_SUBMIT_TIME_ID", columnList = "SUBMIT_TIME,ID"),
+                                      @Index(name = "JOB_DATA_OWNER_SUBMIT_TIME_ID", columnList = "OWNER,SUBMIT_TIME,ID"),
                                       @Index(name = "JOB_DATA_REMOVAL_TIME", columnList = "SCHEDULED_TIME_FOR_REMOVAL"),
                                       @Index(name = "JOB_DATA_STATUS", columnList = "STATUS"),
                                       @Index(name = "JOB_PARENT_JOB_ID", columnList = "PARENT_JOB_ID"),
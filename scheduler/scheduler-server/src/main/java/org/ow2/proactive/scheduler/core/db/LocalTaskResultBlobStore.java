@@ -0,0 +1,136 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+
+/**
+ * Stores the payloads in files of a local directory, in sub-directories named after the first two characters
+ * of their hash.
+ * <p>
+ * A payload is written to a temporary file which is then moved to its final name, so that a stored payload
+ * is always complete. Temporary files left behind by a crash are removed by {@link #init(String)}.
+ */
+public class LocalTaskResultBlobStore implements TaskResultBlobStore {
+
+    private static final Logger logger = Logger.getLogger(LocalTaskResultBlobStore.class);
+
+    private static final String TEMPORARY_EXTENSION = ".tmp";
+
+    private Path directory;
+
+    @Override
+    public void init(String location) throws IOException {
+        directory = new File(location).toPath();
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> subDirectories = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path subDirectory : subDirectories) {
+                try (DirectoryStream<Path> temporaryFiles = Files.newDirectoryStream(subDirectory,
+                                                                                     "*" + TEMPORARY_EXTENSION)) {
+                    for (Path temporaryFile : temporaryFiles) {
+                        Files.deleteIfExists(temporaryFile);
+                    }
+                }
+            }
+        }
+        logger.info("Task result blobs are stored in " + directory);
+    }
+
+    @Override
+    public void put(String hash, byte[] content) throws IOException {
+        Path file = path(hash);
+        if (Files.exists(file)) {
+            return;
+        }
+        Files.createDirectories(file.getParent());
+        Path temporaryFile = Files.createTempFile(file.getParent(), hash, TEMPORARY_EXTENSION);
+        try {
+            Files.write(temporaryFile, content);
+            try {
+                Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    @Override
+    public InputStream open(String hash) throws IOException {
+        try {
+            return new BufferedInputStream(Files.newInputStream(path(hash)));
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException("Task result blob " + hash + " not found");
+        }
+    }
+
+    @Override
+    public void delete(String hash) throws IOException {
+        Files.deleteIfExists(path(hash));
+    }
+
+    @Override
+    public Set<String> list() throws IOException {
+        Set<String> hashes = new HashSet<>();
+        try (DirectoryStream<Path> subDirectories = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path subDirectory : subDirectories) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(subDirectory)) {
+                    for (Path file : files) {
+                        String name = file.getFileName().toString();
+                        if (!name.endsWith(TEMPORARY_EXTENSION)) {
+                            hashes.add(name);
+                        }
+                    }
+                }
+            }
+        }
+        return hashes;
+    }
+
+    private Path path(String hash) {
+        if (hash.length() < 3 || hash.indexOf('/') >= 0 || hash.indexOf('\\') >= 0 || hash.indexOf('.') >= 0) {
+            throw new IllegalArgumentException("Invalid task result blob hash " + hash);
+        }
+        return directory.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+}
@@ -45,8 +45,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.log4j.Logger;
 import org.hibernate.Criteria;
 import org.hibernate.FetchMode;
@@ -64,12 +69,14 @@ import org.hibernate.service.ServiceRegistry;
 import org.hibernate.transform.DistinctRootEntityResultTransformer;
 import org.hibernate.type.StandardBasicTypes;
 import org.objectweb.proactive.core.config.CentralPAPropertyRepository;
+import org.objectweb.proactive.utils.NamedThreadFactory;
 import org.ow2.proactive.authentication.crypto.HybridEncryptionUtil.HybridEncryptedData;
 import org.ow2.proactive.core.properties.PropertyDecrypter;
 import org.ow2.proactive.db.DatabaseManagerException;
 import org.ow2.proactive.db.SessionWork;
 import org.ow2.proactive.db.SortParameter;
 import org.ow2.proactive.db.TransactionHelper;
+import org.ow2.proactive.scheduler.common.JobCursor;
 import org.ow2.proactive.scheduler.common.JobSortParameter;
 import org.ow2.proactive.scheduler.common.Page;
 import org.ow2.proactive.scheduler.common.SortSpecifierContainer;
@@ -99,13 +106,18 @@ import org.ow2.proactive.scheduler.job.SchedulerUserInfo;
 import org.ow2.proactive.scheduler.task.TaskIdImpl;
 import org.ow2.proactive.scheduler.task.TaskResultImpl;
 import org.ow2.proactive.scheduler.task.containers.ExecutableContainer;
+import org.ow2.proactive.scheduler.task.containers.ScriptExecutableContainer;
 import org.ow2.proactive.scheduler.task.internal.InternalForkedScriptTask;
 import org.ow2.proactive.scheduler.task.internal.InternalScriptTask;
 import org.ow2.proactive.scheduler.task.internal.InternalTask;
 import org.ow2.proactive.scripting.InvalidScriptException;
+import org.ow2.proactive.scripting.TaskScript;
 import org.ow2.proactive.utils.FileToBytesConverter;
 import org.ow2.proactive.utils.ObjectByteConverter;
 
+import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
@@ -118,6 +130,18 @@ public class SchedulerDBManager {
 
     private static final int RECOVERY_LOAD_JOBS_BATCH_SIZE = PASchedulerProperties.SCHEDULER_DB_RECOVERY_LOAD_JOBS_BATCH_SIZE.getValueAsInt();
 
+    private static final int RECOVERY_LOAD_JOBS_NB_THREADS = PASchedulerProperties.SCHEDULER_DB_RECOVERY_LOAD_JOBS_NBTHREADS.getValueAsInt();
+
+    private static final int TASK_STATUS_UPDATE_BATCH_SIZE = PASchedulerProperties.SCHEDULER_DB_TASK_STATUS_UPDATE_BATCH_SIZE.getValueAsInt();
+
+    private static final long TASK_SCRIPT_CACHE_SIZE = PASchedulerProperties.SCHEDULER_DB_TASK_SCRIPT_CACHE_SIZE.getValueAsInt();
+
+    private static final long SCRIPT_CONTENT_CACHE_SIZE = PASchedulerProperties.SCHEDULER_DB_SCRIPT_CONTENT_CACHE_SIZE.getValueAsInt();
+
+    private static final int SCRIPT_CONTENT_MIGRATION_BATCH_SIZE = PASchedulerProperties.SCHEDULER_DB_SCRIPT_CONTENT_MIGRATION_BATCH_SIZE.getValueAsInt();
+
+    private static final long RESULT_BLOB_THRESHOLD = PASchedulerProperties.SCHEDULER_DB_RESULT_BLOB_THRESHOLD.getValueAsInt();
+
     private static final Logger logger = Logger.getLogger(SchedulerDBManager.class);
 
     public static final Set<JobStatus> FINISHED_JOB_STATUSES = ImmutableSet.of(JobStatus.CANCELED,
@@ -143,6 +167,22 @@ public class SchedulerDBManager {
 
     private final TransactionHelper transactionHelper;
 
+    private final ScriptContentStore scriptContentStore;
+
+    private final TaskResultBlobs resultBlobs;
+
+    private final JobCounters jobCounters;
+
+    /**
+     * Task scripts loaded from the database, bounded by their total number of characters.
+     * Task scripts are never modified once a job is submitted, so entries only leave the cache by eviction.
+     */
+    private final Cache<DBTaskId, TaskScript> taskScriptCache = CacheBuilder.newBuilder()
+                                                                             .maximumWeight(TASK_SCRIPT_CACHE_SIZE)
+                                                                             .weigher((DBTaskId taskId,
+                                                                                     TaskScript script) -> taskScriptWeight(script))
+                                                                             .build();
+
     public static SchedulerDBManager createUsingProperties() {
         if (System.getProperty(JAVA_PROPERTYNAME_NODB) != null) {
             return createInMemorySchedulerDBManager();
@@ -172,10 +212,28 @@ public class SchedulerDBManager {
         config.setProperty("hibernate.connection.url",
                            "jdbc:hsqldb:mem:" + System.currentTimeMillis() + ";hsqldb.tx=mvcc");
         config.setProperty("hibernate.dialect", "org.hibernate.dialect.HSQLDialect");
-        return new SchedulerDBManager(config, true);
+        // the payloads of the results do not outlive the database
+        File resultBlobsLocation;
+        try {
+            resultBlobsLocation = Files.createTempDirectory("task-results").toFile();
+            FileUtils.forceDeleteOnExit(resultBlobsLocation);
+        } catch (IOException e) {
+            throw new DatabaseManagerException("Cannot create the task result blobs directory", e);
+        }
+        return new SchedulerDBManager(config,
+                                      true,
+                                      TaskResultBlobs.createStore(PASchedulerProperties.SCHEDULER_DB_RESULT_BLOB_STORE.getValueAsString(),
+                                                                  resultBlobsLocation.getAbsolutePath()));
     }
 
     public SchedulerDBManager(Configuration configuration, boolean drop) {
+        this(configuration,
+             drop,
+             TaskResultBlobs.createStore(PASchedulerProperties.SCHEDULER_DB_RESULT_BLOB_STORE.getValueAsString(),
+                                         PASchedulerProperties.getAbsolutePath(PASchedulerProperties.SCHEDULER_DB_RESULT_BLOB_LOCATION.getValueAsString())));
+    }
+
+    public SchedulerDBManager(Configuration configuration, boolean drop, TaskResultBlobStore resultBlobStore) {
         try {
             configuration.addAnnotatedClass(JobData.class);
             configuration.addAnnotatedClass(JobContent.class);
@@ -185,6 +243,8 @@ public class SchedulerDBManager {
             configuration.addAnnotatedClass(TaskResultData.class);
             configuration.addAnnotatedClass(ScriptData.class);
             configuration.addAnnotatedClass(SelectionScriptData.class);
+            configuration.addAnnotatedClass(ScriptContentData.class);
+            configuration.addAnnotatedClass(JobCounterData.class);
             configuration.addAnnotatedClass(EnvironmentModifierData.class);
             configuration.addAnnotatedClass(SelectorData.class);
             configuration.addAnnotatedClass(ThirdPartyCredentialData.class);
@@ -195,11 +255,24 @@ public class SchedulerDBManager {
             configuration.setProperty("hibernate.id.new_generator_mappings", "true");
             configuration.setProperty("hibernate.jdbc.use_streams_for_binary", "true");
             configuration.setProperty("hibernate.connection.isolation", "2");
+            // rows of the same table are sent in JDBC batches, mainly the tasks and scripts of a submitted job
+            if (configuration.getProperty("hibernate.jdbc.batch_size") == null) {
+                configuration.setProperty("hibernate.jdbc.batch_size",
+                                          PASchedulerProperties.SCHEDULER_DB_JDBC_BATCH_SIZE.getValueAsString());
+            }
+            configuration.setProperty("hibernate.order_inserts", "true");
+            configuration.setProperty("hibernate.order_updates", "true");
 
             ServiceRegistry serviceRegistry = new StandardServiceRegistryBuilder().applySettings(configuration.getProperties())
                                                                                   .build();
             sessionFactory = configuration.buildSessionFactory(serviceRegistry);
             transactionHelper = new TransactionHelper(sessionFactory);
+            scriptContentStore = new ScriptContentStore(transactionHelper, SCRIPT_CONTENT_CACHE_SIZE, MAX_ITEMS_IN_LIST);
+            resultBlobs = new TaskResultBlobs(transactionHelper,
+                                              resultBlobStore,
+                                              RESULT_BLOB_THRESHOLD,
+                                              MAX_ITEMS_IN_LIST);
+            jobCounters = new JobCounters(transactionHelper);
 
         } catch (Throwable ex) {
             logger.error("Initial SessionFactory creation failed", ex);
@@ -224,25 +297,11 @@ public class SchedulerDBManager {
                                                              childJobs,
                                                              sortParameters);
         int totalNbJobs = getTotalNumberOfJobs(params);
-        final Set<JobStatus> jobStatuses = params.getStatuses();
         List<JobInfo> lJobs = executeReadOnlyTransaction(session -> {
-            Criteria criteria = session.createCriteria(JobData.class);
-            if (limit > 0) {
-                criteria.setMaxResults(limit);
-            }
+            Criteria criteria = createJobsCriteria(session, params);
             if (offset >= 0) {
                 criteria.setFirstResult(offset);
             }
-            if (user != null) {
-                criteria.add(Restrictions.eq("owner", user));
-            }
-            if (!childJobs) {
-                criteria.add(Restrictions.isNull("parentId"));
-            }
-            boolean allJobs = pending && running && finished;
-            if (!allJobs) {
-                criteria.add(Restrictions.in("status", jobStatuses));
-            }
 
             if (sortParameters != null) {
                 Order sortOrder;
@@ -310,6 +369,61 @@ public class SchedulerDBManager {
         return new Page<>(lJobs, totalNbJobs);
     }
 
+    /**
+     * Returns the jobs submitted before the given cursor, the most recently submitted first.
+     * <p>
+     * The jobs are read from the (submittedTime, id) index, so the cost of a page does not depend on its depth.
+     * The cursor of the next page is the one of the last job returned.
+     */
+    public Page<JobInfo> getJobs(final JobCursor cursor, final int limit, final String user, final boolean pending,
+            final boolean running, final boolean finished, final boolean childJobs) {
+
+        if (!pending && !running && !finished) {
+            return new Page<>(new ArrayList<JobInfo>(0), 0);
+        }
+
+        DBJobDataParameters params = new DBJobDataParameters(0,
+                                                             limit,
+                                                             user,
+                                                             pending,
+                                                             running,
+                                                             finished,
+                                                             childJobs,
+                                                             null);
+        int totalNbJobs = getTotalNumberOfJobs(params);
+        List<JobInfo> lJobs = executeReadOnlyTransaction(session -> {
+            Criteria criteria = createJobsCriteria(session, params);
+            criteria.add(Restrictions.or(Restrictions.lt("submittedTime", cursor.getSubmittedTime()),
+                                         Restrictions.and(Restrictions.eq("submittedTime", cursor.getSubmittedTime()),
+                                                          Restrictions.lt("id", cursor.getJobId()))));
+            criteria.addOrder(Order.desc("submittedTime"));
+            criteria.addOrder(Order.desc("id"));
+
+            List<JobData> jobsList = criteria.list();
+            return jobsList.stream().map(JobData::toJobInfo).collect(Collectors.toList());
+        });
+
+        return new Page<>(lJobs, totalNbJobs);
+    }
+
+    private Criteria createJobsCriteria(Session session, DBJobDataParameters params) {
+        Criteria criteria = session.createCriteria(JobData.class);
+        if (params.getLimit() > 0) {
+            criteria.setMaxResults(params.getLimit());
+        }
+        if (params.getUser() != null) {
+            criteria.add(Restrictions.eq("owner", params.getUser()));
+        }
+        if (!params.isChildJobs()) {
+            criteria.add(Restrictions.isNull("parentId"));
+        }
+        boolean allJobs = params.getStatuses().containsAll(Arrays.asList(JobStatus.values()));
+        if (!allJobs) {
+            criteria.add(Restrictions.in("status", params.getStatuses()));
+        }
+        return criteria;
+    }
+
     public List<JobInfo> getJobs(final List<String> jobIds) {
         List<Long> longJobIds = jobIds.stream().map(id -> Long.parseLong(id)).collect(Collectors.toList());
         List<JobInfo> jobsList = new ArrayList(longJobIds.size());
@@ -369,40 +483,11 @@ public class SchedulerDBManager {
     }
 
     private int getTotalNumberOfJobs(final DBJobDataParameters params) {
-
-        return executeReadOnlyTransaction(session -> {
-
-            Set<JobStatus> statuses = params.getStatuses();
-
-            if (statuses.isEmpty()) {
-                return 0;
-            } else {
-
-                boolean hasUser = params.getUser() != null && "".compareTo(params.getUser()) != 0;
-
-                StringBuilder queryString = new StringBuilder("select count(*) from JobData where ");
-
-                queryString.append("status in (:jobStatus) ");
-
-                if (hasUser) {
-                    queryString.append("and owner = :user ");
-                }
-
-                if (!params.isChildJobs()) {
-                    queryString.append("and parentId = null ");
-                }
-
-                Query query = session.createQuery(queryString.toString());
-                query.setParameterList("jobStatus", statuses);
-                if (hasUser) {
-                    query.setParameter("user", params.getUser());
-                }
-
-                Long count = (Long) query.uniqueResult();
-
-                return count.intValue();
-            }
-        });
+        String user = Strings.isNullOrEmpty(params.getUser()) ? null : params.getUser();
+        return Math.toIntExact(executeReadOnlyTransaction(session -> JobCounters.count(session,
+                                                                                       user,
+                                                                                       params.getStatuses(),
+                                                                                       params.isChildJobs())));
     }
 
     private Order configureSortOrder(SortParameter<JobSortParameter> param, Property property) {
@@ -500,28 +585,18 @@ public class SchedulerDBManager {
     }
 
     public long getTotalJobsCount() {
-        return executeReadOnlyTransaction(session -> {
-            Query query = session.getNamedQuery("getTotalJobsCount");
-            return (Long) query.uniqueResult();
-        });
+        return getJobsNumberWithStatus(Arrays.asList(JobStatus.values()));
     }
 
     private long getJobsNumberWithStatus(final Collection<JobStatus> status) {
-        return executeReadOnlyTransaction(session -> {
-            Query query = session.getNamedQuery("getJobsNumberWithStatus").setParameterList("status", status);
-
-            return (Long) query.uniqueResult();
-        });
+        return executeReadOnlyTransaction(session -> JobCounters.count(session, null, status, true));
     }
 
     private int getJobsNumberWithStatusForUser(final Collection<JobStatus> status, String username) {
-        return executeReadOnlyTransaction(session -> {
-            Query query = session.getNamedQuery("getJobsNumberWithStatusUsername")
-                                 .setParameter("username", username)
-                                 .setParameterList("status", status);
-
-            return Math.toIntExact((Long) query.uniqueResult());
-        });
+        return Math.toIntExact(executeReadOnlyTransaction(session -> JobCounters.count(session,
+                                                                                       username,
+                                                                                       status,
+                                                                                       true)));
     }
 
     public long getJobsCount(JobStatus status) {
@@ -783,10 +858,27 @@ public class SchedulerDBManager {
         // For now, we added "additionalDelayRandomized" in TransactionHelper.
         session.getNamedQuery("updateTaskDataJobScripts").setParameterList("ids", jobIds).executeUpdate();
 
+        scriptContentStore.releaseAfterCommit(session, findScriptContentHashes(session, jobIds));
+
         session.getNamedQuery("deleteScriptDataInBulk").setParameterList("jobIdList", jobIds).executeUpdate();
         session.getNamedQuery("deleteSelectionScriptDataInBulk").setParameterList("jobIdList", jobIds).executeUpdate();
     }
 
+    /**
+     * Returns the hashes of the contents referenced by the scripts of the given jobs.
+     */
+    @SuppressWarnings("unchecked")
+    private Set<String> findScriptContentHashes(Session session, List<Long> jobIds) {
+        Set<String> contentHashes = new HashSet<>();
+        contentHashes.addAll(session.getNamedQuery("findScriptDataContentHashes")
+                                    .setParameterList("jobIdList", jobIds)
+                                    .list());
+        contentHashes.addAll(session.getNamedQuery("findSelectionScriptDataContentHashes")
+                                    .setParameterList("jobIdList", jobIds)
+                                    .list());
+        return contentHashes;
+    }
+
     private void removeJobScripts(Session session, long jobId) {
         removeJobScripts(session, Collections.singletonList(jobId));
     }
@@ -836,6 +928,45 @@ public class SchedulerDBManager {
         });
     }
 
+    /**
+     * Moves the scripts stored inline by previous versions to the script contents table, and removes the
+     * contents which are no longer referenced. Called when the scheduler starts.
+     */
+    public void migrateScriptContents() {
+        if (SCRIPT_CONTENT_MIGRATION_BATCH_SIZE > 0) {
+            int migrated = scriptContentStore.migrateInlineScripts(SCRIPT_CONTENT_MIGRATION_BATCH_SIZE);
+            if (migrated > 0) {
+                logger.info("Moved " + migrated + " inline scripts to the script contents table");
+            }
+        }
+        int removed = scriptContentStore.removeOrphans();
+        if (removed > 0) {
+            logger.info("Removed " + removed + " unreferenced script contents");
+        }
+    }
+
+    /**
+     * Removes the task result payloads which are no longer referenced, e.g. left behind by a crash. Called when
+     * the scheduler starts.
+     */
+    public void removeOrphanTaskResultPayloads() {
+        int removed = resultBlobs.removeOrphans();
+        if (removed > 0) {
+            logger.info("Removed " + removed + " unreferenced task result payloads");
+        }
+    }
+
+    /**
+     * Recomputes the number of jobs per owner and status from the jobs table, the counters are then
+     * maintained by the transactions which modify the jobs. Called when the scheduler starts.
+     */
+    public void rebuildJobCounters() {
+        executeReadWriteTransaction((SessionWork<Void>) session -> {
+            JobCounters.rebuild(session);
+            return null;
+        });
+    }
+
     public Map<JobId, String> getJobsToRemove(final long time) {
         return executeReadOnlyTransaction(session -> {
             Query query = session.createSQLQuery("select ID, OWNER from JOB_DATA where " +
@@ -854,7 +985,15 @@ public class SchedulerDBManager {
     public void executeHousekeepingInDB(final List<Long> jobIdList, final boolean shouldRemoveFromDb) {
         List<List<Long>> jobIdSubSets = Lists.partition(jobIdList, MAX_ITEMS_IN_LIST);
         for (List<Long> jobIdSubList : jobIdSubSets) {
-            executeReadWriteTransaction(new HousekeepingSessionWork(jobIdSubList, shouldRemoveFromDb));
+            executeReadWriteTransaction((SessionWork<Void>) session -> {
+                if (shouldRemoveFromDb) {
+                    scriptContentStore.releaseAfterCommit(session, findScriptContentHashes(session, jobIdSubList));
+                    resultBlobs.releaseAfterCommit(session, resultBlobs.findBlobsOfJobs(session, jobIdSubList));
+                }
+                return new HousekeepingSessionWork(jobIdSubList,
+                                                   shouldRemoveFromDb,
+                                                   jobCounters).doInTransaction(session);
+            });
         }
     }
 
@@ -882,7 +1021,10 @@ public class SchedulerDBManager {
                     session.getNamedQuery("deleteJobDataVariable").setParameterList("ids", ids).executeUpdate();
 
                     removeJobScripts(session, ids);
+                    // the results are removed with the jobs by the database
+                    resultBlobs.releaseAfterCommit(session, resultBlobs.findBlobsOfJobs(session, ids));
 
+                    jobCounters.jobsRemoving(session, ids);
                     session.getNamedQuery("deleteJobDataInBulk").setParameterList("jobIdList", ids).executeUpdate();
                 } else {
                     session.getNamedQuery("updateJobDataRemovedTime")
@@ -905,25 +1047,75 @@ public class SchedulerDBManager {
     }
 
     private List<InternalJob> loadJobs(final boolean fullState, final Collection<JobStatus> status, final long period) {
-        return executeReadOnlyTransaction(session -> {
-            logger.info("Loading Jobs from database");
-
-            Query query;
-            if (period >= 0L) {
-                query = session.getNamedQuery("loadJobsWithPeriod")
-                               .setParameter("minSubmittedTime", System.currentTimeMillis() - period)
-                               .setParameterList("status", status)
-                               .setReadOnly(true);
-            } else {
-                query = session.getNamedQuery("loadJobs").setParameterList("status", status).setReadOnly(true);
-            }
+        if (RECOVERY_LOAD_JOBS_NB_THREADS <= 1) {
+            return executeReadOnlyTransaction(session -> loadInternalJobs(fullState,
+                                                                          session,
+                                                                          loadJobIds(session, status, period)));
+        }
+        List<Long> ids = executeReadOnlyTransaction(session -> loadJobIds(session, status, period));
+        return loadInternalJobsInParallel(fullState, ids);
+    }
 
-            List<Long> ids = query.list();
+    @SuppressWarnings("unchecked")
+    private List<Long> loadJobIds(Session session, Collection<JobStatus> status, long period) {
+        logger.info("Loading Jobs from database");
+
+        Query query;
+        if (period >= 0L) {
+            query = session.getNamedQuery("loadJobsWithPeriod")
+                           .setParameter("minSubmittedTime", System.currentTimeMillis() - period)
+                           .setParameterList("status", status)
+                           .setReadOnly(true);
+        } else {
+            query = session.getNamedQuery("loadJobs").setParameterList("status", status).setReadOnly(true);
+        }
 
-            logger.info(ids.size() + " Jobs to fetch from database");
+        List<Long> ids = query.list();
 
-            return loadInternalJobs(fullState, session, ids);
-        });
+        logger.info(ids.size() + " Jobs to fetch from database");
+        return ids;
+    }
+
+    /**
+     * Loads the jobs by batches of {@link #RECOVERY_LOAD_JOBS_BATCH_SIZE}, each batch in its own transaction,
+     * on {@link #RECOVERY_LOAD_JOBS_NB_THREADS} threads. The jobs are returned in the order of the given ids.
+     */
+    private List<InternalJob> loadInternalJobsInParallel(boolean fullState, List<Long> ids) {
+        List<List<Long>> batches = Lists.partition(ids, RECOVERY_LOAD_JOBS_BATCH_SIZE);
+        if (batches.size() <= 1) {
+            return executeReadOnlyTransaction(session -> loadInternalJobs(fullState, session, ids));
+        }
+        ExecutorService loadJobsThreadPool = Executors.newFixedThreadPool(Math.min(RECOVERY_LOAD_JOBS_NB_THREADS,
+                                                                                   batches.size()),
+                                                                          new NamedThreadFactory("LoadJobsThreadPool"));
+        try {
+            List<Future<List<InternalJob>>> loadedBatches = new ArrayList<>(batches.size());
+            for (List<Long> batch : batches) {
+                loadedBatches.add(loadJobsThreadPool.submit(() -> executeReadOnlyTransaction(session -> {
+                    List<InternalJob> jobs = new ArrayList<>(batch.size());
+                    batchLoadJobs(session, fullState, session.getNamedQuery("loadInternalJobs"), batch, jobs);
+                    return jobs;
+                })));
+            }
+            List<InternalJob> result = new ArrayList<>(ids.size());
+            int batchIndex = 1;
+            for (Future<List<InternalJob>> loadedBatch : loadedBatches) {
+                result.addAll(loadedBatch.get());
+                logger.info("Fetched " + result.size() + " internal Jobs, batch number " + batchIndex++);
+            }
+            logger.info(ALL_REQUIRED_JOBS_HAVE_BEEN_FETCHED);
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseManagerException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new DatabaseManagerException(e.getCause());
+        } finally {
+            loadJobsThreadPool.shutdownNow();
+        }
     }
 
     public List<JobId> getJobsByFinishedTime(long olderThan) {
@@ -1021,6 +1213,7 @@ public class SchedulerDBManager {
     private void batchLoadJobs(Session session, boolean fullState, Query jobQuery, List<Long> ids,
             Collection<InternalJob> jobs) {
         Map<Long, List<TaskData>> tasksMap = loadJobsTasks(session, ids, fullState);
+        resolveScriptContents(session, tasksMap.values(), fullState);
 
         jobQuery.setParameterList("ids", ids);
         List<JobData> jobsList = (List<JobData>) jobQuery.list();
@@ -1034,6 +1227,17 @@ public class SchedulerDBManager {
         }
     }
 
+    // Executed in a transaction from the caller
+    private void resolveScriptContents(Session session, Collection<List<TaskData>> tasksPerJob, boolean fullState) {
+        List<ContentAddressedScript> scripts = new ArrayList<>();
+        for (List<TaskData> tasks : tasksPerJob) {
+            for (TaskData taskData : tasks) {
+                scripts.addAll(taskData.internalTaskScripts(fullState));
+            }
+        }
+        scriptContentStore.resolve(session, scripts);
+    }
+
     private InternalTask toInternalTask(boolean loadFullState, InternalJob internalJob, TaskData taskData)
             throws InvalidScriptException {
         InternalTask internalTask = taskData.toInternalTask(internalJob, loadFullState);
@@ -1124,6 +1328,7 @@ public class SchedulerDBManager {
 
             JobInfo jobInfo = job.getJobInfo();
 
+            jobCounters.jobStatusChanging(session, jobId, jobInfo.getStatus());
             session.getNamedQuery("updateJobDataTaskStarted")
                    .setParameter("status", jobInfo.getStatus())
                    .setParameter("startTime", jobInfo.getStartTime())
@@ -1153,11 +1358,12 @@ public class SchedulerDBManager {
     }
 
     public void taskRestarted(final InternalJob job, final InternalTask task, final TaskResultImpl result) {
-        executeReadWriteTransaction((SessionWork<Void>) session -> {
+        resultBlobs.withReferences(() -> executeReadWriteTransaction((SessionWork<Void>) session -> {
             long jobId = jobId(job);
 
             JobInfo jobInfo = job.getJobInfo();
 
+            jobCounters.jobStatusChanging(session, jobId, jobInfo.getStatus());
             session.getNamedQuery("updateJobDataTaskRestarted")
                    .setParameter("status", jobInfo.getStatus())
                    .setParameter("numberOfPendingTasks", jobInfo.getNumberOfPendingTasks())
@@ -1185,16 +1391,18 @@ public class SchedulerDBManager {
             }
 
             return null;
-        });
+        }));
     }
 
     @SuppressWarnings("unchecked")
     public void updateAfterWorkflowTaskFinished(final InternalJob job, final ChangedTasksInfo changesInfo,
             final TaskResultImpl result) {
-        executeReadWriteTransaction((SessionWork<Void>) session -> {
+        // replicated tasks reference the stored contents of the scripts of the tasks they are copied from
+        scriptContentStore.withReferences(() -> resultBlobs.withReferences(() -> executeReadWriteTransaction((SessionWork<Void>) session -> {
             long jobId = jobId(job);
 
             JobInfo jobInfo = job.getJobInfo();
+            jobCounters.jobStatusChanging(session, jobId, jobInfo.getStatus());
             session.getNamedQuery("updateJobDataAfterWorkflowTaskFinished")
                    .setParameter("status", jobInfo.getStatus())
                    .setParameter("finishedTime", jobInfo.getFinishedTime())
@@ -1264,7 +1472,7 @@ public class SchedulerDBManager {
             }
 
             return null;
-        }, false);
+        }, false)));
     }
 
     public void updateAfterJobKilled(InternalJob job, Set<TaskId> tasksToUpdate) {
@@ -1282,6 +1490,7 @@ public class SchedulerDBManager {
 
             JobInfo jobInfo = job.getJobInfo();
             int updateJob = 0;
+            jobCounters.jobStatusChanging(session, jobId, jobInfo.getStatus());
             updateJob = session.getNamedQuery("updateJobDataAfterTaskFinished")
                                .setParameter("status", jobInfo.getStatus())
                                .setParameter("finishedTime", jobInfo.getFinishedTime())
@@ -1368,6 +1577,7 @@ public class SchedulerDBManager {
                 for (InternalJob job : jobsSubList) {
                     long jobId = jobId(job);
                     JobInfo jobInfo = job.getJobInfo();
+                    jobCounters.jobStatusChanging(session, jobId, jobInfo.getStatus());
                     int result = session.getNamedQuery("updateJobDataAfterTaskFinished")
                                         .setParameter("status", jobInfo.getStatus())
                                         .setParameter("finishedTime", jobInfo.getFinishedTime())
@@ -1515,6 +1725,7 @@ public class SchedulerDBManager {
     private void updateJobState(InternalJob job, Session session) {
         JobInfo jobInfo = job.getJobInfo();
 
+        jobCounters.jobStatusChanging(session, jobId(job), jobInfo.getStatus());
         session.getNamedQuery("updateJobAndTasksState")
                .setParameter("status", jobInfo.getStatus())
                .setParameter("numberOfFailedTasks", jobInfo.getNumberOfFailedTasks())
@@ -1567,6 +1778,43 @@ public class SchedulerDBManager {
         });
     }
 
+    /**
+     * Updates the status of several tasks, and sets their scheduled time to the one held by each task.
+     * Tasks are written by batches of {@link PASchedulerProperties#SCHEDULER_DB_TASK_STATUS_UPDATE_BATCH_SIZE},
+     * each batch in a single transaction using one update query per job and scheduled time.
+     *
+     * @param tasks the tasks to update
+     * @param newStatus the new status of the tasks
+     */
+    public void updateTasksStatusAndScheduledTime(final List<InternalTask> tasks, final TaskStatus newStatus) {
+        for (List<InternalTask> batch : Lists.partition(tasks, Math.max(1, TASK_STATUS_UPDATE_BATCH_SIZE))) {
+            executeReadWriteTransaction((SessionWork<Void>) session -> {
+
+                Map<Long, Map<Long, List<Long>>> taskIdsByJobAndTime = batch.stream()
+                                                                            .collect(Collectors.groupingBy(task -> jobId(task.getJobId()),
+                                                                                                           Collectors.groupingBy(InternalTask::getScheduledTime,
+                                                                                                                                 Collectors.mapping(task -> task.getId()
+                                                                                                                                                                .longValue(),
+                                                                                                                                                    Collectors.toList()))));
+
+                for (Map.Entry<Long, Map<Long, List<Long>>> jobEntry : taskIdsByJobAndTime.entrySet()) {
+                    for (Map.Entry<Long, List<Long>> timeEntry : jobEntry.getValue().entrySet()) {
+                        for (List<Long> taskIds : Lists.partition(timeEntry.getValue(), MAX_ITEMS_IN_LIST)) {
+                            session.getNamedQuery("updateTaskDataStatusAndScheduledTimeInBulk")
+                                   .setParameter("taskStatus", newStatus)
+                                   .setParameter("scheduledTime", timeEntry.getKey())
+                                   .setParameter("jobId", jobEntry.getKey())
+                                   .setParameterList("taskIds", taskIds)
+                                   .executeUpdate();
+                        }
+                    }
+                }
+
+                return null;
+            });
+        }
+    }
+
     public void updateTaskStatus(final EligibleTaskDescriptorImpl task, final TaskStatus newStatus) {
         executeReadWriteTransaction((SessionWork<Void>) session -> {
 
@@ -1641,11 +1889,12 @@ public class SchedulerDBManager {
 
     private void updateAfterTaskFinished(final InternalJob job, final InternalTask finishedTask,
             final TaskResultImpl result, final Set<TaskId> tasksToUpdate) {
-        executeReadWriteTransaction((SessionWork<Void>) session -> {
+        resultBlobs.withReferences(() -> executeReadWriteTransaction((SessionWork<Void>) session -> {
             long jobId = jobId(job);
 
             JobInfo jobInfo = job.getJobInfo();
 
+            jobCounters.jobStatusChanging(session, jobId, jobInfo.getStatus());
             session.getNamedQuery("updateJobDataAfterTaskFinished")
                    .setParameter("status", jobInfo.getStatus())
                    .setParameter("finishedTime", jobInfo.getFinishedTime())
@@ -1696,13 +1945,14 @@ public class SchedulerDBManager {
             }
 
             return null;
-        });
+        }));
     }
 
     private TaskResultData saveTaskResult(TaskData.DBTaskId taskId, TaskResultImpl result, Session session) {
         TaskData taskRuntimeData = session.load(TaskData.class, taskId);
 
         TaskResultData resultData = TaskResultData.createTaskResultData(taskRuntimeData, result);
+        resultBlobs.externalize(resultData);
         session.save(resultData);
 
         return resultData;
@@ -1838,7 +2088,7 @@ public class SchedulerDBManager {
             boolean nextTask = !dbTaskId.equals(currentTaskId);
             if (nextTask) {
                 TaskId taskId = TaskIdImpl.createTaskId(jobId, taskName, dbTaskId.getTaskId());
-                jobResult.addTaskResult(taskName, resultData.toTaskResult(taskId), preciousResult);
+                jobResult.addTaskResult(taskName, resultData.toTaskResult(taskId, resultBlobs), preciousResult);
                 currentTaskId = dbTaskId;
             }
 
@@ -1930,7 +2180,7 @@ public class SchedulerDBManager {
         if (results.isEmpty()) {
             return null;
         } else {
-            return results.get(0).toTaskResult(taskId);
+            return results.get(0).toTaskResult(taskId, resultBlobs);
         }
     }
 
@@ -1942,57 +2192,82 @@ public class SchedulerDBManager {
         Query query = session.getNamedQuery("loadTasksResultByTaskAsc").setParameter("task", task);
 
         return ((List<TaskResultData>) query.list()).stream()
-                                                    .map(resultData -> resultData.toTaskResult(taskId))
+                                                    .map(resultData -> resultData.toTaskResult(taskId, resultBlobs))
                                                     .collect(Collectors.toList());
     }
 
     public void newJobSubmitted(final InternalJob job) {
-        executeReadWriteTransaction(session -> {
-            JobData jobRuntimeData = JobData.createJobData(job);
-            session.save(jobRuntimeData);
+        // identical scripts of the tasks are stored once, before the tasks which reference them
+        Set<String> scriptContents = new HashSet<>();
+        for (InternalTask task : job.getITasks()) {
+            TaskData.collectScriptContents(task, scriptContents);
+        }
+        scriptContentStore.withReferences(() -> {
+            scriptContentStore.storeAll(scriptContents);
+            return executeReadWriteTransaction(session -> saveNewJob(session, job));
+        });
+    }
 
-            job.setId(new JobIdImpl(jobRuntimeData.getId(), job.getName()));
+    // Executed in a transaction from the caller
+    private JobData saveNewJob(Session session, InternalJob job) {
+        JobData jobRuntimeData = JobData.createJobData(job);
+        session.save(jobRuntimeData);
+        jobCounters.jobAdded(session, jobRuntimeData);
 
-            ArrayList<InternalTask> iTasks = job.getITasks();
-            List<InternalTask> tasksWithNewIds = new ArrayList<>(iTasks.size());
+        job.setId(new JobIdImpl(jobRuntimeData.getId(), job.getName()));
 
-            for (int i = 0; i < iTasks.size(); i++) {
-                InternalTask task = iTasks.get(i);
-                task.setId(TaskIdImpl.createTaskId(job.getId(), task.getTaskInfo().getTaskId().getReadableName(), i));
+        ArrayList<InternalTask> iTasks = job.getITasks();
+        List<InternalTask> tasksWithNewIds = new ArrayList<>(iTasks.size());
 
-                tasksWithNewIds.add(task);
-            }
+        for (int i = 0; i < iTasks.size(); i++) {
+            InternalTask task = iTasks.get(i);
+            task.setId(TaskIdImpl.createTaskId(job.getId(), task.getTaskInfo().getTaskId().getReadableName(), i));
+
+            tasksWithNewIds.add(task);
+        }
 
-            job.getIHMTasks().clear();
+        job.getIHMTasks().clear();
 
-            for (InternalTask task : tasksWithNewIds) {
-                job.getIHMTasks().put(task.getId(), task);
-            }
+        for (InternalTask task : tasksWithNewIds) {
+            job.getIHMTasks().put(task.getId(), task);
+        }
 
-            List<InternalTask> tasks = job.getITasks();
-            List<TaskData> taskRuntimeDataList = new ArrayList<>(tasks.size());
-            for (InternalTask task : tasks) {
-                taskRuntimeDataList.add(saveNewTask(session, jobRuntimeData, task));
+        // dependencies are set before the tasks are saved, so that they are part of the batched inserts,
+        // if branches reference tasks which may not be saved yet, they are resolved afterwards in memory
+        List<InternalTask> tasks = job.getITasks();
+        Map<TaskId, TaskData> taskRuntimeDataById = new HashMap<>(tasks.size());
+        for (InternalTask task : tasks) {
+            TaskData taskRuntimeData = createNewTaskData(jobRuntimeData, task);
+            setTaskDependencies(task, taskRuntimeData);
+            scriptContentStore.reference(session, taskRuntimeData.allScripts());
+            session.save(taskRuntimeData);
+            taskRuntimeDataById.put(task.getId(), taskRuntimeData);
+        }
+        for (InternalTask task : tasks) {
+            if (task.getIfBranch() != null) {
+                taskRuntimeDataById.get(task.getId())
+                                   .setIfBranch(taskRuntimeDataById.get(task.getIfBranch().getId()));
             }
-            saveTaskDependencies(session, tasks, taskRuntimeDataList);
+        }
 
-            return jobRuntimeData;
-        });
+        return jobRuntimeData;
     }
 
     private TaskData getTaskReference(Session session, InternalTask task) {
         return session.get(TaskData.class, taskId(task));
     }
 
-    private void saveTaskDependencies(Session session, List<InternalTask> tasks, List<TaskData> taskRuntimeDataList) {
-        for (int i = 0; i < tasks.size(); i++) {
-            InternalTask task = tasks.get(i);
-            TaskData taskRuntimeData = taskRuntimeDataList.get(i);
-            saveSingleTaskDependencies(session, task, taskRuntimeData);
+    private void saveSingleTaskDependencies(Session session, InternalTask task, TaskData taskRuntimeData) {
+        setTaskDependencies(task, taskRuntimeData);
+
+        if (task.getIfBranch() != null) {
+            taskRuntimeData.setIfBranch(getTaskReference(session, task.getIfBranch()));
+        } else {
+            taskRuntimeData.setIfBranch(null);
         }
     }
 
-    private void saveSingleTaskDependencies(Session session, InternalTask task, TaskData taskRuntimeData) {
+    private void setTaskDependencies(InternalTask task, TaskData taskRuntimeData) {
         if (task.hasDependences()) {
             List<DBTaskId> dependencies = task.getDependences()
                                               .stream()
@@ -2004,12 +2279,6 @@ public class SchedulerDBManager {
             taskRuntimeData.setDependentTasks(Collections.emptyList());
         }
 
-        if (task.getIfBranch() != null) {
-            taskRuntimeData.setIfBranch(getTaskReference(session, task.getIfBranch()));
-        } else {
-            taskRuntimeData.setIfBranch(null);
-        }
-
         if (task.getJoinedBranches() != null && !task.getJoinedBranches().isEmpty()) {
             List<DBTaskId> joinedBranches = task.getJoinedBranches()
                                                 .stream()
@@ -2022,11 +2291,16 @@ public class SchedulerDBManager {
     }
 
     private TaskData saveNewTask(Session session, JobData jobRuntimeData, InternalTask task) {
+        TaskData taskRuntimeData = createNewTaskData(jobRuntimeData, task);
+        scriptContentStore.reference(session, taskRuntimeData.allScripts());
+        session.save(taskRuntimeData);
+        return taskRuntimeData;
+    }
+
+    private TaskData createNewTaskData(JobData jobRuntimeData, InternalTask task) {
         // TODO: use double dispatch to prevent branching
         if (isScriptTask(task)) {
-            TaskData taskRuntimeData = TaskData.createTaskData(jobRuntimeData, (InternalScriptTask) task);
-            session.save(taskRuntimeData);
-            return taskRuntimeData;
+            return TaskData.createTaskData(jobRuntimeData, (InternalScriptTask) task);
         } else {
             throw new IllegalArgumentException("Unexpected task class: " + task.getClass());
         }
@@ -2037,10 +2311,21 @@ public class SchedulerDBManager {
             ExecutableContainer container = null;
 
             if (isScriptTask(task)) {
-                TaskData taskData = queryScriptTaskData(session, task);
+                DBTaskId taskId = taskId(task);
+                TaskScript script = taskScriptCache.getIfPresent(taskId);
+
+                if (script == null) {
+                    TaskData taskData = queryScriptTaskData(session, task);
+                    if (taskData != null) {
+                        if (taskData.getScript() != null) {
+                            scriptContentStore.resolve(session, Collections.singletonList(taskData.getScript()));
+                        }
+                        script = cacheTaskScript(taskData);
+                    }
+                }
 
-                if (taskData != null) {
-                    container = taskData.createExecutableContainer();
+                if (script != null) {
+                    container = new ScriptExecutableContainer(script);
                 }
             } else {
                 throw new IllegalArgumentException("Unexpected task class: " + task.getClass());
@@ -2056,6 +2341,20 @@ public class SchedulerDBManager {
         }
     }
 
+    private TaskScript cacheTaskScript(TaskData taskData) throws InvalidScriptException {
+        TaskScript script = taskData.createTaskScript();
+        taskScriptCache.put(taskData.getId(), script);
+        return script;
+    }
+
+    private static int taskScriptWeight(TaskScript script) {
+        String content = script.getScript();
+        if (content == null && script.getScriptUrl() != null) {
+            content = script.getScriptUrl().toExternalForm();
+        }
+        return 1 + (content == null ? 0 : content.length());
+    }
+
     private boolean isScriptTask(InternalTask task) {
         return task.getClass().equals(InternalForkedScriptTask.class) ||
                task.getClass().equals(InternalScriptTask.class);
@@ -2069,6 +2368,60 @@ public class SchedulerDBManager {
         return executeReadOnlyTransaction(session -> loadExecutableContainer(session, task));
     }
 
+    /**
+     * Loads the executable containers of several tasks and sets them on the tasks.
+     * Task definitions which are not already cached are fetched with one query per {@link #MAX_ITEMS_IN_LIST} tasks.
+     * Tasks whose definition cannot be loaded are left unchanged, they can be loaded individually using
+     * {@link #loadExecutableContainer(InternalTask)} in order to get the error.
+     *
+     * @param tasks the tasks to initialize
+     */
+    public void loadExecutableContainers(final List<InternalTask> tasks) {
+        Map<DBTaskId, InternalTask> tasksToQuery = new HashMap<>();
+
+        for (InternalTask task : tasks) {
+            if (isScriptTask(task)) {
+                DBTaskId taskId = taskId(task);
+                TaskScript script = taskScriptCache.getIfPresent(taskId);
+                if (script != null) {
+                    task.setExecutableContainer(new ScriptExecutableContainer(script));
+                } else {
+                    tasksToQuery.put(taskId, task);
+                }
+            }
+        }
+
+        if (tasksToQuery.isEmpty()) {
+            return;
+        }
+
+        executeReadOnlyTransaction((SessionWork<Void>) session -> {
+            for (List<DBTaskId> taskIds : Lists.partition(new ArrayList<>(tasksToQuery.keySet()), MAX_ITEMS_IN_LIST)) {
+                List<TaskData> taskDataList = session.getNamedQuery("findTaskDataWithScript")
+                                                     .setParameterList("ids", taskIds)
+                                                     .list();
+                List<ContentAddressedScript> scripts = new ArrayList<>(taskDataList.size());
+                for (TaskData taskData : taskDataList) {
+                    if (taskData.getScript() != null) {
+                        scripts.add(taskData.getScript());
+                    }
+                }
+                scriptContentStore.resolve(session, scripts);
+                for (TaskData taskData : taskDataList) {
+                    InternalTask task = tasksToQuery.get(taskData.getId());
+                    if (task != null && taskData.getScript() != null) {
+                        try {
+                            task.setExecutableContainer(new ScriptExecutableContainer(cacheTaskScript(taskData)));
+                        } catch (InvalidScriptException e) {
+                            logger.debug("Failed to create the script of task " + task.getId(), e);
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
     public List<SchedulerUserInfo> loadUsersWithJobs() {
         return executeReadOnlyTransaction(session -> {
             Query query = session.getNamedQuery("findUsersWithJobs");
@@ -27,11 +27,18 @@ package org.ow2.proactive.scheduler.core.db;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -72,8 +79,21 @@ public class SchedulerStateRecoverHelper {
     }
 
     public RecoveredSchedulerState recover(long loadJobPeriod, RMProxy rmProxy, SchedulerStatus schedulerStatus) {
+        long recoveryStartTime = System.currentTimeMillis();
         dbManager.setTaskDataOwnerIfNull();
+        dbManager.migrateScriptContents();
+        dbManager.removeOrphanTaskResultPayloads();
+        dbManager.rebuildJobCounters();
+
+        // finished jobs are independent from the other ones, they are loaded while the others are recovered
+        ExecutorService loadFinishedJobsThreadPool = Executors.newSingleThreadExecutor(new NamedThreadFactory("FinishedJobsLoadThreadPool"));
+        CompletableFuture<List<InternalJob>> finishedJobsLoading = CompletableFuture.supplyAsync(() -> loadFinishedJobs(loadJobPeriod),
+                                                                                                 loadFinishedJobsThreadPool);
+        loadFinishedJobsThreadPool.shutdown();
+
+        long phaseStartTime = System.currentTimeMillis();
         List<InternalJob> notFinishedJobs = dbManager.loadNotFinishedJobs(true);
+        phaseStartTime = logPhaseDuration("Loading " + notFinishedJobs.size() + " not finished jobs", phaseStartTime);
 
         Vector<InternalJob> pendingJobs = new Vector<>();
         Vector<InternalJob> runningJobs = new Vector<>();
@@ -104,44 +124,144 @@ public class SchedulerStateRecoverHelper {
         failIfSchedulerStateRecoveryTimeout(terminatedWithoutTimeout);
 
         applyJobUpdates(notFinishedJobs);
+        phaseStartTime = logPhaseDuration("Recovering running tasks", phaseStartTime);
 
-        Vector<InternalJob> finishedJobs = new Vector<>();
+        List<InternalJob> failedJobs = recoverJobDescriptors(pendingJobs, runningJobs);
+        phaseStartTime = logPhaseDuration("Rebuilding job descriptors", phaseStartTime);
 
-        for (Iterator<InternalJob> iterator = runningJobs.iterator(); iterator.hasNext();) {
-            InternalJob job = iterator.next();
-            try {
-                List<InternalTask> tasksList = copyAndSort(job.getITasks());
+        Vector<InternalJob> finishedJobs = new Vector<>(failedJobs);
+        finishedJobs.addAll(awaitFinishedJobs(finishedJobsLoading, failedJobs));
+        logPhaseDuration("Waiting for " + finishedJobs.size() + " finished jobs", phaseStartTime);
 
-                //simulate the running execution to recreate the tree.
-                for (InternalTask task : tasksList) {
-                    job.recoverTask(task.getId());
-                }
+        logger.info("[Recovering counters] " + " Pending: " + pendingJobs.size() + " Running: " + runningJobs.size() +
+                    " Finished: " + finishedJobs.size());
+        logPhaseDuration("Scheduler state recovery", recoveryStartTime);
 
-                if (job.getStatus() == JobStatus.PAUSED) {
-                    job.setStatus(JobStatus.STALLED);
-                    job.setPaused();
+        return new RecoveredSchedulerState(pendingJobs, runningJobs, finishedJobs, schedulerStatus);
+    }
 
-                    //update the count of pending and running task.
-                    job.setNumberOfPendingTasks(job.getNumberOfPendingTasks() + job.getNumberOfRunningTasks());
-                    job.setNumberOfRunningTasks(0);
+    private List<InternalJob> loadFinishedJobs(long loadJobPeriod) {
+        long startTime = System.currentTimeMillis();
+        List<InternalJob> finishedJobs = dbManager.loadFinishedJobs(false, loadJobPeriod);
+        logPhaseDuration("Loading " + finishedJobs.size() + " finished jobs", startTime);
+        return finishedJobs;
+    }
+
+    /**
+     * Waits for the finished jobs, without the jobs which failed to be recovered as they were loaded
+     * as unfinished jobs
+     */
+    private List<InternalJob> awaitFinishedJobs(CompletableFuture<List<InternalJob>> finishedJobsLoading,
+            List<InternalJob> failedJobs) {
+        List<InternalJob> finishedJobs;
+        try {
+            finishedJobs = finishedJobsLoading.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new SchedulerStateNotRecoveredException(e);
+        }
+        Set<JobId> failedJobIds = new HashSet<>();
+        for (InternalJob job : failedJobs) {
+            if (job.getId() != null) {
+                failedJobIds.add(job.getId());
+            }
+        }
+        if (failedJobIds.isEmpty()) {
+            return finishedJobs;
+        }
+        List<InternalJob> otherFinishedJobs = new ArrayList<>(finishedJobs.size());
+        for (InternalJob job : finishedJobs) {
+            if (!failedJobIds.contains(job.getId())) {
+                otherFinishedJobs.add(job);
+            }
+        }
+        return otherFinishedJobs;
+    }
+
+    /**
+     * Builds the descriptors of the pending and running jobs in parallel, and replays the execution
+     * of the finished tasks of the running jobs.
+     *
+     * @return the running jobs which could not be recovered, they are canceled and removed from the running jobs
+     */
+    private List<InternalJob> recoverJobDescriptors(List<InternalJob> pendingJobs, List<InternalJob> runningJobs) {
+        ExecutorService recoverJobsThreadPool = Executors.newFixedThreadPool(Runtime.getRuntime()
+                                                                                    .availableProcessors(),
+                                                                             new NamedThreadFactory("JobRecoverThreadPool"));
+        try {
+            List<Future<?>> descriptors = new ArrayList<>(pendingJobs.size());
+            for (InternalJob job : pendingJobs) {
+                descriptors.add(recoverJobsThreadPool.submit(job::getJobDescriptor));
+            }
+            List<Future<Boolean>> recoveredJobs = new ArrayList<>(runningJobs.size());
+            for (InternalJob job : runningJobs) {
+                recoveredJobs.add(recoverJobsThreadPool.submit(() -> recoverRunningJob(job)));
+            }
+            for (Future<?> descriptor : descriptors) {
+                descriptor.get();
+            }
+            List<InternalJob> failedJobs = new ArrayList<>();
+            Iterator<InternalJob> iterator = runningJobs.iterator();
+            for (Future<Boolean> recoveredJob : recoveredJobs) {
+                InternalJob job = iterator.next();
+                if (!recoveredJob.get()) {
+                    iterator.remove();
+                    failedJobs.add(job);
                 }
-            } catch (Throwable e) {
-                logger.error("Failed to recover job " + job.getId() + " " + job.getName() +
-                             " job might be in a inconsistent state", e);
-                jobLogger.error(job.getId(), "Failed to recover job, job might be in an inconsistent state", e);
-                // partially cancel job (not tasks) and move it to finished jobs to avoid running it
-                iterator.remove();
-                job.setStatus(JobStatus.CANCELED);
-                finishedJobs.add(job);
+            }
+            // the failed jobs are saved sequentially, as the recovery did before
+            for (InternalJob job : failedJobs) {
                 dbManager.updateJobAndTasksState(job);
             }
+            return failedJobs;
+        } catch (InterruptedException e) {
+            logger.error("Interrupted while waiting for the Scheduler state to be recovered", e);
+            Thread.currentThread().interrupt();
+            throw new SchedulerStateNotRecoveredException(e);
+        } catch (ExecutionException e) {
+            throw new SchedulerStateNotRecoveredException(e);
+        } finally {
+            recoverJobsThreadPool.shutdownNow();
         }
+    }
 
-        finishedJobs.addAll(dbManager.loadFinishedJobs(false, loadJobPeriod));
-        logger.info("[Recovering counters] " + " Pending: " + pendingJobs.size() + " Running: " + runningJobs.size() +
-                    " Finished: " + finishedJobs.size());
+    /**
+     * @return false if the job could not be recovered, in which case it is canceled
+     */
+    private boolean recoverRunningJob(InternalJob job) {
+        try {
+            List<InternalTask> tasksList = copyAndSort(job.getITasks());
 
-        return new RecoveredSchedulerState(pendingJobs, runningJobs, finishedJobs, schedulerStatus);
+            //simulate the running execution to recreate the tree.
+            for (InternalTask task : tasksList) {
+                job.recoverTask(task.getId());
+            }
+
+            if (job.getStatus() == JobStatus.PAUSED) {
+                job.setStatus(JobStatus.STALLED);
+                job.setPaused();
+
+                //update the count of pending and running task.
+                job.setNumberOfPendingTasks(job.getNumberOfPendingTasks() + job.getNumberOfRunningTasks());
+                job.setNumberOfRunningTasks(0);
+            }
+            return true;
+        } catch (Throwable e) {
+            logger.error("Failed to recover job " + job.getId() + " " + job.getName() +
+                         " job might be in a inconsistent state", e);
+            jobLogger.error(job.getId(), "Failed to recover job, job might be in an inconsistent state", e);
+            // partially cancel job (not tasks) and move it to finished jobs to avoid running it
+            job.setStatus(JobStatus.CANCELED);
+            return false;
+        }
+    }
+
+    private long logPhaseDuration(String phase, long phaseStartTime) {
+        long now = System.currentTimeMillis();
+        logger.info("[Recovering] " + phase + " took " + (now - phaseStartTime) + " ms");
+        return now;
     }
 
     private void applyJobUpdates(List<InternalJob> notFinishedJobs) {
@@ -0,0 +1,102 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import java.nio.charset.StandardCharsets;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.Type;
+
+import com.google.common.hash.Hashing;
+
+
+/**
+ * Content of a script, stored once and referenced by the {@link ScriptData} and {@link SelectionScriptData}
+ * rows of all the tasks which use it.
+ */
+@Entity
+@NamedQueries({ @NamedQuery(name = "findScriptContents", query = "from ScriptContentData where hash in (:hashes)"),
+                @NamedQuery(name = "findScriptContentHashes", query = "select hash from ScriptContentData where hash in (:hashes)"),
+                @NamedQuery(name = "findOrphanScriptContentHashes", query = "select content.hash from ScriptContentData content where " +
+                                                                            "not exists (select sd.id from ScriptData sd where sd.contentHash = content.hash) and " +
+                                                                            "not exists (select ssd.id from SelectionScriptData ssd where ssd.contentHash = content.hash)"),
+                @NamedQuery(name = "findUnreferencedScriptContentHashes", query = "select content.hash from ScriptContentData content where " +
+                                                                                  "content.hash in (:hashes) and " +
+                                                                                  "not exists (select sd.id from ScriptData sd where sd.contentHash = content.hash) and " +
+                                                                                  "not exists (select ssd.id from SelectionScriptData ssd where ssd.contentHash = content.hash)"),
+                @NamedQuery(name = "deleteScriptContentsInBulk", query = "delete from ScriptContentData where hash in (:hashes)"),
+                @NamedQuery(name = "countScriptContentData", query = "select count (*) from ScriptContentData") })
+@Table(name = "SCRIPT_CONTENT_DATA")
+public class ScriptContentData {
+
+    private String hash;
+
+    private String script;
+
+    public ScriptContentData() {
+    }
+
+    ScriptContentData(String hash, String script) {
+        this.hash = hash;
+        this.script = script;
+    }
+
+    /**
+     * Returns the hash identifying a script content.
+     */
+    static String hash(String script) {
+        return Hashing.sha256().hashString(script, StandardCharsets.UTF_8).toString();
+    }
+
+    @Id
+    @Column(name = "CONTENT_HASH", length = 64)
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    @Column(name = "SCRIPT", length = Integer.MAX_VALUE)
+    @Lob
+    @Type(type = "org.hibernate.type.MaterializedClobType")
+    public String getScript() {
+        return script;
+    }
+
+    public void setScript(String script) {
+        this.script = script;
+    }
+
+}
@@ -0,0 +1,365 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+import org.apache.log4j.Logger;
+import org.hibernate.Session;
+import org.ow2.proactive.db.DatabaseManagerException;
+import org.ow2.proactive.db.SessionWork;
+import org.ow2.proactive.db.TransactionHelper;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+
+
+/**
+ * Stores the contents of the task scripts once per hash in {@link ScriptContentData}, the script rows of the
+ * tasks reference them by hash.
+ * <p>
+ * Contents are inserted in their own transaction before the rows which reference them, so that concurrent
+ * submissions of identical scripts do not conflict. Contents loaded or stored are kept in memory,
+ * bounded by their total number of characters. A content kept in memory is only known to be stored when it was
+ * found or inserted inside {@link #withReferences(Supplier)}: a content loaded by {@link #resolve(Session, Collection)}
+ * may be removed before it is kept.
+ * <p>
+ * When a transaction removes script rows, the contents they referenced are removed once it is committed, if no
+ * other row references them. References are only added inside {@link #withReferences(Supplier)}, which prevents
+ * the removal of the contents they reference until their transaction is committed. Contents left behind, e.g. by
+ * a crash, are removed by {@link #removeOrphans()}.
+ */
+class ScriptContentStore {
+
+    private static final Logger logger = Logger.getLogger(ScriptContentStore.class);
+
+    private final TransactionHelper transactionHelper;
+
+    private final int maxItemsInList;
+
+    /** Contents loaded or stored, by hash */
+    private final Cache<String, CachedContent> contents;
+
+    private final ReadWriteLock referencesLock = new ReentrantReadWriteLock();
+
+    private final Object insertLock = new Object();
+
+    /** Contents whose references have been removed, they are removed if nothing else references them */
+    private final Set<String> releasedHashes = ConcurrentHashMap.newKeySet();
+
+    ScriptContentStore(TransactionHelper transactionHelper, long cacheSize, int maxItemsInList) {
+        this.transactionHelper = transactionHelper;
+        this.maxItemsInList = maxItemsInList;
+        this.contents = CacheBuilder.newBuilder()
+                                    .maximumWeight(cacheSize)
+                                    .weigher((String hash, CachedContent cached) -> 1 + cached.content.length())
+                                    .build();
+    }
+
+    /**
+     * Runs a unit of work which adds references to stored contents, the contents cannot be removed meanwhile.
+     */
+    <T> T withReferences(Supplier<T> work) {
+        referencesLock.readLock().lock();
+        try {
+            return work.get();
+        } finally {
+            referencesLock.readLock().unlock();
+            removeReleased();
+        }
+    }
+
+    /**
+     * Stores the given contents which are not stored yet, in a dedicated transaction.
+     * Must be called inside {@link #withReferences(Supplier)}.
+     */
+    @SuppressWarnings("unchecked")
+    void storeAll(Collection<String> scripts) {
+        Map<String, String> notStored = new HashMap<>();
+        for (String script : scripts) {
+            String hash = ScriptContentData.hash(script);
+            if (!isCachedAsStored(hash)) {
+                notStored.put(hash, script);
+            }
+        }
+        if (notStored.isEmpty()) {
+            return;
+        }
+
+        // inserts are serialized so that two transactions never insert the same content
+        synchronized (insertLock) {
+            transactionHelper.executeReadWriteTransaction((SessionWork<Void>) session -> {
+                for (List<String> hashes : Lists.partition(new ArrayList<>(notStored.keySet()), maxItemsInList)) {
+                    Set<String> storedHashes = new HashSet<>(session.getNamedQuery("findScriptContentHashes")
+                                                                    .setParameterList("hashes", hashes)
+                                                                    .list());
+                    for (String hash : hashes) {
+                        if (!storedHashes.contains(hash)) {
+                            session.save(new ScriptContentData(hash, notStored.get(hash)));
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+        for (Map.Entry<String, String> stored : notStored.entrySet()) {
+            contents.put(stored.getKey(), new CachedContent(stored.getValue(), true));
+        }
+    }
+
+    /**
+     * Replaces the inline content of the given scripts by a reference to the stored content.
+     * Scripts whose content is not stored keep their inline content.
+     * Must be called inside {@link #withReferences(Supplier)}.
+     */
+    void reference(Session session, Collection<? extends ContentAddressedScript> scripts) {
+        for (ContentAddressedScript script : scripts) {
+            String content = script.getScript();
+            if (content != null) {
+                String hash = ScriptContentData.hash(content);
+                if (isStored(session, hash, content)) {
+                    script.setContentHash(hash);
+                    script.setScript(null);
+                    script.resolveContent(content);
+                }
+            }
+        }
+    }
+
+    private boolean isStored(Session session, String hash, String content) {
+        if (isCachedAsStored(hash)) {
+            return true;
+        }
+        if (session.get(ScriptContentData.class, hash) != null) {
+            contents.put(hash, new CachedContent(content, true));
+            return true;
+        }
+        return false;
+    }
+
+    private boolean isCachedAsStored(String hash) {
+        CachedContent cached = contents.getIfPresent(hash);
+        return cached != null && cached.stored;
+    }
+
+    /**
+     * Sets the content of the given scripts which reference a stored content. Contents which are not cached
+     * are loaded with one query per batch of hashes.
+     */
+    @SuppressWarnings("unchecked")
+    void resolve(Session session, Collection<? extends ContentAddressedScript> scripts) {
+        Map<String, String> resolved = new HashMap<>();
+        Set<String> toLoad = new HashSet<>();
+        for (ContentAddressedScript script : scripts) {
+            String hash = script.getContentHash();
+            if (hash != null && !resolved.containsKey(hash) && !toLoad.contains(hash)) {
+                CachedContent cached = contents.getIfPresent(hash);
+                if (cached != null) {
+                    resolved.put(hash, cached.content);
+                } else {
+                    toLoad.add(hash);
+                }
+            }
+        }
+
+        for (List<String> hashes : Lists.partition(new ArrayList<>(toLoad), maxItemsInList)) {
+            List<ScriptContentData> loaded = session.getNamedQuery("findScriptContents")
+                                                    .setParameterList("hashes", hashes)
+                                                    .setReadOnly(true)
+                                                    .list();
+            for (ScriptContentData contentData : loaded) {
+                resolved.put(contentData.getHash(), contentData.getScript());
+                // the content may be removed meanwhile, it is not a proof that the content is stored
+                contents.asMap().putIfAbsent(contentData.getHash(), new CachedContent(contentData.getScript(), false));
+            }
+        }
+
+        for (ContentAddressedScript script : scripts) {
+            String hash = script.getContentHash();
+            if (hash != null) {
+                String content = resolved.get(hash);
+                if (content == null) {
+                    throw new DatabaseManagerException("Script content " + hash + " not found");
+                }
+                script.resolveContent(content);
+            }
+        }
+    }
+
+    /**
+     * Registers the contents referenced by script rows which the current transaction removes, they are removed
+     * once the transaction is committed if nothing references them anymore.
+     */
+    void releaseAfterCommit(Session session, Collection<String> hashes) {
+        if (hashes.isEmpty()) {
+            return;
+        }
+        session.getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    releasedHashes.addAll(hashes);
+                    removeReleased();
+                }
+            }
+        });
+    }
+
+    /**
+     * Removes the released contents which are not referenced anymore. Does nothing if references are being
+     * added, the thread which adds them removes the released contents afterwards.
+     */
+    @SuppressWarnings("unchecked")
+    private void removeReleased() {
+        // the released contents are checked again after the lock is released, so that none is left behind
+        while (!releasedHashes.isEmpty() && referencesLock.writeLock().tryLock()) {
+            try {
+                List<String> hashes = new ArrayList<>(releasedHashes);
+                releasedHashes.removeAll(hashes);
+                List<String> removed = transactionHelper.executeReadWriteTransaction(session -> {
+                    List<String> unreferenced = new ArrayList<>();
+                    for (List<String> hashesSubList : Lists.partition(hashes, maxItemsInList)) {
+                        unreferenced.addAll(session.getNamedQuery("findUnreferencedScriptContentHashes")
+                                                   .setParameterList("hashes", hashesSubList)
+                                                   .list());
+                    }
+                    deleteContents(session, unreferenced);
+                    return unreferenced;
+                });
+                contents.invalidateAll(removed);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to remove the unreferenced script contents, they will be removed at next startup",
+                            e);
+            } finally {
+                referencesLock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Removes the contents which are not referenced by any script anymore.
+     *
+     * @return the number of removed contents
+     */
+    @SuppressWarnings("unchecked")
+    int removeOrphans() {
+        referencesLock.writeLock().lock();
+        try {
+            List<String> orphans = transactionHelper.executeReadWriteTransaction(session -> {
+                List<String> hashes = session.getNamedQuery("findOrphanScriptContentHashes").list();
+                deleteContents(session, hashes);
+                return hashes;
+            });
+            contents.invalidateAll(orphans);
+            return orphans.size();
+        } finally {
+            referencesLock.writeLock().unlock();
+        }
+    }
+
+    private void deleteContents(Session session, List<String> hashes) {
+        for (List<String> hashesSubList : Lists.partition(hashes, maxItemsInList)) {
+            session.getNamedQuery("deleteScriptContentsInBulk").setParameterList("hashes", hashesSubList).executeUpdate();
+        }
+    }
+
+    /**
+     * Moves the inline contents of the script rows written before the contents were deduplicated
+     * to {@link ScriptContentData}, one transaction per batch of rows.
+     *
+     * @return the number of migrated rows
+     */
+    int migrateInlineScripts(int batchSize) {
+        int migrated = 0;
+        for (String entityName : Arrays.asList(ScriptData.class.getSimpleName(),
+                                               SelectionScriptData.class.getSimpleName())) {
+            int batchCount;
+            do {
+                synchronized (insertLock) {
+                    batchCount = transactionHelper.executeReadWriteTransaction(session -> migrateInlineScripts(session,
+                                                                                                              entityName,
+                                                                                                              batchSize),
+                                                                               false);
+                }
+                migrated += batchCount;
+                if (batchCount > 0) {
+                    logger.info("Migrated " + migrated + " inline scripts to the script contents table");
+                }
+            } while (batchCount == batchSize);
+        }
+        return migrated;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int migrateInlineScripts(Session session, String entityName, int batchSize) {
+        List<ContentAddressedScript> scripts = session.createQuery("from " + entityName + " where script is not null")
+                                                      .setMaxResults(batchSize)
+                                                      .list();
+        for (ContentAddressedScript script : scripts) {
+            String content = script.getScript();
+            String hash = ScriptContentData.hash(content);
+            if (session.get(ScriptContentData.class, hash) == null) {
+                session.save(new ScriptContentData(hash, content));
+            }
+            script.setContentHash(hash);
+            script.setScript(null);
+        }
+        return scripts.size();
+    }
+
+    private static final class CachedContent {
+
+        private final String content;
+
+        /** True if the content was found or inserted while its removal was prevented */
+        private final boolean stored;
+
+        private CachedContent(String content, boolean stored) {
+            this.content = content;
+            this.stored = stored;
+        }
+    }
+
+}
@@ -47,12 +47,14 @@ import org.ow2.proactive.scripting.SimpleScript;
 
 @Entity
 @NamedQueries({ @NamedQuery(name = "deleteScriptDataInBulk", query = "delete from ScriptData where taskData.id.jobId in :jobIdList"),
+                @NamedQuery(name = "findScriptDataContentHashes", query = "select distinct contentHash from ScriptData where taskData.id.jobId in :jobIdList and contentHash is not null"),
                 @NamedQuery(name = "countScriptData", query = "select count (*) from ScriptData") })
 @BatchSize(size = 100)
 @Table(name = "SCRIPT_DATA", indexes = { @Index(name = "SCRIPT_DATA_JOB_ID", columnList = "JOB_ID"),
                                          @Index(name = "SCRIPT_DATA_TASK_ID_JOB_ID", columnList = "TASK_ID,JOB_ID"),
-                                         @Index(name = "SCRIPT_DATA_TASK_ID", columnList = "TASK_ID") })
-public class ScriptData {
+                                         @Index(name = "SCRIPT_DATA_TASK_ID", columnList = "TASK_ID"),
+                                         @Index(name = "SCRIPT_DATA_CONTENT_HASH", columnList = "CONTENT_HASH") })
+public class ScriptData implements ContentAddressedScript {
 
     private long id;
 
@@ -60,6 +62,10 @@ public class ScriptData {
 
     private String script;
 
+    private String contentHash;
+
+    private String resolvedContent;
+
     private String url;
 
     private List<Serializable> scriptParameters;
@@ -107,17 +113,17 @@ public class ScriptData {
         if (flowScriptActionType.equals(FlowActionType.CONTINUE.toString())) {
             return FlowScript.createContinueFlowScript();
         } else if (flowScriptActionType.equals(FlowActionType.IF.toString())) {
-            return FlowScript.createIfFlowScript(getScript(),
+            return FlowScript.createIfFlowScript(content(),
                                                  getScriptEngine(),
                                                  getFlowScriptTarget(),
                                                  getFlowScriptTargetElse(),
                                                  getFlowScriptTargetContinuation(),
                                                  parameters());
         } else if (flowScriptActionType.equals(FlowActionType.LOOP.toString())) {
-            return FlowScript.createLoopFlowScript(getScript(), getScriptEngine(), getFlowScriptTarget(), parameters());
+            return FlowScript.createLoopFlowScript(content(), getScriptEngine(), getFlowScriptTarget(), parameters());
         }
         if (flowScriptActionType.equals(FlowActionType.REPLICATE.toString())) {
-            return FlowScript.createReplicateFlowScript(getScript(), getScriptEngine(), parameters());
+            return FlowScript.createReplicateFlowScript(content(), getScriptEngine(), parameters());
         } else {
             throw new DatabaseManagerException("Invalid flow script action: " + flowScriptActionType);
         }
@@ -155,7 +161,7 @@ public class ScriptData {
             throw new DatabaseManagerException("Flow script action type is null");
         }
 
-        if (script == null && url != null) {
+        if (content() == null && url != null) {
             return createFlowScriptByURL();
         } else {
             return createFlowScriptByScript();
@@ -163,14 +169,14 @@ public class ScriptData {
     }
 
     SimpleScript createSimpleScript() throws InvalidScriptException {
-        if (script == null && url != null) {
+        if (content() == null && url != null) {
             try {
                 return new SimpleScript(new URL(url), scriptEngine, parameters());
             } catch (MalformedURLException e) {
                 throw new InvalidScriptException(e);
             }
         } else {
-            return new SimpleScript(script, scriptEngine, parameters());
+            return new SimpleScript(content(), scriptEngine, parameters());
         }
     }
 
@@ -225,6 +231,24 @@ public class ScriptData {
         this.script = script;
     }
 
+    @Column(name = "CONTENT_HASH", length = 64)
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    @Override
+    public void resolveContent(String content) {
+        this.resolvedContent = content;
+    }
+
+    private String content() {
+        return script != null ? script : resolvedContent;
+    }
+
     @Column(name = "URL", length = Integer.MAX_VALUE)
     @Lob
     @Type(type = "org.hibernate.type.MaterializedClobType")
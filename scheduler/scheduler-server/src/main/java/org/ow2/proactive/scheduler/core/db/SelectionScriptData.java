@@ -44,12 +44,14 @@ import org.ow2.proactive.scripting.SelectionScript;
 
 @Entity
 @NamedQueries({ @NamedQuery(name = "deleteSelectionScriptDataInBulk", query = "delete from SelectionScriptData where taskData.id.jobId in :jobIdList"),
+                @NamedQuery(name = "findSelectionScriptDataContentHashes", query = "select distinct contentHash from SelectionScriptData where taskData.id.jobId in :jobIdList and contentHash is not null"),
                 @NamedQuery(name = "countSelectionScriptData", query = "select count (*) from SelectionScriptData") })
 @Table(name = "SELECTION_SCRIPT_DATA", indexes = { @Index(name = "SSD_DATA_JOB_ID", columnList = "JOB_ID"),
                                                    @Index(name = "SSD_TASK_ID_JOB_ID", columnList = "TASK_ID,JOB_ID"),
-                                                   @Index(name = "SSD_TASK_ID", columnList = "TASK_ID") })
+                                                   @Index(name = "SSD_TASK_ID", columnList = "TASK_ID"),
+                                                   @Index(name = "SSD_CONTENT_HASH", columnList = "CONTENT_HASH") })
 @BatchSize(size = 100)
-public class SelectionScriptData {
+public class SelectionScriptData implements ContentAddressedScript {
 
     private long id;
 
@@ -57,6 +59,10 @@ public class SelectionScriptData {
 
     private String script;
 
+    private String contentHash;
+
+    private String resolvedContent;
+
     private String url;
 
     private List<Serializable> scriptParameters;
@@ -87,14 +93,14 @@ public class SelectionScriptData {
     }
 
     SelectionScript createSelectionScript() throws InvalidScriptException {
-        if (script == null && url != null) {
+        if (content() == null && url != null) {
             try {
                 return new SelectionScript(new URL(url), getScriptEngine(), parameters(), isSelectionScriptDynamic());
             } catch (MalformedURLException e) {
                 throw new InvalidScriptException(e);
             }
         } else {
-            return new SelectionScript(getScript(), getScriptEngine(), parameters(), isSelectionScriptDynamic());
+            return new SelectionScript(content(), getScriptEngine(), parameters(), isSelectionScriptDynamic());
         }
     }
 
@@ -149,6 +155,24 @@ public class SelectionScriptData {
         this.script = script;
     }
 
+    @Column(name = "CONTENT_HASH", length = 64)
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    @Override
+    public void resolveContent(String content) {
+        this.resolvedContent = content;
+    }
+
+    private String content() {
+        return script != null ? script : resolvedContent;
+    }
+
     @Column(name = "URL", length = Integer.MAX_VALUE)
     @Lob
     @Type(type = "org.hibernate.type.MaterializedClobType")
@@ -88,6 +88,7 @@ import org.ow2.proactive.scheduler.task.internal.InternalScriptTask;
 import org.ow2.proactive.scheduler.task.internal.InternalTask;
 import org.ow2.proactive.scripting.ForkEnvironmentScript;
 import org.ow2.proactive.scripting.InvalidScriptException;
+import org.ow2.proactive.scripting.Script;
 import org.ow2.proactive.scripting.SelectionScript;
 import org.ow2.proactive.scripting.TaskScript;
 import org.ow2.proactive.topology.descriptor.ArbitraryTopologyDescriptor;
@@ -113,6 +114,7 @@ import org.ow2.proactive.topology.descriptor.TopologyDescriptor;
                 @NamedQuery(name = "getTasksCountForUsername", query = "select count(*) from TaskData task where task.owner = :username and taskStatus in (:taskStatus)"),
                 @NamedQuery(name = "findTaskData", query = "from TaskData where id in (:ids)"),
                 @NamedQuery(name = "findTaskDataById", query = "from TaskData td where td.id = :taskId"),
+                @NamedQuery(name = "findTaskDataWithScript", query = "from TaskData td left outer join fetch td.script where td.id in (:ids)"),
                 @NamedQuery(name = "getTotalNumberOfHostsUsed", query = "select count(distinct executionHostName) from TaskData task where task.id.jobId = :id"),
                 @NamedQuery(name = "getTotalTasksCount", query = "select count(*) from TaskData task"),
                 @NamedQuery(name = "loadJobsTasksFull", query = "from TaskData as task " +
@@ -161,6 +163,9 @@ import org.ow2.proactive.topology.descriptor.TopologyDescriptor;
                                                                              "cleanScript = null  where id.jobId in :jobIdList"),
                 @NamedQuery(name = "updateTaskDataStatusToPending", query = "update TaskData task set task.taskStatus = :taskStatus " +
                                                                             "where task.jobData = :job"),
+                @NamedQuery(name = "updateTaskDataStatusAndScheduledTimeInBulk", query = "update TaskData task set task.taskStatus = :taskStatus, " +
+                                                                                        "task.scheduledTime = :scheduledTime " +
+                                                                                        "where task.id.jobId = :jobId and task.id.taskId in (:taskIds)"),
                 @NamedQuery(name = "updateTaskDataTaskRestarted", query = "update TaskData set taskStatus = :taskStatus, " +
                                                                           "numberOfExecutionLeft = :numberOfExecutionLeft," +
                                                                           "numberOfExecutionOnFailureLeft = :numberOfExecutionOnFailureLeft" +
@@ -410,7 +415,11 @@ public class TaskData {
     }
 
     public ExecutableContainer createExecutableContainer() throws InvalidScriptException {
-        return new ScriptExecutableContainer(new TaskScript(script.createSimpleScript()));
+        return new ScriptExecutableContainer(createTaskScript());
+    }
+
+    public TaskScript createTaskScript() throws InvalidScriptException {
+        return new TaskScript(script.createSimpleScript());
     }
 
     @Embeddable
@@ -648,6 +657,68 @@ public class TaskData {
         return taskData;
     }
 
+    /**
+     * Adds the inline contents of the scripts which {@link #createTaskData(JobData, InternalScriptTask)}
+     * stores for the given task.
+     */
+    static void collectScriptContents(InternalTask task, Collection<String> contents) {
+        List<Script<?>> scripts = new ArrayList<>();
+        if (task.getSelectionScripts() != null) {
+            scripts.addAll(task.getSelectionScripts());
+        }
+        if (task.getExecutableContainer() instanceof ScriptExecutableContainer) {
+            scripts.add(((ScriptExecutableContainer) task.getExecutableContainer()).getScript());
+        }
+        scripts.add(task.getPreScript());
+        scripts.add(task.getPostScript());
+        scripts.add(task.getCleaningScript());
+        scripts.add(task.getFlowScript());
+        if (task.getForkEnvironment() != null) {
+            scripts.add(task.getForkEnvironment().getEnvScript());
+        }
+        for (Script<?> script : scripts) {
+            if (script != null && script.getScript() != null) {
+                contents.add(script.getScript());
+            }
+        }
+    }
+
+    /**
+     * Returns the script rows of the task, including the task script.
+     */
+    List<ContentAddressedScript> allScripts() {
+        List<ContentAddressedScript> scripts = internalTaskScripts(true);
+        if (getScript() != null) {
+            scripts.add(getScript());
+        }
+        return scripts;
+    }
+
+    /**
+     * Returns the script rows used by {@link #toInternalTask(InternalJob, boolean)} and by the
+     * database manager to build the internal task, the task script is loaded with the executable container.
+     */
+    List<ContentAddressedScript> internalTaskScripts(boolean loadFullState) {
+        List<ContentAddressedScript> scripts = new ArrayList<>();
+        if (getEnvScript() != null) {
+            scripts.add(getEnvScript());
+        }
+        if (loadFullState) {
+            if (getSelectionScripts() != null) {
+                scripts.addAll(getSelectionScripts());
+            }
+            for (ScriptData scriptData : Arrays.asList(getPreScript(),
+                                                       getPostScript(),
+                                                       getCleanScript(),
+                                                       getFlowScript())) {
+                if (scriptData != null) {
+                    scripts.add(scriptData);
+                }
+            }
+        }
+        return scripts;
+    }
+
     private Map<String, TaskVariable> variablesToTaskVariables() {
         Map<String, TaskVariable> taskVariables = new HashMap<>();
         for (Map.Entry<String, TaskDataVariable> entry : getVariables().entrySet()) {
@@ -0,0 +1,76 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+
+import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
+
+
+/**
+ * Storage of the large payloads of the task results outside of the database, see
+ * {@link PASchedulerProperties#SCHEDULER_DB_RESULT_BLOB_STORE}.
+ * <p>
+ * Payloads are addressed by the hash of their content, so storing the same content twice stores it once.
+ * Implementations must have a public no-arg constructor and be safe for concurrent use.
+ *
+ * @see LocalTaskResultBlobStore
+ */
+public interface TaskResultBlobStore {
+
+    /**
+     * Initializes the store, called once before any other method.
+     *
+     * @param location location of the store, the absolute path of {@link PASchedulerProperties#SCHEDULER_DB_RESULT_BLOB_LOCATION}
+     */
+    void init(String location) throws IOException;
+
+    /**
+     * Stores a payload, does nothing if a payload with the same hash is already stored.
+     * The payload must be readable once this method returns.
+     */
+    void put(String hash, byte[] content) throws IOException;
+
+    /**
+     * Opens a stored payload.
+     *
+     * @throws java.io.FileNotFoundException if no payload is stored with this hash
+     */
+    InputStream open(String hash) throws IOException;
+
+    /**
+     * Removes a stored payload, does nothing if no payload is stored with this hash.
+     */
+    void delete(String hash) throws IOException;
+
+    /**
+     * Returns the hashes of all the stored payloads.
+     */
+    Set<String> list() throws IOException;
+
+}
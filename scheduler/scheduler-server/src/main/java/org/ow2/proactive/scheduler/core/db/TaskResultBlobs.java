@@ -0,0 +1,343 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.log4j.Logger;
+import org.hibernate.Session;
+import org.objectweb.proactive.core.util.converter.ByteToObjectConverter;
+import org.objectweb.proactive.core.util.converter.ObjectToByteConverter;
+import org.ow2.proactive.db.DatabaseManagerException;
+import org.ow2.proactive.db.TransactionHelper;
+import org.ow2.proactive.scheduler.common.task.Log4JTaskLogs;
+import org.ow2.proactive.scheduler.common.task.TaskLogs;
+import org.ow2.proactive.scheduler.task.TaskResultImpl;
+
+import com.google.common.collect.Lists;
+import com.google.common.hash.Hashing;
+
+
+/**
+ * Keeps the payloads of the task results which are larger than a threshold in a {@link TaskResultBlobStore}
+ * instead of the database, the rows of {@link TaskResultData} reference them by the hash of their content.
+ * The payloads are the serialized value, the logs and the propagated variables of a result.
+ * <p>
+ * Payloads are stored before the transaction which inserts the rows, and are loaded lazily by the results
+ * read from the database. When a transaction removes result rows, the payloads they referenced are removed once
+ * it is committed, if no other row references them. References are only added inside
+ * {@link #withReferences(Supplier)}, which prevents the removal of the payloads they reference until their
+ * transaction is committed. Payloads left behind, e.g. by a crash, are removed by {@link #removeOrphans()}.
+ */
+class TaskResultBlobs {
+
+    private static final Logger logger = Logger.getLogger(TaskResultBlobs.class);
+
+    private final TransactionHelper transactionHelper;
+
+    private final TaskResultBlobStore store;
+
+    private final long threshold;
+
+    private final int maxItemsInList;
+
+    private final ReadWriteLock referencesLock = new ReentrantReadWriteLock();
+
+    /** Payloads whose references have been removed, they are removed if nothing else references them */
+    private final Set<String> releasedHashes = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param threshold size in bytes above which a payload is kept in the store, negative to keep all of them
+     *                  in the database
+     */
+    TaskResultBlobs(TransactionHelper transactionHelper, TaskResultBlobStore store, long threshold,
+            int maxItemsInList) {
+        this.transactionHelper = transactionHelper;
+        this.store = store;
+        this.threshold = threshold;
+        this.maxItemsInList = maxItemsInList;
+    }
+
+    /**
+     * Instantiates and initializes the store implemented by the given class.
+     */
+    static TaskResultBlobStore createStore(String className, String location) {
+        try {
+            TaskResultBlobStore store = (TaskResultBlobStore) Class.forName(className).newInstance();
+            store.init(location);
+            return store;
+        } catch (Exception e) {
+            throw new DatabaseManagerException("Cannot create the task result blob store " + className, e);
+        }
+    }
+
+    /**
+     * Runs a unit of work which adds references to stored payloads, the payloads cannot be removed meanwhile.
+     */
+    <T> T withReferences(Supplier<T> work) {
+        referencesLock.readLock().lock();
+        try {
+            return work.get();
+        } finally {
+            referencesLock.readLock().unlock();
+            removeReleased();
+        }
+    }
+
+    /**
+     * Moves the payloads of a result row which are larger than the threshold to the store, the row then
+     * references them by hash. Must be called inside {@link #withReferences(Supplier)}.
+     */
+    void externalize(TaskResultData resultData) {
+        if (threshold < 0) {
+            return;
+        }
+        try {
+            byte[] serializedValue = resultData.getSerializedValue();
+            if (serializedValue != null && serializedValue.length > threshold) {
+                resultData.setSerializedValueBlob(put(serializedValue));
+                resultData.setSerializedValue(null);
+            }
+
+            TaskLogs logs = resultData.getLogs();
+            if (logs != null && estimateSize(logs) > threshold) {
+                resultData.setLogsBlob(put(ObjectToByteConverter.ObjectStream.convert(logs)));
+                resultData.setLogs(null);
+            }
+
+            Map<String, byte[]> propagatedVariables = resultData.getPropagatedVariables();
+            if (propagatedVariables != null && estimateSize(propagatedVariables) > threshold) {
+                byte[] serializedVariables = ObjectToByteConverter.ObjectStream.convert(new HashMap<>(propagatedVariables));
+                resultData.setPropagatedVariablesBlob(put(serializedVariables));
+                resultData.setPropagatedVariables(null);
+            }
+        } catch (IOException e) {
+            throw new DatabaseManagerException("Failed to store the task result payloads", e);
+        }
+    }
+
+    /**
+     * Estimates the size of the serialized logs without serializing them, the logs kept in the database are
+     * serialized by Hibernate.
+     */
+    private static long estimateSize(TaskLogs logs) {
+        if (logs instanceof Log4JTaskLogs) {
+            // the logging events are kept serialized, formatting them would cost more than serializing the logs
+            return ((Log4JTaskLogs) logs).getSerializedEventsSize();
+        }
+        return length(logs.getStdoutLogs(false)) + length(logs.getStderrLogs(false));
+    }
+
+    private static long length(String text) {
+        return text == null ? 0 : text.length();
+    }
+
+    private static long estimateSize(Map<String, byte[]> variables) {
+        long size = 0;
+        for (Map.Entry<String, byte[]> variable : variables.entrySet()) {
+            size += 2L * variable.getKey().length();
+            if (variable.getValue() != null) {
+                size += variable.getValue().length;
+            }
+        }
+        return size;
+    }
+
+    private String put(byte[] content) throws IOException {
+        String hash = Hashing.sha256().hashBytes(content).toString();
+        store.put(hash, content);
+        return hash;
+    }
+
+    /**
+     * Sets the loaders of the payloads of a result row which are kept in the store.
+     */
+    @SuppressWarnings("unchecked")
+    void setLazyPayloads(TaskResultData resultData, TaskResultImpl result) {
+        if (resultData.getSerializedValueBlob() == null && resultData.getLogsBlob() == null &&
+            resultData.getPropagatedVariablesBlob() == null) {
+            return;
+        }
+        result.setLazyPayloads(loader(resultData.getSerializedValueBlob(), content -> content),
+                               loader(resultData.getLogsBlob(), content -> (TaskLogs) deserialize(content)),
+                               loader(resultData.getPropagatedVariablesBlob(),
+                                      content -> (Map<String, byte[]>) deserialize(content)));
+    }
+
+    private <T> Supplier<T> loader(String hash, Function<byte[], T> converter) {
+        if (hash == null) {
+            return null;
+        }
+        return () -> converter.apply(read(hash));
+    }
+
+    private byte[] read(String hash) {
+        try (InputStream content = store.open(hash)) {
+            return IOUtils.toByteArray(content);
+        } catch (IOException e) {
+            throw new DatabaseManagerException("Failed to read the task result payload " + hash, e);
+        }
+    }
+
+    private static Object deserialize(byte[] content) {
+        try {
+            return ByteToObjectConverter.ObjectStream.convert(content);
+        } catch (IOException | ClassNotFoundException e) {
+            throw new DatabaseManagerException("Failed to deserialize a task result payload", e);
+        }
+    }
+
+    /**
+     * Returns the payloads referenced by the results of the given jobs.
+     */
+    @SuppressWarnings("unchecked")
+    Set<String> findBlobsOfJobs(Session session, List<Long> jobIds) {
+        Set<String> hashes = new HashSet<>();
+        for (List<Long> jobIdsSubList : Lists.partition(jobIds, maxItemsInList)) {
+            addHashes(hashes,
+                      session.getNamedQuery("findTaskResultBlobsOfJobs")
+                             .setParameterList("jobIdList", jobIdsSubList)
+                             .list());
+        }
+        return hashes;
+    }
+
+    /**
+     * Registers the payloads referenced by result rows which the current transaction removes, they are removed
+     * once the transaction is committed if nothing references them anymore.
+     */
+    void releaseAfterCommit(Session session, Collection<String> hashes) {
+        if (hashes.isEmpty()) {
+            return;
+        }
+        session.getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    releasedHashes.addAll(hashes);
+                    removeReleased();
+                }
+            }
+        });
+    }
+
+    /**
+     * Removes the released payloads which are not referenced anymore. Does nothing if references are being
+     * added, the thread which adds them removes the released payloads afterwards.
+     */
+    private void removeReleased() {
+        // the released payloads are checked again after the lock is released, so that none is left behind
+        while (!releasedHashes.isEmpty() && referencesLock.writeLock().tryLock()) {
+            try {
+                List<String> hashes = new ArrayList<>(releasedHashes);
+                releasedHashes.removeAll(hashes);
+                deleteUnreferenced(hashes);
+            } catch (RuntimeException | IOException e) {
+                logger.warn("Failed to remove the unreferenced task result payloads, they will be removed at next startup",
+                            e);
+            } finally {
+                referencesLock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Removes the stored payloads which are not referenced by any result anymore.
+     *
+     * @return the number of removed payloads
+     */
+    int removeOrphans() {
+        referencesLock.writeLock().lock();
+        try {
+            return deleteUnreferenced(new ArrayList<>(store.list()));
+        } catch (IOException e) {
+            logger.warn("Failed to remove the unreferenced task result payloads", e);
+            return 0;
+        } finally {
+            referencesLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Must be called with the write lock held.
+     */
+    @SuppressWarnings("unchecked")
+    private int deleteUnreferenced(List<String> hashes) throws IOException {
+        Set<String> referenced = transactionHelper.executeReadOnlyTransaction(session -> {
+            Set<String> result = new HashSet<>();
+            for (List<String> hashesSubList : Lists.partition(hashes, maxItemsInList)) {
+                addHashes(result,
+                          session.getNamedQuery("findReferencedTaskResultBlobs")
+                                 .setParameterList("hashes", hashesSubList)
+                                 .list());
+            }
+            return result;
+        });
+        int removed = 0;
+        for (String hash : hashes) {
+            if (!referenced.contains(hash)) {
+                store.delete(hash);
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Adds the hashes of rows selected as (value blob, logs blob, propagated variables blob).
+     */
+    private static void addHashes(Set<String> hashes, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            for (Object hash : row) {
+                if (hash != null) {
+                    hashes.add((String) hash);
+                }
+            }
+        }
+    }
+
+}
@@ -49,8 +49,13 @@ import org.ow2.proactive.scheduler.task.TaskResultImpl;
                 @NamedQuery(name = "loadTasksResultByTaskAsc", query = "from TaskResultData result where result.taskRuntimeData = :task order by result.resultTime"),
                 @NamedQuery(name = "loadTasksResults", query = "select taskResult, " + "task.id, " + "task.taskName, " +
                                                                "task.preciousResult from TaskResultData as taskResult join taskResult.taskRuntimeData as task " + "where task.id in (:tasksIds) order by task.id, taskResult.resultTime desc"),
-                @NamedQuery(name = "countTaskResultData", query = "select count (*) from TaskResultData") })
-@Table(name = "TASK_RESULT_DATA", indexes = { @Index(name = "TASK_RESULT_DATA_RUNTIME_DATA", columnList = "JOB_ID,TASK_ID") })
+                @NamedQuery(name = "countTaskResultData", query = "select count (*) from TaskResultData"),
+                @NamedQuery(name = "findTaskResultBlobsOfJobs", query = "select serializedValueBlob, logsBlob, propagatedVariablesBlob from TaskResultData where taskRuntimeData.jobData.id in :jobIdList and (serializedValueBlob is not null or logsBlob is not null or propagatedVariablesBlob is not null)"),
+                @NamedQuery(name = "findReferencedTaskResultBlobs", query = "select serializedValueBlob, logsBlob, propagatedVariablesBlob from TaskResultData where serializedValueBlob in :hashes or logsBlob in :hashes or propagatedVariablesBlob in :hashes") })
+@Table(name = "TASK_RESULT_DATA", indexes = { @Index(name = "TASK_RESULT_DATA_RUNTIME_DATA", columnList = "JOB_ID,TASK_ID"),
+                                              @Index(name = "TASK_RESULT_DATA_VALUE_BLOB", columnList = "RESULT_VALUE_BLOB"),
+                                              @Index(name = "TASK_RESULT_DATA_LOGS_BLOB", columnList = "LOGS_BLOB"),
+                                              @Index(name = "TASK_RESULT_DATA_VARIABLES_BLOB", columnList = "PROPAGATED_VARIABLES_BLOB") })
 public class TaskResultData {
 
     private long id;
@@ -75,7 +80,14 @@ public class TaskResultData {
 
     private Map<String, String> metadata;
 
-    TaskResultImpl toTaskResult(TaskId taskId) {
+    /** Hashes of the payloads kept in the {@link TaskResultBlobStore} instead of their column, or null */
+    private String serializedValueBlob;
+
+    private String logsBlob;
+
+    private String propagatedVariablesBlob;
+
+    TaskResultImpl toTaskResult(TaskId taskId, TaskResultBlobs blobs) {
 
         TaskResultImpl result = new TaskResultImpl(taskId,
                                                    getSerializedValue(),
@@ -95,6 +107,7 @@ public class TaskResultData {
             action.setTargetElse(actionData.getTargetElse());
             result.setAction(action);
         }
+        blobs.setLazyPayloads(this, result);
 
         return result;
     }
@@ -225,6 +238,33 @@ public class TaskResultData {
         this.propagatedVariables = executionVariables;
     }
 
+    @Column(name = "RESULT_VALUE_BLOB", length = 64)
+    public String getSerializedValueBlob() {
+        return serializedValueBlob;
+    }
+
+    public void setSerializedValueBlob(String serializedValueBlob) {
+        this.serializedValueBlob = serializedValueBlob;
+    }
+
+    @Column(name = "LOGS_BLOB", length = 64)
+    public String getLogsBlob() {
+        return logsBlob;
+    }
+
+    public void setLogsBlob(String logsBlob) {
+        this.logsBlob = logsBlob;
+    }
+
+    @Column(name = "PROPAGATED_VARIABLES_BLOB", length = 64)
+    public String getPropagatedVariablesBlob() {
+        return propagatedVariablesBlob;
+    }
+
+    public void setPropagatedVariablesBlob(String propagatedVariablesBlob) {
+        this.propagatedVariablesBlob = propagatedVariablesBlob;
+    }
+
     @Column(name = "IS_RAW", nullable = true)
     public Boolean isRaw() {
         if (isRaw == null) {
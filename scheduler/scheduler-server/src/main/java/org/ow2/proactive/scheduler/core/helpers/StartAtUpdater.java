@@ -25,6 +25,7 @@
  */
 package org.ow2.proactive.scheduler.core.helpers;
 
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -75,7 +76,7 @@ public class StartAtUpdater {
 
     private boolean resetJobGenericInformation(InternalJob job, String startAt) {
 
-        Map<String, String> genericInformation = job.getRuntimeGenericInformation();
+        Map<String, String> genericInformation = new HashMap<>(job.getRuntimeGenericInformation());
 
         if (isValidStartAt(genericInformation, startAt)) {
             genericInformation.put(ExtendedSchedulerPolicy.GENERIC_INFORMATION_KEY_START_AT, startAt);
@@ -54,12 +54,14 @@ public class TableSizeMonitorRunner implements Runnable {
                                                                                      "JobData (Finished)",
                                                                                      "JobDataVariable",
                                                                                      "JobContent",
+                                                                                     "JobCounterData",
                                                                                      "TaskData",
                                                                                      "TaskDataNotFinished",
                                                                                      "SelectorData",
                                                                                      "EnvironmentModifierData",
                                                                                      "ScriptData",
                                                                                      "SelectionScriptData",
+                                                                                     "ScriptContentData",
                                                                                      "TaskDataVariable",
                                                                                      "TaskResultData",
                                                                                      "ThirdPartyCredentialData"));
@@ -93,12 +95,14 @@ public class TableSizeMonitorRunner implements Runnable {
         counts.put("JobData (Finished)", getCount("countJobDataFinished"));
         counts.put("JobDataVariable", getCount("countJobDataVariable"));
         counts.put("JobContent", getCount("countJobContent"));
+        counts.put("JobCounterData", getCount("countJobCounterData"));
         counts.put("TaskData", getCount("countTaskData"));
         counts.put("TaskDataNotFinished", getCount("countTaskDataNotFinished"));
         counts.put("SelectorData", getCount("countSelectorData"));
         counts.put("EnvironmentModifierData", getCount("countEnvironmentModifierData"));
         counts.put("ScriptData", getCount("countScriptData"));
         counts.put("SelectionScriptData", getCount("countSelectionScriptData"));
+        counts.put("ScriptContentData", getCount("countScriptContentData"));
         counts.put("TaskDataVariable", getCount("countTaskDataVariable"));
         counts.put("TaskResultData", getCount("countTaskResultData"));
         counts.put("ThirdPartyCredentialData", getCount("countThirdPartyCredentialData"));
@@ -38,6 +38,7 @@ import org.ow2.proactive.jmx.RRDDataStore;
 import org.ow2.proactive.scheduler.core.account.SchedulerAccountsManager;
 import org.ow2.proactive.scheduler.core.db.SchedulerDBManager;
 import org.ow2.proactive.scheduler.core.jmx.mbean.AllAccountsMBeanImpl;
+import org.ow2.proactive.scheduler.core.jmx.mbean.EventQueuesMBeanImpl;
 import org.ow2.proactive.scheduler.core.jmx.mbean.ManagementMBeanImpl;
 import org.ow2.proactive.scheduler.core.jmx.mbean.MyAccountMBeanImpl;
 import org.ow2.proactive.scheduler.core.jmx.mbean.RuntimeDataMBeanImpl;
@@ -62,6 +63,8 @@ public class SchedulerJMXHelper extends AbstractJMXHelper {
 
     public static final String MANAGEMENT_MBEAN_NAME = "ProActiveScheduler:name=Management";
 
+    public static final String EVENTQUEUES_MBEAN_NAME = "ProActiveScheduler:name=EventQueues";
+
     /** The single instance of this class */
     private static SchedulerJMXHelper instance;
 
@@ -155,6 +158,15 @@ public class SchedulerJMXHelper extends AbstractJMXHelper {
         } catch (Exception e) {
             LOGGER.error("Unable to register the ManagementMBean", e);
         }
+
+        // Register the EventQueues MBean into the MBean server
+        try {
+            final EventQueuesMBeanImpl eventQueuesMBean = new EventQueuesMBeanImpl();
+            final ObjectName name = new ObjectName(EVENTQUEUES_MBEAN_NAME);
+            mbs.registerMBean(eventQueuesMBean, name);
+        } catch (Exception e) {
+            LOGGER.error("Unable to register the EventQueuesMBean", e);
+        }
     }
 
     /**
@@ -0,0 +1,65 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.jmx.mbean;
+
+/**
+ * MBean exposing the queues of the events waiting to be sent to the clients listening to the scheduler.
+ *
+ * @author The ProActive Team
+ */
+public interface EventQueuesMBean {
+
+    /**
+     * Returns the number of clients listening to the scheduler events.
+     * @return the number of listening clients
+     */
+    int getListenersCount();
+
+    /**
+     * Returns the number of events waiting to be sent, for all the clients.
+     * @return the number of waiting events
+     */
+    int getTotalQueueSize();
+
+    /**
+     * Returns the number of events replaced by a more recent event before being sent, for all the clients.
+     * @return the number of coalesced events
+     */
+    long getTotalCoalescedEventsCount();
+
+    /**
+     * Returns the number of events dropped because a client queue was full, for all the clients.
+     * @return the number of dropped events
+     */
+    long getTotalDroppedEventsCount();
+
+    /**
+     * Returns the queue depth, coalesced and dropped events count of each client,
+     * one line per client.
+     * @return the statistics of each client queue
+     */
+    String[] getQueuesStatistics();
+}
@@ -0,0 +1,84 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.jmx.mbean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.management.NotCompliantMBeanException;
+import javax.management.StandardMBean;
+
+import org.ow2.proactive.scheduler.core.ClientRequestHandler;
+
+
+/**
+ * Implementation of the EventQueuesMBean interface.
+ *
+ * @author The ProActive Team
+ */
+public final class EventQueuesMBeanImpl extends StandardMBean implements EventQueuesMBean {
+
+    public EventQueuesMBeanImpl() throws NotCompliantMBeanException {
+        super(EventQueuesMBean.class);
+    }
+
+    public int getListenersCount() {
+        return ClientRequestHandler.getHandlers().size();
+    }
+
+    public int getTotalQueueSize() {
+        int total = 0;
+        for (ClientRequestHandler handler : ClientRequestHandler.getHandlers()) {
+            total += handler.getQueueSize();
+        }
+        return total;
+    }
+
+    public long getTotalCoalescedEventsCount() {
+        long total = 0;
+        for (ClientRequestHandler handler : ClientRequestHandler.getHandlers()) {
+            total += handler.getCoalescedEventsCount();
+        }
+        return total;
+    }
+
+    public long getTotalDroppedEventsCount() {
+        long total = 0;
+        for (ClientRequestHandler handler : ClientRequestHandler.getHandlers()) {
+            total += handler.getDroppedEventsCount();
+        }
+        return total;
+    }
+
+    public String[] getQueuesStatistics() {
+        List<String> statistics = new ArrayList<>();
+        for (ClientRequestHandler handler : ClientRequestHandler.getHandlers()) {
+            statistics.add(handler.getClientId() + ": queued=" + handler.getQueueSize() + ", coalesced=" +
+                           handler.getCoalescedEventsCount() + ", dropped=" + handler.getDroppedEventsCount());
+        }
+        return statistics.toArray(new String[statistics.size()]);
+    }
+}
@@ -168,6 +168,13 @@ public abstract class InternalJob extends JobState {
     @XmlTransient
     private static PrivateKey corePrivateKey;
 
+    /** incremented each time the variables, the generic information, the id or the owner of the job change */
+    @XmlTransient
+    private transient volatile long runtimeVersion = 0;
+
+    @XmlTransient
+    private transient volatile RuntimeGenericInformation runtimeGenericInformation;
+
     /**
      * Hibernate default constructor
      */
@@ -262,6 +269,7 @@ public abstract class InternalJob extends JobState {
 
     public void setJobInfo(JobInfoImpl jobInfo) {
         this.jobInfo = jobInfo;
+        invalidateRuntimeGenericInformation();
     }
 
     /**
@@ -1024,6 +1032,7 @@ public abstract class InternalJob extends JobState {
      */
     public void setId(JobId id) {
         jobInfo.setJobId(id);
+        invalidateRuntimeGenericInformation();
     }
 
     /**
@@ -1203,6 +1212,7 @@ public abstract class InternalJob extends JobState {
      */
     public void setOwner(String owner) {
         this.jobInfo.setJobOwner(owner);
+        invalidateRuntimeGenericInformation();
     }
 
     /**
@@ -1346,12 +1356,50 @@ public abstract class InternalJob extends JobState {
     public void setVariables(Map<String, JobVariable> variables) {
         super.setVariables(variables);
         this.jobInfo.setVariables(this.getVariablesAsReplacementMap());
+        invalidateRuntimeGenericInformation();
     }
 
     @Override
     public void setGenericInformation(Map<String, String> genericInformation) {
         super.setGenericInformation(genericInformation);
         this.jobInfo.setGenericInformation(genericInformation);
+        invalidateRuntimeGenericInformation();
+    }
+
+    @Override
+    public void addGenericInformation(String key, String genericInformation) {
+        super.addGenericInformation(key, genericInformation);
+        invalidateRuntimeGenericInformation();
+    }
+
+    /**
+     * Returns the job generic information where variables were replaced, see {@link JobState#getRuntimeGenericInformation()}.
+     * <p>
+     * The result is computed once and shared until the variables, the generic information, the id or the owner
+     * of the job change, it cannot be modified.
+     */
+    @Override
+    public Map<String, String> getRuntimeGenericInformation() {
+        RuntimeGenericInformation current = runtimeGenericInformation;
+        long version = runtimeVersion;
+        if (current == null || current.version != version) {
+            current = new RuntimeGenericInformation(version,
+                                                    Collections.unmodifiableMap(super.getRuntimeGenericInformation()));
+            runtimeGenericInformation = current;
+        }
+        return current.genericInformation;
+    }
+
+    /**
+     * Returns the version of the job runtime generic information, incremented each time it is invalidated.
+     */
+    public long getRuntimeVersion() {
+        return runtimeVersion;
+    }
+
+    private synchronized void invalidateRuntimeGenericInformation() {
+        runtimeVersion++;
+        runtimeGenericInformation = null;
     }
 
     public Map<String, Serializable> getResultMap() {
@@ -1377,4 +1425,19 @@ public abstract class InternalJob extends JobState {
     public Map<Integer, Boolean> getAttachedServices() {
         return jobInfo.getAttachedServices();
     }
+
+    /**
+     * Runtime generic information with the job version it was computed for.
+     */
+    private static final class RuntimeGenericInformation {
+
+        private final long version;
+
+        private final Map<String, String> genericInformation;
+
+        private RuntimeGenericInformation(long version, Map<String, String> genericInformation) {
+            this.version = version;
+            this.genericInformation = genericInformation;
+        }
+    }
 }
@@ -25,11 +25,18 @@
  */
 package org.ow2.proactive.scheduler.policy.ram;
 
+import java.rmi.dgc.VMID;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
 import org.apache.log4j.Logger;
 import org.objectweb.proactive.ActiveObjectCreationException;
 import org.objectweb.proactive.api.PAActiveObject;
 import org.objectweb.proactive.core.node.Node;
 import org.objectweb.proactive.core.node.NodeException;
+import org.ow2.proactive.resourcemanager.common.NodeTelemetry;
+import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
 import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptorImpl;
 import org.ow2.proactive.scheduler.policy.ExtendedSchedulerPolicy;
@@ -46,12 +53,24 @@ import org.ow2.proactive.utils.NodeSet;
  * It's important to set the ALLOC_RAM_GIGABYTES task property to 0 in the clean script to release the preallocation. For example for a groovy clean script :
  * org.objectweb.proactive.api.PAActiveObject.getNode().setProperty("ALLOC_RAM_GIGABYTES","0");
  *
+ * The RAM of the node machine and the reservations of its nodes are read from the telemetry given by the
+ * resource manager with the selected nodes. Reservations made by this policy which the telemetry does not show yet
+ * are counted during {@link PASchedulerProperties#SCHEDULER_POLICY_RAM_RESERVATION_TIMEOUT}. Nodes without
+ * telemetry are probed with a {@link RamCompute} active object.
+ *
  */
 public class RamSchedulingPolicy extends ExtendedSchedulerPolicy {
 
     private static final Logger logger = Logger.getLogger(RamSchedulingPolicy.class);
 
-    public static final String RAM_VARIABLE_NAME = "ALLOC_RAM_GIGABYTES";
+    public static final String RAM_VARIABLE_NAME = NodeTelemetry.RESERVED_MEMORY_PROPERTY;
+
+    private static final long GIGABYTE = (1024L * 1024L * 1024L);
+
+    private final long reservationTimeout = PASchedulerProperties.SCHEDULER_POLICY_RAM_RESERVATION_TIMEOUT.getValueAsInt();
+
+    /** reservations made by this policy, per node JVM and node name */
+    private final Map<VMID, Map<String, Reservation>> reservations = new HashMap<>();
 
     @Override
     public boolean isTaskExecutable(NodeSet selectedNodes, EligibleTaskDescriptor task) {
@@ -79,13 +98,16 @@ public class RamSchedulingPolicy extends ExtendedSchedulerPolicy {
     private boolean canRunTaskOnNode(NodeSet selectedNodes, EligibleTaskDescriptor task, double neededRam) {
         Node n = selectedNodes.get(0);
         try {
-            double freeRam = getFreeRamFromNode(n);
+            double freeRam = getFreeRam(selectedNodes, n);
             logger.debug("Free Ram for node (" + n.getNodeInformation().getName() + ") : " + freeRam +
                          " , neededRam : " + neededRam);
             if (freeRam >= neededRam) {
                 logger.debug("Task " + ((EligibleTaskDescriptorImpl) task).getInternal().getName() +
                              " can execute on " + n);
                 n.setProperty(RAM_VARIABLE_NAME, "" + neededRam);
+                if (selectedNodes.getTelemetry(n.getNodeInformation().getURL()) != null) {
+                    addReservation(n, neededRam);
+                }
                 return true;
             }
         } catch (Exception e) {
@@ -95,6 +117,55 @@ public class RamSchedulingPolicy extends ExtendedSchedulerPolicy {
         return false;
     }
 
+    private double getFreeRam(NodeSet selectedNodes, Node n) throws ActiveObjectCreationException, NodeException {
+        NodeTelemetry telemetry = selectedNodes.getTelemetry(n.getNodeInformation().getURL());
+        if (telemetry == null || telemetry.getTotalMemory() < 0) {
+            return getFreeRamFromNode(n);
+        }
+        return ((double) telemetry.getTotalMemory()) / GIGABYTE -
+               getReservedRam(n.getVMInformation().getVMID(), telemetry);
+    }
+
+    /**
+     * Sums the reservations of the nodes of a JVM, the ones made by this policy replacing the values reported by the
+     * telemetry until the telemetry shows them or they time out.
+     */
+    private double getReservedRam(VMID vmid, NodeTelemetry telemetry) {
+        Map<String, Double> reported = telemetry.getReservedMemory();
+        Map<String, Reservation> pending = reservations.get(vmid);
+        double reserved = 0;
+        for (Map.Entry<String, Double> nodeReservation : reported.entrySet()) {
+            if (pending == null || !pending.containsKey(nodeReservation.getKey())) {
+                reserved += nodeReservation.getValue();
+            }
+        }
+        if (pending != null) {
+            long now = System.currentTimeMillis();
+            Iterator<Map.Entry<String, Reservation>> iterator = pending.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Reservation> pendingReservation = iterator.next();
+                Double reportedValue = reported.get(pendingReservation.getKey());
+                Reservation reservation = pendingReservation.getValue();
+                if ((reportedValue != null && reportedValue >= reservation.gigabytes) ||
+                    now - reservation.time > reservationTimeout) {
+                    iterator.remove();
+                    reserved += reportedValue != null ? reportedValue : 0;
+                } else {
+                    reserved += reservation.gigabytes;
+                }
+            }
+            if (pending.isEmpty()) {
+                reservations.remove(vmid);
+            }
+        }
+        return reserved;
+    }
+
+    private void addReservation(Node n, double gigabytes) {
+        reservations.computeIfAbsent(n.getVMInformation().getVMID(), vmid -> new HashMap<>())
+                    .put(n.getNodeInformation().getName(), new Reservation(gigabytes, System.currentTimeMillis()));
+    }
+
     private double getFreeRamFromNode(Node n) throws ActiveObjectCreationException, NodeException {
         RamCompute ramCompute = PAActiveObject.newActive(RamCompute.class, new Object[] {}, n);
         double freeRam = ramCompute.getAvailableRAMInGB();
@@ -106,4 +177,16 @@ public class RamSchedulingPolicy extends ExtendedSchedulerPolicy {
         return freeRam;
     }
 
+    private static final class Reservation {
+
+        private final double gigabytes;
+
+        private final long time;
+
+        private Reservation(double gigabytes, long time) {
+            this.gigabytes = gigabytes;
+            this.time = time;
+        }
+    }
+
 }
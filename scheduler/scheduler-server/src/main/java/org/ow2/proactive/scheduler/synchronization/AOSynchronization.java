@@ -28,10 +28,16 @@ package org.ow2.proactive.scheduler.synchronization;
 import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
-import java.io.StringReader;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.BiPredicate;
@@ -43,12 +49,14 @@ import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import org.codehaus.groovy.control.CompilationFailedException;
 import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.runtime.InvokerHelper;
 import org.objectweb.proactive.Body;
 import org.objectweb.proactive.EndActive;
 import org.objectweb.proactive.InitActive;
 import org.objectweb.proactive.RunActive;
 import org.objectweb.proactive.Service;
 import org.objectweb.proactive.annotation.ImmediateService;
+import org.objectweb.proactive.api.PAActiveObject;
 import org.objectweb.proactive.core.body.request.Request;
 import org.objectweb.proactive.extensions.annotation.ActiveObject;
 import org.objectweb.proactive.utils.StackTraceUtil;
@@ -57,12 +65,11 @@ import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.util.TaskLogger;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.Striped;
 
+import groovy.lang.Binding;
 import groovy.lang.GroovyShell;
 import groovy.lang.Script;
-import jdbm.PrimaryHashMap;
-import jdbm.RecordManager;
-import jdbm.RecordManagerFactory;
 
 
 /**
@@ -72,9 +79,17 @@ import jdbm.RecordManagerFactory;
  *
  * All requests are <b>synchronous</b> (this is done by returning primitive objects or throwing checked exception)
  *
- * Internally, HashMap are used to implement Channels. Channels are persisted thanks to <a href="https://code.google.com/archive/p/jdbm2/">JDBM2</a>
+ * Internally, HashMap are used to implement Channels. Persistent channels are stored by a {@link ChannelStore},
+ * either a <a href="https://code.google.com/archive/p/jdbm2/">JDBM2</a> database or a journal, according to
+ * {@link PASchedulerProperties#SCHEDULER_SYNCHRONIZATION_STORE}.
+ *
+ * Operations on channels are immediate services, they run in parallel on different channels. Each channel is
+ * modified under its own lock, so that operations on the same channel are atomic. Closures are compiled before
+ * the lock is taken.
  *
  * A custom {@link RunActive#runActivity(Body) runActivity} is implemented to handle wait Methods.
+ * Wait requests whose predicate is not met are kept aside, indexed by channel and key, and their predicate is
+ * evaluated again only when a request modifies this key or channel, or when their timeout expires.
  * @author ActiveEon Team
  * @since 26/03/2018
  */
@@ -98,10 +113,16 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     // cache storing <md5, script> to avoid groovy class memory leak
     private static final Map<String, Script> closureCache = Collections.synchronizedMap(new LRUMap<>(PASchedulerProperties.SCHEDULER_STAX_JOB_CACHE.getValueAsInt()));
 
-    private static long closureIndex = 0;
+    private static final AtomicLong closureIndex = new AtomicLong();
 
     private static final String CLOSURE_NAME_BASE = "AOSynchronization_";
 
+    private static final String JOURNAL_STORE = "journal";
+
+    private static final int CHANNEL_LOCK_STRIPES = 64;
+
+    private static final CompletableFuture<Void> PERSISTED = CompletableFuture.completedFuture(null);
+
     /** Path to jdbm database main file */
     private File statusFile;
 
@@ -111,28 +132,50 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     /** Name of the JDBM Database file used by this service */
     private static final String DEFAULT_STORE_SESSION_NAME = "SchedulerStore";
 
-    /** Schema used inside the JDBM database */
-    private static final String STATUS_RECORD_NAME = "STORE";
-
-    private static long WAIT_STEP = 500L;
-
     /** HashMap storing the in-memory channels */
     private ConcurrentHashMap<String, Channel> inMemoryChannels;
 
-    /** JDBM map storing the persistent channels */
-    private PrimaryHashMap<String, Channel> persistedChannels;
+    /** HashMap storing the persistent channels, loaded from the store */
+    private volatile ConcurrentHashMap<String, Channel> persistedChannels = new ConcurrentHashMap<>();
+
+    private ChannelStore store;
+
+    /** Locks of the channels, per channel name */
+    private final Striped<Lock> channelLocks = Striped.lock(CHANNEL_LOCK_STRIPES);
+
+    /** Shared by the channel modifications, held exclusively by the active object thread while the service is frozen */
+    private final ReentrantReadWriteLock freezeLock = new ReentrantReadWriteLock();
+
+    /** Pending wait requests to the active object, per channel and key, in arrival order */
+    private final Map<String, Map<String, List<PendingWait>>> pendingWaits = new HashMap<>();
+
+    /** Pending wait requests which have a timeout, by deadline */
+    private final PriorityQueue<PendingWait> pendingWaitsByDeadline = new PriorityQueue<>(Comparator.comparingLong(PendingWait::getDeadline));
 
-    private Map<String, Channel> synchronizedPersistedChannels;
+    /** Channels which have pending wait requests, their modifications are notified to the active object thread */
+    private final Set<String> watchedChannels = ConcurrentHashMap.newKeySet();
 
-    /** Queue used to memorize and handle wait requests to the active object */
-    private Queue<TimedOutRequest> waitUntilQueue = new ArrayDeque<>();
+    /** Modifications of the watched channels not yet seen by the active object thread */
+    private final Queue<Modification> modifications = new ConcurrentLinkedQueue<>();
+
+    /** Set when a request has been sent to wake up the active object thread, and not yet served */
+    private final AtomicBoolean wakeUpRequested = new AtomicBoolean(false);
+
+    /** Keys modified since the pending wait requests were last checked, per channel */
+    private final Map<String, Set<String>> modifiedKeys = new HashMap<>();
+
+    /** Channels entirely modified since the pending wait requests were last checked */
+    private final Set<String> modifiedChannels = new HashSet<>();
+
+    /** Stub used to wake up the active object thread */
+    private AOSynchronization stubOnThis;
+
+    private Thread activityThread;
 
     /** Groovy related configuration */
 
     private GroovyShell shell;
 
-    private RecordManager recordManager;
-
     private volatile boolean isStarted = false;
 
     @java.lang.SuppressWarnings("unused")
@@ -170,7 +213,7 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     }
 
     /**
-     * Initialize the Record Manager.
+     * Initialize the channel store.
      *
      * Load the persisted channel from disk at configured location.
      *
@@ -181,14 +224,7 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     private void init(boolean firstAttempt) {
         close();
         try {
-            logger.info("Loading Record Manager from file : " + statusFile);
-            recordManager = RecordManagerFactory.createRecordManager(statusFile.getCanonicalPath());
-            persistedChannels = recordManager.hashMap(STATUS_RECORD_NAME);
-            // While printing the content of persistedChannels, InvalidClassException or jdbm Error can be triggered
-            logger.info("Content of persisted store : " + persistedChannels);
-
-            recordManager.commit();
-            synchronizedPersistedChannels = Collections.synchronizedMap(persistedChannels);
+            loadPersistedChannels();
             if (!firstAttempt) {
                 logger.info("Loading of job database successful after clean.");
             }
@@ -207,6 +243,52 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
         isStarted = true;
     }
 
+    private void loadPersistedChannels() throws IOException {
+        if (JOURNAL_STORE.equalsIgnoreCase(PASchedulerProperties.SCHEDULER_SYNCHRONIZATION_STORE.getValueAsString())) {
+            JournalChannelStore journalStore = new JournalChannelStore(statusFileDirectory,
+                                                                       DEFAULT_STORE_SESSION_NAME,
+                                                                       PASchedulerProperties.SCHEDULER_SYNCHRONIZATION_JOURNAL_COMPACTION_THRESHOLD.getValueAsInt());
+            store = journalStore;
+            Map<String, Channel> channels = journalStore.load();
+            if (journalStore.isNewStore() && hasJdbmDatabase()) {
+                channels = importJdbmDatabase(journalStore);
+            }
+            persistedChannels = new ConcurrentHashMap<>(channels);
+        } else {
+            store = new JdbmChannelStore(statusFile);
+            persistedChannels = new ConcurrentHashMap<>(store.load());
+        }
+    }
+
+    private boolean hasJdbmDatabase() {
+        File[] jdbmFiles = statusFileDirectory.listFiles((dir,
+                name) -> name.startsWith(DEFAULT_STORE_SESSION_NAME) &&
+                         !name.startsWith(DEFAULT_STORE_SESSION_NAME + JournalChannelStore.JOURNAL_SUFFIX) &&
+                         !name.startsWith(DEFAULT_STORE_SESSION_NAME + JournalChannelStore.SNAPSHOT_SUFFIX));
+        return jdbmFiles != null && jdbmFiles.length > 0;
+    }
+
+    /**
+     * Copies the channels of the jdbm database to a new journal store
+     */
+    private Map<String, Channel> importJdbmDatabase(JournalChannelStore journalStore) throws IOException {
+        logger.info("Importing persistent channels of the jdbm database " + statusFile + " in the journal");
+        JdbmChannelStore jdbmStore = new JdbmChannelStore(statusFile);
+        try {
+            Map<String, Channel> channels = jdbmStore.load();
+            List<CompletableFuture<Void>> imported = new ArrayList<>(channels.size());
+            for (Map.Entry<String, Channel> channel : channels.entrySet()) {
+                imported.add(journalStore.channelModified(channel.getKey(), channel.getValue()));
+            }
+            for (CompletableFuture<Void> channel : imported) {
+                awaitPersisted(channel);
+            }
+            return channels;
+        } finally {
+            jdbmStore.close();
+        }
+    }
+
     private void waitUntilStarted() {
         while (!isStarted) {
             try {
@@ -247,106 +329,127 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
 
     public boolean close() {
         inMemoryChannels.clear();
-        if (recordManager != null) {
-            try {
-                logger.info("Closing Record Manager");
-                recordManager.close();
-                recordManager = null;
-            } catch (IOException e) {
-                logger.warn("Error when closing Record Manager", e);
-            }
+        if (store != null) {
+            store.close();
+            store = null;
         }
         return true;
     }
 
     private Channel getChannel(String name) throws InvalidChannelException {
-        if (inMemoryChannels.containsKey(name)) {
-            return inMemoryChannels.get(name);
-        } else if (synchronizedPersistedChannels.containsKey(name)) {
-            return synchronizedPersistedChannels.get(name);
+        Channel channel = inMemoryChannels.get(name);
+        if (channel == null) {
+            channel = persistedChannels.get(name);
+        }
+        if (channel == null) {
+            throw new InvalidChannelException("Channel " + name + " does not exist");
+        }
+        return channel;
+    }
+
+    /**
+     * Locks a channel for a modification, the channel must exist
+     */
+    private LockedChannel lockChannel(String name) throws InvalidChannelException {
+        LockedChannel lockedChannel = new LockedChannel(name);
+        try {
+            lockedChannel.channel = getChannel(name);
+        } catch (InvalidChannelException e) {
+            lockedChannel.close();
+            throw e;
+        }
+        return lockedChannel;
+    }
+
+    private void awaitPersisted(CompletableFuture<Void> persisted) throws IOException {
+        try {
+            persisted.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while persisting channel", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
         }
-        throw new InvalidChannelException("Channel " + name + " does not exist");
     }
 
     @Override
+    @ImmediateService
     @SuppressWarnings("MismatchedQueryAndUpdateOfCollection")
     public boolean createChannel(String originator, TaskId taskid, String name, boolean isPersistent)
             throws IOException {
-        try {
-            boolean alreadyExistingChannel = deleteChannel(originator, taskid, name);
+        boolean alreadyExistingChannel;
+        CompletableFuture<Void> persisted;
+        try (LockedChannel lockedChannel = new LockedChannel(name)) {
+            alreadyExistingChannel = deleteChannel(originator, taskid, name);
             Channel newChannel = new Channel();
+            lockedChannel.channel = newChannel;
             if (isPersistent) {
-                synchronizedPersistedChannels.put(name, newChannel);
-                logWithContextAndPersist(taskid,
-                                         null,
-                                         "Created new persistent channel " + QUOTE + name + QUOTE,
-                                         Level.INFO);
-                recordManager.commit();
+                persistedChannels.put(name, newChannel);
+                persisted = store.channelModified(name, newChannel);
             } else {
                 inMemoryChannels.put(name, newChannel);
-                logWithContextAndPersist(taskid,
-                                         null,
-                                         "Created new memory channel " + QUOTE + name + QUOTE,
-                                         Level.INFO);
+                persisted = PERSISTED;
             }
-            return !alreadyExistingChannel;
+            channelModified(name);
+        }
+        try {
+            logWithContextAndPersist(taskid,
+                                     null,
+                                     "Created new " + (isPersistent ? "persistent" : "memory") + " channel " + QUOTE +
+                                           name + QUOTE,
+                                     Level.INFO,
+                                     persisted);
         } catch (InvalidChannelException e) {
             throw new IllegalStateException(e);
         }
+        return !alreadyExistingChannel;
     }
 
     @Override
+    @ImmediateService
     public boolean deleteChannel(String originator, TaskId taskid, String name) throws IOException {
-        try {
-            if (synchronizedPersistedChannels.containsKey(name)) {
-                synchronizedPersistedChannels.remove(name);
-                logWithContextAndPersist(taskid,
-                                         null,
-                                         "Deleted persistent channel " + QUOTE + name + QUOTE,
-                                         Level.INFO);
-                recordManager.commit();
-                return true;
-            } else if (inMemoryChannels.containsKey(name)) {
-                inMemoryChannels.remove(name);
-                logWithContextAndPersist(taskid, null, "Deleted memory channel " + QUOTE + name + QUOTE, Level.INFO);
-                return true;
+        CompletableFuture<Void> persisted;
+        String message;
+        try (LockedChannel lockedChannel = new LockedChannel(name)) {
+            if (persistedChannels.remove(name) != null) {
+                persisted = store.channelDeleted(name);
+                message = "Deleted persistent channel " + QUOTE + name + QUOTE;
+            } else if (inMemoryChannels.remove(name) != null) {
+                persisted = PERSISTED;
+                message = "Deleted memory channel " + QUOTE + name + QUOTE;
             } else {
                 return false;
             }
+            channelModified(name);
+        }
+        try {
+            logWithContextAndPersist(taskid, null, message, Level.INFO, persisted);
         } catch (InvalidChannelException e) {
             throw new IllegalStateException(e);
         }
+        return true;
     }
 
     @Override
     @ImmediateService
     public boolean channelExists(String originator, TaskId taskid, String name) {
         waitUntilStarted();
-        return inMemoryChannels.containsKey(name) || synchronizedPersistedChannels.containsKey(name);
+        return inMemoryChannels.containsKey(name) || persistedChannels.containsKey(name);
     }
 
     @Override
+    @ImmediateService
     public boolean createChannelIfAbsent(String originator, TaskId taskid, String name, boolean isPersistent)
             throws IOException {
-        if (inMemoryChannels.containsKey(name) || synchronizedPersistedChannels.containsKey(name)) {
-            return false;
-        } else {
-            return createChannel(originator, taskid, name, isPersistent);
-        }
-    }
-
-    /**
-     * Commits pending operations on the given channel
-     * @param channel channel name
-     * @throws IOException if an error occurs when persisting channel
-     */
-    private void commitIfNeeded(String channel) throws IOException {
-        if (synchronizedPersistedChannels.containsKey(channel)) {
-            // Record Manager mark as dirty (uncommited) entries which have be modified via a put call
-            // Thus, such operation as persistedChannels.get(channel).dosomething() will not be committed
-            // by the following trick, we mark the entry as dirty and commit
-            synchronizedPersistedChannels.put(channel, synchronizedPersistedChannels.get(channel));
-            recordManager.commit();
+        try (LockedChannel lockedChannel = new LockedChannel(name)) {
+            if (inMemoryChannels.containsKey(name) || persistedChannels.containsKey(name)) {
+                return false;
+            } else {
+                return createChannel(originator, taskid, name, isPersistent);
+            }
         }
     }
 
@@ -389,38 +492,62 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     }
 
     @Override
+    @ImmediateService
     public Serializable put(String originator, TaskId taskid, String channel, String key, Serializable value)
             throws InvalidChannelException, IOException {
-        Serializable answer = getChannel(channel).put(key, value);
+        Serializable answer;
+        CompletableFuture<Void> persisted;
+        try (LockedChannel lockedChannel = lockChannel(channel)) {
+            answer = lockedChannel.channel.put(key, value);
+            persisted = lockedChannel.keyModified(key);
+        }
         logWithContextAndPersist(taskid,
                                  channel,
                                  "Put " + value + ON_KEY + QUOTE + key + QUOTE + PREVIOUS_VALUE_WAS + answer + "",
-                                 Level.DEBUG);
+                                 Level.DEBUG,
+                                 persisted);
         return answer;
     }
 
     @Override
+    @ImmediateService
     public Serializable remove(String originator, TaskId taskid, String channel, String key)
             throws InvalidChannelException, IOException {
-        Serializable answer = getChannel(channel).remove(key);
+        Serializable answer;
+        CompletableFuture<Void> persisted;
+        try (LockedChannel lockedChannel = lockChannel(channel)) {
+            answer = lockedChannel.channel.remove(key);
+            persisted = lockedChannel.keyModified(key);
+        }
         logWithContextAndPersist(taskid,
                                  channel,
                                  "Removed key " + QUOTE + key + QUOTE + PREVIOUS_VALUE_WAS + answer,
-                                 Level.DEBUG);
+                                 Level.DEBUG,
+                                 persisted);
         return answer;
     }
 
     @Override
+    @ImmediateService
     public void putAll(String originator, TaskId taskid, String channel,
             Map<? extends String, ? extends Serializable> m) throws InvalidChannelException, IOException {
-        getChannel(channel).putAll(m);
-        logWithContextAndPersist(taskid, channel, "PutAll called, with new entries: " + m, Level.DEBUG);
+        CompletableFuture<Void> persisted;
+        try (LockedChannel lockedChannel = lockChannel(channel)) {
+            lockedChannel.channel.putAll(m);
+            persisted = lockedChannel.channelModified();
+        }
+        logWithContextAndPersist(taskid, channel, "PutAll called, with new entries: " + m, Level.DEBUG, persisted);
     }
 
     @Override
+    @ImmediateService
     public void clear(String originator, TaskId taskid, String channel) throws InvalidChannelException, IOException {
-        getChannel(channel).clear();
-        logWithContextAndPersist(taskid, channel, "Cleared channel", Level.DEBUG);
+        CompletableFuture<Void> persisted;
+        try (LockedChannel lockedChannel = lockChannel(channel)) {
+            lockedChannel.channel.clear();
+            persisted = lockedChannel.channelModified();
+        }
+        logWithContextAndPersist(taskid, channel, "Cleared channel", Level.DEBUG, persisted);
     }
 
     @Override
@@ -455,13 +582,24 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     }
 
     @Override
+    @ImmediateService
     @SuppressWarnings("unchecked")
     public void forEach(String originator, TaskId taskid, String channel, String action)
             throws CompilationException, ClosureEvaluationException, InvalidChannelException {
+        CompiledClosure<BiConsumer> consumer = compileClosure(action, BiConsumer.class);
         try {
-            Channel chosenChannel = getChannel(channel);
-            chosenChannel.forEach(evaluateClosure(action, BiConsumer.class));
-            logWithContextAndPersist(taskid, channel, "Run forEach, new content is: " + chosenChannel, Level.DEBUG);
+            Channel chosenChannel;
+            CompletableFuture<Void> persisted;
+            try (LockedChannel lockedChannel = lockChannel(channel)) {
+                chosenChannel = lockedChannel.channel;
+                chosenChannel.forEach(consumer.get());
+                persisted = lockedChannel.channelModified();
+            }
+            logWithContextAndPersist(taskid,
+                                     channel,
+                                     "Run forEach, new content is: " + chosenChannel,
+                                     Level.DEBUG,
+                                     persisted);
         } catch (InvalidChannelException | CompilationException e) {
             throw e;
         } catch (Exception e) {
@@ -471,13 +609,24 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     }
 
     @Override
+    @ImmediateService
     @SuppressWarnings("unchecked")
     public void replaceAll(String originator, TaskId taskid, String channel, String function)
             throws InvalidChannelException, CompilationException, IOException {
+        CompiledClosure<BiFunction> replaceFunction = compileClosure(function, BiFunction.class);
         try {
-            Channel chosenChannel = getChannel(channel);
-            chosenChannel.replaceAll(evaluateClosure(function, BiFunction.class));
-            logWithContextAndPersist(taskid, channel, "Run replaceAll, new content is: " + chosenChannel, Level.DEBUG);
+            Channel chosenChannel;
+            CompletableFuture<Void> persisted;
+            try (LockedChannel lockedChannel = lockChannel(channel)) {
+                chosenChannel = lockedChannel.channel;
+                chosenChannel.replaceAll(replaceFunction.get());
+                persisted = lockedChannel.channelModified();
+            }
+            logWithContextAndPersist(taskid,
+                                     channel,
+                                     "Run replaceAll, new content is: " + chosenChannel,
+                                     Level.DEBUG,
+                                     persisted);
         } catch (InvalidChannelException | CompilationException | IOException e) {
             throw e;
         } catch (Exception e) {
@@ -486,67 +635,100 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     }
 
     @Override
+    @ImmediateService
     public Serializable putIfAbsent(String originator, TaskId taskid, String channel, String key, Serializable value)
             throws InvalidChannelException, IOException {
-        Serializable answer = getChannel(channel).putIfAbsent(key, value);
+        Serializable answer;
+        CompletableFuture<Void> persisted;
+        try (LockedChannel lockedChannel = lockChannel(channel)) {
+            answer = lockedChannel.channel.putIfAbsent(key, value);
+            persisted = lockedChannel.keyModified(key);
+        }
         logWithContextAndPersist(taskid,
                                  channel,
                                  "Put " + value + ON_KEY + QUOTE + key + QUOTE + PREVIOUS_VALUE_WAS + answer,
-                                 Level.DEBUG);
+                                 Level.DEBUG,
+                                 persisted);
         return answer;
     }
 
     @Override
+    @ImmediateService
     public boolean remove(String originator, TaskId taskid, String channel, String key, Serializable value)
             throws InvalidChannelException, IOException {
-        boolean answer = getChannel(channel).remove(key, value);
+        boolean answer;
+        CompletableFuture<Void> persisted;
+        try (LockedChannel lockedChannel = lockChannel(channel)) {
+            answer = lockedChannel.channel.remove(key, value);
+            persisted = lockedChannel.keyModified(key);
+        }
         logWithContextAndPersist(taskid,
                                  channel,
                                  "Tried to remove key " + QUOTE + key + QUOTE + " with expected value " + value +
                                           ", success=" + answer,
-                                 Level.DEBUG);
+                                 Level.DEBUG,
+                                 persisted);
         return answer;
     }
 
     @Override
+    @ImmediateService
     public boolean replace(String originator, TaskId taskid, String channel, String key, Serializable oldValue,
             Serializable newValue) throws InvalidChannelException, IOException {
-        boolean answer = getChannel(channel).replace(key, oldValue, newValue);
+        boolean answer;
+        CompletableFuture<Void> persisted;
+        try (LockedChannel lockedChannel = lockChannel(channel)) {
+            answer = lockedChannel.channel.replace(key, oldValue, newValue);
+            persisted = lockedChannel.keyModified(key);
+        }
         logWithContextAndPersist(taskid,
                                  channel,
                                  "Tried to replace key " + QUOTE + key + QUOTE + " with expected old value " +
                                           oldValue + " and new value " + newValue + ", success=" + answer,
-                                 Level.DEBUG);
+                                 Level.DEBUG,
+                                 persisted);
         return answer;
 
     }
 
     @Override
+    @ImmediateService
     public Serializable replace(String originator, TaskId taskid, String channel, String key, Serializable value)
             throws InvalidChannelException, IOException {
-        Serializable answer = getChannel(channel).replace(key, value);
+        Serializable answer;
+        CompletableFuture<Void> persisted;
+        try (LockedChannel lockedChannel = lockChannel(channel)) {
+            answer = lockedChannel.channel.replace(key, value);
+            persisted = lockedChannel.keyModified(key);
+        }
         logWithContextAndPersist(taskid,
                                  channel,
                                  "Replaced key " + QUOTE + key + QUOTE + WITH_VALUE + value + ", old value was " +
                                           answer,
-                                 Level.DEBUG);
+                                 Level.DEBUG,
+                                 persisted);
         return answer;
     }
 
     @Override
+    @ImmediateService
     @SuppressWarnings("unchecked")
     public Serializable computeIfAbsent(String originator, TaskId taskid, String channel, String key,
             String mappingFunction) throws InvalidChannelException, CompilationException, IOException {
+        CompiledClosure<Function> function = compileClosure(mappingFunction, Function.class);
         Serializable answer;
         try {
-            Channel chosenChannel = getChannel(channel);
-            answer = chosenChannel.computeIfAbsent(key,
-                                                   (Function<? super String, ? extends Serializable>) evaluateClosure(mappingFunction,
-                                                                                                                      Function.class));
+            CompletableFuture<Void> persisted;
+            try (LockedChannel lockedChannel = lockChannel(channel)) {
+                answer = lockedChannel.channel.computeIfAbsent(key,
+                                                               (Function<? super String, ? extends Serializable>) function.get());
+                persisted = lockedChannel.keyModified(key);
+            }
             logWithContextAndPersist(taskid,
                                      channel,
                                      "Run computeIfAbsent" + ON_KEY + QUOTE + key + QUOTE + RESULT_IS + answer,
-                                     Level.DEBUG);
+                                     Level.DEBUG,
+                                     persisted);
         } catch (InvalidChannelException | CompilationException | IOException e) {
             throw e;
         } catch (Exception e) {
@@ -556,19 +738,24 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     }
 
     @Override
+    @ImmediateService
     @SuppressWarnings("unchecked")
     public Serializable computeIfPresent(String originator, TaskId taskid, String channel, String key,
             String remappingFunction) throws InvalidChannelException, CompilationException, IOException {
+        CompiledClosure<BiFunction> function = compileClosure(remappingFunction, BiFunction.class);
         Serializable answer;
         try {
-            Channel chosenChannel = getChannel(channel);
-            answer = chosenChannel.computeIfPresent(key,
-                                                    (BiFunction<? super String, ? super Serializable, ? extends Serializable>) evaluateClosure(remappingFunction,
-                                                                                                                                               BiFunction.class));
+            CompletableFuture<Void> persisted;
+            try (LockedChannel lockedChannel = lockChannel(channel)) {
+                answer = lockedChannel.channel.computeIfPresent(key,
+                                                                (BiFunction<? super String, ? super Serializable, ? extends Serializable>) function.get());
+                persisted = lockedChannel.keyModified(key);
+            }
             logWithContextAndPersist(taskid,
                                      channel,
                                      "Run computeIfPresent" + ON_KEY + QUOTE + key + QUOTE + RESULT_IS + answer,
-                                     Level.DEBUG);
+                                     Level.DEBUG,
+                                     persisted);
         } catch (InvalidChannelException | CompilationException | IOException e) {
             throw e;
         } catch (Exception e) {
@@ -578,18 +765,24 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     }
 
     @Override
+    @ImmediateService
     @SuppressWarnings("unchecked")
     public Serializable compute(String originator, TaskId taskid, String channel, String key, String remappingFunction)
             throws InvalidChannelException, CompilationException, IOException {
+        CompiledClosure<BiFunction> function = compileClosure(remappingFunction, BiFunction.class);
         Serializable answer;
         try {
-            answer = getChannel(channel).compute(key,
-                                                 (BiFunction<? super String, ? super Serializable, ? extends Serializable>) evaluateClosure(remappingFunction,
-                                                                                                                                            BiFunction.class));
+            CompletableFuture<Void> persisted;
+            try (LockedChannel lockedChannel = lockChannel(channel)) {
+                answer = lockedChannel.channel.compute(key,
+                                                       (BiFunction<? super String, ? super Serializable, ? extends Serializable>) function.get());
+                persisted = lockedChannel.keyModified(key);
+            }
             logWithContextAndPersist(taskid,
                                      channel,
                                      "Run compute" + ON_KEY + QUOTE + key + QUOTE + RESULT_IS + answer,
-                                     Level.DEBUG);
+                                     Level.DEBUG,
+                                     persisted);
         } catch (InvalidChannelException | CompilationException | IOException e) {
             throw e;
         } catch (Exception e) {
@@ -600,20 +793,26 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     }
 
     @Override
+    @ImmediateService
     @SuppressWarnings("unchecked")
     public Serializable merge(String originator, TaskId taskid, String channel, String key, Serializable value,
             String remappingFunction) throws InvalidChannelException, CompilationException, IOException {
+        CompiledClosure<BiFunction> function = compileClosure(remappingFunction, BiFunction.class);
         Serializable answer;
         try {
-            answer = getChannel(channel).merge(key,
-                                               value,
-                                               (BiFunction<? super Serializable, ? super Serializable, ? extends Serializable>) evaluateClosure(remappingFunction,
-                                                                                                                                                BiFunction.class));
+            CompletableFuture<Void> persisted;
+            try (LockedChannel lockedChannel = lockChannel(channel)) {
+                answer = lockedChannel.channel.merge(key,
+                                                     value,
+                                                     (BiFunction<? super Serializable, ? super Serializable, ? extends Serializable>) function.get());
+                persisted = lockedChannel.keyModified(key);
+            }
             logWithContextAndPersist(taskid,
                                      channel,
                                      "Run merge" + ON_KEY + QUOTE + key + QUOTE + WITH_VALUE + value + RESULT_IS +
                                               answer,
-                                     Level.DEBUG);
+                                     Level.DEBUG,
+                                     persisted);
         } catch (InvalidChannelException | CompilationException | IOException e) {
             throw e;
         } catch (Exception e) {
@@ -623,60 +822,63 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     }
 
     @Override
-    @SuppressWarnings("unchecked")
+    @ImmediateService
     public PredicateActionResult conditionalCompute(String originator, TaskId taskid, String channel, String key,
             String predicate, String thenRemappingFunction)
             throws InvalidChannelException, CompilationException, IOException {
-        PredicateActionResult answer;
-        try {
-            Channel chosenChannel = getChannel(channel);
-            Serializable value = chosenChannel.get(key);
-
-            if (evaluateClosure(predicate, BiPredicate.class).test(key, value)) {
-                answer = new PredicateActionResult(true,
-                                                   chosenChannel.compute(key,
-                                                                         (BiFunction<? super String, ? super Serializable, ? extends Serializable>) evaluateClosure(thenRemappingFunction,
-                                                                                                                                                                    BiFunction.class)));
-            } else {
-                answer = new PredicateActionResult(false, value);
-            }
-            logWithContextAndPersist(taskid,
-                                     channel,
-                                     "Run conditionalCompute" + ON_KEY + QUOTE + key + QUOTE + RESULT_IS + answer,
-                                     Level.DEBUG);
-
-        } catch (InvalidChannelException | CompilationException | IOException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new ClosureEvaluationException(EXCEPTION_WHEN_EVALUATING_CLOSURE + StackTraceUtil.getStackTrace(e));
-        }
-        return answer;
+        return conditionalCompute(taskid, channel, key, predicate, thenRemappingFunction, null, false);
     }
 
     @Override
-    @SuppressWarnings("unchecked")
+    @ImmediateService
     public PredicateActionResult conditionalCompute(String originator, TaskId taskid, String channel, String key,
             String predicate, String thenRemappingFunction, String elseRemappingFunction)
             throws InvalidChannelException, CompilationException, IOException {
+        return conditionalCompute(taskid, channel, key, predicate, thenRemappingFunction, elseRemappingFunction, false);
+    }
+
+    /**
+     * Computes a new value of the key with the then or else function, depending on the predicate.
+     * If there is no else function, the value is not modified when the predicate is not met.
+     *
+     * @param mustBeMet if true, the predicate must be met, this is checked by the caller of waitUntilThen
+     */
+    @SuppressWarnings("unchecked")
+    private PredicateActionResult conditionalCompute(TaskId taskid, String channel, String key, String predicate,
+            String thenRemappingFunction, String elseRemappingFunction, boolean mustBeMet)
+            throws InvalidChannelException, CompilationException, IOException {
+        CompiledClosure<BiPredicate> compiledPredicate = compileClosure(predicate, BiPredicate.class);
+        CompiledClosure<BiFunction> thenFunction = compileClosure(thenRemappingFunction, BiFunction.class);
+        CompiledClosure<BiFunction> elseFunction = elseRemappingFunction != null ? compileClosure(elseRemappingFunction,
+                                                                                                  BiFunction.class)
+                                                                                 : null;
         PredicateActionResult answer;
         try {
-            Channel chosenChannel = getChannel(channel);
-            Serializable value = chosenChannel.get(key);
-            if (evaluateClosure(predicate, BiPredicate.class).test(key, value)) {
-                answer = new PredicateActionResult(true,
-                                                   chosenChannel.compute(key,
-                                                                         (BiFunction<? super String, ? super Serializable, ? extends Serializable>) evaluateClosure(thenRemappingFunction,
-                                                                                                                                                                    BiFunction.class)));
-            } else {
-                answer = new PredicateActionResult(false,
-                                                   chosenChannel.compute(key,
-                                                                         (BiFunction<? super String, ? super Serializable, ? extends Serializable>) evaluateClosure(elseRemappingFunction,
-                                                                                                                                                                    BiFunction.class)));
+            CompletableFuture<Void> persisted;
+            try (LockedChannel lockedChannel = lockChannel(channel)) {
+                Channel chosenChannel = lockedChannel.channel;
+                Serializable value = chosenChannel.get(key);
+                if (compiledPredicate.get().test(key, value)) {
+                    answer = new PredicateActionResult(true,
+                                                       chosenChannel.compute(key,
+                                                                             (BiFunction<? super String, ? super Serializable, ? extends Serializable>) thenFunction.get()));
+                } else if (mustBeMet) {
+                    throw new IllegalStateException("Predicate " + predicate + " is not met");
+                } else if (elseFunction != null) {
+                    answer = new PredicateActionResult(false,
+                                                       chosenChannel.compute(key,
+                                                                             (BiFunction<? super String, ? super Serializable, ? extends Serializable>) elseFunction.get()));
+                } else {
+                    answer = new PredicateActionResult(false, value);
+                }
+                persisted = lockedChannel.keyModified(key);
             }
             logWithContextAndPersist(taskid,
                                      channel,
-                                     "Run conditionalCompute" + ON_KEY + QUOTE + key + QUOTE + RESULT_IS + answer,
-                                     Level.DEBUG);
+                                     "Run " + (mustBeMet ? "waitUntil" : "conditionalCompute") + ON_KEY + QUOTE + key +
+                                              QUOTE + RESULT_IS + answer,
+                                     Level.DEBUG,
+                                     persisted);
         } catch (InvalidChannelException | CompilationException | IOException e) {
             throw e;
         } catch (Exception e) {
@@ -686,58 +888,50 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     }
 
     @Override
-    @SuppressWarnings("unchecked")
+    @ImmediateService
     public void conditionalReplaceAll(String originator, TaskId taskid, String channel, String predicate,
             String thenRemappingFunction) throws InvalidChannelException, CompilationException, IOException {
-        String currentKey;
-        try {
-            Channel chosenChannel = getChannel(channel);
-            for (Map.Entry<String, Serializable> entry : chosenChannel.entrySet()) {
-                currentKey = entry.getKey();
-                if (evaluateClosure(predicate, BiPredicate.class).test(currentKey, entry.getValue())) {
-
-                    chosenChannel.compute(currentKey, evaluateClosure(thenRemappingFunction, BiFunction.class));
-                }
-            }
-            logWithContextAndPersist(taskid,
-                                     channel,
-                                     "Run conditionalReplaceAll, new content is: " + chosenChannel,
-                                     Level.DEBUG);
-
-        } catch (InvalidChannelException | CompilationException | IOException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new ClosureEvaluationException(EXCEPTION_WHEN_EVALUATING_CLOSURE + StackTraceUtil.getStackTrace(e));
-        }
+        conditionalReplaceAll(taskid, channel, predicate, thenRemappingFunction, null);
     }
 
     @Override
-    @SuppressWarnings("unchecked")
+    @ImmediateService
     public void conditionalReplaceAll(String originator, TaskId taskid, String channel, String predicate,
             String thenRemappingFunction, String elseRemappingFunction)
             throws InvalidChannelException, CompilationException, IOException {
-        String currentKey;
-        try {
-            Channel chosenChannel = getChannel(channel);
-            for (Map.Entry<String, Serializable> entry : chosenChannel.entrySet()) {
-                currentKey = entry.getKey();
-                if (evaluateClosure(predicate, BiPredicate.class).test(currentKey, entry.getValue())) {
-
-                    chosenChannel.compute(currentKey,
-                                          (BiFunction<? super String, ? super Serializable, ? extends Serializable>) evaluateClosure(thenRemappingFunction,
-                                                                                                                                     BiFunction.class));
-                } else {
-                    chosenChannel.compute(currentKey,
-                                          (BiFunction<? super String, ? super Serializable, ? extends Serializable>) evaluateClosure(elseRemappingFunction,
-                                                                                                                                     BiFunction.class));
+        conditionalReplaceAll(taskid, channel, predicate, thenRemappingFunction, elseRemappingFunction);
+    }
 
+    @SuppressWarnings("unchecked")
+    private void conditionalReplaceAll(TaskId taskid, String channel, String predicate, String thenRemappingFunction,
+            String elseRemappingFunction) throws InvalidChannelException, CompilationException, IOException {
+        CompiledClosure<BiPredicate> compiledPredicate = compileClosure(predicate, BiPredicate.class);
+        CompiledClosure<BiFunction> thenFunction = compileClosure(thenRemappingFunction, BiFunction.class);
+        CompiledClosure<BiFunction> elseFunction = elseRemappingFunction != null ? compileClosure(elseRemappingFunction,
+                                                                                                  BiFunction.class)
+                                                                                 : null;
+        try {
+            Channel chosenChannel;
+            CompletableFuture<Void> persisted;
+            try (LockedChannel lockedChannel = lockChannel(channel)) {
+                chosenChannel = lockedChannel.channel;
+                for (Map.Entry<String, Serializable> entry : chosenChannel.entrySet()) {
+                    String currentKey = entry.getKey();
+                    if (compiledPredicate.get().test(currentKey, entry.getValue())) {
+                        chosenChannel.compute(currentKey,
+                                              (BiFunction<? super String, ? super Serializable, ? extends Serializable>) thenFunction.get());
+                    } else if (elseFunction != null) {
+                        chosenChannel.compute(currentKey,
+                                              (BiFunction<? super String, ? super Serializable, ? extends Serializable>) elseFunction.get());
+                    }
                 }
+                persisted = lockedChannel.channelModified();
             }
-
             logWithContextAndPersist(taskid,
                                      channel,
                                      "Run conditionalReplaceAll, new content is: " + chosenChannel,
-                                     Level.DEBUG);
+                                     Level.DEBUG,
+                                     persisted);
 
         } catch (InvalidChannelException | CompilationException | IOException e) {
             throw e;
@@ -749,13 +943,12 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     /**
      * Execute a predicate and return its answer
      */
-    private boolean executeWaitPredicate(String originator, TaskId taskid, String channel, String key, String predicate)
+    private boolean executeWaitPredicate(String channel, String key, String predicate)
             throws InvalidChannelException, CompilationException {
-        Channel chosenChannel = getChannel(channel);
-        Serializable value = chosenChannel.get(key);
-        try {
-            return evaluateClosure(predicate, BiPredicate.class).test(key, value);
-        } catch (CompilationException e) {
+        CompiledClosure<BiPredicate> compiledPredicate = compileClosure(predicate, BiPredicate.class);
+        try (LockedChannel lockedChannel = lockChannel(channel)) {
+            return compiledPredicate.get().test(key, lockedChannel.channel.get(key));
+        } catch (InvalidChannelException | CompilationException e) {
             throw e;
         } catch (Exception e) {
             throw new ClosureEvaluationException(EXCEPTION_WHEN_EVALUATING_CLOSURE + StackTraceUtil.getStackTrace(e));
@@ -763,100 +956,38 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     }
 
     @Override
-    @SuppressWarnings("unchecked")
-    @ImmediateService
     public boolean waitUntil(String originator, TaskId taskid, String channel, String key, String predicate)
             throws InvalidChannelException, CompilationException {
         /**
-         * waitUntil is run on its dedicated thread (ImmediateService), it runs its predicate periodically until success
+         * waitUntil is handled with the ActiveObject request queue (see runActivity), it is served
+         * once its predicate is met, without holding a thread while waiting
          */
-        waitUntilStarted();
-        boolean predicateResult = false;
-        do {
-            Channel chosenChannel = getChannel(channel);
-            Serializable value = chosenChannel.get(key);
-            try {
-                predicateResult = evaluateClosure(predicate, BiPredicate.class).test(key, value);
-                if (!predicateResult) {
-                    Thread.sleep(WAIT_STEP);
-                }
-            } catch (CompilationException e) {
-                throw e;
-            } catch (Exception e) {
-                throw new ClosureEvaluationException(EXCEPTION_WHEN_EVALUATING_CLOSURE +
-                                                     StackTraceUtil.getStackTrace(e));
-            }
-        } while (!predicateResult);
-
+        if (!executeWaitPredicate(channel, key, predicate)) {
+            throw new IllegalStateException("Predicate " + predicate + " is not met");
+        }
         return true;
     }
 
     @Override
-    @ImmediateService
     public boolean waitUntil(String originator, TaskId taskid, String channel, String key, String predicate,
             long timeout) throws InvalidChannelException, CompilationException, TimeoutException {
         /**
-         * waitUntil with timeout is run on its dedicated thread (ImmediateService).
-         * it runs its predicate periodically until success or timeout
+         * waitUntil with timeout is handled with the ActiveObject request queue (see runActivity)
+         * timeout is ignored inside the method implementation (it is handled by the runActivity method)
          */
-        waitUntilStarted();
-        boolean predicateResult = false;
-        long startTime = System.currentTimeMillis();
-        do {
-            Channel chosenChannel = getChannel(channel);
-            Serializable value = chosenChannel.get(key);
-            try {
-                predicateResult = evaluateClosure(predicate, BiPredicate.class).test(key, value);
-                if (!predicateResult) {
-                    if (System.currentTimeMillis() - startTime > timeout) {
-                        throw new TimeoutException("Timeout of " + timeout + " ms expired while waiting for predicate");
-                    }
-                    Thread.sleep(WAIT_STEP);
-                }
-            } catch (CompilationException e) {
-                throw e;
-            } catch (TimeoutException e) {
-                throw e;
-            } catch (Exception e) {
-                throw new ClosureEvaluationException(EXCEPTION_WHEN_EVALUATING_CLOSURE +
-                                                     StackTraceUtil.getStackTrace(e));
-            }
-        } while (!predicateResult);
-        return true;
+        return waitUntil(originator, taskid, channel, key, predicate);
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public PredicateActionResult waitUntilThen(String originator, TaskId taskid, String channel, String key,
             String predicate, String thenRemappingFunction)
             throws InvalidChannelException, CompilationException, IOException {
         /**
-         * as waitUntilThen can operate a change on the channel, it is handled with the ActiveObject request queue (see runActivity)
-         * This it is handled differently from waitUntil
+         * waitUntilThen is handled with the ActiveObject request queue (see runActivity), it is served
+         * under the channel lock once its predicate is met, so the predicate cannot change before the
+         * function is applied
          */
-        PredicateActionResult answer;
-        try {
-            Channel chosenChannel = getChannel(channel);
-            Serializable value = chosenChannel.get(key);
-            if (evaluateClosure(predicate, BiPredicate.class).test(key, value)) {
-                answer = new PredicateActionResult(true,
-                                                   chosenChannel.compute(key,
-                                                                         (BiFunction<? super String, ? super Serializable, ? extends Serializable>) evaluateClosure(thenRemappingFunction,
-                                                                                                                                                                    BiFunction.class)));
-            } else {
-                throw new IllegalStateException("Predicate " + predicate + " is not met");
-            }
-
-            logWithContextAndPersist(taskid,
-                                     channel,
-                                     "Run waitUntil" + ON_KEY + QUOTE + key + QUOTE + RESULT_IS + answer,
-                                     Level.DEBUG);
-        } catch (InvalidChannelException | CompilationException | IOException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new ClosureEvaluationException(EXCEPTION_WHEN_EVALUATING_CLOSURE + StackTraceUtil.getStackTrace(e));
-        }
-        return answer;
+        return conditionalCompute(taskid, channel, key, predicate, thenRemappingFunction, null, true);
     }
 
     @Override
@@ -864,18 +995,20 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
             String predicate, long timeout, String thenRemappingFunction)
             throws InvalidChannelException, CompilationException, IOException, TimeoutException {
         /**
-         * as waitUntilThen can operate a change on the channel, it is handled with the ActiveObject request queue (see runActivity)
-         * This it is handled differently from waitUntil
+         * waitUntilThen with timeout is handled with the ActiveObject request queue (see runActivity)
          * timeout is ignored inside the method implementation (it is handled by the runActivity method)
          */
         return waitUntilThen(originator, taskid, channel, key, predicate, thenRemappingFunction);
     }
 
-    private void logWithContextAndPersist(TaskId taskId, String channel, String message, Level level)
-            throws IOException, InvalidChannelException {
+    /**
+     * Logs the operation, then waits until its modifications are persisted
+     */
+    private void logWithContextAndPersist(TaskId taskId, String channel, String message, Level level,
+            CompletableFuture<Void> persisted) throws IOException, InvalidChannelException {
         logWithContext(taskId, channel, message, null, level);
         try {
-            commitIfNeeded(channel);
+            awaitPersisted(persisted);
         } catch (IOException e) {
             logWithContext(taskId, channel, "Error when persisting channel content", e, Level.ERROR);
             throw e;
@@ -927,79 +1060,81 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
 
     @Override
     public void runActivity(Body body) {
+        activityThread = Thread.currentThread();
         Service service = new Service(body);
         while (body.isActive()) {
             try {
-                List<NewRequestWithWaitTime> requestsWithWaitTime = waitForNewRequests(service);
-                for (NewRequestWithWaitTime requestWithWaitTime : requestsWithWaitTime) {
-                    Request request = requestWithWaitTime.getNewRequest();
+                List<Request> requests = waitForNewRequests(service);
+                for (Request request : requests) {
                     if (request != null && request.getMethodName().equals("freeze")) {
                         service.serve(request);
                         service.blockingServeOldest("resume");
-                    } else if (request != null && request.getMethodName().startsWith("waitUntilThen") &&
-                               !testWaitFunction(service, request)) {
-                        // If the predicate is not met, delay the wait method execution
-                        TimedOutRequest timedOutRequest = new TimedOutRequest(request,
-                                                                              extractWaitRequestTimeoutParameter(request));
-                        logger.trace("New pending wait request : " + timedOutRequest);
-                        waitUntilQueue.add(new TimedOutRequest(request, extractWaitRequestTimeoutParameter(request)));
+                    } else if (request != null && request.getMethodName().startsWith("waitUntil")) {
+                        // the channel is watched before the predicate is tested, so that no modification is missed
+                        watchedChannels.add((String) request.getParameter(2));
+                        if (!serveWaitRequestIfMet(service, request)) {
+                            // If the predicate is not met, delay the wait method execution
+                            PendingWait pendingWait = new PendingWait(request,
+                                                                      extractWaitRequestTimeoutParameter(request));
+                            logger.trace("New pending wait request : " + pendingWait);
+                            addPendingWait(pendingWait);
+                        }
                     } else if (request != null) {
                         service.serve(request);
                     }
                 }
-                unblockWaitMethods(service, computeMaxTimeSpentWaiting(requestsWithWaitTime));
+                unblockWaitMethods(service);
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             }
         }
     }
 
-    private long computeMaxTimeSpentWaiting(List<NewRequestWithWaitTime> requestsWithWaitTime) {
-        long maxWait = 0;
-        for (NewRequestWithWaitTime requestWithWaitTime : requestsWithWaitTime) {
-            if (requestWithWaitTime.waitTime > maxWait) {
-                maxWait = requestWithWaitTime.waitTime;
-            }
-        }
-        return maxWait;
+    /**
+     * Sent by the channel operations to wake up the active object thread when a watched channel is modified,
+     * the modifications are processed after each request
+     */
+    public void processModifications() {
+        // the modifications are processed by runActivity
     }
 
     @Override
     public void freeze() throws IOException {
-        logger.info("Closing Record Manager");
-        recordManager.close();
-        recordManager = null;
+        // waits for the running modifications, and blocks the next ones until resume
+        freezeLock.writeLock().lock();
+        logger.info("Closing channel store");
         isStarted = false;
+        store.close();
+        store = null;
     }
 
     @Override
     public void resume() throws IOException {
-        logger.info("Loading Record Manager from file : " + statusFile);
-        recordManager = RecordManagerFactory.createRecordManager(statusFile.getCanonicalPath());
-        persistedChannels = recordManager.hashMap(STATUS_RECORD_NAME);
-        recordManager.commit();
-        synchronizedPersistedChannels = Collections.synchronizedMap(persistedChannels);
-        isStarted = true;
+        try {
+            logger.info("Loading channel store from : " + statusFileDirectory);
+            loadPersistedChannels();
+            isStarted = true;
+        } finally {
+            if (freezeLock.isWriteLockedByCurrentThread()) {
+                freezeLock.writeLock().unlock();
+            }
+        }
     }
 
     /**
-     * Wait for a new request in the request queue, until a request is found or until a timeout based on the pending wait request queue
+     * Wait for a new request in the request queue, until a request is found or until the first pending wait request timeout
      * @param service active object service
-     * @return composite object containing the request and the waited time
+     * @return the new requests, containing null if the timeout expired
      * @throws InterruptedException if the thread is interrupted while waiting for request
      */
-    private List<NewRequestWithWaitTime> waitForNewRequests(Service service) throws InterruptedException {
+    private List<Request> waitForNewRequests(Service service) throws InterruptedException {
         // we cannot wait more then min(pending_wait_requests_timeouts)
         long maximumTimeToWaitForNewRequests = computeMinimumTimeout();
-        List<NewRequestWithWaitTime> newRequests = new ArrayList<>();
+        List<Request> newRequests = new ArrayList<>();
 
         logger.trace("Waiting for new requests with timeout = " + maximumTimeToWaitForNewRequests + " ms");
-        long waitStart = System.currentTimeMillis();
         do {
-            Request request = service.blockingRemoveOldest(maximumTimeToWaitForNewRequests);
-            long timeSpentWaiting = System.currentTimeMillis() - waitStart;
-            logger.trace("Time spent waiting for new request: " + timeSpentWaiting + " ms");
-            newRequests.add(new NewRequestWithWaitTime(request, timeSpentWaiting));
+            newRequests.add(service.blockingRemoveOldest(maximumTimeToWaitForNewRequests));
         } while (service.hasRequestToServe());
         return newRequests;
     }
@@ -1024,35 +1159,150 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     }
 
     private long computeMinimumTimeout() {
-        long minimumTimeout = Long.MAX_VALUE;
-        for (TimedOutRequest request : waitUntilQueue) {
-            if (request.getRemainingTimeout() < minimumTimeout) {
-                minimumTimeout = request.getRemainingTimeout();
-            }
+        // requests served before their deadline are removed lazily
+        while (!pendingWaitsByDeadline.isEmpty() && pendingWaitsByDeadline.peek().served) {
+            pendingWaitsByDeadline.poll();
         }
-        return minimumTimeout;
+        PendingWait firstToExpire = pendingWaitsByDeadline.peek();
+        if (firstToExpire == null) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(1, firstToExpire.getDeadline() - System.currentTimeMillis());
     }
 
+
     /**
-     * Unblock all pending wait methods if predicates are met
+     * Notifies the active object thread that a key of a channel with pending wait requests has been modified
+     */
+    private void keyModified(String channel, String key) {
+        if (watchedChannels.contains(channel)) {
+            modifications.add(new Modification(channel, key));
+            wakeUp();
+        }
+    }
+
+    /**
+     * Notifies the active object thread that a channel with pending wait requests has been entirely modified
+     */
+    private void channelModified(String channel) {
+        if (watchedChannels.contains(channel)) {
+            modifications.add(new Modification(channel, null));
+            wakeUp();
+        }
+    }
+
+    private void wakeUp() {
+        // the active object thread processes its own modifications before waiting for new requests
+        if (stubOnThis != null && Thread.currentThread() != activityThread && wakeUpRequested.compareAndSet(false, true)) {
+            stubOnThis.processModifications();
+        }
+    }
+
+    private void addPendingWait(PendingWait pendingWait) {
+        pendingWaits.computeIfAbsent(pendingWait.getChannel(), name -> new HashMap<>())
+                    .computeIfAbsent(pendingWait.getKey(), name -> new ArrayList<>())
+                    .add(pendingWait);
+        if (pendingWait.getDeadline() != Long.MAX_VALUE) {
+            pendingWaitsByDeadline.add(pendingWait);
+        }
+    }
+
+    /**
+     * Unblock the pending wait methods whose timeout expired, and the pending wait methods whose key
+     * has been modified if their predicates are met
      * @param service active object service
      */
-    private void unblockWaitMethods(Service service, long timeSpentWaiting) {
-        for (Iterator<TimedOutRequest> iterator = waitUntilQueue.iterator(); iterator.hasNext();) {
-            TimedOutRequest waitRequest = iterator.next();
-            waitRequest.substractTime(timeSpentWaiting);
-            logger.trace("Updated timeouted request: " + waitRequest);
-            if (testWaitFunction(service, waitRequest.getRequest())) {
-                // predicate is met, serve the request
-                service.serve(waitRequest.getRequest());
-                iterator.remove();
-            } else if (waitRequest.getRemainingTimeout() <= 0) {
+    private void unblockWaitMethods(Service service) {
+        // modifications notified from now on will send a new wake up request
+        wakeUpRequested.set(false);
+
+        long now = System.currentTimeMillis();
+        while (!pendingWaitsByDeadline.isEmpty() && pendingWaitsByDeadline.peek().getDeadline() <= now) {
+            PendingWait waitRequest = pendingWaitsByDeadline.poll();
+            if (waitRequest.served) {
+                continue;
+            }
+            waitRequest.served = true;
+            pendingWaits.get(waitRequest.getChannel()).get(waitRequest.getKey()).remove(waitRequest);
+            if (!serveWaitRequestIfMet(service, waitRequest.getRequest())) {
                 // predicate is not met and timeout expired, serve the request with a timeout exception
                 logger.trace("Timeout observed: " + waitRequest.getRequest().getMethodName());
                 service.serveWithException(waitRequest.getRequest(),
                                            new TimeoutException("Timeout of " + waitRequest.getConfiguredTimeout() +
                                                                 " ms expired while waiting for predicate"));
-                iterator.remove();
+            }
+        }
+
+        // serving a waitUntilThen request can modify other keys, in which case their wait requests are checked again
+        while (drainModifications()) {
+            List<List<PendingWait>> modifiedWaits = collectModifiedWaits();
+            modifiedKeys.clear();
+            modifiedChannels.clear();
+            for (List<PendingWait> waits : modifiedWaits) {
+                for (Iterator<PendingWait> iterator = waits.iterator(); iterator.hasNext();) {
+                    PendingWait waitRequest = iterator.next();
+                    if (serveWaitRequestIfMet(service, waitRequest.getRequest())) {
+                        iterator.remove();
+                        waitRequest.served = true;
+                    }
+                }
+            }
+            removeEmptyPendingWaits();
+        }
+        removeEmptyPendingWaits();
+        watchedChannels.retainAll(pendingWaits.keySet());
+    }
+
+    /**
+     * Moves the modifications notified by the channel operations to the modified keys and channels
+     * @return true if there are modified keys or channels
+     */
+    private boolean drainModifications() {
+        Modification modification;
+        while ((modification = modifications.poll()) != null) {
+            if (!pendingWaits.containsKey(modification.channel)) {
+                continue;
+            }
+            if (modification.key == null) {
+                modifiedChannels.add(modification.channel);
+            } else {
+                modifiedKeys.computeIfAbsent(modification.channel, name -> new HashSet<>()).add(modification.key);
+            }
+        }
+        return !modifiedKeys.isEmpty() || !modifiedChannels.isEmpty();
+    }
+
+    private List<List<PendingWait>> collectModifiedWaits() {
+        List<List<PendingWait>> modifiedWaits = new ArrayList<>();
+        for (String channel : modifiedChannels) {
+            Map<String, List<PendingWait>> waitsOfChannel = pendingWaits.get(channel);
+            if (waitsOfChannel != null) {
+                modifiedWaits.addAll(waitsOfChannel.values());
+            }
+        }
+        for (Map.Entry<String, Set<String>> keysOfChannel : modifiedKeys.entrySet()) {
+            if (modifiedChannels.contains(keysOfChannel.getKey())) {
+                continue;
+            }
+            Map<String, List<PendingWait>> waitsOfChannel = pendingWaits.get(keysOfChannel.getKey());
+            if (waitsOfChannel != null) {
+                for (String key : keysOfChannel.getValue()) {
+                    List<PendingWait> waitsOfKey = waitsOfChannel.get(key);
+                    if (waitsOfKey != null) {
+                        modifiedWaits.add(waitsOfKey);
+                    }
+                }
+            }
+        }
+        return modifiedWaits;
+    }
+
+    private void removeEmptyPendingWaits() {
+        for (Iterator<Map<String, List<PendingWait>>> channels = pendingWaits.values().iterator(); channels.hasNext();) {
+            Map<String, List<PendingWait>> waitsOfChannel = channels.next();
+            waitsOfChannel.values().removeIf(List::isEmpty);
+            if (waitsOfChannel.isEmpty()) {
+                channels.remove();
             }
         }
     }
@@ -1062,7 +1312,8 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
     protected <T> T evaluateClosure(String closureDefinition, Class<T> type) throws CompilationException {
         try {
             String fullCode = closureDefinition + " as " + type.getCanonicalName();
-            Script script = getClosureScript(fullCode);
+            // the script class is shared, each evaluation uses its own instance
+            Script script = InvokerHelper.createScript(getClosureScript(fullCode).getClass(), new Binding());
             return (T) script.run();
         } catch (CompilationFailedException e) {
             // CompilationFailedException contains instances which are not serializable
@@ -1070,68 +1321,83 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
         }
     }
 
+    /**
+     * Evaluates a closure, the errors are reported when the closure is used
+     */
+    private <T> CompiledClosure<T> compileClosure(String closureDefinition, Class<T> type) {
+        try {
+            return new CompiledClosure<>(evaluateClosure(closureDefinition, type), null);
+        } catch (Exception e) {
+            return new CompiledClosure<>(null, e);
+        }
+    }
+
     /**
      * In order to prevent memory-leaks in generated groovy classes,
      * we assign a unique name to each closure definition (based on md5)
      * The same closure code will return the same name
      * we also parse the script once and keep the generated script in the cache
      * @param closureDefinition closure code
-     * @return a script which can be evaluated
+     * @return a script whose class can be instantiated
      */
-    private synchronized Script getClosureScript(String closureDefinition) {
+    private Script getClosureScript(String closureDefinition) {
         String md5Closure = DigestUtils.md5Hex(closureDefinition);
-        if (!closureCache.containsKey(md5Closure)) {
-            String newName = CLOSURE_NAME_BASE + closureIndex++;
-
-            Script script = shell.parse(closureDefinition, newName);
-            closureCache.put(md5Closure, script);
-            return script;
+        Script script = closureCache.get(md5Closure);
+        if (script == null) {
+            synchronized (shell) {
+                script = closureCache.get(md5Closure);
+                if (script == null) {
+                    script = shell.parse(closureDefinition, CLOSURE_NAME_BASE + closureIndex.getAndIncrement());
+                    closureCache.put(md5Closure, script);
+                }
+            }
         }
-        return closureCache.get(md5Closure);
+        return script;
     }
 
     /**
-     * Execute the waitUntilThen function corresponding to the provided request
+     * Serve the wait request if its predicate is met. The predicate is tested and the request is served
+     * under the channel lock, so that the channel cannot be modified in between.
      *
      * If an error occurs, serve the request to unblock the caller with the exception attached
      *
      * @param service active object service
      * @param request request to process
-     * @return true if the result of the waitUntil call is true or if an exception occurred
+     * @return true if the request has been served
      */
-    private boolean testWaitFunction(Service service, Request request) {
-        boolean dontNeedWaiting;
-        try {
-
-            dontNeedWaiting = executeWaitPredicateFunction(request);
+    @SuppressWarnings("unchecked")
+    private boolean serveWaitRequestIfMet(Service service, Request request) {
+        // extract the parameters which match the waitUntil call
+        String channel = (String) request.getParameter(2);
+        String key = (String) request.getParameter(3);
+        String predicate = (String) request.getParameter(4);
+        CompiledClosure<BiPredicate> compiledPredicate = compileClosure(predicate, BiPredicate.class);
+        try (LockedChannel lockedChannel = lockChannel(channel)) {
+            boolean met;
+            try {
+                met = compiledPredicate.get().test(key, lockedChannel.channel.get(key));
+            } catch (CompilationException | ClosureEvaluationException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new ClosureEvaluationException(EXCEPTION_WHEN_EVALUATING_CLOSURE +
+                                                     StackTraceUtil.getStackTrace(e));
+            }
+            if (!met) {
+                return false;
+            }
+            service.serve(request);
+            return true;
         } catch (Exception e) {
-            service.serveWithException(request, e);
             // in case an exception occurs, don't delay the request, execute it immediately to notify the client
-            dontNeedWaiting = true;
+            service.serveWithException(request, e);
+            return true;
         }
-        return dontNeedWaiting;
-
-    }
-
-    /**
-     * Extract from the request the parameters corresponding to the waitUntil method call, then execute waitUntil with these parameters
-     * @param request request used to extract parameters
-     * @return the result of the waitUntil method call
-     */
-    private boolean executeWaitPredicateFunction(Request request) throws InvalidChannelException, CompilationException {
-        // extract the parameters which match the waitUntil call
-        int paramIndex = 0;
-        String originator = (String) request.getParameter(paramIndex++);
-        TaskId taskId = (TaskId) request.getParameter(paramIndex++);
-        String channel = (String) request.getParameter(paramIndex++);
-        String key = (String) request.getParameter(paramIndex++);
-        String predicate = (String) request.getParameter(paramIndex);
-        return this.executeWaitPredicate(originator, taskId, channel, key, predicate);
     }
 
     @Override
     public void initActivity(Body body) {
         logger.info("Starting Synchronization service");
+        stubOnThis = (AOSynchronization) PAActiveObject.getStubOnThis();
         init(true);
         logger.info("Synchronization service is started");
     }
@@ -1145,58 +1411,141 @@ public class AOSynchronization implements RunActive, InitActive, EndActive, Sync
         private static final long serialVersionUID = 1L;
     }
 
-    private static final class NewRequestWithWaitTime {
-        private Request newRequest;
+    private static final class PendingWait {
+        private final Request request;
+
+        private final String channel;
+
+        private final String key;
+
+        private final long configuredTimeout;
+
+        private final long deadline;
 
-        private long waitTime;
+        /** set when the request has been served before its deadline */
+        private boolean served = false;
 
-        NewRequestWithWaitTime(Request newRequest, long waitTime) {
-            this.newRequest = newRequest;
-            this.waitTime = waitTime;
+        PendingWait(Request request, long configuredTimeout) {
+            this.request = request;
+            this.channel = (String) request.getParameter(2);
+            this.key = (String) request.getParameter(3);
+            this.configuredTimeout = configuredTimeout;
+            if (configuredTimeout == Long.MAX_VALUE) {
+                this.deadline = Long.MAX_VALUE;
+            } else {
+                this.deadline = System.currentTimeMillis() + configuredTimeout;
+            }
         }
 
-        Request getNewRequest() {
-            return newRequest;
+        Request getRequest() {
+            return request;
+        }
+
+        String getChannel() {
+            return channel;
         }
 
-        long getWaitTime() {
-            return waitTime;
+        String getKey() {
+            return key;
+        }
+
+        long getConfiguredTimeout() {
+            return configuredTimeout;
+        }
+
+        long getDeadline() {
+            return deadline;
+        }
+
+        @Override
+        public String toString() {
+            return "PendingWait{" + "request=" + request + ", channel=" + channel + ", key=" + key +
+                   ", configuredTimeout=" + configuredTimeout + ", deadline=" + deadline + '}';
         }
     }
 
-    private static final class TimedOutRequest {
-        private Request request;
+    /**
+     * Modification of a watched channel, the key is null when the whole channel is modified
+     */
+    private static final class Modification {
+        private final String channel;
 
-        private long configuredTimeout;
+        private final String key;
 
-        private long remainingTimeout;
+        Modification(String channel, String key) {
+            this.channel = channel;
+            this.key = key;
+        }
+    }
 
-        TimedOutRequest(Request request, long configuredTimeout) {
-            this.request = request;
-            this.configuredTimeout = configuredTimeout;
-            this.remainingTimeout = configuredTimeout;
+    /**
+     * Result of a closure evaluation, or the error which occurred
+     */
+    private static final class CompiledClosure<T> {
+        private final T closure;
+
+        private final Exception exception;
+
+        CompiledClosure(T closure, Exception exception) {
+            this.closure = closure;
+            this.exception = exception;
         }
 
-        void substractTime(long timespent) {
-            this.remainingTimeout -= timespent;
+        T get() throws CompilationException {
+            if (exception instanceof CompilationException) {
+                throw (CompilationException) exception;
+            } else if (exception != null) {
+                throw new ClosureEvaluationException(EXCEPTION_WHEN_EVALUATING_CLOSURE +
+                                                     StackTraceUtil.getStackTrace(exception));
+            }
+            return closure;
         }
+    }
 
-        Request getRequest() {
-            return request;
+    /**
+     * Lock of a channel held during an operation, the service cannot be frozen while it is held
+     */
+    private final class LockedChannel implements AutoCloseable {
+        private final String name;
+
+        private final Lock lock;
+
+        private Channel channel;
+
+        LockedChannel(String name) {
+            waitUntilStarted();
+            freezeLock.readLock().lock();
+            this.name = name;
+            this.lock = channelLocks.get(name);
+            lock.lock();
         }
 
-        long getConfiguredTimeout() {
-            return configuredTimeout;
+        /**
+         * Notifies the modification of a key, and persists it if the channel is persistent
+         * @return a future completed when the modification is persisted
+         */
+        CompletableFuture<Void> keyModified(String key) throws IOException {
+            AOSynchronization.this.keyModified(name, key);
+            return isPersistent() ? store.keyModified(name, channel, key) : PERSISTED;
         }
 
-        long getRemainingTimeout() {
-            return remainingTimeout;
+        /**
+         * Notifies the modification of the channel, and persists it if the channel is persistent
+         * @return a future completed when the modification is persisted
+         */
+        CompletableFuture<Void> channelModified() throws IOException {
+            AOSynchronization.this.channelModified(name);
+            return isPersistent() ? store.channelModified(name, channel) : PERSISTED;
+        }
+
+        private boolean isPersistent() {
+            return persistedChannels.get(name) == channel;
         }
 
         @Override
-        public String toString() {
-            return "TimedOutRequest{" + "request=" + request + ", configuredTimeout=" + configuredTimeout +
-                   ", remainingTimeout=" + remainingTimeout + '}';
+        public void close() {
+            lock.unlock();
+            freezeLock.readLock().unlock();
         }
     }
 }
@@ -0,0 +1,71 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.synchronization;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.ow2.proactive.scheduler.synchronization.AOSynchronization.Channel;
+
+
+/**
+ * Storage of the persistent channels of {@link AOSynchronization}.
+ *
+ * The channels are kept in memory by the synchronization service, the store records their modifications.
+ * A modification must be recorded while the lock of the modified channel is held, so that the modifications
+ * of a channel are recorded in the order they were made. The returned future completes once the
+ * modification is durable, it can be waited for after the channel lock has been released.
+ *
+ * @author ActiveEon Team
+ */
+interface ChannelStore {
+
+    /**
+     * Opens the store and loads the persisted channels
+     */
+    Map<String, Channel> load() throws IOException;
+
+    /**
+     * Records the whole content of a channel
+     */
+    CompletableFuture<Void> channelModified(String name, Channel channel) throws IOException;
+
+    /**
+     * Records the value of one key of a channel, or its removal if the channel does not contain the key anymore
+     */
+    CompletableFuture<Void> keyModified(String name, Channel channel, String key) throws IOException;
+
+    /**
+     * Records the deletion of a channel
+     */
+    CompletableFuture<Void> channelDeleted(String name) throws IOException;
+
+    /**
+     * Makes the recorded modifications durable and closes the store
+     */
+    void close();
+}
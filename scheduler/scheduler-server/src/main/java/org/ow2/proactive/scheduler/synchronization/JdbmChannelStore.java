@@ -0,0 +1,113 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.synchronization;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.log4j.Logger;
+import org.ow2.proactive.scheduler.synchronization.AOSynchronization.Channel;
+
+import jdbm.PrimaryHashMap;
+import jdbm.RecordManager;
+import jdbm.RecordManagerFactory;
+
+
+/**
+ * Channel store using a <a href="https://code.google.com/archive/p/jdbm2/">JDBM2</a> database,
+ * each modification commits the whole content of the modified channel.
+ *
+ * @author ActiveEon Team
+ */
+class JdbmChannelStore implements ChannelStore {
+
+    private static final Logger logger = Logger.getLogger(JdbmChannelStore.class);
+
+    /** Schema used inside the JDBM database */
+    private static final String STATUS_RECORD_NAME = "STORE";
+
+    private static final CompletableFuture<Void> COMMITTED = CompletableFuture.completedFuture(null);
+
+    /** Path to jdbm database main file */
+    private final File statusFile;
+
+    private RecordManager recordManager;
+
+    /** JDBM map storing the persistent channels */
+    private PrimaryHashMap<String, Channel> persistedChannels;
+
+    JdbmChannelStore(File statusFile) {
+        this.statusFile = statusFile;
+    }
+
+    @Override
+    public synchronized Map<String, Channel> load() throws IOException {
+        logger.info("Loading Record Manager from file : " + statusFile);
+        recordManager = RecordManagerFactory.createRecordManager(statusFile.getCanonicalPath());
+        persistedChannels = recordManager.hashMap(STATUS_RECORD_NAME);
+        // While printing the content of persistedChannels, InvalidClassException or jdbm Error can be triggered
+        logger.info("Content of persisted store : " + persistedChannels);
+        recordManager.commit();
+        return new HashMap<>(persistedChannels);
+    }
+
+    @Override
+    public synchronized CompletableFuture<Void> channelModified(String name, Channel channel) throws IOException {
+        // Record Manager only commits the entries which have been modified via a put call
+        persistedChannels.put(name, channel);
+        recordManager.commit();
+        return COMMITTED;
+    }
+
+    @Override
+    public CompletableFuture<Void> keyModified(String name, Channel channel, String key) throws IOException {
+        return channelModified(name, channel);
+    }
+
+    @Override
+    public synchronized CompletableFuture<Void> channelDeleted(String name) throws IOException {
+        persistedChannels.remove(name);
+        recordManager.commit();
+        return COMMITTED;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (recordManager != null) {
+            try {
+                logger.info("Closing Record Manager");
+                recordManager.close();
+            } catch (IOException e) {
+                logger.warn("Error when closing Record Manager", e);
+            }
+            recordManager = null;
+            persistedChannels = null;
+        }
+    }
+}
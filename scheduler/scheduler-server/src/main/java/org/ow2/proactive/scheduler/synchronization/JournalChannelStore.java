@@ -0,0 +1,507 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.synchronization;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.CRC32;
+
+import org.apache.log4j.Logger;
+import org.ow2.proactive.scheduler.synchronization.AOSynchronization.Channel;
+import org.ow2.proactive.utils.ObjectByteConverter;
+
+
+/**
+ * Channel store appending the modifications to a journal file.
+ *
+ * Modifications are serialized by the thread which made them and queued. A single writer thread appends all
+ * the queued modifications to the journal and syncs it once, so that the modifications made concurrently
+ * on different channels are committed together.
+ *
+ * The writer thread also maintains the serialized content of the channels. Once the journal contains more than
+ * a configured number of records, this content is written to a snapshot file and a new journal is started.
+ * Each journal has a generation number, a snapshot of generation N contains all the records of the journals
+ * of generation lower than N. A record which was not entirely written (e.g. when the server was killed) is
+ * ignored when the journal is read.
+ *
+ * @author ActiveEon Team
+ */
+class JournalChannelStore implements ChannelStore {
+
+    private static final Logger logger = Logger.getLogger(JournalChannelStore.class);
+
+    static final String JOURNAL_SUFFIX = ".journal";
+
+    static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private static final int JOURNAL_MAGIC = 0x50414A4C;
+
+    private static final int SNAPSHOT_MAGIC = 0x50415350;
+
+    private static final int JOURNAL_HEADER_LENGTH = Integer.BYTES + Long.BYTES;
+
+    private static final byte PUT = 1;
+
+    private static final byte REMOVE = 2;
+
+    private static final byte SET_CHANNEL = 3;
+
+    private static final byte DELETE_CHANNEL = 4;
+
+    private final File journalFile;
+
+    private final File snapshotFile;
+
+    private final int compactionThreshold;
+
+    /** Serialized content of the persisted channels, only accessed by the writer thread once loaded */
+    private final Map<String, Map<String, byte[]>> content = new HashMap<>();
+
+    private final Object queueLock = new Object();
+
+    /** Records waiting to be written, guarded by queueLock */
+    private List<PendingRecord> queue = new ArrayList<>();
+
+    /** guarded by queueLock */
+    private boolean closed = true;
+
+    private Thread writer;
+
+    private long generation;
+
+    private int recordsSinceCompaction;
+
+    private boolean newStore;
+
+    private FileOutputStream journalOutput;
+
+    private DataOutputStream journal;
+
+    /**
+     * @param directory directory containing the journal and snapshot files
+     * @param baseName prefix of the journal and snapshot file names
+     * @param compactionThreshold number of records after which the journal is compacted
+     */
+    JournalChannelStore(File directory, String baseName, int compactionThreshold) {
+        this.journalFile = new File(directory, baseName + JOURNAL_SUFFIX);
+        this.snapshotFile = new File(directory, baseName + SNAPSHOT_SUFFIX);
+        this.compactionThreshold = Math.max(1, compactionThreshold);
+    }
+
+    /**
+     * Returns true if neither a journal nor a snapshot existed when the store was loaded
+     */
+    boolean isNewStore() {
+        return newStore;
+    }
+
+    @Override
+    public synchronized Map<String, Channel> load() throws IOException {
+        logger.info("Loading channels from journal : " + journalFile);
+        content.clear();
+        newStore = !snapshotFile.exists() && !journalFile.exists();
+        long snapshotGeneration = snapshotFile.exists() ? readSnapshot() : 0;
+        generation = snapshotGeneration;
+        recordsSinceCompaction = 0;
+        if (journalFile.exists() && replayJournal(snapshotGeneration)) {
+            journalOutput = new FileOutputStream(journalFile, true);
+            journal = new DataOutputStream(new BufferedOutputStream(journalOutput));
+        } else {
+            // the journal does not exist or it was already included in the snapshot
+            startJournal(generation);
+        }
+
+        Map<String, Channel> channels = new HashMap<>(content.size());
+        for (Map.Entry<String, Map<String, byte[]>> channelContent : content.entrySet()) {
+            Channel channel = new Channel();
+            for (Map.Entry<String, byte[]> entry : channelContent.getValue().entrySet()) {
+                channel.put(entry.getKey(), (Serializable) ObjectByteConverter.byteArrayToObject(entry.getValue()));
+            }
+            channels.put(channelContent.getKey(), channel);
+        }
+        logger.info("Loaded " + channels.size() + " persistent channels, " + recordsSinceCompaction +
+                    " records replayed from journal");
+
+        synchronized (queueLock) {
+            closed = false;
+        }
+        writer = new Thread(this::writeQueuedRecords, "SynchronizationJournalWriter");
+        writer.setDaemon(true);
+        writer.start();
+        return channels;
+    }
+
+    @Override
+    public CompletableFuture<Void> channelModified(String name, Channel channel) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream record = new DataOutputStream(bytes);
+        record.writeByte(SET_CHANNEL);
+        writeString(record, name);
+        Map<String, Serializable> entries = new HashMap<>(channel);
+        record.writeInt(entries.size());
+        for (Map.Entry<String, Serializable> entry : entries.entrySet()) {
+            writeString(record, entry.getKey());
+            writeBytes(record, serialize(name, entry.getKey(), entry.getValue()));
+        }
+        return enqueue(bytes.toByteArray());
+    }
+
+    @Override
+    public CompletableFuture<Void> keyModified(String name, Channel channel, String key) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream record = new DataOutputStream(bytes);
+        Serializable value = channel.get(key);
+        record.writeByte(value == null ? REMOVE : PUT);
+        writeString(record, name);
+        writeString(record, key);
+        if (value != null) {
+            writeBytes(record, serialize(name, key, value));
+        }
+        return enqueue(bytes.toByteArray());
+    }
+
+    @Override
+    public CompletableFuture<Void> channelDeleted(String name) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream record = new DataOutputStream(bytes);
+        record.writeByte(DELETE_CHANNEL);
+        writeString(record, name);
+        return enqueue(bytes.toByteArray());
+    }
+
+    @Override
+    public synchronized void close() {
+        synchronized (queueLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queueLock.notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            logger.warn("Error when closing the synchronization journal", e);
+        }
+        logger.info("Closed channels journal " + journalFile);
+    }
+
+    private CompletableFuture<Void> enqueue(byte[] payload) throws IOException {
+        PendingRecord record = new PendingRecord(payload);
+        synchronized (queueLock) {
+            if (closed) {
+                throw new IOException("Channels journal " + journalFile + " is closed");
+            }
+            queue.add(record);
+            queueLock.notifyAll();
+        }
+        return record.committed;
+    }
+
+    /**
+     * Loop of the writer thread, commits the queued records until the store is closed and the queue is empty
+     */
+    private void writeQueuedRecords() {
+        while (true) {
+            List<PendingRecord> batch;
+            synchronized (queueLock) {
+                while (queue.isEmpty() && !closed) {
+                    try {
+                        queueLock.wait();
+                    } catch (InterruptedException e) {
+                        // the writer only stops when the store is closed
+                    }
+                }
+                if (queue.isEmpty()) {
+                    return;
+                }
+                batch = queue;
+                queue = new ArrayList<>();
+            }
+            commit(batch);
+        }
+    }
+
+    private void commit(List<PendingRecord> batch) {
+        try {
+            for (PendingRecord record : batch) {
+                CRC32 crc = new CRC32();
+                crc.update(record.payload);
+                journal.writeInt(record.payload.length);
+                journal.writeLong(crc.getValue());
+                journal.write(record.payload);
+            }
+            journal.flush();
+            journalOutput.getFD().sync();
+        } catch (IOException e) {
+            logger.error("Error when writing " + batch.size() + " records to the channels journal " + journalFile, e);
+            for (PendingRecord record : batch) {
+                record.committed.completeExceptionally(e);
+            }
+            // the journal may end with an incomplete record, a new journal is started from the known content
+            compact();
+            return;
+        }
+        for (PendingRecord record : batch) {
+            try {
+                apply(record.payload);
+            } catch (IOException e) {
+                // cannot happen as the records were written by this store
+                logger.error("Invalid record in channels journal", e);
+            }
+            record.committed.complete(null);
+        }
+        recordsSinceCompaction += batch.size();
+        if (recordsSinceCompaction >= compactionThreshold) {
+            compact();
+        }
+    }
+
+    /**
+     * Writes the content of the channels to a new snapshot and starts a new journal
+     */
+    private void compact() {
+        long newGeneration = generation + 1;
+        File temporarySnapshot = new File(snapshotFile.getPath() + TEMPORARY_SUFFIX);
+        try {
+            try (FileOutputStream snapshotOutput = new FileOutputStream(temporarySnapshot);
+                    DataOutputStream snapshot = new DataOutputStream(new BufferedOutputStream(snapshotOutput))) {
+                snapshot.writeInt(SNAPSHOT_MAGIC);
+                snapshot.writeLong(newGeneration);
+                snapshot.writeInt(content.size());
+                for (Map.Entry<String, Map<String, byte[]>> channel : content.entrySet()) {
+                    writeString(snapshot, channel.getKey());
+                    snapshot.writeInt(channel.getValue().size());
+                    for (Map.Entry<String, byte[]> entry : channel.getValue().entrySet()) {
+                        writeString(snapshot, entry.getKey());
+                        writeBytes(snapshot, entry.getValue());
+                    }
+                }
+                snapshot.writeInt(SNAPSHOT_MAGIC);
+                snapshot.flush();
+                snapshotOutput.getFD().sync();
+            }
+            Files.move(temporarySnapshot.toPath(),
+                       snapshotFile.toPath(),
+                       StandardCopyOption.REPLACE_EXISTING,
+                       StandardCopyOption.ATOMIC_MOVE);
+            journal.close();
+            startJournal(newGeneration);
+            logger.debug("Compacted channels journal after " + recordsSinceCompaction + " records, new generation is " +
+                         newGeneration);
+            recordsSinceCompaction = 0;
+        } catch (IOException e) {
+            logger.error("Error when compacting the channels journal " + journalFile, e);
+        }
+    }
+
+    private void startJournal(long journalGeneration) throws IOException {
+        journalOutput = new FileOutputStream(journalFile);
+        journal = new DataOutputStream(new BufferedOutputStream(journalOutput));
+        journal.writeInt(JOURNAL_MAGIC);
+        journal.writeLong(journalGeneration);
+        journal.flush();
+        journalOutput.getFD().sync();
+        generation = journalGeneration;
+    }
+
+    /**
+     * @return the generation of the snapshot
+     */
+    private long readSnapshot() throws IOException {
+        try (DataInputStream snapshot = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+            if (snapshot.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Invalid channels snapshot " + snapshotFile);
+            }
+            long snapshotGeneration = snapshot.readLong();
+            int channels = snapshot.readInt();
+            for (int i = 0; i < channels; i++) {
+                String name = readString(snapshot);
+                int entries = snapshot.readInt();
+                Map<String, byte[]> channelContent = new HashMap<>(entries);
+                for (int j = 0; j < entries; j++) {
+                    channelContent.put(readString(snapshot), readBytes(snapshot));
+                }
+                content.put(name, channelContent);
+            }
+            if (snapshot.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Channels snapshot " + snapshotFile + " is incomplete");
+            }
+            return snapshotGeneration;
+        }
+    }
+
+    /**
+     * Applies the records of the journal, if it was not included in the snapshot. An incomplete or corrupted
+     * record ends the journal, the journal is truncated before it.
+     *
+     * @return true if the journal must be continued, false if it was included in the snapshot
+     */
+    private boolean replayJournal(long snapshotGeneration) throws IOException {
+        long validLength = JOURNAL_HEADER_LENGTH;
+        long journalLength = journalFile.length();
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile)))) {
+            long journalGeneration;
+            try {
+                if (input.readInt() != JOURNAL_MAGIC) {
+                    throw new IOException("Invalid channels journal " + journalFile);
+                }
+                journalGeneration = input.readLong();
+            } catch (EOFException e) {
+                // the journal header was not entirely written
+                return false;
+            }
+            if (journalGeneration < snapshotGeneration) {
+                return false;
+            }
+            generation = journalGeneration;
+            while (true) {
+                byte[] payload;
+                long expectedCrc;
+                try {
+                    int length = input.readInt();
+                    if (length < 0 || length > journalLength - validLength) {
+                        break;
+                    }
+                    payload = new byte[length];
+                    expectedCrc = input.readLong();
+                    input.readFully(payload);
+                } catch (EOFException e) {
+                    break;
+                }
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if (crc.getValue() != expectedCrc) {
+                    break;
+                }
+                apply(payload);
+                validLength += Integer.BYTES + Long.BYTES + payload.length;
+                recordsSinceCompaction++;
+            }
+        }
+        if (validLength < journalLength) {
+            logger.warn("Ignoring the incomplete last record of the channels journal " + journalFile);
+            try (RandomAccessFile file = new RandomAccessFile(journalFile, "rw")) {
+                file.setLength(validLength);
+            }
+        }
+        return true;
+    }
+
+    private void apply(byte[] payload) throws IOException {
+        DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = record.readByte();
+        String name = readString(record);
+        switch (type) {
+            case PUT:
+                content.computeIfAbsent(name, channel -> new HashMap<>()).put(readString(record), readBytes(record));
+                break;
+            case REMOVE:
+                Map<String, byte[]> channelContent = content.get(name);
+                if (channelContent != null) {
+                    channelContent.remove(readString(record));
+                }
+                break;
+            case SET_CHANNEL:
+                int entries = record.readInt();
+                Map<String, byte[]> newContent = new HashMap<>(entries);
+                for (int i = 0; i < entries; i++) {
+                    newContent.put(readString(record), readBytes(record));
+                }
+                content.put(name, newContent);
+                break;
+            case DELETE_CHANNEL:
+                content.remove(name);
+                break;
+            default:
+                throw new IOException("Unknown record type " + type + " in channels journal " + journalFile);
+        }
+    }
+
+    private static byte[] serialize(String channel, String key, Serializable value) throws IOException {
+        try {
+            return ObjectByteConverter.objectToByteArray(value);
+        } catch (RuntimeException e) {
+            throw new IOException("Could not serialize the value of key " + key + " in channel " + channel, e);
+        }
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        writeBytes(output, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        return new String(readBytes(input), StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(DataOutputStream output, byte[] value) throws IOException {
+        output.writeInt(value.length);
+        output.write(value);
+    }
+
+    private static byte[] readBytes(DataInputStream input) throws IOException {
+        byte[] value = new byte[input.readInt()];
+        input.readFully(value);
+        return value;
+    }
+
+    private static final class PendingRecord {
+
+        private final byte[] payload;
+
+        private final CompletableFuture<Void> committed = new CompletableFuture<>();
+
+        private PendingRecord(byte[] payload) {
+            this.payload = payload;
+        }
+    }
+}
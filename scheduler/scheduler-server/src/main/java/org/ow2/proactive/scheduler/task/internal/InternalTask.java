@@ -28,6 +28,7 @@ package org.ow2.proactive.scheduler.task.internal;
 import java.io.File;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -169,6 +170,13 @@ public abstract class InternalTask extends TaskState {
     @XmlTransient
     private transient Map<String, Serializable> updatedVariables;
 
+    /** incremented each time the runtime variables or the generic information of the task change */
+    @XmlTransient
+    private transient volatile long runtimeVersion = 0;
+
+    @XmlTransient
+    private transient volatile RuntimeGenericInformation runtimeGenericInformation;
+
     protected InternalTask(InternalJob internalJob) {
         this.internalJob = internalJob;
     }
@@ -219,6 +227,7 @@ public abstract class InternalTask extends TaskState {
         }
 
         replicatedTask.internalJob = internalJob;
+        replicatedTask.invalidateRuntimeGenericInformation();
 
         // internalTasksDependencies contain references to other InternalTasks, it needs to be removed.
         // anyway, dependencies for the new task will not be the same as the original
@@ -1038,6 +1047,7 @@ public abstract class InternalTask extends TaskState {
         String taskName = getInitialName(this.getName());
         this.iteration = it;
         this.setName(taskName);
+        invalidateRuntimeGenericInformation();
     }
 
     /**
@@ -1060,6 +1070,7 @@ public abstract class InternalTask extends TaskState {
         String taskName = getInitialName(this.getName());
         this.replication = it;
         this.setName(taskName);
+        invalidateRuntimeGenericInformation();
     }
 
     /**
@@ -1193,6 +1204,7 @@ public abstract class InternalTask extends TaskState {
 
         tli.setPingPeriod(PASchedulerProperties.SCHEDULER_NODE_PING_FREQUENCY.getValueAsInt());
         tli.setPingAttempts(PASchedulerProperties.SCHEDULER_NODE_PING_ATTEMPTS.getValueAsInt());
+        tli.setHeartbeatEnabled(PASchedulerProperties.SCHEDULER_TASK_HEARTBEAT_MISSED.getValueAsInt() > 0);
 
         tli.setSynchronizationAPI(new SynchronizationWrapper(internalJob.getOwner(),
                                                              getId(),
@@ -1297,6 +1309,7 @@ public abstract class InternalTask extends TaskState {
             updatedVariables.putAll(getSystemVariables());
 
             updatedVariables = VariableSubstitutor.resolveVariables(updatedVariables, updatedVariables);
+            invalidateRuntimeGenericInformation();
         }
     }
 
@@ -1381,6 +1394,9 @@ public abstract class InternalTask extends TaskState {
 
     /**
      * returns a generic replacement map, where up-to-date runtime variables were replaced
+     * <p>
+     * The result is computed once and shared until the runtime variables or the generic information of the task
+     * or of its job change, it cannot be modified.
      */
     @Override
     public Map<String, String> getRuntimeGenericInformation() {
@@ -1390,6 +1406,19 @@ public abstract class InternalTask extends TaskState {
             return new HashMap<>();
         }
 
+        RuntimeGenericInformation current = runtimeGenericInformation;
+        long version = runtimeVersion;
+        long jobVersion = internalJob.getRuntimeVersion();
+        if (current == null || current.version != version || current.jobVersion != jobVersion) {
+            current = new RuntimeGenericInformation(version,
+                                                    jobVersion,
+                                                    Collections.unmodifiableMap(computeRuntimeGenericInformation()));
+            runtimeGenericInformation = current;
+        }
+        return current.genericInformation;
+    }
+
+    private Map<String, String> computeRuntimeGenericInformation() {
         HashMap<String, String> gInfo = new HashMap<>();
         Map<String, String> jobGenericInfo = internalJob.getRuntimeGenericInformation();
         if (jobGenericInfo != null) {
@@ -1404,4 +1433,39 @@ public abstract class InternalTask extends TaskState {
 
         return gInfo;
     }
+
+    @Override
+    public void setGenericInformation(Map<String, String> genericInformation) {
+        super.setGenericInformation(genericInformation);
+        invalidateRuntimeGenericInformation();
+    }
+
+    @Override
+    public void addGenericInformation(String key, String genericInformation) {
+        super.addGenericInformation(key, genericInformation);
+        invalidateRuntimeGenericInformation();
+    }
+
+    private synchronized void invalidateRuntimeGenericInformation() {
+        runtimeVersion++;
+        runtimeGenericInformation = null;
+    }
+
+    /**
+     * Runtime generic information with the task and job versions it was computed for.
+     */
+    private static final class RuntimeGenericInformation {
+
+        private final long version;
+
+        private final long jobVersion;
+
+        private final Map<String, String> genericInformation;
+
+        private RuntimeGenericInformation(long version, long jobVersion, Map<String, String> genericInformation) {
+            this.version = version;
+            this.jobVersion = jobVersion;
+            this.genericInformation = genericInformation;
+        }
+    }
 }
@@ -27,11 +27,13 @@ package org.ow2.proactive.scheduler.util;
 
 import static org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties.LOG4J_ASYNC_APPENDER_CACHE_ENABLED;
 import static org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties.LOG4J_ASYNC_APPENDER_ENABLED;
+import static org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties.LOG4J_SEGMENTED_APPENDER_ENABLED;
 import static org.ow2.proactive.scheduler.core.properties.PASchedulerProperties.SCHEDULER_JOB_LOGS_LOCATION;
 import static org.ow2.proactive.scheduler.core.properties.PASchedulerProperties.getAbsolutePath;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -55,6 +57,8 @@ import org.ow2.proactive.utils.FileUtils;
 import org.ow2.proactive.utils.appenders.AsynchChachedFileAppender;
 import org.ow2.proactive.utils.appenders.AsynchFileAppender;
 import org.ow2.proactive.utils.appenders.FileAppender;
+import org.ow2.proactive.utils.appenders.SegmentedLogAppender;
+import org.ow2.proactive.utils.appenders.SegmentedLogStore;
 import org.ow2.proactive.utils.appenders.SynchFileAppender;
 
 
@@ -115,6 +119,18 @@ public class ServerJobAndTaskLogs {
         return result != null ? result : "Cannot retrieve logs for task " + id;
     }
 
+    /**
+     * Returns a range of the logs of a task, aligned to UTF-8 characters as in
+     * {@link SegmentedLogStore#read(String, long, int)}.
+     *
+     * @param offset position in bytes of the beginning of the range
+     * @param length length in bytes of the range
+     */
+    public String getTaskLog(TaskId id, long offset, int length) {
+        String result = readLog(TaskLogger.getTaskLogRelativePath(id), offset, length);
+        return result != null ? result : "Cannot retrieve logs for task " + id;
+    }
+
     public String getJobLog(JobId jobId, Set<TaskId> tasks) {
         String jobLog = readLog(JobLogger.getJobLogRelativePath(jobId));
         if (jobLog == null) {
@@ -134,6 +150,7 @@ public class ServerJobAndTaskLogs {
 
     public void remove(JobId jobId, String jobOwner, Credentials userCredentials) {
         jlogger.close(jobId);
+        removeSegment(jobId.value());
         removeFolderLog(jobId.value());
         removeVisualizationFile(jobId.value());
         removePreciousLogs(jobId, jobOwner, userCredentials);
@@ -181,6 +198,16 @@ public class ServerJobAndTaskLogs {
         }
     }
 
+    private void removeSegment(String jobId) {
+        if (logsLocationIsSet()) {
+            try {
+                getStore().removeSegment(jobId);
+            } catch (IOException e) {
+                logger.warn("Could not remove logs segment of job " + jobId, e);
+            }
+        }
+    }
+
     private void removeFolderLog(String path) {
         if (logsLocationIsSet()) {
             String logsLocation = getLogsLocation();
@@ -244,7 +271,46 @@ public class ServerJobAndTaskLogs {
         return PASchedulerProperties.SCHEDULER_DB_HIBERNATE_DROPDB.getValueAsBoolean();
     }
 
-    private String readLog(String filename) {
+    private SegmentedLogStore getStore() {
+        return SegmentedLogStore.forLocation(getLogsLocation());
+    }
+
+    /**
+     * Reads a log from the segmented store, or from the log files written before it was enabled.
+     */
+    private String readLog(String key) {
+        try {
+            String result = getStore().read(key);
+            if (result != null) {
+                return result;
+            }
+        } catch (IOException e) {
+            logger.warn("Could not read log " + key, e);
+        }
+        return readLogFiles(key);
+    }
+
+    private String readLog(String key, long offset, int length) {
+        try {
+            String result = getStore().read(key, offset, length);
+            if (result != null) {
+                return result;
+            }
+        } catch (IOException e) {
+            logger.warn("Could not read log " + key, e);
+        }
+        String result = readLogFiles(key);
+        if (result == null) {
+            return null;
+        }
+        // same offsets and character alignment as the store
+        byte[] bytes = result.getBytes(StandardCharsets.UTF_8);
+        int start = (int) Math.min(Math.max(offset, 0), bytes.length);
+        int end = (int) Math.min(bytes.length, (long) start + Math.max(length, 0));
+        return SegmentedLogStore.decodeRange(bytes, start, end);
+    }
+
+    private String readLogFiles(String filename) {
         String result = null;
         for (String suffix : new String[] { ".1", "" }) {
             String contents = readFile(new File(getLogsLocation(), filename + suffix));
@@ -273,6 +339,7 @@ public class ServerJobAndTaskLogs {
     void removeLogsDirectory() {
         String logsLocation = getLogsLocation();
         logger.info("Removing logs " + logsLocation);
+        getStore().clear();
 
         boolean folderRemoved = org.apache.commons.io.FileUtils.deleteQuietly(new File(logsLocation));
         if (!folderRemoved) {
@@ -312,7 +379,9 @@ public class ServerJobAndTaskLogs {
     public static FileAppender createFileAppender() {
         FileAppender appender;
 
-        if (LOG4J_ASYNC_APPENDER_ENABLED.getValueAsBoolean()) {
+        if (LOG4J_SEGMENTED_APPENDER_ENABLED.getValueAsBoolean()) {
+            appender = new SegmentedLogAppender();
+        } else if (LOG4J_ASYNC_APPENDER_ENABLED.getValueAsBoolean()) {
             if (LOG4J_ASYNC_APPENDER_CACHE_ENABLED.getValueAsBoolean()) {
                 appender = new AsynchChachedFileAppender();
             } else {
@@ -44,6 +44,7 @@ import org.ow2.proactive.scheduler.core.db.SchedulerStateRecoverHelper;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.job.InternalJob;
 import org.ow2.proactive.scheduler.job.InternalJobFactory;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
 import org.ow2.proactive.scheduler.job.InternalTaskFlowJob;
 import org.ow2.proactive.scheduler.task.internal.InternalTask;
 
@@ -301,6 +302,29 @@ public class SchedulerStateRecoverHelperTest {
         assertThat(recoveredState.getFinishedJobs().get(0).getStatus()).isEqualTo(JobStatus.CANCELED);
     }
 
+    @Test
+    public void testRecoverWithCanceledJobAlsoLoadedAsFinished() throws KeyException, JobCreationException {
+        InternalJob job = createJob(JobStatus.RUNNING);
+        job.setId(JobIdImpl.makeJobId("42"));
+
+        SchedulerDBManager dbManager = Mockito.mock(SchedulerDBManager.class);
+        SchedulerStateRecoverHelper stateRecoverHelper = new SchedulerStateRecoverHelper(dbManager) {
+            @Override
+            protected List<InternalTask> copyAndSort(List<InternalTask> tasks) {
+                throw new RuntimeException("bouh!");
+            }
+        };
+        Mockito.when(dbManager.loadNotFinishedJobs(true)).thenReturn(ImmutableList.of(job));
+        // the finished jobs may be loaded after the job is canceled
+        Mockito.when(dbManager.loadFinishedJobs(false, -1)).thenReturn(ImmutableList.of(job));
+
+        RecoveredSchedulerState recoveredState = stateRecoverHelper.recover(-1);
+
+        assertThat(recoveredState.getFinishedJobs()).hasSize(1);
+        assertThat(recoveredState.getRunningJobs()).hasSize(0);
+        assertThat(recoveredState.getFinishedJobs().get(0).getStatus()).isEqualTo(JobStatus.CANCELED);
+    }
+
     @Test(expected = IllegalStateException.class)
     public void testRecoverWithCanceledStatusForLoadedNotFinishedJobs() {
         testRecoverWithIncorrectStatusForLoadedNotFinishedJobs(JobStatus.CANCELED);
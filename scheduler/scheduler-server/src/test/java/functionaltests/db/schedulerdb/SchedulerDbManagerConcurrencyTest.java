@@ -30,6 +30,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -57,7 +58,9 @@ public class SchedulerDbManagerConcurrencyTest extends BaseSchedulerDBTest {
                                               { new ConcurrentJobDeletionScenario(true),
                                                 ConcurrentJobDeletionScenario.class.getSimpleName() + "DeleteData" },
                                               { new ConcurrentJobInsertionAndDeletionScenario(),
-                                                ConcurrentJobInsertionAndDeletionScenario.class.getSimpleName() } });
+                                                ConcurrentJobInsertionAndDeletionScenario.class.getSimpleName() },
+                                              { new ConcurrentFirstJobsInsertionScenario(),
+                                                ConcurrentFirstJobsInsertionScenario.class.getSimpleName() } });
     }
 
     public SchedulerDbManagerConcurrencyTest(Scenario scenario, String testName) {
@@ -196,6 +199,50 @@ public class SchedulerDbManagerConcurrencyTest extends BaseSchedulerDBTest {
 
     }
 
+    /**
+     * Jobs of the same user are submitted at the same time while no counter exists yet, the counters must
+     * end up equal to the ones computed from the jobs table.
+     */
+    private static class ConcurrentFirstJobsInsertionScenario extends Scenario {
+
+        private static final int NB_JOBS = 10;
+
+        private final CyclicBarrier barrier = new CyclicBarrier(NB_JOBS);
+
+        @Override
+        public void execute(final SchedulerDbManagerConcurrencyTest test) throws InterruptedException {
+            for (int i = 0; i < NB_JOBS; i++) {
+                threadPool.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        barrier.await(1, TimeUnit.MINUTES);
+                        test.createAndInsertJob();
+                        return null;
+                    }
+                });
+            }
+
+            awaitTermination();
+        }
+
+        @Override
+        protected void assertTermination(SchedulerDbManagerConcurrencyTest test) {
+            super.assertTermination(test);
+            long pendingJobs = test.getDbManager().getPendingJobsCount();
+            Assert.assertEquals(NB_JOBS, pendingJobs);
+
+            test.getDbManager().rebuildJobCounters();
+            Assert.assertEquals(NB_JOBS, test.getDbManager().getTotalJobsCount());
+            Assert.assertEquals(pendingJobs, test.getDbManager().getPendingJobsCount());
+        }
+
+        @Override
+        protected int getExpectedNumberOfJobInDb() {
+            return NB_JOBS;
+        }
+
+    }
+
     private static abstract class Scenario {
 
         protected ExecutorService threadPool = Executors.newFixedThreadPool(10);
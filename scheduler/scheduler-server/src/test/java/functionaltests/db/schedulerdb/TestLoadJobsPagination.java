@@ -34,7 +34,9 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.ow2.proactive.db.SortOrder;
 import org.ow2.proactive.db.SortParameter;
+import org.ow2.proactive.scheduler.common.JobCursor;
 import org.ow2.proactive.scheduler.common.JobSortParameter;
+import org.ow2.proactive.scheduler.common.Page;
 import org.ow2.proactive.scheduler.common.job.JobInfo;
 import org.ow2.proactive.scheduler.common.job.JobPriority;
 import org.ow2.proactive.scheduler.common.job.JobStatus;
@@ -327,6 +329,80 @@ public class TestLoadJobsPagination extends BaseSchedulerDBTest {
         checkJobs(jobs);
     }
 
+    @Test
+    public void testCursorPaging() throws Exception {
+        defaultSubmitJob(createJob(), DEFAULT_USER_NAME, 300); // 1
+        defaultSubmitJob(createJob(), DEFAULT_USER_NAME, 100); // 2
+        defaultSubmitJob(createJob(), DEFAULT_USER_NAME, 200); // 3
+        defaultSubmitJob(createJob(), "user1", 200); // 4
+        defaultSubmitJob(createJob(), DEFAULT_USER_NAME, 400); // 5
+
+        Page<JobInfo> page = dbManager.getJobs(JobCursor.FIRST, 2, null, true, true, true, true);
+        checkJobs(page.getList(), 5, 1);
+        Assert.assertEquals(5, page.getSize());
+
+        page = dbManager.getJobs(JobCursor.after(page.getList().get(1)), 2, null, true, true, true, true);
+        checkJobs(page.getList(), 4, 3);
+        Assert.assertEquals(5, page.getSize());
+
+        page = dbManager.getJobs(JobCursor.after(page.getList().get(1)), 2, null, true, true, true, true);
+        checkJobs(page.getList(), 2);
+
+        page = dbManager.getJobs(JobCursor.after(page.getList().get(0)), 2, null, true, true, true, true);
+        checkJobs(page.getList());
+
+        page = dbManager.getJobs(JobCursor.parse("200_4"), -1, DEFAULT_USER_NAME, true, true, true, true);
+        checkJobs(page.getList(), 3, 2);
+        Assert.assertEquals(4, page.getSize());
+
+        page = dbManager.getJobs(JobCursor.FIRST, -1, null, false, true, true, true);
+        checkJobs(page.getList());
+        Assert.assertEquals(0, page.getSize());
+    }
+
+    @Test
+    public void testJobCounters() throws Exception {
+        InternalJob job;
+        InternalTask task;
+
+        // pending jobs - 1, 2
+        defaultSubmitJob(createJob());
+        defaultSubmitJob(createJob(), "user1");
+
+        // running job - 3
+        job = defaultSubmitJob(createJob());
+        job.start();
+        task = startTask(job, job.getITasks().get(0));
+        dbManager.jobTaskStarted(job, task, true);
+
+        // killed job - 4
+        job = defaultSubmitJob(createJob(), "user1");
+        job.failed(null, JobStatus.KILLED);
+        dbManager.updateAfterJobKilled(job, Collections.<TaskId> emptySet());
+
+        // removed job - 5
+        job = defaultSubmitJob(createJob());
+        dbManager.removeJob(job.getId(), System.currentTimeMillis(), true);
+
+        checkJobCounters();
+
+        // the counters rebuilt from the jobs table are the ones maintained by the updates
+        dbManager.rebuildJobCounters();
+        checkJobCounters();
+    }
+
+    private void checkJobCounters() {
+        Assert.assertEquals(4, dbManager.getTotalJobsCount());
+        Assert.assertEquals(2, dbManager.getPendingJobsCount());
+        Assert.assertEquals(1, dbManager.getRunningJobsCount());
+        Assert.assertEquals(1, dbManager.getJobsCount(JobStatus.KILLED));
+        Assert.assertEquals(1, dbManager.getPendingJobsCount("user1"));
+        Assert.assertEquals(1, dbManager.getKilledJobsCount("user1"));
+        Assert.assertEquals(0, dbManager.getRunningJobsCount("user1"));
+        Assert.assertEquals(2, dbManager.getJobs(0, 10, DEFAULT_USER_NAME, true, true, true, true, null).getSize());
+        Assert.assertEquals(3, dbManager.getJobs(0, 10, null, true, true, false, false, null).getSize());
+    }
+
     private List<SortParameter<JobSortParameter>> sortParameters(SortParameter<JobSortParameter>... params) {
         return Arrays.asList(params);
     }
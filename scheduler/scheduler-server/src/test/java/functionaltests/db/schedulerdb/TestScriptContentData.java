@@ -0,0 +1,170 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package functionaltests.db.schedulerdb;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.hibernate.Session;
+import org.junit.Assert;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
+import org.ow2.proactive.scheduler.common.task.JavaTask;
+import org.ow2.proactive.scheduler.core.db.ContentAddressedScript;
+import org.ow2.proactive.scheduler.core.db.ScriptContentData;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+import org.ow2.proactive.scripting.SelectionScript;
+import org.ow2.proactive.scripting.SimpleScript;
+
+
+public class TestScriptContentData extends BaseSchedulerDBTest {
+
+    private static final int NB_TASKS = 10;
+
+    @Test
+    public void testIdenticalScriptsAreStoredOnce() throws Exception {
+        InternalJob job = defaultSubmitJobAndLoadInternal(true, createJob(NB_TASKS));
+
+        // the java executable script, the pre and selection scripts are shared, the post scripts are distinct
+        Assert.assertEquals(3 + NB_TASKS, countScriptContents());
+        Assert.assertEquals(0, countInlineScripts());
+
+        checkScripts(job);
+    }
+
+    @Test
+    public void testScriptsStoredInlineAreMigrated() throws Exception {
+        InternalJob job = defaultSubmitJob(createJob(NB_TASKS));
+        moveContentsInline();
+        Assert.assertEquals(0, countScriptContents());
+
+        checkScripts(loadInternalJob(true, job.getId()));
+
+        dbManager.migrateScriptContents();
+
+        Assert.assertEquals(3 + NB_TASKS, countScriptContents());
+        Assert.assertEquals(0, countInlineScripts());
+        checkScripts(loadInternalJob(true, job.getId()));
+    }
+
+    @Test
+    public void testContentsAreRemovedWithTheLastJobReferencingThem() throws Exception {
+        InternalJob job1 = defaultSubmitJob(createJob(1));
+        InternalJob job2 = defaultSubmitJob(createJob(1));
+        Assert.assertEquals(4, countScriptContents());
+
+        dbManager.removeJob(job1.getId(), 0, true);
+        Assert.assertEquals(4, countScriptContents());
+        checkScripts(loadInternalJob(true, job2.getId()));
+
+        dbManager.removeJob(job2.getId(), 0, true);
+        Assert.assertEquals(0, countScriptContents());
+    }
+
+    @Test
+    public void testContentsAreRemovedByTheHousekeepingOfTheLastJobReferencingThem() throws Exception {
+        InternalJob job1 = defaultSubmitJob(createJob(1));
+        InternalJob job2 = defaultSubmitJob(createJob(1));
+        Assert.assertEquals(4, countScriptContents());
+
+        dbManager.executeHousekeepingInDB(Collections.singletonList(job1.getId().longValue()), true);
+        Assert.assertEquals(4, countScriptContents());
+        checkScripts(loadInternalJob(true, job2.getId()));
+
+        dbManager.executeHousekeepingInDB(Collections.singletonList(job2.getId().longValue()), true);
+        Assert.assertEquals(0, countScriptContents());
+    }
+
+    private TaskFlowJob createJob(int nbTasks) throws Exception {
+        TaskFlowJob jobDef = new TaskFlowJob();
+        for (int i = 0; i < nbTasks; i++) {
+            JavaTask task = createDefaultTask("task" + i);
+            task.addSelectionScript(new SelectionScript("selected = true", "js", true));
+            task.setPreScript(new SimpleScript("println 'pre'", "groovy"));
+            task.setPostScript(new SimpleScript("println 'post " + i + "'", "groovy"));
+            jobDef.addTask(task);
+        }
+        return jobDef;
+    }
+
+    private void checkScripts(InternalJob job) throws Exception {
+        for (InternalTask task : job.getITasks()) {
+            String index = task.getName().substring("task".length());
+            Assert.assertEquals("println 'pre'", task.getPreScript().getScript());
+            Assert.assertEquals("println 'post " + index + "'", task.getPostScript().getScript());
+            Assert.assertEquals(1, task.getSelectionScripts().size());
+            Assert.assertEquals("selected = true", task.getSelectionScripts().get(0).getScript());
+            Assert.assertNotNull(dbManager.loadExecutableContainer(task));
+        }
+    }
+
+    private long countScriptContents() {
+        return count("select count(*) from ScriptContentData");
+    }
+
+    private long countInlineScripts() {
+        return count("select count(*) from ScriptData where script is not null") +
+               count("select count(*) from SelectionScriptData where script is not null");
+    }
+
+    private long count(String query) {
+        Session session = dbManager.getSessionFactory().openSession();
+        try {
+            return (Long) session.createQuery(query).uniqueResult();
+        } finally {
+            session.close();
+        }
+    }
+
+    /**
+     * Writes the scripts inline as previous versions did, and removes the contents table rows.
+     */
+    @SuppressWarnings("unchecked")
+    private void moveContentsInline() {
+        Session session = dbManager.getSessionFactory().openSession();
+        try {
+            session.beginTransaction();
+            for (String entityName : new String[] { "ScriptData", "SelectionScriptData" }) {
+                List<ContentAddressedScript> scripts = session.createQuery("from " + entityName +
+                                                                           " where contentHash is not null")
+                                                              .list();
+                for (ContentAddressedScript script : scripts) {
+                    script.setScript(content(session, script.getContentHash()));
+                    script.setContentHash(null);
+                }
+            }
+            session.createQuery("delete from ScriptContentData").executeUpdate();
+            session.getTransaction().commit();
+        } finally {
+            session.close();
+        }
+    }
+
+    private String content(Session session, String hash) {
+        return session.get(ScriptContentData.class, hash).getScript();
+    }
+}
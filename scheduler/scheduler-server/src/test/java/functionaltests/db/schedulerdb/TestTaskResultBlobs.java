@@ -0,0 +1,183 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package functionaltests.db.schedulerdb;
+
+import java.util.Collections;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.Session;
+import org.hibernate.cfg.Configuration;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
+import org.ow2.proactive.scheduler.common.task.SimpleTaskLogs;
+import org.ow2.proactive.scheduler.common.task.TaskResult;
+import org.ow2.proactive.scheduler.core.db.LocalTaskResultBlobStore;
+import org.ow2.proactive.scheduler.core.db.SchedulerDBManager;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.task.TaskResultImpl;
+
+
+public class TestTaskResultBlobs extends BaseSchedulerDBTest {
+
+    /** larger than the default threshold of 1 MB once serialized */
+    private static final int LARGE_SIZE = 1500000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private LocalTaskResultBlobStore store;
+
+    @Before
+    public void createDbManagerWithBlobStore() throws Exception {
+        dbManager.close();
+
+        store = new LocalTaskResultBlobStore();
+        store.init(folder.getRoot().getAbsolutePath());
+
+        Configuration config = new Configuration();
+        config.setProperty("hibernate.connection.driver_class", "org.hsqldb.jdbc.JDBCDriver");
+        config.setProperty("hibernate.connection.url",
+                           "jdbc:hsqldb:mem:" + System.currentTimeMillis() + ";hsqldb.tx=mvcc");
+        config.setProperty("hibernate.dialect", "org.hibernate.dialect.HSQLDialect");
+        dbManager = new SchedulerDBManager(config, true, store);
+    }
+
+    @Test
+    public void testLargePayloadsAreStoredOutsideOfTheDatabase() throws Throwable {
+        InternalJob job = submitJobWithLargeResult("a");
+
+        Assert.assertEquals(3, store.list().size());
+        Assert.assertEquals(1,
+                            count("select count(*) from TaskResultData where serializedValue is null and " +
+                                  "serializedValueBlob is not null and logs is null and logsBlob is not null and " +
+                                  "propagatedVariablesBlob is not null"));
+
+        checkLargeResult(dbManager.loadTaskResult(job.getId(), "task", 0), "a");
+    }
+
+    @Test
+    public void testIdenticalPayloadsAreStoredOnce() throws Throwable {
+        submitJobWithLargeResult("a");
+        submitJobWithLargeResult("a");
+
+        Assert.assertEquals(3, store.list().size());
+    }
+
+    @Test
+    public void testSmallPayloadsStayInTheDatabase() throws Throwable {
+        InternalJob job = defaultSubmitJobAndLoadInternal(true, createJob());
+        dbManager.updateAfterTaskFinished(job,
+                                          job.getTask("task"),
+                                          new TaskResultImpl(null, "small", new SimpleTaskLogs("out", "err"), 0));
+
+        Assert.assertTrue(store.list().isEmpty());
+        TaskResult result = dbManager.loadTaskResult(job.getId(), "task", 0);
+        Assert.assertEquals("small", result.value());
+        Assert.assertEquals("outerr", result.getOutput().getAllLogs(false));
+    }
+
+    @Test
+    public void testLazyResultIsSerializedWithItsPayloads() throws Throwable {
+        InternalJob job = submitJobWithLargeResult("a");
+
+        TaskResult result = dbManager.loadTaskResult(job.getId(), "task", 0);
+
+        checkLargeResult(SerializationUtils.clone(result), "a");
+    }
+
+    @Test
+    public void testPayloadsAreRemovedWithTheLastJobReferencingThem() throws Throwable {
+        InternalJob job1 = submitJobWithLargeResult("a");
+        InternalJob job2 = submitJobWithLargeResult("a");
+        InternalJob job3 = submitJobWithLargeResult("b");
+        Assert.assertEquals(6, store.list().size());
+
+        dbManager.removeJob(job1.getId(), 0, true);
+        Assert.assertEquals(6, store.list().size());
+        checkLargeResult(dbManager.loadTaskResult(job2.getId(), "task", 0), "a");
+
+        dbManager.removeJob(job2.getId(), 0, true);
+        Assert.assertEquals(3, store.list().size());
+
+        dbManager.executeHousekeepingInDB(Collections.singletonList(job3.getId().longValue()), true);
+        Assert.assertTrue(store.list().isEmpty());
+    }
+
+    @Test
+    public void testOrphanPayloadsAreRemovedAtStartup() throws Throwable {
+        submitJobWithLargeResult("a");
+        store.put("0123456789abcdef", new byte[] { 1, 2, 3 });
+        Assert.assertEquals(4, store.list().size());
+
+        dbManager.removeOrphanTaskResultPayloads();
+
+        Assert.assertEquals(3, store.list().size());
+        Assert.assertFalse(store.list().contains("0123456789abcdef"));
+    }
+
+    private InternalJob submitJobWithLargeResult(String character) throws Exception {
+        InternalJob job = defaultSubmitJobAndLoadInternal(true, createJob());
+        TaskResultImpl result = new TaskResultImpl(null,
+                                                   StringUtils.repeat(character, LARGE_SIZE),
+                                                   new SimpleTaskLogs(StringUtils.repeat(character + "out", LARGE_SIZE),
+                                                                      ""),
+                                                   0);
+        result.setPropagatedVariables(Collections.singletonMap("variable",
+                                                               StringUtils.repeat(character + "var", LARGE_SIZE)
+                                                                          .getBytes()));
+        dbManager.updateAfterTaskFinished(job, job.getTask("task"), result);
+        return job;
+    }
+
+    private void checkLargeResult(TaskResult result, String character) throws Throwable {
+        Assert.assertEquals(StringUtils.repeat(character, LARGE_SIZE), result.value());
+        Assert.assertEquals(StringUtils.repeat(character + "out", LARGE_SIZE), result.getOutput().getAllLogs(false));
+        Assert.assertEquals(1, result.getPropagatedVariables().size());
+        Assert.assertArrayEquals(StringUtils.repeat(character + "var", LARGE_SIZE).getBytes(),
+                                 result.getPropagatedVariables().get("variable"));
+    }
+
+    private TaskFlowJob createJob() throws Exception {
+        TaskFlowJob jobDef = new TaskFlowJob();
+        jobDef.addTask(createDefaultTask("task"));
+        return jobDef;
+    }
+
+    private long count(String query) {
+        Session session = dbManager.getSessionFactory().openSession();
+        try {
+            return (Long) session.createQuery(query).uniqueResult();
+        } finally {
+            session.close();
+        }
+    }
+
+}
@@ -25,6 +25,8 @@
  */
 package functionaltests.db.schedulerdb;
 
+import java.util.Arrays;
+
 import org.junit.Assert;
 import org.junit.Test;
 import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
@@ -34,6 +36,8 @@ import org.ow2.proactive.scheduler.common.task.NativeTask;
 import org.ow2.proactive.scheduler.common.task.TaskStatus;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.task.containers.ExecutableContainer;
+import org.ow2.proactive.scheduler.task.containers.ScriptExecutableContainer;
 import org.ow2.proactive.scheduler.task.internal.InternalForkedScriptTask;
 import org.ow2.proactive.scheduler.task.internal.InternalTask;
 
@@ -104,4 +108,47 @@ public class TestTaskRuntimeData extends BaseSchedulerDBTest {
         Assert.assertEquals(TaskStatus.SUBMITTED, internalJob.getTask("task3").getStatus());
     }
 
+    @Test
+    public void testUpdateTasksStatusAndScheduledTime() throws Exception {
+        TaskFlowJob job = new TaskFlowJob();
+        job.addTask(createDefaultTask("task1"));
+        job.addTask(createDefaultTask("task2"));
+        job.addTask(createDefaultTask("task3"));
+
+        InternalJob internalJob = defaultSubmitJobAndLoadInternal(true, job);
+
+        InternalTask task1 = internalJob.getTask("task1");
+        InternalTask task2 = internalJob.getTask("task2");
+        task1.setScheduledTime(1000L);
+        task2.setScheduledTime(2000L);
+        dbManager.updateTasksStatusAndScheduledTime(Arrays.asList(task1, task2), TaskStatus.PENDING);
+
+        internalJob = loadInternalJob(true, internalJob.getId());
+        Assert.assertEquals(TaskStatus.PENDING, internalJob.getTask("task1").getStatus());
+        Assert.assertEquals(1000L, internalJob.getTask("task1").getScheduledTime());
+        Assert.assertEquals(TaskStatus.PENDING, internalJob.getTask("task2").getStatus());
+        Assert.assertEquals(2000L, internalJob.getTask("task2").getScheduledTime());
+        Assert.assertEquals(TaskStatus.SUBMITTED, internalJob.getTask("task3").getStatus());
+    }
+
+    @Test
+    public void testLoadExecutableContainers() throws Exception {
+        TaskFlowJob job = new TaskFlowJob();
+        job.addTask(createDefaultTask("task1"));
+        job.addTask(createDefaultTask("task2"));
+
+        InternalJob internalJob = defaultSubmitJobAndLoadInternal(true, job);
+        dbManager.loadExecutableContainers(internalJob.getITasks());
+
+        for (InternalTask task : internalJob.getITasks()) {
+            Assert.assertNotNull(((ScriptExecutableContainer) task.getExecutableContainer()).getScript());
+        }
+
+        // containers are not shared between loads, only task scripts are cached
+        ExecutableContainer container = dbManager.loadExecutableContainer(internalJob.getTask("task1"));
+        Assert.assertNotSame(internalJob.getTask("task1").getExecutableContainer(), container);
+        Assert.assertSame(((ScriptExecutableContainer) internalJob.getTask("task1").getExecutableContainer()).getScript(),
+                          ((ScriptExecutableContainer) container).getScript());
+    }
+
 }
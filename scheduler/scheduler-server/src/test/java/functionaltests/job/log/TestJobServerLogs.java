@@ -64,6 +64,7 @@ import org.ow2.proactive.scheduler.util.JobLogger;
 import org.ow2.proactive.scheduler.util.ServerJobAndTaskLogs;
 import org.ow2.proactive.scheduler.util.TaskLogger;
 import org.ow2.proactive.scripting.SelectionScript;
+import org.ow2.proactive.utils.appenders.SegmentedLogStore;
 
 import functionaltests.utils.SchedulerFunctionalTestNoRestart;
 
@@ -201,10 +202,13 @@ public class TestJobServerLogs extends SchedulerFunctionalTestNoRestart {
     }
 
     private void checkJobAndTaskLogFiles(JobId jobId, List<TaskState> tasks, boolean shouldExist) throws Exception {
-        checkFile(shouldExist, new File(logsLocation, JobLogger.getJobLogRelativePath(jobId)));
+        checkFile(shouldExist, new File(logsLocation, jobId.value() + SegmentedLogStore.SEGMENT_EXTENSION));
+        checkLog(shouldExist, JobLogger.getJobLogRelativePath(jobId));
         for (TaskState taskState : tasks) {
-            checkFile(shouldExist, new File(logsLocation, TaskLogger.getTaskLogRelativePath(taskState.getId())));
+            checkLog(shouldExist, TaskLogger.getTaskLogRelativePath(taskState.getId()));
         }
+        // do not keep a handle on the segments written by the scheduler
+        SegmentedLogStore.forLocation(logsLocation).clear();
     }
 
     private void checkFile(boolean shouldExist, File jobLogFile) {
@@ -216,6 +220,15 @@ public class TestJobServerLogs extends SchedulerFunctionalTestNoRestart {
         assertEquals(message, shouldExist, actualExistings);
     }
 
+    private void checkLog(boolean shouldExist, String key) throws IOException {
+        String message = String.format("Log %s should %s", key, shouldExist ? "exist" : "not exist");
+        final boolean actualExistings = SegmentedLogStore.forLocation(logsLocation).contains(key);
+        if (actualExistings != shouldExist) {
+            printDiagnosticMessage();
+        }
+        assertEquals(message, shouldExist, actualExistings);
+    }
+
     public static boolean matchLine(String text, String regex) {
         Pattern pattern = Pattern.compile(regex, Pattern.MULTILINE);
         return pattern.matcher(text).find();
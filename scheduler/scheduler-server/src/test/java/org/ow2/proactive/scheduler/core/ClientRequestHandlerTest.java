@@ -0,0 +1,197 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.objectweb.proactive.core.UniqueID;
+import org.ow2.proactive.scheduler.common.NotificationData;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
+import org.ow2.proactive.scheduler.common.SchedulerEventListener;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
+import org.ow2.proactive.scheduler.core.jmx.mbean.EventQueuesMBean;
+import org.ow2.proactive.scheduler.core.jmx.mbean.EventQueuesMBeanImpl;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.TaskIdImpl;
+
+
+public class ClientRequestHandlerTest {
+
+    private SchedulerEventListener client;
+
+    private ClientRequestHandler handler;
+
+    private Method schedulerStateUpdated;
+
+    private Method taskStateUpdated;
+
+    private CountDownLatch firstEventReceived;
+
+    private CountDownLatch releaseClient;
+
+    @Before
+    public void setUp() throws Exception {
+        client = mock(SchedulerEventListener.class);
+        handler = new ClientRequestHandler(mock(SchedulerFrontendState.class), new UniqueID(), client);
+        schedulerStateUpdated = SchedulerEventListener.class.getMethod("schedulerStateUpdatedEvent",
+                                                                       SchedulerEvent.class);
+        taskStateUpdated = SchedulerEventListener.class.getMethod("taskStateUpdatedEvent", NotificationData.class);
+
+        // the client blocks on the first event, so that the next ones wait in the queue
+        firstEventReceived = new CountDownLatch(1);
+        releaseClient = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            firstEventReceived.countDown();
+            releaseClient.await();
+            return null;
+        }).when(client).schedulerStateUpdatedEvent(SchedulerEvent.STARTED);
+        handler.addEvent(schedulerStateUpdated, SchedulerEvent.STARTED);
+        assertThat(firstEventReceived.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @After
+    public void tearDown() {
+        releaseClient.countDown();
+        handler.close();
+    }
+
+    @Test
+    public void testProgressEventsOfATaskAreCoalesced() throws Exception {
+        TaskId taskId = createTaskId(0);
+        NotificationData<TaskInfo> progress1 = notification(SchedulerEvent.TASK_PROGRESS, taskId);
+        NotificationData<TaskInfo> progress2 = notification(SchedulerEvent.TASK_PROGRESS, taskId);
+        NotificationData<TaskInfo> progress3 = notification(SchedulerEvent.TASK_PROGRESS, taskId);
+        NotificationData<TaskInfo> otherTaskProgress = notification(SchedulerEvent.TASK_PROGRESS, createTaskId(1));
+
+        handler.addEvent(taskStateUpdated, progress1);
+        handler.addEvent(taskStateUpdated, progress2);
+        handler.addEvent(taskStateUpdated, otherTaskProgress);
+        handler.addEvent(taskStateUpdated, progress3);
+
+        assertThat(handler.getQueueSize()).isEqualTo(2);
+        assertThat(handler.getCoalescedEventsCount()).isEqualTo(2L);
+
+        releaseClient.countDown();
+
+        verify(client, timeout(10000)).taskStateUpdatedEvent(progress3);
+        verify(client, timeout(10000)).taskStateUpdatedEvent(otherTaskProgress);
+        verify(client, never()).taskStateUpdatedEvent(progress1);
+        verify(client, never()).taskStateUpdatedEvent(progress2);
+    }
+
+    @Test
+    public void testTaskEventReplacesWaitingProgressEvent() throws Exception {
+        TaskId taskId = createTaskId(0);
+        NotificationData<TaskInfo> progress = notification(SchedulerEvent.TASK_PROGRESS, taskId);
+        NotificationData<TaskInfo> finished = notification(SchedulerEvent.TASK_RUNNING_TO_FINISHED, taskId);
+        NotificationData<TaskInfo> finishedAgain = notification(SchedulerEvent.TASK_RUNNING_TO_FINISHED, taskId);
+
+        handler.addEvent(taskStateUpdated, progress);
+        handler.addEvent(taskStateUpdated, finished);
+        handler.addEvent(taskStateUpdated, finishedAgain);
+
+        // state transitions are never coalesced
+        assertThat(handler.getQueueSize()).isEqualTo(2);
+        assertThat(handler.getCoalescedEventsCount()).isEqualTo(1L);
+
+        releaseClient.countDown();
+
+        verify(client, timeout(10000)).taskStateUpdatedEvent(finished);
+        verify(client, timeout(10000)).taskStateUpdatedEvent(finishedAgain);
+        verify(client, never()).taskStateUpdatedEvent(progress);
+    }
+
+    @Test
+    public void testFullQueueIsReplacedByAResyncEvent() throws Exception {
+        EventQueuesMBean eventQueues = new EventQueuesMBeanImpl();
+        long droppedBefore = eventQueues.getTotalDroppedEventsCount();
+
+        SchedulerEventListener boundedClient = mock(SchedulerEventListener.class);
+        ClientRequestHandler boundedHandler = new ClientRequestHandler(mock(SchedulerFrontendState.class),
+                                                                       new UniqueID(),
+                                                                       boundedClient,
+                                                                       2);
+        try {
+            CountDownLatch boundedEventReceived = new CountDownLatch(1);
+            doAnswer(invocation -> {
+                boundedEventReceived.countDown();
+                releaseClient.await();
+                return null;
+            }).when(boundedClient).schedulerStateUpdatedEvent(SchedulerEvent.STARTED);
+            boundedHandler.addEvent(schedulerStateUpdated, SchedulerEvent.STARTED);
+            assertThat(boundedEventReceived.await(10, TimeUnit.SECONDS)).isTrue();
+
+            boundedHandler.addEvent(schedulerStateUpdated, SchedulerEvent.PAUSED);
+            boundedHandler.addEvent(schedulerStateUpdated, SchedulerEvent.RESUMED);
+            boundedHandler.addEvent(schedulerStateUpdated, SchedulerEvent.FROZEN);
+
+            // the two waiting events are replaced by the resync event
+            assertThat(boundedHandler.getQueueSize()).isEqualTo(2);
+            assertThat(boundedHandler.getDroppedEventsCount()).isEqualTo(2L);
+            assertThat(eventQueues.getTotalDroppedEventsCount() - droppedBefore).isEqualTo(2L);
+
+            releaseClient.countDown();
+
+            verify(boundedClient, timeout(10000)).schedulerStateUpdatedEvent(SchedulerEvent.RESYNC_NEEDED);
+            verify(boundedClient, timeout(10000)).schedulerStateUpdatedEvent(SchedulerEvent.FROZEN);
+            verify(boundedClient, never()).schedulerStateUpdatedEvent(SchedulerEvent.PAUSED);
+            verify(boundedClient, never()).schedulerStateUpdatedEvent(SchedulerEvent.RESUMED);
+        } finally {
+            boundedHandler.close();
+        }
+    }
+
+    @Test
+    public void testHandlerIsExposedUntilClosed() {
+        assertThat(ClientRequestHandler.getHandlers()).contains(handler);
+        handler.close();
+        assertThat(ClientRequestHandler.getHandlers()).doesNotContain(handler);
+    }
+
+    private static TaskId createTaskId(int id) {
+        return TaskIdImpl.createTaskId(JobIdImpl.makeJobId("42"), "task" + id, id);
+    }
+
+    private static NotificationData<TaskInfo> notification(SchedulerEvent event, TaskId taskId) {
+        TaskInfo taskInfo = mock(TaskInfo.class);
+        when(taskInfo.getTaskId()).thenReturn(taskId);
+        return new NotificationData<>(event, taskInfo);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.rmi.dgc.VMID;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.objectweb.proactive.core.node.Node;
+import org.objectweb.proactive.core.runtime.VMInformation;
+import org.ow2.proactive.authentication.crypto.CredData;
+import org.ow2.proactive.authentication.crypto.Credentials;
+import org.ow2.proactive.authentication.crypto.HybridEncryptionUtil;
+import org.ow2.proactive.scheduler.core.db.SchedulerDBManager;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.job.JobInfoImpl;
+import org.ow2.proactive.scheduler.task.TaskLauncher;
+
+
+public class JobCredentialsCacheTest {
+
+    private KeyPair coreKeyPair;
+
+    private SchedulerDBManager dbManager;
+
+    private InternalJob job;
+
+    private JobCredentialsCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(1024);
+        coreKeyPair = keyGen.generateKeyPair();
+
+        dbManager = mock(SchedulerDBManager.class);
+        when(dbManager.thirdPartyCredentialsMap("user")).thenReturn(Collections.singletonMap("key",
+                                                                                           HybridEncryptionUtil.encryptString("value",
+                                                                                                                              coreKeyPair.getPublic())));
+
+        job = mock(InternalJob.class);
+        JobInfoImpl jobInfo = mock(JobInfoImpl.class);
+        when(jobInfo.getJobOwner()).thenReturn("user");
+        when(job.getJobInfo()).thenReturn(jobInfo);
+        when(job.getId()).thenReturn(JobIdImpl.makeJobId("42"));
+        when(job.getCredentials()).thenReturn(Credentials.createCredentials(new CredData("user", "pwd"),
+                                                                            coreKeyPair.getPublic()));
+
+        cache = new JobCredentialsCache(dbManager, 10, 10);
+    }
+
+    @Test
+    public void testCredentialsAreDecryptedOncePerJob() throws Exception {
+        CredData first = cache.getCredData(job, coreKeyPair.getPrivate());
+        CredData second = cache.getCredData(job, coreKeyPair.getPrivate());
+
+        assertSame(first, second);
+        assertEquals("pwd", first.getPassword());
+        assertEquals("value", first.getThirdPartyCredentials().get("key"));
+        verify(dbManager, times(1)).thirdPartyCredentialsMap("user");
+    }
+
+    @Test
+    public void testThirdPartyCredentialsChangeInvalidatesTheCache() throws Exception {
+        CredData first = cache.getCredData(job, coreKeyPair.getPrivate());
+        cache.thirdPartyCredentialsChanged("user");
+        CredData second = cache.getCredData(job, coreKeyPair.getPrivate());
+
+        assertNotSame(first, second);
+        verify(dbManager, times(2)).thirdPartyCredentialsMap("user");
+    }
+
+    @Test
+    public void testRemovedJobIsDecryptedAgain() throws Exception {
+        CredData first = cache.getCredData(job, coreKeyPair.getPrivate());
+        cache.removeJob(job.getId());
+
+        assertNotSame(first, cache.getCredData(job, coreKeyPair.getPrivate()));
+    }
+
+    @Test
+    public void testNodePublicKeyIsRequestedOncePerJvm() throws Exception {
+        VMInformation vmInformation = mock(VMInformation.class);
+        when(vmInformation.getVMID()).thenReturn(new VMID());
+        Node node = mock(Node.class);
+        when(node.getVMInformation()).thenReturn(vmInformation);
+        TaskLauncher launcher = mock(TaskLauncher.class);
+        PublicKey nodeKey = coreKeyPair.getPublic();
+        when(launcher.getNodePublicKey()).thenReturn(nodeKey);
+
+        assertSame(nodeKey, cache.getNodePublicKey(node, launcher));
+        assertSame(nodeKey, cache.getNodePublicKey(node, launcher));
+        verify(launcher, times(1)).getNodePublicKey();
+
+        cache.removeNode(node);
+        cache.getNodePublicKey(node, launcher);
+        verify(launcher, times(2)).getNodePublicKey();
+    }
+
+    @Test
+    public void testDisabledNodeKeysCacheGeneratesAKeyPerTask() throws Exception {
+        cache = new JobCredentialsCache(dbManager, 10, 0);
+        TaskLauncher launcher = mock(TaskLauncher.class);
+        when(launcher.generatePublicKey()).thenReturn(coreKeyPair.getPublic());
+
+        cache.getNodePublicKey(mock(Node.class), launcher);
+        cache.getNodePublicKey(mock(Node.class), launcher);
+
+        verify(launcher, times(2)).generatePublicKey();
+    }
+}
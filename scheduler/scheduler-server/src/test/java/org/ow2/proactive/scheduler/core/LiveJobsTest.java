@@ -30,6 +30,7 @@ import static org.junit.Assert.assertThat;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.TreeSet;
 
 import org.junit.Assert;
@@ -44,6 +45,7 @@ import org.mockito.stubbing.Answer;
 import org.objectweb.proactive.core.node.Node;
 import org.objectweb.proactive.core.node.NodeInformation;
 import org.objectweb.proactive.core.runtime.VMInformation;
+import org.ow2.proactive.scheduler.common.JobDescriptor;
 import org.ow2.proactive.scheduler.common.exception.UnknownJobException;
 import org.ow2.proactive.scheduler.common.exception.UnknownTaskException;
 import org.ow2.proactive.scheduler.common.job.JobId;
@@ -352,6 +354,42 @@ public class LiveJobsTest extends ProActiveTestClean {
         assertThat(liveJobs.lockJobsToSchedule(false).size(), is(1));
     }
 
+    @Test(timeout = 60000)
+    public void testLockJobsToScheduleIncremental() throws UnknownJobException, UnknownTaskException {
+        PASchedulerProperties.SCHEDULER_INCREMENTAL_SCHEDULING.updateProperty("true");
+        try {
+            liveJobs = new LiveJobs(dbManager, listener, null);
+            InternalJob job = new InternalTaskFlowJob("test-name",
+                                                      JobPriority.NORMAL,
+                                                      OnTaskError.CANCEL_JOB,
+                                                      "description");
+            JobId id = new JobIdImpl(666L, "test-name");
+            job.setId(id);
+            List<InternalTask> tasksList = new ArrayList<>();
+            InternalTask internalTask = new InternalScriptTask(job);
+            internalTask.setName("task-name");
+            tasksList.add(internalTask);
+            job.setTasks(tasksList);
+            liveJobs.jobSubmitted(job);
+            liveJobs.pauseJob(id);
+
+            // a paused job has no eligible task, it leaves the ready jobs
+            long version = liveJobs.getReadyJobsVersion();
+            Map<JobId, JobDescriptor> jobsToSchedule = liveJobs.lockJobsToSchedule(false);
+            assertThat(jobsToSchedule.size(), is(0));
+            assertThat(liveJobs.getReadyJobsVersion(), is(version));
+
+            // resuming the job makes it ready again
+            liveJobs.resumeJob(id);
+            assertThat(liveJobs.getReadyJobsVersion() > version, is(true));
+            jobsToSchedule = liveJobs.lockJobsToSchedule(false);
+            assertThat(jobsToSchedule.size(), is(1));
+            liveJobs.unlockJobsToSchedule(jobsToSchedule.values());
+        } finally {
+            PASchedulerProperties.SCHEDULER_INCREMENTAL_SCHEDULING.updateProperty("false");
+        }
+    }
+
     @Test(expected = IllegalStateException.class, timeout = 60000)
     public void testRestartTaskOnNodeFailureRunningExceptionExpectedBecauseNotLockedTask()
             throws UnknownJobException, UnknownTaskException {
@@ -26,6 +26,9 @@
 package org.ow2.proactive.scheduler.core;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.doReturn;
@@ -49,6 +52,8 @@ import java.util.concurrent.TimeoutException;
 
 import org.junit.Test;
 import org.objectweb.proactive.core.UniqueID;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
+import org.ow2.proactive.scheduler.common.SchedulerStatus;
 import org.ow2.proactive.scheduler.common.job.JobInfo;
 import org.ow2.proactive.scheduler.common.job.JobState;
 import org.ow2.proactive.scheduler.core.db.SchedulerDBManager;
@@ -191,4 +196,34 @@ public class SchedulerFrontendStateTest extends ProActiveTestClean {
 
         verify(dbManager, times(3)).loadInternalJob(anyLong());
     }
+
+    @Test
+    public void testStateSnapshotIsSharedUntilTheStateChanges() throws Exception {
+        SchedulerJMXHelper mockJMX = mock(SchedulerJMXHelper.class);
+        when(mockJMX.getSchedulerRuntimeMBean()).thenReturn(new RuntimeDataMBeanImpl(null));
+
+        SchedulerStateImpl<ClientJobState> schedulerStateImpl = new SchedulerStateImpl<>();
+        final ClientJobState pendingJob = createClientJobState(1l);
+        schedulerStateImpl.setPendingJobs(new Vector(Lists.newArrayList(pendingJob)));
+
+        SchedulerFrontendState schedulerFrontendState = new SchedulerFrontendState(schedulerStateImpl, mockJMX);
+
+        SchedulerStateImpl<ClientJobState> snapshot = schedulerFrontendState.getStateSnapshot();
+        assertSame(snapshot, schedulerFrontendState.getStateSnapshot());
+        assertEquals(SchedulerStatus.STARTED, snapshot.getStatus());
+
+        schedulerFrontendState.schedulerStateUpdated(SchedulerEvent.PAUSED);
+        // the job lists of the live state change without notifying the frontend state
+        schedulerStateImpl.pendingToRunning(pendingJob);
+
+        SchedulerStateImpl<ClientJobState> newSnapshot = schedulerFrontendState.getStateSnapshot();
+        assertNotSame(snapshot, newSnapshot);
+        assertEquals(SchedulerStatus.PAUSED, newSnapshot.getStatus());
+        assertTrue(newSnapshot.getRunningJobs().contains(pendingJob));
+
+        // a published snapshot is not modified by the later changes
+        assertEquals(SchedulerStatus.STARTED, snapshot.getStatus());
+        assertTrue(snapshot.getPendingJobs().contains(pendingJob));
+        assertTrue(snapshot.getRunningJobs().isEmpty());
+    }
 }
@@ -0,0 +1,182 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyCollection;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+import org.hibernate.Query;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatcher;
+import org.ow2.proactive.db.SessionWork;
+import org.ow2.proactive.db.TransactionHelper;
+
+
+public class ScriptContentStoreTest {
+
+    private static final String CONTENT = "println 'shared'";
+
+    private static final String HASH = ScriptContentData.hash(CONTENT);
+
+    private ScriptContentStore store;
+
+    private Session session;
+
+    private Synchronization removal;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        TransactionHelper transactionHelper = mock(TransactionHelper.class);
+        session = mock(Session.class);
+        when(transactionHelper.executeReadWriteTransaction(any(SessionWork.class))).thenAnswer(invocation -> {
+            SessionWork<?> work = (SessionWork<?>) invocation.getArguments()[0];
+            return work.doInTransaction(session);
+        });
+        store = new ScriptContentStore(transactionHelper, 1000000, 1000);
+
+        // the content is not stored anymore and nothing references it
+        Query storedHashes = query();
+        when(storedHashes.list()).thenReturn(Collections.emptyList());
+        when(session.getNamedQuery("findScriptContentHashes")).thenReturn(storedHashes);
+        Query unreferencedHashes = query();
+        when(unreferencedHashes.list()).thenReturn(Collections.singletonList(HASH));
+        when(session.getNamedQuery("findUnreferencedScriptContentHashes")).thenReturn(unreferencedHashes);
+        Query delete = query();
+        when(session.getNamedQuery("deleteScriptContentsInBulk")).thenReturn(delete);
+
+        Transaction transaction = mock(Transaction.class);
+        when(session.getTransaction()).thenReturn(transaction);
+        doAnswer(invocation -> {
+            removal = (Synchronization) invocation.getArguments()[0];
+            return null;
+        }).when(transaction).registerSynchronization(any(Synchronization.class));
+        store.releaseAfterCommit(session, Collections.singletonList(HASH));
+
+        // the last reference is removed while the content is being loaded
+        Query contents = query();
+        when(contents.list()).thenAnswer(invocation -> {
+            removal.afterCompletion(Status.STATUS_COMMITTED);
+            return Collections.singletonList(new ScriptContentData(HASH, CONTENT));
+        });
+        when(session.getNamedQuery("findScriptContents")).thenReturn(contents);
+
+        TestScript loaded = new TestScript(null, HASH);
+        store.resolve(session, Collections.singletonList(loaded));
+        assertEquals(CONTENT, loaded.resolvedContent);
+    }
+
+    @Test
+    public void testContentLoadedDuringItsRemovalIsStoredAgain() {
+        store.withReferences(() -> {
+            store.storeAll(Collections.singleton(CONTENT));
+            return null;
+        });
+
+        verify(session).save(argThat(new ArgumentMatcher<Object>() {
+            @Override
+            public boolean matches(Object argument) {
+                return argument instanceof ScriptContentData && HASH.equals(((ScriptContentData) argument).getHash());
+            }
+        }));
+    }
+
+    @Test
+    public void testContentLoadedDuringItsRemovalIsNotReferenced() {
+        TestScript script = new TestScript(CONTENT, null);
+
+        store.withReferences(() -> {
+            store.reference(session, Collections.singletonList(script));
+            return null;
+        });
+
+        assertEquals(CONTENT, script.getScript());
+        assertNull(script.getContentHash());
+    }
+
+    private static Query query() {
+        Query query = mock(Query.class);
+        when(query.setParameterList(anyString(), anyCollection())).thenReturn(query);
+        when(query.setReadOnly(anyBoolean())).thenReturn(query);
+        return query;
+    }
+
+    private static class TestScript implements ContentAddressedScript {
+
+        private String script;
+
+        private String contentHash;
+
+        private String resolvedContent;
+
+        TestScript(String script, String contentHash) {
+            this.script = script;
+            this.contentHash = contentHash;
+        }
+
+        @Override
+        public String getScript() {
+            return script;
+        }
+
+        @Override
+        public void setScript(String script) {
+            this.script = script;
+        }
+
+        @Override
+        public String getContentHash() {
+            return contentHash;
+        }
+
+        @Override
+        public void setContentHash(String contentHash) {
+            this.contentHash = contentHash;
+        }
+
+        @Override
+        public void resolveContent(String content) {
+            this.resolvedContent = content;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.policy.ram;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.rmi.dgc.VMID;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.objectweb.proactive.core.node.Node;
+import org.objectweb.proactive.core.node.NodeInformation;
+import org.objectweb.proactive.core.runtime.VMInformation;
+import org.ow2.proactive.resourcemanager.common.NodeTelemetry;
+import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptorImpl;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+import org.ow2.proactive.utils.NodeSet;
+
+
+public class RamSchedulingPolicyTest {
+
+    private static final long GIGABYTE = 1024L * 1024L * 1024L;
+
+    private RamSchedulingPolicy policy;
+
+    private VMID vmid;
+
+    @Before
+    public void setUp() {
+        policy = new RamSchedulingPolicy();
+        vmid = new VMID();
+    }
+
+    @Test
+    public void testTaskIsExecutableWhenTelemetryShowsEnoughRam() throws Exception {
+        NodeTelemetry telemetry = telemetry(8);
+        telemetry.setReservedMemory("node1", 2);
+        Node node = node("node0");
+
+        assertTrue(policy.isTaskExecutable(nodeSet(node, telemetry), task(6)));
+        verify(node).setProperty(RamSchedulingPolicy.RAM_VARIABLE_NAME, "6.0");
+    }
+
+    @Test
+    public void testTaskIsNotExecutableWhenOtherNodesReservedTheRam() throws Exception {
+        NodeTelemetry telemetry = telemetry(8);
+        telemetry.setReservedMemory("node1", 4);
+
+        assertFalse(policy.isTaskExecutable(nodeSet(node("node0"), telemetry), task(6)));
+    }
+
+    @Test
+    public void testReservationNotYetInTelemetryIsCounted() throws Exception {
+        NodeTelemetry telemetry = telemetry(8);
+
+        assertTrue(policy.isTaskExecutable(nodeSet(node("node0"), telemetry), task(5)));
+        // the telemetry has not been refreshed, the reservation of node0 must still be counted
+        assertFalse(policy.isTaskExecutable(nodeSet(node("node1"), telemetry), task(5)));
+    }
+
+    @Test
+    public void testReservationShownByTelemetryIsNotCountedTwice() throws Exception {
+        assertTrue(policy.isTaskExecutable(nodeSet(node("node0"), telemetry(8)), task(3)));
+
+        NodeTelemetry refreshed = telemetry(8);
+        refreshed.setReservedMemory("node0", 3);
+        assertTrue(policy.isTaskExecutable(nodeSet(node("node1"), refreshed), task(5)));
+    }
+
+    @Test
+    public void testTaskWithoutRamRequirementIsExecutable() throws Exception {
+        EligibleTaskDescriptorImpl task = mock(EligibleTaskDescriptorImpl.class);
+        InternalTask internalTask = mock(InternalTask.class);
+        when(internalTask.getRuntimeGenericInformation()).thenReturn(Collections.<String, String> emptyMap());
+        when(task.getInternal()).thenReturn(internalTask);
+
+        assertTrue(policy.isTaskExecutable(new NodeSet(), task));
+    }
+
+    private NodeTelemetry telemetry(long totalGigabytes) {
+        NodeTelemetry telemetry = new NodeTelemetry(System.currentTimeMillis());
+        telemetry.setTotalMemory(totalGigabytes * GIGABYTE);
+        return telemetry;
+    }
+
+    private Node node(String name) {
+        NodeInformation nodeInformation = mock(NodeInformation.class);
+        when(nodeInformation.getName()).thenReturn(name);
+        when(nodeInformation.getURL()).thenReturn("pnp://host:1234/" + name);
+        VMInformation vmInformation = mock(VMInformation.class);
+        when(vmInformation.getVMID()).thenReturn(vmid);
+        Node node = mock(Node.class);
+        when(node.getNodeInformation()).thenReturn(nodeInformation);
+        when(node.getVMInformation()).thenReturn(vmInformation);
+        return node;
+    }
+
+    private NodeSet nodeSet(Node node, NodeTelemetry telemetry) {
+        NodeSet nodeSet = new NodeSet();
+        nodeSet.add(node);
+        nodeSet.setTelemetry(node.getNodeInformation().getURL(), telemetry);
+        return nodeSet;
+    }
+
+    private EligibleTaskDescriptorImpl task(double neededRam) {
+        EligibleTaskDescriptorImpl task = mock(EligibleTaskDescriptorImpl.class);
+        InternalTask internalTask = mock(InternalTask.class);
+        when(internalTask.getName()).thenReturn("task");
+        when(internalTask.getRuntimeGenericInformation()).thenReturn(Collections.singletonMap(RamSchedulingPolicy.RAM_VARIABLE_NAME,
+                                                                                             String.valueOf(neededRam)));
+        when(task.getInternal()).thenReturn(internalTask);
+        return task;
+    }
+}
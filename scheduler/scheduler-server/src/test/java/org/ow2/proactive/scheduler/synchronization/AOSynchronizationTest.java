@@ -35,6 +35,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -442,6 +443,20 @@ public class AOSynchronizationTest extends ProActiveTestClean {
         Assert.assertEquals(0, (int) synchronization.get(CHANNEL1, "a"));
     }
 
+    @Test
+    public void testWaitUntilIsReleasedByTheModificationOfItsKey() throws Exception {
+        initChannel();
+
+        // the waiter on key b must not be released by the modifications of key a
+        Future<Boolean> waitOnB = executor.submit(() -> synchronization.waitUntil(CHANNEL1, "b", PREDICATE_EQ_ZERO));
+        synchronization.compute(CHANNEL1, "a", BIFUNCTION_DECREMENT_ONE);
+        Assert.assertTrue(synchronization.waitUntil(CHANNEL1, "a", PREDICATE_EQ_ZERO));
+        Assert.assertFalse(waitOnB.isDone());
+
+        synchronization.put(CHANNEL1, "b", 0);
+        Assert.assertTrue(waitOnB.get(10, TimeUnit.SECONDS));
+    }
+
     @Test
     public void testWaitUntilWithTimeout() throws IOException, InvalidChannelException, CompilationException {
         initChannel();
@@ -0,0 +1,144 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.synchronization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ow2.proactive.scheduler.synchronization.AOSynchronization.Channel;
+
+
+public class JournalChannelStoreTest {
+
+    private static final String BASE_NAME = "SchedulerStore";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+
+    private JournalChannelStore store;
+
+    @Before
+    public void init() throws IOException {
+        directory = folder.newFolder();
+    }
+
+    @After
+    public void cleanUp() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    @Test
+    public void testModificationsAreReloaded() throws Exception {
+        store = newStore(1000);
+        assertTrue(store.load().isEmpty());
+        assertTrue(store.isNewStore());
+
+        Channel channel = new Channel();
+        channel.put("key1", "value1");
+        channel.put("key2", 2);
+        store.channelModified("channel1", channel).get();
+        channel.remove("key1");
+        store.keyModified("channel1", channel, "key1").get();
+        channel.put("key3", "value3");
+        store.keyModified("channel1", channel, "key3").get();
+        store.channelModified("channel2", new Channel()).get();
+        store.channelDeleted("channel2").get();
+
+        Map<String, Channel> channels = reload(1000);
+        assertFalse(store.isNewStore());
+        assertEquals(1, channels.size());
+        assertEquals(channel, channels.get("channel1"));
+    }
+
+    @Test
+    public void testCompactedJournalIsReloaded() throws Exception {
+        store = newStore(3);
+        store.load();
+        Channel channel = new Channel();
+        store.channelModified("channel", channel).get();
+        for (int i = 0; i < 10; i++) {
+            channel.put("key" + i, i);
+            store.keyModified("channel", channel, "key" + i).get();
+        }
+
+        assertTrue(new File(directory, BASE_NAME + JournalChannelStore.SNAPSHOT_SUFFIX).exists());
+        assertEquals(channel, reload(3).get("channel"));
+    }
+
+    @Test
+    public void testTruncatedRecordIsIgnored() throws Exception {
+        store = newStore(1000);
+        store.load();
+        Channel channel = new Channel();
+        channel.put("key", "value");
+        store.channelModified("channel", channel).get();
+        Channel expected = new Channel();
+        expected.putAll(channel);
+        channel.put("key", "new value");
+        store.keyModified("channel", channel, "key").get();
+        store.close();
+        store = null;
+
+        File journalFile = new File(directory, BASE_NAME + JournalChannelStore.JOURNAL_SUFFIX);
+        try (RandomAccessFile journal = new RandomAccessFile(journalFile, "rw")) {
+            journal.setLength(journal.length() - 3);
+        }
+
+        assertEquals(expected, reload(1000).get("channel"));
+
+        // the journal is usable after the truncated record is dropped
+        channel.put("key", "last value");
+        store.keyModified("channel", channel, "key").get();
+        assertEquals(channel, reload(1000).get("channel"));
+    }
+
+    private JournalChannelStore newStore(int compactionThreshold) {
+        return new JournalChannelStore(directory, BASE_NAME, compactionThreshold);
+    }
+
+    private Map<String, Channel> reload(int compactionThreshold) throws IOException {
+        if (store != null) {
+            store.close();
+        }
+        store = newStore(compactionThreshold);
+        return store.load();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.internal;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.job.JobPriority;
+import org.ow2.proactive.scheduler.common.job.JobVariable;
+import org.ow2.proactive.scheduler.common.task.OnTaskError;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.job.InternalTaskFlowJob;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.TaskIdImpl;
+import org.ow2.tests.ProActiveTestClean;
+
+
+public class InternalTaskRuntimeGenericInformationTest extends ProActiveTestClean {
+
+    private InternalJob job;
+
+    private InternalTask task;
+
+    @Before
+    public void init() {
+        job = new InternalTaskFlowJob("test-name", JobPriority.NORMAL, OnTaskError.CANCEL_JOB, "description");
+        job.setId(new JobIdImpl(666L, "JobName"));
+        job.setVariables(Collections.singletonMap("var", new JobVariable("var", "value1")));
+        job.setGenericInformation(Collections.singletonMap("jobInfo", "${var}"));
+        task = new InternalScriptTask(job);
+        task.setId(TaskIdImpl.createTaskId(job.getId(), "readableName", 1L));
+        task.addGenericInformation("taskInfo", "task");
+    }
+
+    @Test
+    public void testRuntimeGenericInformationIsShared() {
+        Map<String, String> first = task.getRuntimeGenericInformation();
+        assertThat(first.get("jobInfo"), is("value1"));
+        assertThat(first.get("taskInfo"), is("task"));
+        assertThat(task.getRuntimeGenericInformation(), sameInstance(first));
+        assertThat(job.getRuntimeGenericInformation(), sameInstance(job.getRuntimeGenericInformation()));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testRuntimeGenericInformationCannotBeModified() {
+        task.getRuntimeGenericInformation().put("other", "value");
+    }
+
+    @Test
+    public void testJobVariablesChangeInvalidatesTaskGenericInformation() {
+        Map<String, String> first = task.getRuntimeGenericInformation();
+        job.setVariables(Collections.singletonMap("var", new JobVariable("var", "value2")));
+        Map<String, String> second = task.getRuntimeGenericInformation();
+        assertThat(second, not(sameInstance(first)));
+        assertThat(second.get("jobInfo"), is("value2"));
+    }
+
+    @Test
+    public void testTaskGenericInformationChangeInvalidatesCache() {
+        Map<String, String> first = task.getRuntimeGenericInformation();
+        task.addGenericInformation("other", "value");
+        Map<String, String> second = task.getRuntimeGenericInformation();
+        assertThat(second, not(sameInstance(first)));
+        assertThat(second.get("other"), is("value"));
+    }
+
+    @Test
+    public void testIterationChangeInvalidatesCache() {
+        Map<String, String> first = task.getRuntimeGenericInformation();
+        task.setIterationIndex(1);
+        assertThat(task.getRuntimeGenericInformation(), not(sameInstance(first)));
+    }
+}
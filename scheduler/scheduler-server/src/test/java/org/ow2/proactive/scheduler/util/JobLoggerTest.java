@@ -48,6 +48,7 @@ import org.ow2.proactive.scheduler.common.job.JobId;
 import org.ow2.proactive.scheduler.job.JobIdImpl;
 import org.ow2.proactive.utils.appenders.AsynchChachedFileAppender;
 import org.ow2.proactive.utils.appenders.FileAppender;
+import org.ow2.proactive.utils.appenders.SegmentedLogStore;
 
 
 public class JobLoggerTest {
@@ -70,6 +71,7 @@ public class JobLoggerTest {
     public static void wrapup() {
         PAResourceManagerProperties.LOG4J_ASYNC_APPENDER_ENABLED.updateProperty("true");
         PAResourceManagerProperties.LOG4J_ASYNC_APPENDER_CACHE_ENABLED.updateProperty("false");
+        PAResourceManagerProperties.LOG4J_SEGMENTED_APPENDER_ENABLED.updateProperty("true");
     }
 
     @After
@@ -86,6 +88,7 @@ public class JobLoggerTest {
     @Test
     public void testLoggerAsync() throws IOException {
 
+        PAResourceManagerProperties.LOG4J_SEGMENTED_APPENDER_ENABLED.updateProperty("false");
         PAResourceManagerProperties.LOG4J_ASYNC_APPENDER_ENABLED.updateProperty("true");
         PAResourceManagerProperties.LOG4J_ASYNC_APPENDER_CACHE_ENABLED.updateProperty("false");
 
@@ -97,6 +100,7 @@ public class JobLoggerTest {
     @Test
     public void testLoggerAsyncWithCache() throws IOException {
 
+        PAResourceManagerProperties.LOG4J_SEGMENTED_APPENDER_ENABLED.updateProperty("false");
         PAResourceManagerProperties.LOG4J_ASYNC_APPENDER_ENABLED.updateProperty("true");
         PAResourceManagerProperties.LOG4J_ASYNC_APPENDER_CACHE_ENABLED.updateProperty("true");
 
@@ -118,6 +122,7 @@ public class JobLoggerTest {
     @Test
     public void testLoggerSync() throws IOException {
 
+        PAResourceManagerProperties.LOG4J_SEGMENTED_APPENDER_ENABLED.updateProperty("false");
         PAResourceManagerProperties.LOG4J_ASYNC_APPENDER_ENABLED.updateProperty("false");
         PAResourceManagerProperties.LOG4J_ASYNC_APPENDER_CACHE_ENABLED.updateProperty("false");
 
@@ -126,6 +131,29 @@ public class JobLoggerTest {
         doLogTest(logFolder, false);
     }
 
+    @Test
+    public void testLoggerSegmented() throws IOException {
+
+        PAResourceManagerProperties.LOG4J_SEGMENTED_APPENDER_ENABLED.updateProperty("true");
+
+        File logFolder = initLoggers();
+
+        JobId id1 = new JobIdImpl(112, "readableName");
+        JobId id2 = new JobIdImpl(113, "readableName");
+        JobLogger.getInstance().info(id1, "info message");
+        JobLogger.getInstance().warn(id2, "warn message");
+        JobLogger.getInstance().close(id1);
+        JobLogger.getInstance().close(id2);
+
+        SegmentedLogStore store = SegmentedLogStore.forLocation(logFolder.getAbsolutePath());
+        Assert.assertThat(StringUtils.countMatches(store.read(JobLogger.getJobLogRelativePath(id1)), "info message"),
+                          is(1));
+        Assert.assertThat(StringUtils.countMatches(store.read(JobLogger.getJobLogRelativePath(id2)), "warn message"),
+                          is(1));
+        Assert.assertThat(logFolder.list().length, is(2));
+        store.clear();
+    }
+
     private void doLogTest(File logFolder, boolean cacheEnabled) throws IOException {
         JobId id1 = new JobIdImpl(112, "readableName");
         JobId id2 = new JobIdImpl(113, "readableName");
@@ -33,6 +33,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.Collections;
 
@@ -44,6 +45,7 @@ import org.ow2.proactive.scheduler.common.task.TaskId;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.job.JobIdImpl;
 import org.ow2.proactive.scheduler.task.TaskIdImpl;
+import org.ow2.proactive.utils.appenders.SegmentedLogStore;
 import org.ow2.tests.ProActiveTestClean;
 
 
@@ -123,22 +125,37 @@ public class ServerJobAndTaskLogsTest extends ProActiveTestClean {
         jobLogger.close(jobId);
         taskLogger.close(taskId);
 
+        // the logs of the job and of its tasks are stored in a single segment
         assertTrue(new File(ServerJobAndTaskLogs.getInstance().getLogsLocation(),
-                            JobLogger.getJobLogRelativePath(jobId)).exists());
-        assertTrue(new File(ServerJobAndTaskLogs.getInstance().getLogsLocation(),
-                            JobLogger.getJobLogRelativePath(jobId) + ".1").exists());
-        assertTrue(new File(ServerJobAndTaskLogs.getInstance().getLogsLocation(),
-                            TaskLogger.getTaskLogRelativePath(taskId)).exists());
-        assertTrue(new File(ServerJobAndTaskLogs.getInstance().getLogsLocation(),
-                            TaskLogger.getTaskLogRelativePath(taskId) + ".1").exists());
-
-        assertEquals(4, new File(ServerJobAndTaskLogs.getInstance().getLogsLocation() + "/" + jobId).list().length);
+                            jobId.value() + SegmentedLogStore.SEGMENT_EXTENSION).exists());
+        assertEquals(1, new File(ServerJobAndTaskLogs.getInstance().getLogsLocation()).list().length);
 
         ServerJobAndTaskLogs.getInstance().remove(jobId, "test", null);
 
         assertEquals(0, new File(ServerJobAndTaskLogs.getInstance().getLogsLocation()).list().length);
     }
 
+    @Test
+    public void taskLogRange() throws Exception {
+        taskLogger.info(taskId, "range task log");
+        taskLogger.info(taskId, "r\u00e9sum\u00e9 \u20ac");
+        taskLogger.close(taskId);
+
+        String taskLog = ServerJobAndTaskLogs.getInstance().getTaskLog(taskId);
+        int start = taskLog.indexOf("range");
+        int size = taskLog.getBytes(StandardCharsets.UTF_8).length;
+        assertEquals("range task log",
+                     ServerJobAndTaskLogs.getInstance().getTaskLog(taskId, start, "range task log".length()));
+        assertEquals("", ServerJobAndTaskLogs.getInstance().getTaskLog(taskId, size, 10));
+
+        // ranges which cut multi-byte characters return each character with the range of its first byte
+        StringBuilder ranges = new StringBuilder();
+        for (int offset = 0; offset < size; offset += 2) {
+            ranges.append(ServerJobAndTaskLogs.getInstance().getTaskLog(taskId, offset, 2));
+        }
+        assertEquals(taskLog, ranges.toString());
+    }
+
     @Test
     public void cleanUp() throws Exception {
         jobLogger.info(jobId, "first job log");
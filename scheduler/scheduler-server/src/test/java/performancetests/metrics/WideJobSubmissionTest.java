@@ -0,0 +1,118 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package performancetests.metrics;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.objectweb.proactive.core.config.ProActiveConfiguration;
+import org.ow2.proactive.resourcemanager.RMFactory;
+import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
+import org.ow2.proactive.scheduler.common.task.ScriptTask;
+import org.ow2.proactive.scripting.SelectionScript;
+import org.ow2.proactive.scripting.SimpleScript;
+import org.ow2.proactive.scripting.TaskScript;
+
+import functionaltests.utils.SchedulerTHelper;
+import performancetests.recovery.PerformanceTestBase;
+
+
+/**
+ * Performance test which measures the submission time of very wide jobs.
+ * Each task has a selection script, a pre script and a post script, and depends on a single root task,
+ * so that the submission writes several rows per task.
+ */
+@RunWith(Parameterized.class)
+public class WideJobSubmissionTest extends PerformanceTestBase {
+
+    /**
+     * @return number of tasks in the job and limit for the job submission time
+     */
+    @Parameterized.Parameters
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][] { { 5000, 20000 }, { 20000, 80000 } });
+    }
+
+    private final int taskNumber;
+
+    private final long timeLimit;
+
+    public WideJobSubmissionTest(int taskNumber, long timeLimit) {
+        this.taskNumber = taskNumber;
+        this.timeLimit = timeLimit;
+    }
+
+    @Test(timeout = 3600000)
+    public void submitWideJob() throws Exception {
+        ProActiveConfiguration.load();
+        RMFactory.setOsJavaProperty();
+        schedulerHelper = new SchedulerTHelper(false,
+                                               SCHEDULER_CONFIGURATION_START.getPath(),
+                                               RM_CONFIGURATION_START.getPath(),
+                                               null);
+
+        // submit a first job to load factories (not counted in the total time)
+        schedulerHelper.submitJob(createWideJob(1));
+
+        TaskFlowJob job = createWideJob(taskNumber);
+
+        long start = System.currentTimeMillis();
+
+        jobId = schedulerHelper.submitJob(job);
+
+        long anActualTime = System.currentTimeMillis() - start;
+
+        LOGGER.info(makeCSVString(WideJobSubmissionTest.class.getSimpleName(),
+                                  taskNumber,
+                                  timeLimit,
+                                  anActualTime,
+                                  ((anActualTime < timeLimit) ? SUCCESS : FAILURE)));
+    }
+
+    private static TaskFlowJob createWideJob(int taskNumber) throws Exception {
+        TaskFlowJob job = new TaskFlowJob();
+        job.setName(String.format("WIDE_%d", taskNumber));
+        ScriptTask root = new ScriptTask();
+        root.setName("root");
+        root.setScript(new TaskScript(new SimpleScript("println 'root'", "groovy")));
+        job.addTask(root);
+        for (int i = 0; i < taskNumber; i++) {
+            ScriptTask task = new ScriptTask();
+            task.setName("process_" + i);
+            task.setScript(new TaskScript(new SimpleScript("println " + i, "groovy")));
+            task.setPreScript(new SimpleScript("println 'pre'", "groovy"));
+            task.setPostScript(new SimpleScript("println 'post'", "groovy"));
+            task.addSelectionScript(new SelectionScript("selected = true", "groovy", false));
+            task.addDependence(root);
+            job.addTask(task);
+        }
+        return job;
+    }
+
+}